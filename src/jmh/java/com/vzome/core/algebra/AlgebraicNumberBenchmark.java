@@ -0,0 +1,89 @@
+package com.vzome.core.algebra;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * AlgebraicNumber arithmetic in each field, for small operands and for high powers of the irrational.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class AlgebraicNumberBenchmark
+{
+    @Param( { "golden", "rootTwo", "heptagon", "snubDodec" } )
+    public String field;
+
+    @Param( { "1", "12" } )
+    public int power;
+
+    private AlgebraicField algebraicField;
+
+    private AlgebraicNumber a, b, c;
+
+    @Setup
+    public void setup()
+    {
+        algebraicField = BenchmarkFields .create( field );
+        a = BenchmarkFields .sample( algebraicField, 1, power );
+        b = BenchmarkFields .sample( algebraicField, 2, - power );
+        c = BenchmarkFields .sample( algebraicField, 3, power );
+    }
+
+    @Benchmark
+    public AlgebraicNumber plus()
+    {
+        return a .plus( b );
+    }
+
+    @Benchmark
+    public AlgebraicNumber minus()
+    {
+        return a .minus( b );
+    }
+
+    @Benchmark
+    public AlgebraicNumber times()
+    {
+        return a .times( b );
+    }
+
+    @Benchmark
+    public AlgebraicNumber reciprocal()
+    {
+        return a .reciprocal();
+    }
+
+    @Benchmark
+    public AlgebraicNumber multiplyAdd()
+    {
+        return algebraicField .multiplyAdd( c, a, b );
+    }
+
+    @Benchmark
+    public int compareTo()
+    {
+        return a .compareTo( b );
+    }
+
+    @Benchmark
+    public double evaluate()
+    {
+        // a new number each time, so the cached value does not hide the cost
+        return a .plus( b ) .evaluate();
+    }
+}
@@ -0,0 +1,79 @@
+package com.vzome.core.algebra;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Vector products and 3x3 matrix inversion in each field.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class AlgebraicVectorBenchmark
+{
+    @Param( { "golden", "rootTwo", "heptagon", "snubDodec" } )
+    public String field;
+
+    @Param( { "1", "12" } )
+    public int power;
+
+    private AlgebraicVector u, v, w;
+
+    private AlgebraicMatrix matrix;
+
+    @Setup
+    public void setup()
+    {
+        AlgebraicField algebraicField = BenchmarkFields .create( field );
+        u = BenchmarkFields .sampleVector( algebraicField, 1, power );
+        v = BenchmarkFields .sampleVector( algebraicField, 4, power );
+        w = BenchmarkFields .sampleVector( algebraicField, 8, 0 );
+        matrix = new AlgebraicMatrix( u, v, w );
+        if ( matrix .determinant() .isZero() )
+            throw new IllegalStateException( "sample matrix is singular" );
+    }
+
+    @Benchmark
+    public AlgebraicNumber dot()
+    {
+        return u .dot( v );
+    }
+
+    @Benchmark
+    public AlgebraicVector cross()
+    {
+        return u .cross( v );
+    }
+
+    @Benchmark
+    public boolean isParallel()
+    {
+        return u .isParallel( v );
+    }
+
+    @Benchmark
+    public AlgebraicMatrix inverse()
+    {
+        return matrix .inverse();
+    }
+
+    @Benchmark
+    public AlgebraicNumber determinant()
+    {
+        return matrix .determinant();
+    }
+}
@@ -0,0 +1,51 @@
+package com.vzome.core.algebra;
+
+/**
+ * Shared setup for the benchmarks: the fields by name, and operands of a chosen size.
+ * The names are the ones accepted by the "field" parameter of each benchmark.
+ */
+public class BenchmarkFields
+{
+    public static AlgebraicField create( String name )
+    {
+        switch ( name ) {
+
+        case "golden":
+            return new PentagonField();
+
+        case "rootTwo":
+            return new RootTwoField();
+
+        case "heptagon":
+            return new HeptagonField();
+
+        case "snubDodec":
+            return new SnubDodecField( new PentagonField() );
+
+        default:
+            throw new IllegalArgumentException( "unknown field: " + name );
+        }
+    }
+
+    /**
+     * A number with every factor nonzero and fractional, scaled by a power of the first irrational,
+     * so the power controls how large the numerators and denominators get.
+     * @param field
+     * @param seed varies the factors, so that two operands are not equal
+     * @param power
+     */
+    public static AlgebraicNumber sample( AlgebraicField field, int seed, int power )
+    {
+        BigRational[] factors = new BigRational[ field .getOrder() ];
+        for ( int i = 0; i < factors.length; i++ ) {
+            int sign = ( ( seed + i ) % 3 == 0 )? -1 : 1;
+            factors[ i ] = new BigRational( sign * ( seed + 2 * i + 1 ), i + 2 );
+        }
+        return field .createAlgebraicNumber( factors ) .times( field .createPower( power ) );
+    }
+
+    public static AlgebraicVector sampleVector( AlgebraicField field, int seed, int power )
+    {
+        return new AlgebraicVector( sample( field, seed, power ), sample( field, seed + 1, power ), sample( field, seed + 2, - power ) );
+    }
+}
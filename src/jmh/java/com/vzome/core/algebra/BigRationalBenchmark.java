@@ -0,0 +1,71 @@
+package com.vzome.core.algebra;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * BigRational arithmetic on values that fit in longs, and on values that do not.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class BigRationalBenchmark
+{
+    @Param( { "small", "large" } )
+    public String magnitude;
+
+    private BigRational a, b;
+
+    @Setup
+    public void setup()
+    {
+        if ( "small" .equals( magnitude ) ) {
+            a = new BigRational( 355, 113 );
+            b = new BigRational( -22, 7 );
+        }
+        else {
+            BigInteger big = BigInteger .valueOf( Long.MAX_VALUE ) .multiply( BigInteger .valueOf( 1009 ) );
+            a = new BigRational( big, BigInteger .valueOf( 113 ) );
+            b = new BigRational( BigInteger .valueOf( -22 ), big .add( BigInteger.ONE ) );
+        }
+    }
+
+    @Benchmark
+    public BigRational plus()
+    {
+        return a .plus( b );
+    }
+
+    @Benchmark
+    public BigRational times()
+    {
+        return a .times( b );
+    }
+
+    @Benchmark
+    public BigRational divides()
+    {
+        return a .divides( b );
+    }
+
+    @Benchmark
+    public int compareTo()
+    {
+        return a .compareTo( b );
+    }
+}
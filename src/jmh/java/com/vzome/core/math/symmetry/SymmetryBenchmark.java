@@ -0,0 +1,85 @@
+package com.vzome.core.math.symmetry;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vzome.core.algebra.AlgebraicField;
+import com.vzome.core.algebra.AlgebraicVector;
+import com.vzome.core.algebra.BenchmarkFields;
+import com.vzome.core.math.RealVector;
+
+/**
+ * Axis lookup, for exact and for approximate vectors, using the symmetry
+ * that Application pairs with each field.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class SymmetryBenchmark
+{
+    @Param( { "golden", "rootTwo", "heptagon", "snubDodec" } )
+    public String field;
+
+    private Symmetry symmetry;
+
+    private Direction orbit;
+
+    private AlgebraicVector exact;
+
+    private RealVector approximate;
+
+    @Setup
+    public void setup()
+    {
+        AlgebraicField algebraicField = BenchmarkFields .create( field );
+        switch ( field ) {
+
+        case "golden":
+        case "snubDodec":
+            symmetry = new IcosahedralSymmetry( algebraicField, "solid connectors" );
+            break;
+
+        default:
+            symmetry = new OctahedralSymmetry( algebraicField, "blue", "octahedra" );
+            break;
+        }
+        orbit = symmetry .getSpecialOrbit( Symmetry.SpecialOrbit.BLUE );
+        // not the canonical axis, so the lookup has to search
+        Axis axis = orbit .getAxis( Symmetry.MINUS, symmetry .getChiralOrder() - 1 );
+        exact = axis .normal() .scale( algebraicField .createPower( 2 ) );
+        RealVector real = axis .normal() .toRealVector();
+        approximate = new RealVector( real.x + 0.01d, real.y - 0.01d, real.z + 0.02d );
+    }
+
+    @Benchmark
+    public Axis getAxisExact()
+    {
+        return symmetry .getAxis( exact );
+    }
+
+    @Benchmark
+    public Axis getAxisReal()
+    {
+        return symmetry .getAxis( approximate, symmetry .getOrbitSet() );
+    }
+
+    @Benchmark
+    public Axis getChiralAxis()
+    {
+        return orbit .getChiralAxis( approximate );
+    }
+}
@@ -4,13 +4,13 @@
 package com.vzome.api;
 
 import java.io.InputStream;
-import java.io.PrintWriter;
 import java.net.URL;
 import java.util.Properties;
 
 import com.vzome.core.algebra.AlgebraicField;
 import com.vzome.core.commands.Command;
 import com.vzome.core.editor.DocumentModel;
+import com.vzome.core.exporters.BinaryExporter3d;
 import com.vzome.core.exporters.Exporter3d;
 import com.vzome.core.math.Polyhedron;
 import com.vzome.core.math.symmetry.Symmetry;
@@ -46,8 +46,7 @@ public class Application
 
 	public Document loadDocument( InputStream bytes ) throws Exception
 	{
-		DocumentModel docDelegate = this .delegate .loadDocument( bytes );
-		docDelegate .finishLoading( false, false );
+		DocumentModel docDelegate = this .delegate .loadDocument( bytes, false, false );
 		return new Document( docDelegate );
     }
     
@@ -81,8 +80,11 @@ public class Application
 		try {
 			InputStream bytes = new URL( urlStr ) .openStream();
 			Document model = app .loadDocument( bytes );
-            Exporter exporter = app .getExporter( format );
-            exporter .doExport( model, new PrintWriter( System.out ), 1080, 1920 );
+            BinaryExporter binary = app .getBinaryExporter( format );
+            if ( binary != null )
+                binary .doExport( model, System.out );
+            else
+                app .getExporter( format ) .doExport( model, System.out, 1080, 1920 );
 		} catch ( Exception e ) {
 			e.printStackTrace();
 		}
@@ -95,6 +97,15 @@ public class Application
         return new Exporter( privateExp );
     }
 
+    /**
+     * @return the exporter for a binary format, like glb or stl-binary, or null if format is not one
+     */
+    public BinaryExporter getBinaryExporter( String format )
+    {
+        BinaryExporter3d privateExp = this .delegate .getBinaryExporter( format );
+        return privateExp == null? null : new BinaryExporter( privateExp );
+    }
+
 	public com.vzome.core.editor.Application getDelegate()
 	{
 		return this .delegate;
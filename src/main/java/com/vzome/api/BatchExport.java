@@ -0,0 +1,328 @@
+package com.vzome.api;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.vzome.core.exporters.AbstractExporter3d;
+import com.vzome.core.exporters.ExportPipeline;
+
+/**
+ * Export many vZome files to many formats in one JVM.
+ * Each file is loaded once, and every requested exporter runs against one ExportSnapshot of that model.
+ * Files are spread across a fixed pool of worker threads.
+ *
+ * Usage: BatchExport [-threads N] [-out dir] [-width W] [-height H] formats ( directory | manifest )
+ *
+ * formats is a comma-separated list of exporter keys, like "stl,json,off".
+ * A directory is searched recursively for .vZome files; any other file is a manifest,
+ * listing one .vZome path per line, relative to the manifest, with '#' starting a comment.
+ * Each export is written to [out/]path/name.extension, next to the input by default,
+ * or to name.format.extension when two of the formats share an extension, like stl and stl-binary.
+ * The name is the input's, less only its .vZome extension, in any case; should two inputs come to
+ * the same output, like blue.vZome and blue.VZOME, or same-named inputs from outside the directory
+ * that -out gathers into one, the later one in the list gets name-2, name-3, and so on.
+ */
+public class BatchExport
+{
+    private static final String EXTENSION = ".vZome";
+
+    private final List<String> formats;
+
+    private final int height, width;
+
+    // Exporters keep the model they are exporting in fields, so each worker needs its own.
+    private final ThreadLocal<Application> apps = new ThreadLocal<Application>()
+    {
+        @Override
+        protected Application initialValue()
+        {
+            return new Application();
+        }
+    };
+
+    public BatchExport( List<String> formats, int height, int width )
+    {
+        this .formats = formats;
+        this .height = height;
+        this .width = width;
+    }
+
+    /**
+     * The outcome of exporting one file.
+     */
+    public static class Result
+    {
+        public final File input;
+
+        public long loadNanos = 0;
+
+        public final long[] exportNanos;
+
+        public Exception failure = null;
+
+        public String failedFormat = null;
+
+        Result( File input, int formats )
+        {
+            this .input = input;
+            this .exportNanos = new long[ formats ];
+        }
+    }
+
+    /**
+     * @return the file each format is written to, in the order of the formats
+     */
+    public List<File> targets( File outDir, String baseName )
+    {
+        Application app = this .apps .get();
+        List<File> targets = new ArrayList<>( this .formats .size() );
+        for ( String format : this .formats ) {
+            String extension = exporter( app, format ) .getFileExtension();
+            for ( String other : this .formats )
+                if ( ! other .equals( format ) && extension .equals( exporter( app, other ) .getFileExtension() ) ) {
+                    extension = format + "." + extension;
+                    break;
+                }
+            targets .add( new File( outDir, baseName + "." + extension ) );
+        }
+        return targets;
+    }
+
+    /**
+     * Load one file, then write every requested format into outDir under the given base name.
+     */
+    public Result export( File input, File outDir, String baseName )
+    {
+        return this .export( input, this .targets( outDir, baseName ) );
+    }
+
+    /**
+     * Load one file, then write every requested format to its target, as from targets().
+     */
+    public Result export( File input, List<File> targets )
+    {
+        Result result = new Result( input, this .formats .size() );
+        Application app = this .apps .get();
+        long start = System .nanoTime();
+        Document doc;
+        try ( InputStream bytes = new FileInputStream( input ) ) {
+            doc = app .loadDocument( bytes );
+        } catch ( Exception e ) {
+            result .failure = e;
+            return result;
+        } finally {
+            result .loadNanos = System .nanoTime() - start;
+        }
+        targets .get( 0 ) .getAbsoluteFile() .getParentFile() .mkdirs();
+        // one walk of the rendered model, shared by every format; files are already spread across threads
+        ExportPipeline pipeline = new ExportPipeline( doc .delegate, this .height, this .width );
+        for ( int i = 0; i < this .formats .size(); i++ )
+            pipeline .add( exporter( app, this .formats .get( i ) ), targets .get( i ) );
+        Exception[] failures;
+        try {
+            failures = pipeline .run( null );
+        } catch ( InterruptedException e ) {
+            result .failure = e;
+            return result;
+        }
+        System .arraycopy( pipeline .getExportNanos(), 0, result .exportNanos, 0, failures.length );
+        for ( int i = 0; i < failures.length; i++ )
+            if ( failures[ i ] != null ) {
+                result .failure = failures[ i ];
+                result .failedFormat = this .formats .get( i );
+                break;
+            }
+        return result;
+    }
+
+    // a text exporter, or else a binary one
+    private static AbstractExporter3d exporter( Application app, String format )
+    {
+        AbstractExporter3d exporter = app .getDelegate() .getExporter( format );
+        return exporter != null? exporter : app .getDelegate() .getBinaryExporter( format );
+    }
+
+    private static void findFiles( File dir, List<File> files )
+    {
+        File[] children = dir .listFiles();
+        if ( children == null )
+            return;
+        Arrays .sort( children );
+        for ( File child : children ) {
+            if ( child .isDirectory() )
+                findFiles( child, files );
+            else if ( isModel( child ) )
+                files .add( child );
+        }
+    }
+
+    private static boolean isModel( File file )
+    {
+        String name = file .getName();
+        return name .regionMatches( true, name .length() - EXTENSION .length(), EXTENSION, 0, EXTENSION .length() );
+    }
+
+    private static List<File> readManifest( File manifest ) throws IOException
+    {
+        List<File> files = new ArrayList<>();
+        File base = manifest .getAbsoluteFile() .getParentFile();
+        for ( String line : Files .readAllLines( manifest .toPath(), StandardCharsets.UTF_8 ) ) {
+            int comment = line .indexOf( '#' );
+            if ( comment >= 0 )
+                line = line .substring( 0, comment );
+            line = line .trim();
+            if ( line .isEmpty() )
+                continue;
+            File file = new File( line );
+            files .add( file .isAbsolute()? file : new File( base, line ) );
+        }
+        return files;
+    }
+
+    private static String seconds( long nanos )
+    {
+        return String .format( "%.3fs", nanos / 1e9 );
+    }
+
+    private static void usage()
+    {
+        System .err .println( "usage: BatchExport [-threads N] [-out dir] [-width W] [-height H] formats ( directory | manifest )" );
+        System .exit( 2 );
+    }
+
+    public static void main( String[] args ) throws Exception
+    {
+        int threads = Runtime .getRuntime() .availableProcessors();
+        File outRoot = null;
+        int height = 1080, width = 1920;
+        List<String> positional = new ArrayList<>();
+        for ( int i = 0; i < args.length; i++ ) {
+            String arg = args[ i ];
+            if ( arg .startsWith( "-" ) ) {
+                if ( i + 1 == args.length )
+                    usage();  // an option with no value
+                String value = args[ ++i ];
+                switch ( arg ) {
+                case "-threads": threads = Integer .parseInt( value ); break;
+                case "-out":     outRoot = new File( value ); break;
+                case "-width":   width = Integer .parseInt( value ); break;
+                case "-height":  height = Integer .parseInt( value ); break;
+                default:         usage();
+                }
+            }
+            else
+                positional .add( arg );
+        }
+        if ( positional .size() != 2 || threads < 1 )
+            usage();
+
+        List<String> formats = Arrays .asList( positional .get( 0 ) .split( "," ) );
+        Application probe = new Application();
+        for ( String format : formats )
+            if ( exporter( probe, format ) == null ) {
+                System .err .println( "unknown export format: " + format );
+                System .exit( 2 );
+            }
+            else if ( formats .indexOf( format ) != formats .lastIndexOf( format ) ) {
+                System .err .println( "repeated export format: " + format );
+                System .exit( 2 );
+            }
+
+        File source = new File( positional .get( 1 ) );
+        List<File> inputs = new ArrayList<>();
+        File inputRoot;
+        if ( source .isDirectory() ) {
+            findFiles( source, inputs );
+            inputRoot = source;
+        }
+        else {
+            inputs = readManifest( source );
+            inputRoot = source .getAbsoluteFile() .getParentFile();
+        }
+
+        long start = System .nanoTime();
+        final BatchExport batch = new BatchExport( formats, height, width );
+        ExecutorService pool = Executors .newFixedThreadPool( threads );
+        CompletionService<Result> results = new ExecutorCompletionService<>( pool );
+        Map<Future<Result>, File> submitted = new HashMap<>();
+        Set<File> claimed = new HashSet<>();
+        String rootPath = inputRoot .getAbsolutePath() + File.separator;
+        for ( File input : inputs ) {
+            String name = input .getName();
+            if ( isModel( input ) )
+                name = name .substring( 0, name .length() - EXTENSION .length() );
+            File outDir = input .getAbsoluteFile() .getParentFile();
+            if ( outRoot != null ) {
+                // mirror the layout of the inputs, for those under the input root
+                String path = outDir .getAbsolutePath() + File.separator;
+                outDir = path .startsWith( rootPath )? new File( outRoot, path .substring( rootPath .length() ) ) : outRoot;
+            }
+            List<File> targets = batch .targets( outDir .getAbsoluteFile(), name );
+            for ( int n = 2; ! Collections .disjoint( claimed, targets ); n++ )
+                targets = batch .targets( outDir .getAbsoluteFile(), name + "-" + n );
+            claimed .addAll( targets );
+            final List<File> outputs = targets;
+            submitted .put( results .submit( () -> batch .export( input, outputs ) ), input );
+        }
+        pool .shutdown();
+
+        long loadTotal = 0;
+        long[] exportTotals = new long[ formats .size() ];
+        int failures = 0;
+        for ( int k = 1; k <= inputs .size(); k++ ) {
+            Future<Result> done = results .take();
+            Result result;
+            try {
+                result = done .get();
+            } catch ( ExecutionException e ) {
+                // export reports its own failures, so this is unexpected; still, it is only this file that failed
+                result = new Result( submitted .get( done ), formats .size() );
+                result .failure = e .getCause() instanceof Exception? (Exception) e .getCause() : e;
+            }
+            StringBuilder line = new StringBuilder();
+            line .append( "[" ) .append( k ) .append( "/" ) .append( inputs .size() ) .append( "] " ) .append( result .input .getPath() );
+            line .append( " load " ) .append( seconds( result .loadNanos ) );
+            loadTotal += result .loadNanos;
+            for ( int i = 0; i < formats .size(); i++ ) {
+                if ( result .exportNanos[ i ] == 0 )
+                    continue;
+                line .append( " " ) .append( formats .get( i ) ) .append( " " ) .append( seconds( result .exportNanos[ i ] ) );
+                exportTotals[ i ] += result .exportNanos[ i ];
+            }
+            if ( result .failure != null ) {
+                ++ failures;
+                line .append( " FAILED" );
+                if ( result .failedFormat != null )
+                    line .append( " in " ) .append( result .failedFormat );
+                line .append( ": " ) .append( result .failure );
+            }
+            System .out .println( line );
+        }
+
+        StringBuilder summary = new StringBuilder();
+        summary .append( inputs .size() ) .append( " files, " ) .append( failures ) .append( " failed, " );
+        summary .append( seconds( System .nanoTime() - start ) ) .append( " elapsed on " ) .append( threads ) .append( " threads; load " ) .append( seconds( loadTotal ) );
+        for ( int i = 0; i < formats .size(); i++ )
+            summary .append( ", " ) .append( formats .get( i ) ) .append( " " ) .append( seconds( exportTotals[ i ] ) );
+        System .out .println( summary );
+        System .exit( failures == 0? 0 : 1 );
+    }
+}
@@ -0,0 +1,29 @@
+package com.vzome.api;
+
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+
+import com.vzome.core.exporters.BinaryExporter3d;
+
+/**
+ * Exports a binary format, like glb or stl-binary, as bytes.
+ */
+public class BinaryExporter
+{
+    private BinaryExporter3d delegate;
+
+    BinaryExporter( BinaryExporter3d privateExp )
+    {
+        this .delegate = privateExp;
+    }
+
+    public void doExport( Document model, OutputStream out ) throws Exception
+    {
+        this .delegate .doExport( model .delegate, Channels .newChannel( out ) );
+    }
+
+    public String getContentType()
+    {
+        return this .delegate .getContentType();
+    }
+}
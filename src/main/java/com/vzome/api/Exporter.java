@@ -3,10 +3,19 @@
 
 package com.vzome.api;
 
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 
 import com.vzome.core.exporters.Exporter3d;
 
+/**
+ * Exports a text format.  Binary formats, like glb and stl-binary, come from Application.getBinaryExporter.
+ */
 public class Exporter
 {
     private Exporter3d delegate;
@@ -21,6 +30,38 @@ public class Exporter
         this .delegate .doExport( model .delegate, null, null, out, height, width );
     }
 
+    /**
+     * Export as UTF-8 text.
+     */
+    public void doExport( Document model, OutputStream out, int height, int width ) throws Exception
+    {
+        // some exporters close the writer themselves; either way, out stays open
+        try ( Writer writer = new BufferedWriter( new OutputStreamWriter( new Unclosed( out ), StandardCharsets.UTF_8 ) ) ) {
+            this .delegate .doExport( model .delegate, null, null, writer, height, width );
+        }
+    }
+
+    // closing only flushes, leaving the stream open for the caller
+    private static class Unclosed extends FilterOutputStream
+    {
+        Unclosed( OutputStream out )
+        {
+            super( out );
+        }
+
+        @Override
+        public void write( byte[] bytes, int offset, int length ) throws IOException
+        {
+            this .out .write( bytes, offset, length );
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            this .flush();
+        }
+    }
+
     public String getContentType()
     {
         return this .delegate .getContentType();
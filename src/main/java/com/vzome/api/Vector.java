@@ -70,7 +70,7 @@ public class Vector {
 			return false;
 		if ( other == this )
 			return true;
-		return this .vector .cross( other .vector ) .isOrigin();
+		return this .vector .isParallel( other .vector );
 	}
 
     @Override
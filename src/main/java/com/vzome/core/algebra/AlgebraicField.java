@@ -2,10 +2,15 @@
 
 package com.vzome.core.algebra;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.lang.ref.WeakReference;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.StringTokenizer;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import com.vzome.core.math.symmetry.QuaternionicSymmetry;
 import com.vzome.core.math.symmetry.Symmetry;
@@ -14,7 +19,27 @@ public abstract class AlgebraicField
 {
     public abstract AlgebraicNumber getDefaultStrutScaling();
 
-    abstract BigRational[] multiply( BigRational[] v1, BigRational[] v2 );
+    /**
+     * Multiply using the field's structure constants, derived from scaleBy() on first use.
+     * The quadratic fields override this with their closed forms.
+     */
+    BigRational[] multiply( BigRational[] v1, BigRational[] v2 )
+    {
+        return this .getStructureConstants() .multiply( v1, v2 );
+    }
+
+    // immutable once built, so a racing thread can at worst build an identical copy
+    private volatile StructureConstants structureConstants = null;
+
+    StructureConstants getStructureConstants()
+    {
+        StructureConstants result = this .structureConstants;
+        if ( result == null ) {
+            result = StructureConstants .fromScaleBy( this );
+            this .structureConstants = result;
+        }
+        return result;
+    }
 
     abstract double evaluateNumber( BigRational[] factors );
 
@@ -38,40 +63,55 @@ public abstract class AlgebraicField
 
     private final String name;
 
-    private final ArrayList<Symmetry> symmetries = new ArrayList<>();
+    // A field is shared by every document an Application loads, possibly on several threads,
+    //  so all of its mutable state must be safe to read while another thread extends it.
+
+    private final List<Symmetry> symmetries = new CopyOnWriteArrayList<>();
 
-    private final Map<String, QuaternionicSymmetry> quaternionSymmetries = new HashMap<>();
+    private final Map<String, QuaternionicSymmetry> quaternionSymmetries = new ConcurrentHashMap<>();
 
     private final AlgebraicNumber one = this .createRational( 1 );
 
     private final AlgebraicNumber zero = this .createRational( 0 );
 
-    private AlgebraicField subfield = null;
+    private final AlgebraicField subfield;
 
     /**
-     * Positive powers of the first irrational.
+     * Optional intern tables, so that equal numbers and vectors can share one instance,
+     * and equals() can succeed on identity.  The entries are weakly referenced,
+     * so interning never keeps a value alive.
      */
-    private final ArrayList<AlgebraicNumber> positivePowers = new ArrayList<>( 8 );
+    private final Map<AlgebraicNumber, WeakReference<AlgebraicNumber>> numberInterns = new WeakHashMap<>();
+
+    private final Map<AlgebraicVector, WeakReference<AlgebraicVector>> vectorInterns = new WeakHashMap<>();
+
+    private volatile boolean interning = false;
+
+    /**
+     * Positive powers of the first irrational, indexed by exponent.
+     * The arrays are never modified once published; createPower replaces them with longer copies.
+     */
+    private volatile AlgebraicNumber[] positivePowers;
 
     /**
-     * Negative powers of the first irrational.
+     * Negative powers of the first irrational, indexed by the absolute value of the exponent.
      */
-    private final ArrayList<AlgebraicNumber> negativePowers = new ArrayList<>( 8 );
+    private volatile AlgebraicNumber[] negativePowers;
+
+    private final Object powersLock = new Object();
 
     public AlgebraicField( String name )
     {
-        this.name = name;
-        this.positivePowers .add( this .one );
-        this.negativePowers .add( this .one );
-        AlgebraicNumber firstIrrat = this .createAlgebraicNumber( 0, 1 );
-        this.positivePowers .add( firstIrrat );
-        this.negativePowers .add( firstIrrat .reciprocal() );
+        this( name, null );
     }
 
     public AlgebraicField( String name, AlgebraicField subfield )
     {
-        this( name );
+        this.name = name;
         this .subfield  = subfield;
+        AlgebraicNumber firstIrrat = this .createAlgebraicNumber( 0, 1 );
+        this.positivePowers = new AlgebraicNumber[]{ this .one, firstIrrat };
+        this.negativePowers = new AlgebraicNumber[]{ this .one, firstIrrat .reciprocal() };
     }
 
     public String getName()
@@ -103,6 +143,71 @@ public abstract class AlgebraicField
         return subfield;
     }
 
+    /**
+     * Turn on interning of the numbers and vectors this field parses,
+     * and of those passed to the intern() methods.
+     * @param interning
+     */
+    public void setInterning( boolean interning )
+    {
+        this .interning = interning;
+        if ( ! interning ) {
+            synchronized ( this .numberInterns ) {
+                this .numberInterns .clear();
+            }
+            synchronized ( this .vectorInterns ) {
+                this .vectorInterns .clear();
+            }
+        }
+    }
+
+    public boolean isInterning()
+    {
+        return this .interning;
+    }
+
+    /**
+     * @param number
+     * @return the canonical instance equal to number, if interning is on, otherwise number itself
+     */
+    public AlgebraicNumber intern( AlgebraicNumber number )
+    {
+        if ( ! this .interning )
+            return number;
+        synchronized ( this .numberInterns ) {
+            WeakReference<AlgebraicNumber> ref = this .numberInterns .get( number );
+            AlgebraicNumber canonical = ( ref == null )? null : ref .get();
+            if ( canonical == null ) {
+                this .numberInterns .put( number, new WeakReference<>( number ) );
+                canonical = number;
+            }
+            return canonical;
+        }
+    }
+
+    /**
+     * The coordinates of a new canonical vector are interned as well.
+     * An interned vector must never be changed with setComponent().
+     * @param vector
+     * @return the canonical instance equal to vector, if interning is on, otherwise vector itself
+     */
+    public AlgebraicVector intern( AlgebraicVector vector )
+    {
+        if ( ! this .interning )
+            return vector;
+        synchronized ( this .vectorInterns ) {
+            WeakReference<AlgebraicVector> ref = this .vectorInterns .get( vector );
+            AlgebraicVector canonical = ( ref == null )? null : ref .get();
+            if ( canonical == null ) {
+                for ( int i = 0; i < vector .dimension(); i++ )
+                    vector .setComponent( i, this .intern( vector .getComponent( i ) ) );
+                this .vectorInterns .put( vector, new WeakReference<>( vector ) );
+                canonical = vector;
+            }
+            return canonical;
+        }
+    }
+
     public AlgebraicNumber createAlgebraicNumber( BigRational[] factors )
     {
         return new AlgebraicNumber( this, factors );
@@ -114,7 +219,7 @@ public abstract class AlgebraicField
         for ( int j = 0; j < factors.length; j++ ) {
             brs[ j ] = new BigRational( factors[ j ] );
         }
-        return new AlgebraicNumber( this, brs );
+        return this .createAlgebraicNumber( brs );
     }
 
     public AlgebraicNumber createAlgebraicNumber( int ones, int irrat, int denominator, int power )
@@ -127,10 +232,10 @@ public abstract class AlgebraicField
         }
         if ( power != 0 ) {
             AlgebraicNumber multiplier = this .createPower( power );
-            return new AlgebraicNumber( this, factors ) .times( multiplier );
+            return this .createAlgebraicNumber( factors ) .times( multiplier );
         }
         else
-            return new AlgebraicNumber( this, factors );
+            return this .createAlgebraicNumber( factors );
     }
 
     public final AlgebraicNumber createPower( int power )
@@ -139,33 +244,59 @@ public abstract class AlgebraicField
             return this .one;
         if ( power > 0 )
         {
-            // first, fill in the missing powers in the list
-            int size = this .positivePowers .size();
-            AlgebraicNumber irrat = this .positivePowers .get( 1 );
-            AlgebraicNumber last = this .positivePowers .get( size - 1 );
-            for (int i = size; i <= power; i++) {
-                AlgebraicNumber next = last .times( irrat );
-                this .positivePowers .add( next );
-                last = next;
-            }
-            return positivePowers .get( power );
+            AlgebraicNumber[] powers = this .positivePowers;
+            if ( power < powers.length )
+                return powers[ power ];
+            return this .extendPowers( power, 0 )[ power ];
         }
         else
         {
             power = - power;
-            // first, fill in the missing powers in the list
-            int size = this .negativePowers .size();
-            AlgebraicNumber irrat = this .negativePowers .get( 1 );
-            AlgebraicNumber last = this .negativePowers .get( size - 1 );
-            for (int i = size; i <= power; i++) {
-                AlgebraicNumber next = last .times( irrat );
-                this .negativePowers .add( next );
-                last = next;
-            }
-            return negativePowers .get( power );
+            AlgebraicNumber[] powers = this .negativePowers;
+            if ( power < powers.length )
+                return powers[ power ];
+            return this .extendPowers( 0, power )[ power ];
         }
     }
 
+    /**
+     * Eagerly compute the powers of the first irrational from -maxPower to maxPower,
+     * so that createPower never needs to take the lock for that range.
+     * @param maxPower
+     */
+    public void precomputePowers( int maxPower )
+    {
+        this .extendPowers( maxPower, maxPower );
+    }
+
+    /**
+     * Copy-on-write growth of the power tables.  Readers never lock; they see either
+     * the old array or a complete new one.
+     * @return the positive table if maxNegative is zero, otherwise the negative table
+     */
+    private AlgebraicNumber[] extendPowers( int maxPositive, int maxNegative )
+    {
+        synchronized ( this .powersLock ) {
+            if ( maxPositive >= this .positivePowers.length )
+                this .positivePowers = extendPowers( this .positivePowers, maxPositive );
+            if ( maxNegative >= this .negativePowers.length )
+                this .negativePowers = extendPowers( this .negativePowers, maxNegative );
+            return ( maxNegative == 0 )? this .positivePowers : this .negativePowers;
+        }
+    }
+
+    private static AlgebraicNumber[] extendPowers( AlgebraicNumber[] powers, int maxPower )
+    {
+        int size = powers.length;
+        // grow geometrically, so a sequence of increasing requests does not copy every time
+        AlgebraicNumber[] result = Arrays .copyOf( powers, Math .max( maxPower + 1, 2 * size ) );
+        AlgebraicNumber irrat = powers[ 1 ];
+        for ( int i = size; i < result.length; i++ ) {
+            result[ i ] = result[ i - 1 ] .times( irrat );
+        }
+        return result;
+    }
+
     /**
      * @param wholeNumber becomes the numerator with 1 as the denominator
      * @return AlgebraicNumber
@@ -248,6 +379,57 @@ public abstract class AlgebraicField
         return result;
     }
 
+    /**
+     * Fused multiply-add: sum + a * b, without creating an AlgebraicNumber for the product.
+     * Fields with a specialized number representation should override this,
+     * along with dotProduct and productDifference.
+     */
+    public AlgebraicNumber multiplyAdd( AlgebraicNumber sum, AlgebraicNumber a, AlgebraicNumber b )
+    {
+        if ( a .isZero() || b .isZero() )
+            return sum;
+        return new AlgebraicNumberAccumulator( this ) .add( sum ) .addProduct( a, b ) .toNumber();
+    }
+
+    /**
+     * @return the sum of v1[i] * v2[i] over the length of v2, creating only the result
+     */
+    public AlgebraicNumber dotProduct( AlgebraicNumber[] v1, AlgebraicNumber[] v2 )
+    {
+        AlgebraicNumberAccumulator sum = new AlgebraicNumberAccumulator( this );
+        for ( int i = 0; i < v2.length; i++ )
+            sum .addProduct( v1[ i ], v2[ i ] );
+        return sum .toNumber();
+    }
+
+    /**
+     * @return a * b - c * d, the kernel of a cross product component or 2x2 determinant
+     */
+    public AlgebraicNumber productDifference( AlgebraicNumber a, AlgebraicNumber b, AlgebraicNumber c, AlgebraicNumber d )
+    {
+        return new AlgebraicNumberAccumulator( this ) .addProduct( a, b ) .subtractProduct( c, d ) .toNumber();
+    }
+
+    /**
+     * Create the number with factors numerators[i] / denominator, for AlgebraicNumberAccumulator.
+     * Fields with a specialized number representation should override both of these.
+     */
+    AlgebraicNumber createAlgebraicNumber( long[] numerators, long denominator )
+    {
+        BigRational[] factors = new BigRational[ numerators.length ];
+        for ( int i = 0; i < factors.length; i++ )
+            factors[ i ] = ( numerators[ i ] == 0l )? BigRational.ZERO : new BigRational( numerators[ i ], denominator );
+        return this .createAlgebraicNumber( factors );
+    }
+
+    AlgebraicNumber createAlgebraicNumber( BigInteger[] numerators, BigInteger denominator )
+    {
+        BigRational[] factors = new BigRational[ numerators.length ];
+        for ( int i = 0; i < factors.length; i++ )
+            factors[ i ] = new BigRational( numerators[ i ], denominator );
+        return this .createAlgebraicNumber( factors );
+    }
+
     public void addSymmetry( Symmetry symmetry )
     {
         this.symmetries.add( symmetry );
@@ -379,7 +561,7 @@ public abstract class AlgebraicField
                 int numeratorIndex = 2 * ( i * order + j );
                 factors[ j ] = new BigRational( is[ numeratorIndex ], is[ numeratorIndex+1 ] );
             }
-            coords[ i ] = new AlgebraicNumber( this, factors );
+            coords[ i ] = this .createAlgebraicNumber( factors );
         }
         return new AlgebraicVector( coords );
     }
@@ -472,7 +654,7 @@ public abstract class AlgebraicField
         for ( int i = 0; i < rats.length; i++ ) {
             rats[ i ] = new BigRational( tokens .nextToken() );
         }
-        return new AlgebraicNumber( this, rats );
+        return this .intern( this .createAlgebraicNumber( rats ) );
     }
 
     public AlgebraicVector parseVector( String nums )
@@ -488,7 +670,7 @@ public abstract class AlgebraicField
         for ( int i = 0; i < dims; i++ ) {
             coords[ i ] = this .parseNumber( tokens );
         }
-        return new AlgebraicVector( coords );
+        return this .intern( new AlgebraicVector( coords ) );
     }
 
     public AlgebraicMatrix identityMatrix( int dims )
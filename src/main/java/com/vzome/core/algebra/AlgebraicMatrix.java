@@ -3,6 +3,7 @@
 
 package com.vzome.core.algebra;
 
+import java.math.BigInteger;
 import java.util.Arrays;
 
 public class AlgebraicMatrix
@@ -88,13 +89,166 @@ public class AlgebraicMatrix
 
 	public AlgebraicMatrix inverse()
 	{
+        if ( ! this .isSquare() )
+            throw new IllegalArgumentException( "matrix is not square" );
         AlgebraicField field = this .matrix[ 0 ][ 0 ] .getField();
-        AlgebraicMatrix result = new AlgebraicMatrix( field, this .matrix .length );
+        int n = this .matrix .length;
+        BigInteger scale = this .commonDenominator();
+        AlgebraicNumber[][] work = this .scaledCopy( scale );
+        AlgebraicMatrix result = new AlgebraicMatrix( field, n );
+
+        if ( bareissReduction( work, result .matrix ) .isZero() )
+            throw new IllegalArgumentException( "matrix is singular" );
 
-        Fields .gaussJordanReduction( this .matrix, result .matrix );
+        // work is now pivot * I (the determinant up to sign), so the inverse of scale * this is result / pivot
+        AlgebraicNumber pivot = work[ 0 ][ 0 ];
+        AlgebraicNumber factor = field .createAlgebraicNumber( rational( field, new BigRational( scale, BigInteger.ONE ) ) ) .dividedBy( pivot );
+        for ( int i = 0; i < n; i++ ) {
+            for ( int j = 0; j < n; j++ ) {
+                result .matrix[ i ][ j ] = result .matrix[ i ][ j ] .times( factor );
+            }
+        }
         return result;
 	}
 
+    /**
+     * Computed by fraction-free elimination, like inverse().
+     * @return the determinant of this square matrix
+     */
+    public AlgebraicNumber determinant()
+    {
+        if ( ! this .isSquare() )
+            throw new IllegalArgumentException( "matrix is not square" );
+        AlgebraicField field = this .matrix[ 0 ][ 0 ] .getField();
+        BigInteger scale = this .commonDenominator();
+        AlgebraicNumber[][] work = this .scaledCopy( scale );
+
+        AlgebraicNumber det = bareissReduction( work, null );
+        if ( det .isZero() || scale .equals( BigInteger.ONE ) )
+            return det;
+        // det( scale * this ) = scale^n * det( this )
+        BigRational divisor = new BigRational( scale .pow( this .matrix .length ), BigInteger.ONE );
+        return det .dividedBy( field .createAlgebraicNumber( rational( field, divisor ) ) );
+    }
+
+    private boolean isSquare()
+    {
+        return this .matrix .length == this .matrix[ 0 ] .length;
+    }
+
+    /**
+     * @return the least common multiple of the denominators of every factor of every element
+     */
+    private BigInteger commonDenominator()
+    {
+        BigInteger lcm = BigInteger.ONE;
+        for ( AlgebraicNumber[] row : this .matrix ) {
+            for ( AlgebraicNumber element : row ) {
+                BigInteger divisor = element .getDivisor();
+                if ( ! divisor .equals( BigInteger.ONE ) )
+                    lcm = lcm .multiply( divisor ) .divide( lcm .gcd( divisor ) );
+            }
+        }
+        return lcm;
+    }
+
+    private AlgebraicNumber[][] scaledCopy( BigInteger scale )
+    {
+        int n = this .matrix .length;
+        AlgebraicNumber[][] copy = new AlgebraicNumber[ n ][];
+        if ( scale .equals( BigInteger.ONE ) ) {
+            for ( int i = 0; i < n; i++ )
+                copy[ i ] = this .matrix[ i ] .clone();
+            return copy;
+        }
+        AlgebraicField field = this .matrix[ 0 ][ 0 ] .getField();
+        AlgebraicNumber multiplier = field .createAlgebraicNumber( rational( field, new BigRational( scale, BigInteger.ONE ) ) );
+        for ( int i = 0; i < n; i++ ) {
+            copy[ i ] = new AlgebraicNumber[ n ];
+            for ( int j = 0; j < n; j++ )
+                copy[ i ][ j ] = this .matrix[ i ][ j ] .times( multiplier );
+        }
+        return copy;
+    }
+
+    private static BigRational[] rational( AlgebraicField field, BigRational value )
+    {
+        BigRational[] factors = new BigRational[ field .getOrder() ];
+        factors[ 0 ] = value;
+        for ( int i = 1; i < factors.length; i++ )
+            factors[ i ] = BigRational.ZERO;
+        return factors;
+    }
+
+    /**
+     * Fraction-free Gauss-Jordan elimination (Bareiss).  Each step replaces every element
+     * outside the pivot row with ( pivot * m[i][j] - m[i][k] * m[k][j] ) / previousPivot,
+     * and that division is always exact, so when the elements of matrix start out with
+     * integer factors they stay that way, with no growth of denominators.
+     * Only one reciprocal, of the previous pivot, is needed per step.
+     *
+     * On return, matrix is det * I and adjoined (if not null) has been transformed by the same
+     * row operations, where det is the determinant of the original matrix.
+     * @return the determinant of matrix, which is zero if it is singular
+     */
+    private static AlgebraicNumber bareissReduction( AlgebraicNumber[][] matrix, AlgebraicNumber[][] adjoined )
+    {
+        AlgebraicField field = matrix[ 0 ][ 0 ] .getField();
+        int n = matrix .length;
+        AlgebraicNumber previous = field .one();
+        boolean negated = false;
+        for ( int k = 0; k < n; k++ )
+        {
+            int pivotRow = -1;
+            for ( int i = k; i < n; i++ ) {
+                if ( ! matrix[ i ][ k ] .isZero() ) {
+                    pivotRow = i;
+                    break;
+                }
+            }
+            if ( pivotRow < 0 )
+                return field .zero();
+            if ( pivotRow != k ) {
+                AlgebraicNumber[] temp = matrix[ k ];
+                matrix[ k ] = matrix[ pivotRow ];
+                matrix[ pivotRow ] = temp;
+                if ( adjoined != null ) {
+                    temp = adjoined[ k ];
+                    adjoined[ k ] = adjoined[ pivotRow ];
+                    adjoined[ pivotRow ] = temp;
+                }
+                negated = ! negated;
+            }
+
+            AlgebraicNumber pivot = matrix[ k ][ k ];
+            AlgebraicNumber divisor = previous .isOne()? null : previous .reciprocal();
+            for ( int i = 0; i < n; i++ ) {
+                if ( i == k )
+                    continue;
+                AlgebraicNumber factor = matrix[ i ][ k ];
+                for ( int j = 0; j < n; j++ ) {
+                    if ( j != k )
+                        matrix[ i ][ j ] = exactQuotient( field .productDifference( pivot, matrix[ i ][ j ], factor, matrix[ k ][ j ] ), divisor );
+                }
+                matrix[ i ][ k ] = field .zero();
+                if ( adjoined != null ) {
+                    for ( int j = 0; j < adjoined[ i ] .length; j++ )
+                        adjoined[ i ][ j ] = exactQuotient( field .productDifference( pivot, adjoined[ i ][ j ], factor, adjoined[ k ][ j ] ), divisor );
+                }
+            }
+            previous = pivot;
+        }
+        // rows above the last pivot were brought along to the same diagonal value
+        return negated? previous .negate() : previous;
+    }
+
+    private static AlgebraicNumber exactQuotient( AlgebraicNumber dividend, AlgebraicNumber divisorReciprocal )
+    {
+        if ( divisorReciprocal == null || dividend .isZero() )
+            return dividend;
+        return dividend .times( divisorReciprocal );
+    }
+
     public AlgebraicMatrix transpose()
     {
         // TODO assert matrix is square
@@ -114,7 +268,15 @@ public class AlgebraicMatrix
         AlgebraicField field = this .matrix[ 0 ][ 0 ] .getField();
         AlgebraicMatrix result = new AlgebraicMatrix( field, this .matrix .length );
 
-        Fields .matrixMultiplication( this .matrix, that .matrix, result .matrix );
+        AlgebraicNumberAccumulator sum = new AlgebraicNumberAccumulator( field );
+        for ( int i = 0; i < this .matrix .length; i++ ) {
+            for ( int j = 0; j < that .matrix[ 0 ] .length; j++ ) {
+                sum .clear();
+                for ( int k = 0; k < that .matrix .length; k++ )
+                    sum .addProduct( this .matrix[ i ][ k ], that .matrix[ k ][ j ] );
+                result .matrix[ i ][ j ] = sum .toNumber();
+            }
+        }
         return result;
 	}
 
@@ -128,12 +290,12 @@ public class AlgebraicMatrix
 
         AlgebraicNumber[] resultComponents = new AlgebraicNumber[ rowLength ];
         AlgebraicField field = this .matrix[ 0 ][ 0 ] .getField();
+        AlgebraicNumberAccumulator sum = new AlgebraicNumberAccumulator( field );
         for ( int j = 0; j < rowLength; j++ ) {
-            resultComponents[ j ] = field .zero();
-            for ( int i = 0; i < colLength; i++ ) {
-                AlgebraicNumber product = rowVector .getComponent( i ) .times( this .matrix[ i ][ j ] );
-                resultComponents[ j ] = resultComponents[ j ] .plus( product );
-            }
+            sum .clear();
+            for ( int i = 0; i < colLength; i++ )
+                sum .addProduct( rowVector .getComponent( i ), this .matrix[ i ][ j ] );
+            resultComponents[ j ] = sum .toNumber();
         }
         return new AlgebraicVector( resultComponents );
     }
@@ -147,12 +309,12 @@ public class AlgebraicMatrix
 
         AlgebraicNumber[] resultComponents = new AlgebraicNumber[ colLength ];
         AlgebraicField field = this .matrix[ 0 ][ 0 ] .getField();
+        AlgebraicNumberAccumulator sum = new AlgebraicNumberAccumulator( field );
         for ( int i = 0; i < colLength; i++ ) {
-            resultComponents[ i ] = field .zero();
-            for ( int j = 0; j < rowLength; j++ ) {
-                AlgebraicNumber product = columnVector .getComponent( j ) .times( this .matrix[ i ][ j ] );
-                resultComponents[ i ] = resultComponents[ i ] .plus( product );
-            }
+            sum .clear();
+            for ( int j = 0; j < rowLength; j++ )
+                sum .addProduct( columnVector .getComponent( j ), this .matrix[ i ][ j ] );
+            resultComponents[ i ] = sum .toNumber();
         }
         return new AlgebraicVector( resultComponents );
     }
@@ -11,6 +11,10 @@ public class AlgebraicNumber implements Fields.Element, Comparable<AlgebraicNumb
     private final AlgebraicField field;
     private final BigRational[] factors;
 
+    private int hashCode = 0; // computed lazily; numbers are immutable, so it never changes
+
+    private volatile double value = Double.NaN; // evaluated lazily, for the same reason
+
     AlgebraicNumber( AlgebraicField field, BigRational... factors )
     {
         if ( factors.length > field .getOrder() )
@@ -25,15 +29,25 @@ public class AlgebraicNumber implements Fields.Element, Comparable<AlgebraicNumb
         }
     }
 
+    /**
+     * For subclasses that keep their own representation, and override getFactors().
+     * @param field
+     */
+    AlgebraicNumber( AlgebraicField field )
+    {
+        this .field = field;
+        this .factors = null;
+    }
+
     /**
      * Extract the least common multiple of the divisors.
      * @param value
      * @return
      */
-    public final BigInteger getDivisor()
+    public BigInteger getDivisor()
     {
         BigInteger lcm = BigInteger.ONE;
-        for (BigRational factor : this.factors) {
+        for (BigRational factor : this .getFactors()) {
             BigInteger aDivisor = factor.getDenominator();
             lcm = lcm .multiply( aDivisor ) .abs() .divide( lcm .gcd( aDivisor ) );
         }
@@ -46,12 +60,22 @@ public class AlgebraicNumber implements Fields.Element, Comparable<AlgebraicNumb
     }
 
     @Override
-    public int hashCode()
+    public final int hashCode()
+    {
+        int result = this .hashCode;
+        if ( result == 0 ) {
+            result = this .computeHashCode();
+            this .hashCode = result;
+        }
+        return result;
+    }
+
+    int computeHashCode()
     {
         final int prime = 31;
         int result = 1;
         result = prime * result 
-                + Arrays.hashCode( factors );
+                + Arrays.hashCode( this .getFactors() );
         return result;
     }
 
@@ -62,7 +86,7 @@ public class AlgebraicNumber implements Fields.Element, Comparable<AlgebraicNumb
             return true;
         if ( obj == null )
             return false;
-        if ( getClass() != obj.getClass() )
+        if ( ! ( obj instanceof AlgebraicNumber ) )
             return false;
         AlgebraicNumber other = (AlgebraicNumber) obj;
         if(!field.equals( other.field )) {
@@ -74,7 +98,9 @@ public class AlgebraicNumber implements Fields.Element, Comparable<AlgebraicNumb
                     + other.field.getName();
             throw new IllegalStateException(reason);
         }
-        return Arrays.equals( factors, other.factors );
+        if ( this .hashCode != 0 && other .hashCode != 0 && this .hashCode != other .hashCode )
+            return false;
+        return Arrays.equals( this .getFactors(), other .getFactors() );
     }
 
     @Override
@@ -87,13 +113,15 @@ public class AlgebraicNumber implements Fields.Element, Comparable<AlgebraicNumb
             // or an IllegalStateException if fields are different
             return 0;
         }
-        int comparison = Integer.compare(factors.length, other.factors.length);
+        BigRational[] factors = this .getFactors();
+        BigRational[] otherFactors = other .getFactors();
+        int comparison = Integer.compare(factors.length, otherFactors.length);
         if (comparison != 0) {
             return comparison;
         }
         for (int i = 0; i < factors.length; i++) {
-            BigRational n1 = this.factors[i];
-            BigRational n2 = other.factors[i];
+            BigRational n1 = factors[i];
+            BigRational n2 = otherFactors[i];
             comparison = n1.compareTo(n2);
             if (comparison != 0) {
                 return comparison;
@@ -111,12 +139,14 @@ public class AlgebraicNumber implements Fields.Element, Comparable<AlgebraicNumb
     {
         if ( that .isZero() )
             return this;
-        int order = this .factors .length;
+        BigRational[] factors = this .getFactors();
+        BigRational[] thatFactors = that .getFactors();
+        int order = factors .length;
         BigRational[] sum = new BigRational[ order ];
         for ( int i = 0; i < order; i++ ) {
-            sum[ i ] = this .factors[ i ] .plus( that .factors[ i ] );
+            sum[ i ] = factors[ i ] .plus( thatFactors[ i ] );
         }
-        return new AlgebraicNumber( this .field, sum );
+        return this .field .createAlgebraicNumber( sum );
     }
 
     public AlgebraicNumber times( AlgebraicNumber that )
@@ -125,14 +155,14 @@ public class AlgebraicNumber implements Fields.Element, Comparable<AlgebraicNumb
             return this .field .zero();
         if ( that .isOne() )
             return this;
-        return new AlgebraicNumber( this .field, this .field .multiply( this .factors, that .factors ) );
+        return this .field .createAlgebraicNumber( this .field .multiply( this .getFactors(), that .getFactors() ) );
     }
 
     public AlgebraicNumber minus( AlgebraicNumber that )
     {
         if ( that .isZero() )
             return this;
-        return this .plus( that .negate() );
+        return this .field .createAlgebraicNumber( this .field .subtract( this .getFactors(), that .getFactors() ) );
     }
 
     public AlgebraicNumber dividedBy( AlgebraicNumber that )
@@ -142,15 +172,24 @@ public class AlgebraicNumber implements Fields.Element, Comparable<AlgebraicNumb
         return this .times( that .reciprocal() );
     }
 
+    /**
+     * Numbers are immutable, so the value is computed at most once (per racing thread).
+     * NaN marks "not yet evaluated", since no algebraic number evaluates to NaN.
+     */
     public double evaluate()
     {
-        return this .field .evaluateNumber( factors );
+        double value = this .value;
+        if ( Double .isNaN( value ) ) {
+            value = this .field .evaluateNumber( this .getFactors() );
+            this .value = value;
+        }
+        return value;
     }
 
     @Override
     public boolean isZero()
     {
-        for ( BigRational factor : this .factors ) {
+        for ( BigRational factor : this .getFactors() ) {
             if ( ! factor .isZero() )
                 return false;
         }
@@ -160,34 +199,36 @@ public class AlgebraicNumber implements Fields.Element, Comparable<AlgebraicNumb
     @Override
     public boolean isOne()
     {
-        if ( ! this .factors[ 0 ] .isOne() )
+        BigRational[] factors = this .getFactors();
+        if ( ! factors[ 0 ] .isOne() )
             return false;
-        for ( int i = 1; i < this .factors.length; i++ ) {
-            if ( ! this .factors[ i ] .isZero() )
+        for ( int i = 1; i < factors.length; i++ ) {
+            if ( ! factors[ i ] .isZero() )
                 return false;
         }
-        return false;
+        return true;
     }
 
     @Override
     public AlgebraicNumber negate()
     {
-        BigRational[] result = new BigRational[ this .factors .length ];
+        BigRational[] factors = this .getFactors();
+        BigRational[] result = new BigRational[ factors .length ];
         for ( int i = 0; i < result.length; i++ ) {
-            result[ i ] = this .factors[ i ] .negate();
+            result[ i ] = factors[ i ] .negate();
         }
-        return new AlgebraicNumber( this .field, result );
+        return this .field .createAlgebraicNumber( result );
     }
 
     @Override
     public AlgebraicNumber reciprocal()
     {
-        return new AlgebraicNumber( this .field, this .field .reciprocal( this .factors ) );
+        return this .field .createAlgebraicNumber( this .field .reciprocal( this .getFactors() ) );
     }
 
     public void getNumberExpression( StringBuffer buf, int format )
     {
-        this .field .getNumberExpression( buf, this .factors, format );
+        this .field .getNumberExpression( buf, this .getFactors(), format );
     }
 
     public String toString( int format )
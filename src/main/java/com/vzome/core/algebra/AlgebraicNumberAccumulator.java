@@ -0,0 +1,221 @@
+package com.vzome.core.algebra;
+
+import java.math.BigInteger;
+
+/**
+ * A mutable running sum of AlgebraicNumbers and their products, for reductions like
+ * dot products, matrix-vector products and centroids.
+ *
+ * The sum is kept as integer numerators over one common denominator, so each add() or addProduct()
+ * costs a few long multiplications instead of a BigRational (and a gcd) per coefficient,
+ * and only toNumber() creates an AlgebraicNumber.
+ * Everything is done on longs until something overflows; from then on the accumulator uses BigIntegers.
+ *
+ * Not thread-safe; create one per reduction, or clear() and reuse it.
+ */
+public class AlgebraicNumberAccumulator
+{
+    private final AlgebraicField field;
+
+    private final StructureConstants structure;
+
+    private final int order;
+
+    // the sum is numerators[ i ] / denominator, with denominator > 0
+    private long[] numerators;
+
+    private long denominator = 1l;
+
+    // scratch space, so that a failed long operation leaves the sum untouched
+    private long[] x, y, product, result;
+
+    // non-null once the longs have overflowed
+    private BigInteger[] bigNumerators = null;
+
+    private BigInteger bigDenominator = null;
+
+    public AlgebraicNumberAccumulator( AlgebraicField field )
+    {
+        this .field = field;
+        this .structure = field .getStructureConstants();
+        this .order = field .getOrder();
+        this .numerators = new long[ order ];
+        this .x = new long[ order ];
+        this .y = new long[ order ];
+        this .product = new long[ order ];
+        this .result = new long[ order ];
+    }
+
+    public AlgebraicField getField()
+    {
+        return this .field;
+    }
+
+    /**
+     * Reset the sum to zero.
+     */
+    public AlgebraicNumberAccumulator clear()
+    {
+        for ( int i = 0; i < order; i++ )
+            this .numerators[ i ] = 0l;
+        this .denominator = 1l;
+        this .bigNumerators = null;
+        this .bigDenominator = null;
+        return this;
+    }
+
+    public AlgebraicNumberAccumulator add( AlgebraicNumber n )
+    {
+        return this .add( n, false );
+    }
+
+    public AlgebraicNumberAccumulator subtract( AlgebraicNumber n )
+    {
+        return this .add( n, true );
+    }
+
+    /**
+     * Add a * b to the sum, without creating an AlgebraicNumber for the product.
+     */
+    public AlgebraicNumberAccumulator addProduct( AlgebraicNumber a, AlgebraicNumber b )
+    {
+        return this .addProduct( a, b, false );
+    }
+
+    public AlgebraicNumberAccumulator subtractProduct( AlgebraicNumber a, AlgebraicNumber b )
+    {
+        return this .addProduct( a, b, true );
+    }
+
+    /**
+     * Multiply the sum by k.
+     */
+    public AlgebraicNumberAccumulator scale( AlgebraicNumber k )
+    {
+        if ( k .isZero() )
+            return this .clear();
+        if ( k .isOne() )
+            return this;
+        if ( this .bigNumerators == null ) {
+            try {
+                long den = Math .multiplyExact( this .denominator, StructureConstants .numerators( k .getFactors(), this .x ) );
+                this .structure .multiply( this .numerators, this .x, this .product );
+                this .commit( this .product, den );
+                return this;
+            } catch ( ArithmeticException e ) {
+                this .promote();
+            }
+        }
+        BigInteger[] factors = new BigInteger[ order ];
+        BigInteger den = StructureConstants .numerators( k .getFactors(), factors );
+        BigInteger[] scaled = new BigInteger[ order ];
+        this .structure .multiply( this .bigNumerators, factors, scaled );
+        this .bigNumerators = scaled;
+        this .bigDenominator = this .bigDenominator .multiply( den );
+        return this;
+    }
+
+    /**
+     * @return the sum as an immutable AlgebraicNumber; the accumulator can keep going
+     */
+    public AlgebraicNumber toNumber()
+    {
+        if ( this .bigNumerators == null )
+            return this .field .createAlgebraicNumber( this .numerators, this .denominator );
+        else
+            return this .field .createAlgebraicNumber( this .bigNumerators, this .bigDenominator );
+    }
+
+    private AlgebraicNumberAccumulator add( AlgebraicNumber n, boolean subtract )
+    {
+        if ( n .isZero() )
+            return this;
+        if ( this .bigNumerators == null ) {
+            try {
+                long den = StructureConstants .numerators( n .getFactors(), this .x );
+                this .addLongs( this .x, den, subtract );
+                return this;
+            } catch ( ArithmeticException e ) {
+                this .promote();
+            }
+        }
+        BigInteger[] terms = new BigInteger[ order ];
+        BigInteger den = StructureConstants .numerators( n .getFactors(), terms );
+        this .addBigIntegers( terms, den, subtract );
+        return this;
+    }
+
+    private AlgebraicNumberAccumulator addProduct( AlgebraicNumber a, AlgebraicNumber b, boolean subtract )
+    {
+        if ( a .isZero() || b .isZero() )
+            return this;
+        if ( this .bigNumerators == null ) {
+            try {
+                long den = Math .multiplyExact( StructureConstants .numerators( a .getFactors(), this .x ),
+                        StructureConstants .numerators( b .getFactors(), this .y ) );
+                this .structure .multiply( this .x, this .y, this .product );
+                this .addLongs( this .product, den, subtract );
+                return this;
+            } catch ( ArithmeticException e ) {
+                this .promote();
+            }
+        }
+        BigInteger[] na = new BigInteger[ order ];
+        BigInteger[] nb = new BigInteger[ order ];
+        BigInteger den = StructureConstants .numerators( a .getFactors(), na ) .multiply( StructureConstants .numerators( b .getFactors(), nb ) );
+        BigInteger[] terms = new BigInteger[ order ];
+        this .structure .multiply( na, nb, terms );
+        this .addBigIntegers( terms, den, subtract );
+        return this;
+    }
+
+    private void addLongs( long[] terms, long den, boolean subtract )
+    {
+        // bring both to the lcm of the denominators
+        long g = BigRational .gcd( this .denominator, den );
+        long sumScale = den / g;
+        long termScale = this .denominator / g;
+        long lcm = Math .multiplyExact( this .denominator, sumScale );
+        for ( int i = 0; i < order; i++ ) {
+            long sum = ( sumScale == 1l )? this .numerators[ i ] : Math .multiplyExact( this .numerators[ i ], sumScale );
+            long term = ( termScale == 1l )? terms[ i ] : Math .multiplyExact( terms[ i ], termScale );
+            this .result[ i ] = subtract? Math .subtractExact( sum, term ) : Math .addExact( sum, term );
+        }
+        this .commit( this .result, lcm );
+    }
+
+    private void commit( long[] sum, long den )
+    {
+        long[] previous = this .numerators;
+        if ( sum == this .result ) {
+            this .numerators = this .result;
+            this .result = previous;
+        }
+        else {
+            this .numerators = this .product;
+            this .product = previous;
+        }
+        this .denominator = den;
+    }
+
+    private void addBigIntegers( BigInteger[] terms, BigInteger den, boolean subtract )
+    {
+        BigInteger g = this .bigDenominator .gcd( den );
+        BigInteger sumScale = den .divide( g );
+        BigInteger termScale = this .bigDenominator .divide( g );
+        for ( int i = 0; i < order; i++ ) {
+            BigInteger term = terms[ i ] .multiply( termScale );
+            BigInteger sum = this .bigNumerators[ i ] .multiply( sumScale );
+            this .bigNumerators[ i ] = subtract? sum .subtract( term ) : sum .add( term );
+        }
+        this .bigDenominator = this .bigDenominator .multiply( sumScale );
+    }
+
+    private void promote()
+    {
+        this .bigNumerators = new BigInteger[ order ];
+        for ( int i = 0; i < order; i++ )
+            this .bigNumerators[ i ] = BigInteger .valueOf( this .numerators[ i ] );
+        this .bigDenominator = BigInteger .valueOf( this .denominator );
+    }
+}
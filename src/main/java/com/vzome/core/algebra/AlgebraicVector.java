@@ -16,6 +16,14 @@ public final class AlgebraicVector implements Comparable<AlgebraicVector>
     private final AlgebraicNumber[] coordinates;
     private final AlgebraicField field;
 
+    // Computed lazily, and reset by setComponent().  Vectors are used as keys in most of
+    //  the model's hash maps, so recomputing this over all the coordinates is too expensive.
+    private int hashCode = 0;
+
+    // Also computed lazily and reset by setComponent(), since exporters and the renderer
+    //  ask for the same vertices over and over.  RealVector is immutable, so sharing it is safe.
+    private RealVector realVector = null;
+
     public AlgebraicVector( AlgebraicNumber... n )
     {
         coordinates = new AlgebraicNumber[ n.length ];
@@ -37,10 +45,14 @@ public final class AlgebraicVector implements Comparable<AlgebraicVector>
     @Override
     public int hashCode()
     {
-        final int prime = 31;
-        int result = 1;
-        result = prime * result 
-                + Arrays.hashCode( coordinates );
+        int result = this .hashCode;
+        if ( result == 0 ) {
+            final int prime = 31;
+            result = 1;
+            result = prime * result 
+                    + Arrays.hashCode( coordinates );
+            this .hashCode = result;
+        }
         return result;
     }
 
@@ -63,6 +75,8 @@ public final class AlgebraicVector implements Comparable<AlgebraicVector>
                     + other.field.getName();
             throw new IllegalStateException(reason);
         }
+        if ( this .hashCode != 0 && other .hashCode != 0 && this .hashCode != other .hashCode )
+            return false;
         return Arrays.equals( coordinates, other.coordinates );
     }
 
@@ -94,7 +108,33 @@ public final class AlgebraicVector implements Comparable<AlgebraicVector>
     public final RealVector toRealVector()
     {
         // TODO assert this is 3d
-        return new RealVector( this .coordinates[ 0 ] .evaluate(), this .coordinates[ 1 ] .evaluate(), this .coordinates[ 2 ] .evaluate() );
+        RealVector result = this .realVector;
+        if ( result == null ) {
+            result = new RealVector( this .coordinates[ 0 ] .evaluate(), this .coordinates[ 1 ] .evaluate(), this .coordinates[ 2 ] .evaluate() );
+            this .realVector = result;
+        }
+        return result;
+    }
+
+    /**
+     * Write the first three coordinates, evaluated, into target starting at offset,
+     * without creating a RealVector.
+     * @param target
+     * @param offset
+     */
+    public void evaluateInto( double[] target, int offset )
+    {
+        RealVector cached = this .realVector;
+        if ( cached != null ) {
+            target[ offset ] = cached .x;
+            target[ offset + 1 ] = cached .y;
+            target[ offset + 2 ] = cached .z;
+        }
+        else {
+            target[ offset ] = this .coordinates[ 0 ] .evaluate();
+            target[ offset + 1 ] = this .coordinates[ 1 ] .evaluate();
+            target[ offset + 2 ] = this .coordinates[ 2 ] .evaluate();
+        }
     }
 
     /**
@@ -126,9 +166,17 @@ public final class AlgebraicVector implements Comparable<AlgebraicVector>
         return this .coordinates[ i ];
     }
 
+    /**
+     * Only for filling in a newly created vector.  A vector must not be changed
+     * once it has been used as a key, or interned by its field.
+     * @param component
+     * @param coord
+     */
     public void setComponent( int component, AlgebraicNumber coord )
     {
         this .coordinates[ component ] = coord;
+        this .hashCode = 0;
+        this .realVector = null;
     }
 
     public AlgebraicVector negate()
@@ -189,12 +237,26 @@ public final class AlgebraicVector implements Comparable<AlgebraicVector>
         for ( int i = 0; i < result.length; i++ ) {
             int j = ( i + 1 ) % 3;
             int k = ( i + 2 ) % 3;
-            result[ i ] = this .coordinates[ j ] .times( that .coordinates[ k ] )
-                    .minus( this .coordinates[ k ] .times( that .coordinates[ j ] ) );
+            result[ i ] = this .field .productDifference( this .coordinates[ j ], that .coordinates[ k ], this .coordinates[ k ], that .coordinates[ j ] );
         }
         return new AlgebraicVector( result );
     }
 
+    /**
+     * Equivalent to this .cross( that ) .isOrigin(), but stops at the first
+     * nonzero component, and never creates the cross product vector.
+     */
+    public boolean isParallel( AlgebraicVector that )
+    {
+        for ( int i = 0; i < 3; i++ ) {
+            int j = ( i + 1 ) % 3;
+            int k = ( i + 2 ) % 3;
+            if ( ! this .field .productDifference( this .coordinates[ j ], that .coordinates[ k ], this .coordinates[ k ], that .coordinates[ j ] ) .isZero() )
+                return false;
+        }
+        return true;
+    }
+
     public AlgebraicVector inflateTo4d( boolean wFirst )
     {
         if ( this .coordinates .length == 4 ) {
@@ -244,11 +306,7 @@ public final class AlgebraicVector implements Comparable<AlgebraicVector>
 
     public AlgebraicNumber dot( AlgebraicVector that )
     {
-        AlgebraicNumber result = this .field .zero();
-        for ( int i = 0; i < that.dimension(); i++ ) {
-            result = result .plus( this .coordinates[ i ] .times( that .coordinates[ i ] ) );
-        }
-        return result;
+        return this .field .dotProduct( this .coordinates, that .coordinates );
     }
 
     public AlgebraicNumber getLength( AlgebraicVector unit )
@@ -266,7 +324,7 @@ public final class AlgebraicVector implements Comparable<AlgebraicVector>
     }
 
     public static boolean areCollinear(final AlgebraicVector v0, final AlgebraicVector v1, final AlgebraicVector v2) {
-        return getNormal(v0, v1, v2).isOrigin();
+        return v1.minus(v0).isParallel(v2.minus(v0));
     }
 
     public AlgebraicField getField()
@@ -38,6 +38,8 @@ public class BigRational implements Comparable<BigRational>, Fields.Element {
 
     // INVARIANT: either the BigIntegers are null, and the longs are the truth,
     //   or the longs are both == 0, and the BigIntegers are the truth.
+    // The long representation is always used when the reduced value fits,
+    //   so arithmetic only pays for BigInteger while the values are actually large.
     
     private long num;
     private long den;
@@ -51,8 +53,7 @@ public class BigRational implements Comparable<BigRational>, Fields.Element {
     // create and initialize a new BigRational object
     public BigRational( long numerator )
     {
-        this .num = numerator;
-        this .den = 1l;
+        init( numerator, 1l );
     }
 
     // create and initialize a new BigRational object from a string, e.g., "-343/1273"
@@ -91,6 +92,12 @@ public class BigRational implements Comparable<BigRational>, Fields.Element {
            throw new RuntimeException("Denominator is zero");
         }
 
+        // Long.MIN_VALUE cannot be negated, so let BigInteger deal with it
+        if ( numerator == Long.MIN_VALUE || denominator == Long.MIN_VALUE ) {
+            init( BigInteger.valueOf( numerator ), BigInteger.valueOf( denominator ) );
+            return;
+        }
+
         // reduce fraction
         long g = gcd( numerator, denominator );
         this .num = numerator / g;
@@ -112,28 +119,77 @@ public class BigRational implements Comparable<BigRational>, Fields.Element {
 
         // reduce fraction
         BigInteger g = numerator.gcd(denominator);
-        bigNum = numerator.divide(g);
-        bigDen = denominator.divide(g);
+        BigInteger n = numerator.divide(g);
+        BigInteger d = denominator.divide(g);
 
         // to ensure invariant that denominator is positive
-        if (bigDen.compareTo(BigInteger.ZERO) < 0) {
-            bigDen = bigDen.negate();
-            bigNum = bigNum.negate();
+        if (d.signum() < 0) {
+            d = d.negate();
+            n = n.negate();
+        }
+
+        // drop back to the long representation whenever the result fits
+        if ( fitsLong( n ) && fitsLong( d ) ) {
+            this .num = n .longValue();
+            this .den = d .longValue();
         }
+        else {
+            this .bigNum = n;
+            this .bigDen = d;
+        }
+    }
+
+    // Raw access for the exact arithmetic kernels in this package, like StructureConstants.
+    //  The longs are only meaningful when isLong() is true.
+
+    boolean isLong()
+    {
+        return this .bigNum == null;
+    }
+
+    long longNumerator()
+    {
+        return this .num;
+    }
+
+    long longDenominator()
+    {
+        return this .den;
+    }
+
+    /**
+     * True if the value can be held in a long that is safe to negate,
+     * which excludes Long.MIN_VALUE.
+     */
+    static boolean fitsLong( BigInteger value )
+    {
+        return value .bitLength() < 64 && value .longValue() != Long.MIN_VALUE;
     }
     
-    private final static long gcd( long u, long v )
+    /**
+     * Binary GCD, ala Knuth 4.5.2 algorithm B.
+     * Neither argument may be Long.MIN_VALUE.
+     */
+    final static long gcd( long u, long v )
     {
-        // TODO implement faster binary GCD, ala Knuth 4.5.2 (see the BigInteger implementation)
         u = Math.abs( u );
         v = Math.abs( v );
-        while ( v != 0 )
-        {
-            long r = u % v;
-            u = v;
-            v = r;
-        }
-        return u;
+        if ( u == 0l )
+            return v;
+        if ( v == 0l )
+            return u;
+        int shift = Long.numberOfTrailingZeros( u | v );
+        u >>= Long.numberOfTrailingZeros( u );
+        do {
+            v >>= Long.numberOfTrailingZeros( v );
+            if ( u > v ) {
+                long t = v;
+                v = u;
+                u = t;
+            }
+            v = v - u;
+        } while ( v != 0l );
+        return u << shift;
     }
     
     // return string representation of (this)
@@ -156,11 +212,6 @@ public class BigRational implements Comparable<BigRational>, Fields.Element {
         }
     }
     
-    private static final boolean multOverflow( long a, long b )
-    {
-        return false; // TODO check for overflow and throw an exception
-    }
-
     // return { -1, 0, + 1 } if a < b, a = b, or a > b
     @Override
     public int compareTo( BigRational b )
@@ -168,41 +219,35 @@ public class BigRational implements Comparable<BigRational>, Fields.Element {
         BigRational a = this;
         if ( a .bigNum == null && b .bigNum == null )
         {
-            if ( multOverflow( a.num, b.den ) || multOverflow( a.den, b.num ) )
-                return a .big() .compareTo( b .big() );
-            else
-                return Long .compare( a.num * b.den, a.den * b.num );
-        }
-        else
-        {
-            // either one may be non-big
-            a = a .big();
-            b = b .big();
-            return a .bigNum .multiply( b.bigDen ) .compareTo( a.bigDen .multiply( b.bigNum ) );
+            if ( a.den == b.den )
+                return Long .compare( a.num, b.num );
+            try {
+                return Long .compare( Math .multiplyExact( a.num, b.den ), Math .multiplyExact( a.den, b.num ) );
+            } catch ( ArithmeticException e ) {
+                // overflow, fall through to the BigInteger comparison
+            }
         }
+        // either one may be non-big
+        return a .getNumerator() .multiply( b .getDenominator() ) .compareTo( a .getDenominator() .multiply( b .getNumerator() ) );
     }
 
-    /**
-     * Convert to BigInteger form, if necessary.
-     * @return
-     */
-    private BigRational big()
+    public int signum()
     {
-        if ( this .bigNum == null )
-            // this is expensive, but should be necessary only very rarely
-            return new BigRational( new BigInteger( Long .toString( this .num ) ), new BigInteger( Long .toString( this .den ) ) );
+        if ( this.bigNum == null )
+            return Long .signum( this .num );
         else
-            return this;
+            return this .bigNum .signum();
     }
 
     // is this BigRational negative, zero, or positive?
+    // Zero and one always have the long representation, so these need no arithmetic.
     @Override
-    public boolean isZero()     { return this .equals(ZERO); }
-    public boolean isPositive() { return compareTo(ZERO)  > 0; }
-    public boolean isNegative() { return compareTo(ZERO)  < 0; }
+    public boolean isZero()     { return this .bigNum == null && this .num == 0l; }
+    public boolean isPositive() { return signum() > 0; }
+    public boolean isNegative() { return signum() < 0; }
 
     @Override
-    public boolean isOne() { return this.equals(ONE); }
+    public boolean isOne() { return this .bigNum == null && this .num == 1l && this .den == 1l; }
 
     // is this Rational object equal to y?
     @Override
@@ -212,14 +257,57 @@ public class BigRational implements Comparable<BigRational>, Fields.Element {
         if ( y == null ) return false;  
         if ( y .getClass() != this .getClass() ) return false;
         BigRational b = (BigRational) y;
-        return this .compareTo( b ) == 0;
+        // both are reduced, and the long representation is used whenever the value fits,
+        //  so equal values always have identical representations
+        if ( this .bigNum == null )
+            return b .bigNum == null && this .num == b .num && this .den == b .den;
+        else
+            return b .bigNum != null && this .bigNum .equals( b .bigNum ) && this .bigDen .equals( b .bigDen );
     }
         
-    // hashCode consistent with equals() and compareTo()
+    // the same value as toString() .hashCode(), which orders hashed collections of numbers,
+    //  vectors and manifestations, but computed from the digits without creating the String
     @Override
     public int hashCode()
     {
-        return this .toString() .hashCode();
+        if ( this.bigNum == null )
+            return hashOfString( this .num, this .den );
+        else
+            return this .toString() .hashCode();
+    }
+
+    /**
+     * The hashCode() of numerator / denominator, without creating it.
+     * The denominator must be positive.
+     */
+    static int hashCode( long numerator, long denominator )
+    {
+        long g = gcd( numerator, denominator );
+        return hashOfString( numerator / g, denominator / g );
+    }
+
+    // the String hash of "num/den", or of "num" when den is one
+    private static int hashOfString( long num, long den )
+    {
+        int hash = hashOfDigits( 0, num );
+        if ( den != 1l )
+            hash = hashOfDigits( 31 * hash + '/', den );
+        return hash;
+    }
+
+    // continue a String hash with the decimal digits of value, which is never Long.MIN_VALUE
+    private static int hashOfDigits( int hash, long value )
+    {
+        if ( value < 0l ) {
+            hash = 31 * hash + '-';
+            value = -value;
+        }
+        long power = 1l;
+        while ( power <= value / 10l )
+            power *= 10l;
+        for ( ; power > 0l; power /= 10l )
+            hash = 31 * hash + (char) ( '0' + ( value / power ) % 10l );
+        return hash;
     }
 
     public double getReal()
@@ -233,55 +321,62 @@ public class BigRational implements Comparable<BigRational>, Fields.Element {
     // return a * b
     public BigRational times( BigRational b )
     {
-        if ( b .equals( ZERO ) )
-            return ZERO;
-        if ( b .equals( ONE ) )
+        if ( b .isZero() || this .isOne() )
+            return b;
+        if ( this .isZero() || b .isOne() )
             return this;
         BigRational a = this;
         if ( a .bigNum == null && b .bigNum == null )
         {
-            if ( multOverflow( a.num, b.num ) || multOverflow( a.den, b.den ) )
-                return a .big() .times( b .big() );
-            else
-                return new BigRational( a.num * b.num, a.den * b.den );
-        }
-        else
-        {
-            // either one may be non-big
-            a = a .big();
-            b = b .big();
-            return new BigRational( a .bigNum .multiply( b .bigNum ), a .bigDen .multiply( b .bigDen ) );
+            // cross-reduce first, so the products are already in lowest terms
+            long g1 = gcd( a.num, b.den );
+            long g2 = gcd( b.num, a.den );
+            try {
+                long numerator = Math .multiplyExact( a.num / g1, b.num / g2 );
+                long denominator = Math .multiplyExact( a.den / g2, b.den / g1 );
+                return new BigRational( numerator, denominator );
+            } catch ( ArithmeticException e ) {
+                // overflow, fall through to the BigInteger product
+            }
         }
+        // either one may be non-big
+        return new BigRational( a .getNumerator() .multiply( b .getNumerator() ), a .getDenominator() .multiply( b .getDenominator() ) );
     }
 
     // return a + b
     public BigRational plus( BigRational b )
     {
-        if ( b .equals( ZERO ) )
+        if ( b .isZero() )
             return this;
+        if ( this .isZero() )
+            return b;
         BigRational a = this;
         if ( a .bigNum == null && b .bigNum == null )
         {
-            if ( multOverflow( a.num, b.den ) || multOverflow( a.den, b.num ) || multOverflow( a.den, b.den ) )
-                return a .big() .plus( b .big() );
-            else
-                return new BigRational( a.num * b.den + a.den * b.num, a.den * b.den );
-        }
-        else
-        {
-            // either one may be non-big
-            a = a .big();
-            b = b .big();
-            BigInteger numerator   = a .bigNum .multiply( b .bigDen ) .add( b .bigNum .multiply( a .bigDen ) );
-            BigInteger denominator = a .bigDen .multiply( b .bigDen );
-            return new BigRational( numerator, denominator );
+            try {
+                if ( a.den == b.den )
+                    return new BigRational( Math .addExact( a.num, b.num ), a.den );
+                // Knuth 4.5.1: work with the gcd of the denominators to keep intermediates small
+                long g = gcd( a.den, b.den );
+                long aDen = a.den / g;
+                long bDen = b.den / g;
+                long numerator = Math .addExact( Math .multiplyExact( a.num, bDen ), Math .multiplyExact( b.num, aDen ) );
+                long denominator = Math .multiplyExact( aDen, b.den );
+                return new BigRational( numerator, denominator );
+            } catch ( ArithmeticException e ) {
+                // overflow, fall through to the BigInteger sum
+            }
         }
+        // either one may be non-big
+        BigInteger numerator   = a .getNumerator() .multiply( b .getDenominator() ) .add( b .getNumerator() .multiply( a .getDenominator() ) );
+        BigInteger denominator = a .getDenominator() .multiply( b .getDenominator() );
+        return new BigRational( numerator, denominator );
     }
 
     public BigInteger getNumerator()
     {
         if ( this.bigNum == null )
-            return new BigInteger( this .num + "" );
+            return BigInteger .valueOf( this .num );
         else
             return this .bigNum;
     }
@@ -289,7 +384,7 @@ public class BigRational implements Comparable<BigRational>, Fields.Element {
     public BigInteger getDenominator()
     {
         if ( this.bigNum == null )
-            return new BigInteger( this .den + "" );
+            return BigInteger .valueOf( this .den );
         else
             return this .bigDen;
     }
@@ -298,7 +393,7 @@ public class BigRational implements Comparable<BigRational>, Fields.Element {
     @Override
     public BigRational negate()
     {
-        if ( this .equals( ZERO ) )
+        if ( this .isZero() )
             return this;
         if ( this.bigNum == null )
         {
@@ -313,7 +408,7 @@ public class BigRational implements Comparable<BigRational>, Fields.Element {
     // return a - b
     public BigRational minus( BigRational b )
     {
-        if ( b .equals( ZERO ) )
+        if ( b .isZero() )
             return this;
         BigRational a = this;
         return a .plus( b. negate() );
@@ -323,7 +418,7 @@ public class BigRational implements Comparable<BigRational>, Fields.Element {
     @Override
     public BigRational reciprocal()
     {
-        if ( this .equals( ONE ) )
+        if ( this .isOne() )
             return this;
         if ( this.bigNum == null )
         {
@@ -338,7 +433,7 @@ public class BigRational implements Comparable<BigRational>, Fields.Element {
     // return a / b
     public BigRational divides( BigRational b )
     {
-        if ( b .equals( ONE ) )
+        if ( b .isOne() )
             return this;
         BigRational a = this;
         return a .times( b .reciprocal() );
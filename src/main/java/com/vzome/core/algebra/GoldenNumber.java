@@ -0,0 +1,428 @@
+package com.vzome.core.algebra;
+
+import java.math.BigInteger;
+
+/**
+ * An element of the golden field, kept as ( a + bphi ) / d rather than as two BigRationals.
+ * PentagonField creates these for every AlgebraicNumber, so the rest of the code never sees them.
+ *
+ *  Invariants
+ *  ----------
+ *   -  gcd(a, b, d) = 1, and d >= 1
+ *   -  (0 + 0phi)/1 is the unique representation of zero
+ *   -  just as for BigRational, either the BigIntegers are null and the longs are the truth,
+ *      or the BigIntegers are the truth; the longs are used whenever all three values fit.
+ *
+ * Arithmetic stays on longs, checked with Math.multiplyExact and Math.addExact,
+ * and falls back to BigInteger only when some step overflows.
+ */
+final class GoldenNumber extends AlgebraicNumber
+{
+    private final long a, b, d;
+
+    private final BigInteger bigA, bigB, bigD;
+
+    // materialized only on demand; volatile, since documents and their numbers are shared across threads
+    private volatile BigRational[] factors = null;
+
+    private GoldenNumber( AlgebraicField field, long a, long b, long d )
+    {
+        super( field );
+        this .a = a;
+        this .b = b;
+        this .d = d;
+        this .bigA = null;
+        this .bigB = null;
+        this .bigD = null;
+    }
+
+    private GoldenNumber( AlgebraicField field, BigInteger a, BigInteger b, BigInteger d )
+    {
+        super( field );
+        this .a = 0l;
+        this .b = 0l;
+        this .d = 0l;
+        this .bigA = a;
+        this .bigB = b;
+        this .bigD = d;
+    }
+
+    static GoldenNumber create( AlgebraicField field, long a, long b, long d )
+    {
+        if ( d == 0l )
+            throw new RuntimeException( "Denominator is zero" );
+        // Long.MIN_VALUE cannot be negated, so let BigInteger deal with it
+        if ( a == Long.MIN_VALUE || b == Long.MIN_VALUE || d == Long.MIN_VALUE )
+            return create( field, BigInteger .valueOf( a ), BigInteger .valueOf( b ), BigInteger .valueOf( d ) );
+        if ( d < 0l ) {
+            a = -a;
+            b = -b;
+            d = -d;
+        }
+        long g = BigRational .gcd( BigRational .gcd( a, b ), d );
+        if ( g != 1l ) {
+            a = a / g;
+            b = b / g;
+            d = d / g;
+        }
+        return new GoldenNumber( field, a, b, d );
+    }
+
+    static GoldenNumber create( AlgebraicField field, BigInteger a, BigInteger b, BigInteger d )
+    {
+        if ( d .signum() == 0 )
+            throw new RuntimeException( "Denominator is zero" );
+        if ( d .signum() < 0 ) {
+            a = a .negate();
+            b = b .negate();
+            d = d .negate();
+        }
+        BigInteger g = a .gcd( b ) .gcd( d );
+        if ( ! g .equals( BigInteger.ONE ) ) {
+            a = a .divide( g );
+            b = b .divide( g );
+            d = d .divide( g );
+        }
+        if ( BigRational .fitsLong( a ) && BigRational .fitsLong( b ) && BigRational .fitsLong( d ) )
+            return new GoldenNumber( field, a .longValue(), b .longValue(), d .longValue() );
+        else
+            return new GoldenNumber( field, a, b, d );
+    }
+
+    static GoldenNumber create( AlgebraicField field, BigRational ones, BigRational phis )
+    {
+        BigInteger onesDen = ones .getDenominator();
+        BigInteger phisDen = phis .getDenominator();
+        BigInteger g = onesDen .gcd( phisDen );
+        BigInteger onesScale = phisDen .divide( g );
+        BigInteger phisScale = onesDen .divide( g );
+        return create( field, ones .getNumerator() .multiply( onesScale ), phis .getNumerator() .multiply( phisScale ), onesDen .multiply( onesScale ) );
+    }
+
+    private boolean isBig()
+    {
+        return this .bigD != null;
+    }
+
+    private BigInteger bigA()
+    {
+        return isBig()? this .bigA : BigInteger .valueOf( this .a );
+    }
+
+    private BigInteger bigB()
+    {
+        return isBig()? this .bigB : BigInteger .valueOf( this .b );
+    }
+
+    private BigInteger bigD()
+    {
+        return isBig()? this .bigD : BigInteger .valueOf( this .d );
+    }
+
+    @Override
+    public BigRational[] getFactors()
+    {
+        BigRational[] result = this .factors;
+        if ( result == null ) {
+            // filled in before it is published, so no thread sees an incomplete array
+            if ( isBig() )
+                result = new BigRational[]{ new BigRational( this .bigA, this .bigD ), new BigRational( this .bigB, this .bigD ) };
+            else
+                result = new BigRational[]{ new BigRational( this .a, this .d ), new BigRational( this .b, this .d ) };
+            this .factors = result;
+        }
+        return result;
+    }
+
+    @Override
+    public BigInteger getDivisor()
+    {
+        return bigD();
+    }
+
+    // the same as AlgebraicNumber, 31 + Arrays.hashCode( getFactors() ), so that hashed collections
+    //  iterate as they always have, but without creating the factors
+    @Override
+    int computeHashCode()
+    {
+        if ( isBig() )
+            return super .computeHashCode();
+        final int prime = 31;
+        int result = prime + BigRational .hashCode( this .a, this .d );
+        result = prime * result + BigRational .hashCode( this .b, this .d );
+        return prime + result;
+    }
+
+    @Override
+    public boolean equals( Object obj )
+    {
+        if ( this == obj )
+            return true;
+        if ( ! ( obj instanceof GoldenNumber ) )
+            return super .equals( obj );
+        GoldenNumber other = (GoldenNumber) obj;
+        // the representation is canonical, so equal values have identical fields
+        if ( isBig() )
+            return other .isBig() && this .bigA .equals( other .bigA ) && this .bigB .equals( other .bigB ) && this .bigD .equals( other .bigD );
+        else
+            return ! other .isBig() && this .a == other .a && this .b == other .b && this .d == other .d;
+    }
+
+    @Override
+    public int compareTo( AlgebraicNumber other )
+    {
+        if ( this == other )
+            return 0;
+        if ( other instanceof GoldenNumber && ! isBig() && ! ( (GoldenNumber) other ) .isBig() ) {
+            GoldenNumber that = (GoldenNumber) other;
+            // same ordering as AlgebraicNumber: compare the ones, then the phis
+            try {
+                int comparison = Long .compare( Math .multiplyExact( this .a, that .d ), Math .multiplyExact( that .a, this .d ) );
+                if ( comparison != 0 )
+                    return comparison;
+                return Long .compare( Math .multiplyExact( this .b, that .d ), Math .multiplyExact( that .b, this .d ) );
+            } catch ( ArithmeticException e ) {
+                // overflow, fall through to the BigRational comparison
+            }
+        }
+        return super .compareTo( other );
+    }
+
+    @Override
+    public AlgebraicNumber plus( AlgebraicNumber that )
+    {
+        if ( ! ( that instanceof GoldenNumber ) )
+            return super .plus( that );
+        GoldenNumber y = (GoldenNumber) that;
+        if ( y .isZero() )
+            return this;
+        if ( this .isZero() )
+            return y;
+        if ( ! isBig() && ! y .isBig() ) {
+            try {
+                if ( this .d == y .d )
+                    return create( getField(), Math .addExact( this .a, y .a ), Math .addExact( this .b, y .b ), this .d );
+                // work with the gcd of the denominators to keep intermediates small
+                long g = BigRational .gcd( this .d, y .d );
+                long thisScale = y .d / g;
+                long yScale = this .d / g;
+                long a = Math .addExact( Math .multiplyExact( this .a, thisScale ), Math .multiplyExact( y .a, yScale ) );
+                long b = Math .addExact( Math .multiplyExact( this .b, thisScale ), Math .multiplyExact( y .b, yScale ) );
+                return create( getField(), a, b, Math .multiplyExact( this .d, thisScale ) );
+            } catch ( ArithmeticException e ) {
+                // overflow, fall through to the BigInteger sum
+            }
+        }
+        BigInteger thisD = this .bigD(), yD = y .bigD();
+        BigInteger a = this .bigA() .multiply( yD ) .add( y .bigA() .multiply( thisD ) );
+        BigInteger b = this .bigB() .multiply( yD ) .add( y .bigB() .multiply( thisD ) );
+        return create( getField(), a, b, thisD .multiply( yD ) );
+    }
+
+    @Override
+    public AlgebraicNumber minus( AlgebraicNumber that )
+    {
+        if ( ! ( that instanceof GoldenNumber ) )
+            return super .minus( that );
+        GoldenNumber y = (GoldenNumber) that;
+        if ( y .isZero() )
+            return this;
+        if ( ! isBig() && ! y .isBig() ) {
+            try {
+                Sum sum = new Sum( this .a, this .b, this .d );
+                sum .add( Math .negateExact( y .a ), Math .negateExact( y .b ), y .d );
+                return sum .toNumber( getField() );
+            } catch ( ArithmeticException e ) {
+                // overflow, fall through to the generic difference
+            }
+        }
+        return super .minus( that );
+    }
+
+    /**
+     * A running ( a + bphi ) / d on longs, for the fused kernels below.
+     * Every step is exact, and throws ArithmeticException on overflow.
+     */
+    private static final class Sum
+    {
+        private long a, b, d;
+
+        Sum( long a, long b, long d )
+        {
+            this .a = a;
+            this .b = b;
+            this .d = d;
+        }
+
+        void add( long a, long b, long d )
+        {
+            if ( this .d == d ) {
+                this .a = Math .addExact( this .a, a );
+                this .b = Math .addExact( this .b, b );
+                return;
+            }
+            long g = BigRational .gcd( this .d, d );
+            long thisScale = d / g;
+            long scale = this .d / g;
+            this .a = Math .addExact( Math .multiplyExact( this .a, thisScale ), Math .multiplyExact( a, scale ) );
+            this .b = Math .addExact( Math .multiplyExact( this .b, thisScale ), Math .multiplyExact( b, scale ) );
+            this .d = Math .multiplyExact( this .d, thisScale );
+        }
+
+        void addProduct( GoldenNumber x, GoldenNumber y, boolean subtract )
+        {
+            long bb = Math .multiplyExact( x .b, y .b );
+            long a = Math .addExact( Math .multiplyExact( x .a, y .a ), bb );
+            long b = Math .addExact( Math .addExact( Math .multiplyExact( x .a, y .b ), Math .multiplyExact( x .b, y .a ) ), bb );
+            long d = Math .multiplyExact( x .d, y .d );
+            if ( subtract )
+                add( Math .negateExact( a ), Math .negateExact( b ), d );
+            else
+                add( a, b, d );
+        }
+
+        AlgebraicNumber toNumber( AlgebraicField field )
+        {
+            return create( field, this .a, this .b, this .d );
+        }
+    }
+
+    private static boolean isSmall( AlgebraicNumber n )
+    {
+        return n instanceof GoldenNumber && ! ( (GoldenNumber) n ) .isBig();
+    }
+
+    /**
+     * @return sum + x * y, or null if some operand or step needs BigIntegers
+     */
+    static AlgebraicNumber multiplyAdd( AlgebraicField field, AlgebraicNumber sum, AlgebraicNumber x, AlgebraicNumber y )
+    {
+        if ( ! isSmall( sum ) || ! isSmall( x ) || ! isSmall( y ) )
+            return null;
+        GoldenNumber s = (GoldenNumber) sum;
+        try {
+            Sum result = new Sum( s .a, s .b, s .d );
+            result .addProduct( (GoldenNumber) x, (GoldenNumber) y, false );
+            return result .toNumber( field );
+        } catch ( ArithmeticException e ) {
+            return null;
+        }
+    }
+
+    /**
+     * @return the sum of v1[i] * v2[i], or null if some operand or step needs BigIntegers
+     */
+    static AlgebraicNumber dotProduct( AlgebraicField field, AlgebraicNumber[] v1, AlgebraicNumber[] v2 )
+    {
+        for ( int i = 0; i < v2.length; i++ )
+            if ( ! isSmall( v1[ i ] ) || ! isSmall( v2[ i ] ) )
+                return null;
+        try {
+            Sum result = new Sum( 0l, 0l, 1l );
+            for ( int i = 0; i < v2.length; i++ )
+                result .addProduct( (GoldenNumber) v1[ i ], (GoldenNumber) v2[ i ], false );
+            return result .toNumber( field );
+        } catch ( ArithmeticException e ) {
+            return null;
+        }
+    }
+
+    /**
+     * @return x1 * y1 - x2 * y2, or null if some operand or step needs BigIntegers
+     */
+    static AlgebraicNumber productDifference( AlgebraicField field, AlgebraicNumber x1, AlgebraicNumber y1, AlgebraicNumber x2, AlgebraicNumber y2 )
+    {
+        if ( ! isSmall( x1 ) || ! isSmall( y1 ) || ! isSmall( x2 ) || ! isSmall( y2 ) )
+            return null;
+        try {
+            Sum result = new Sum( 0l, 0l, 1l );
+            result .addProduct( (GoldenNumber) x1, (GoldenNumber) y1, false );
+            result .addProduct( (GoldenNumber) x2, (GoldenNumber) y2, true );
+            return result .toNumber( field );
+        } catch ( ArithmeticException e ) {
+            return null;
+        }
+    }
+
+    @Override
+    public AlgebraicNumber times( AlgebraicNumber that )
+    {
+        if ( ! ( that instanceof GoldenNumber ) )
+            return super .times( that );
+        GoldenNumber y = (GoldenNumber) that;
+        if ( y .isZero() || this .isOne() )
+            return y;
+        if ( this .isZero() || y .isOne() )
+            return this;
+        // ( a1 + b1phi )( a2 + b2phi ) = ( a1 a2 + b1 b2 ) + ( a1 b2 + b1 a2 + b1 b2 )phi, since phi^2 = phi + 1
+        if ( ! isBig() && ! y .isBig() ) {
+            try {
+                long bb = Math .multiplyExact( this .b, y .b );
+                long a = Math .addExact( Math .multiplyExact( this .a, y .a ), bb );
+                long b = Math .addExact( Math .addExact( Math .multiplyExact( this .a, y .b ), Math .multiplyExact( this .b, y .a ) ), bb );
+                return create( getField(), a, b, Math .multiplyExact( this .d, y .d ) );
+            } catch ( ArithmeticException e ) {
+                // overflow, fall through to the BigInteger product
+            }
+        }
+        BigInteger bb = this .bigB() .multiply( y .bigB() );
+        BigInteger a = this .bigA() .multiply( y .bigA() ) .add( bb );
+        BigInteger b = this .bigA() .multiply( y .bigB() ) .add( this .bigB() .multiply( y .bigA() ) ) .add( bb );
+        return create( getField(), a, b, this .bigD() .multiply( y .bigD() ) );
+    }
+
+    @Override
+    public AlgebraicNumber negate()
+    {
+        if ( this .isZero() )
+            return this;
+        if ( isBig() )
+            return new GoldenNumber( getField(), this .bigA .negate(), this .bigB .negate(), this .bigD );
+        else
+            return new GoldenNumber( getField(), - this .a, - this .b, this .d );
+    }
+
+    @Override
+    public AlgebraicNumber reciprocal()
+    {
+        if ( this .isZero() )
+            throw new RuntimeException( "Denominator is zero" );
+        if ( this .isOne() )
+            return this;
+        // 1 / ( a + bphi ) = ( a + b - bphi ) / ( a^2 + ab - b^2 )
+        if ( ! isBig() ) {
+            try {
+                long norm = Math .subtractExact( Math .addExact( Math .multiplyExact( this .a, this .a ), Math .multiplyExact( this .a, this .b ) ), Math .multiplyExact( this .b, this .b ) );
+                long a = Math .multiplyExact( this .d, Math .addExact( this .a, this .b ) );
+                long b = Math .multiplyExact( this .d, - this .b );
+                return create( getField(), a, b, norm );
+            } catch ( ArithmeticException e ) {
+                // overflow, fall through to the BigInteger quotient
+            }
+        }
+        BigInteger a = this .bigA(), b = this .bigB(), d = this .bigD();
+        BigInteger norm = a .multiply( a ) .add( a .multiply( b ) ) .subtract( b .multiply( b ) );
+        return create( getField(), d .multiply( a .add( b ) ), d .multiply( b ) .negate(), norm );
+    }
+
+    @Override
+    public double evaluate()
+    {
+        if ( isBig() )
+            return super .evaluate();
+        double den = (double) this .d;
+        return ( (double) this .a ) / den + PentagonField.PHI_VALUE * ( ( (double) this .b ) / den );
+    }
+
+    @Override
+    public boolean isZero()
+    {
+        return ! isBig() && this .a == 0l && this .b == 0l;
+    }
+
+    @Override
+    public boolean isOne()
+    {
+        return ! isBig() && this .a == 1l && this .b == 0l && this .d == 1l;
+    }
+}
@@ -23,7 +23,7 @@ public class HeptagonField extends AlgebraicField
     
     private AlgebraicNumber fromIntArray( int[] ints )
     {
-        return new AlgebraicNumber( this, new BigRational( ints[0], ints[1] ), new BigRational( ints[2], ints[3] ), new BigRational( ints[4], ints[5] ) );
+        return this .createAlgebraicNumber( new BigRational[]{ new BigRational( ints[0], ints[1] ), new BigRational( ints[2], ints[3] ), new BigRational( ints[4], ints[5] ) } );
     }
     
     public AlgebraicNumber sigmaReciprocal()
@@ -31,8 +31,11 @@ public class HeptagonField extends AlgebraicField
         return SIGMA_INV;
     }
     
-    @Override
-    public final BigRational[] multiply( BigRational[] first, BigRational[] second )
+    /**
+     * The structure constants derived from scaleBy() do the multiplication now;
+     * this is kept as a cross-check on them.
+     */
+    BigRational[] multiplyByHand( BigRational[] first, BigRational[] second )
     {
         BigRational a = first[ A ], b = first[ B ], c = first[ C ];
         BigRational d = second[ A ], e = second[ B ], f = second[ C ];
@@ -2,6 +2,8 @@
 
 package com.vzome.core.algebra;
 
+import java.math.BigInteger;
+
 public final class PentagonField extends AlgebraicField
 {
     public PentagonField()
@@ -18,6 +20,56 @@ public final class PentagonField extends AlgebraicField
     public static final double B1_LENGTH = 2d * PHI_VALUE * PHI_VALUE * PHI_VALUE;
 
     private static final int ONES_PLACE = 0, PHIS_PLACE = 1;
+
+    /**
+     * All golden numbers use the specialized GoldenNumber representation,
+     * which does its arithmetic without intermediate BigRationals.
+     */
+    @Override
+    public AlgebraicNumber createAlgebraicNumber( BigRational[] factors )
+    {
+        if ( factors.length > 2 )
+            throw new IllegalStateException( factors.length + " is too many coordinates for field \"" + this .getName() + "\"" );
+        BigRational ones = factors.length > ONES_PLACE ? factors[ ONES_PLACE ] : BigRational.ZERO;
+        BigRational phis = factors.length > PHIS_PLACE ? factors[ PHIS_PLACE ] : BigRational.ZERO;
+        return GoldenNumber .create( this, ones, phis );
+    }
+
+    @Override
+    AlgebraicNumber createAlgebraicNumber( long[] numerators, long denominator )
+    {
+        return GoldenNumber .create( this, numerators[ ONES_PLACE ], numerators[ PHIS_PLACE ], denominator );
+    }
+
+    @Override
+    AlgebraicNumber createAlgebraicNumber( BigInteger[] numerators, BigInteger denominator )
+    {
+        return GoldenNumber .create( this, numerators[ ONES_PLACE ], numerators[ PHIS_PLACE ], denominator );
+    }
+
+    // The fused kernels run on longs in GoldenNumber, and fall back to the generic BigRational[]
+    //  versions whenever an operand or intermediate value is too large.
+
+    @Override
+    public AlgebraicNumber multiplyAdd( AlgebraicNumber sum, AlgebraicNumber a, AlgebraicNumber b )
+    {
+        AlgebraicNumber result = GoldenNumber .multiplyAdd( this, sum, a, b );
+        return ( result == null )? super .multiplyAdd( sum, a, b ) : result;
+    }
+
+    @Override
+    public AlgebraicNumber dotProduct( AlgebraicNumber[] v1, AlgebraicNumber[] v2 )
+    {
+        AlgebraicNumber result = GoldenNumber .dotProduct( this, v1, v2 );
+        return ( result == null )? super .dotProduct( v1, v2 ) : result;
+    }
+
+    @Override
+    public AlgebraicNumber productDifference( AlgebraicNumber a, AlgebraicNumber b, AlgebraicNumber c, AlgebraicNumber d )
+    {
+        AlgebraicNumber result = GoldenNumber .productDifference( this, a, b, c, d );
+        return ( result == null )? super .productDifference( a, b, c, d ) : result;
+    }
     
     @Override
     double evaluateNumber( BigRational[] factors )
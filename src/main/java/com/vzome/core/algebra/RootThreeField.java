@@ -27,8 +27,11 @@ public class RootThreeField extends AlgebraicField
         buf .append( "" );
     }
 
-    @Override
-    public final BigRational[] multiply( BigRational[] first, BigRational[]  second )
+    /**
+     * The structure constants derived from scaleBy() do the multiplication now;
+     * this is kept as a cross-check on them.
+     */
+    BigRational[] multiplyByHand( BigRational[] first, BigRational[]  second )
     {
         BigRational sqrt3s = first[ SQRT3_PLACE ].times( second[ ONES_PLACE ]) .plus( first[ ONES_PLACE ].times( second[ SQRT3_PLACE ]) );
         BigRational ones = first[ ONES_PLACE ].times( second[ ONES_PLACE ] ) .plus( first[ SQRT3_PLACE ].times( second[ SQRT3_PLACE ] ) .times( THREE ) );
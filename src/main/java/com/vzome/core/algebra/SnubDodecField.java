@@ -22,9 +22,11 @@ public class SnubDodecField extends AlgebraicField
     /*
      * Implemented by applying regex changes to Corrado's Mathematica notebook,
      * so it should be bulletproof.
+     * 
+     * No longer used for multiplication, which now goes through the structure constants
+     * derived from scaleBy(), but kept as an independent cross-check on them.
      */
-    @Override
-    public BigRational[] multiply( BigRational[] a, BigRational[] b )
+    BigRational[] multiplyByHand( BigRational[] a, BigRational[] b )
     {
         BigRational[] result = new BigRational[ this .getOrder() ];
 
@@ -0,0 +1,205 @@
+package com.vzome.core.algebra;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The multiplication tensor of a field: basis(i) * basis(j) = sum over k of table[i][j][k] * basis(k),
+ * with integer structure constants.
+ *
+ * Multiplication brings each operand to integer numerators over a common denominator,
+ * computes each distinct product of numerators once (pairing a[i]b[j] with a[j]b[i], since
+ * the fields are commutative), and adds it into each result coefficient with its integer multiplicity.
+ * Only the final coefficients become BigRationals, so there is a single reduction per coefficient
+ * instead of a gcd for every intermediate sum.
+ *
+ * Everything is done on longs with Math.multiplyExact and Math.addExact, repeated with BigIntegers
+ * if anything overflows.
+ */
+final class StructureConstants
+{
+    private final int order;
+
+    // one entry per pair i <= j with a nonzero contribution
+    private final int[] pairI, pairJ;
+
+    // the result coefficients touched by each pair, with their multiplicities
+    private final int[][] pairK, pairMultiplicity;
+
+    /**
+     * @param table table[i][j][k] is the coefficient of basis(k) in basis(i) * basis(j)
+     */
+    StructureConstants( int[][][] table )
+    {
+        this .order = table.length;
+        List<int[]> pairs = new ArrayList<>();
+        List<int[]> ks = new ArrayList<>();
+        List<int[]> multiplicities = new ArrayList<>();
+        for ( int i = 0; i < order; i++ ) {
+            for ( int j = i; j < order; j++ ) {
+                int count = 0;
+                for ( int k = 0; k < order; k++ ) {
+                    if ( table[ i ][ j ][ k ] != table[ j ][ i ][ k ] )
+                        throw new IllegalArgumentException( "multiplication is not commutative for basis elements " + i + " and " + j );
+                    if ( table[ i ][ j ][ k ] != 0 )
+                        ++count;
+                }
+                if ( count == 0 )
+                    continue;
+                int[] k = new int[ count ];
+                int[] m = new int[ count ];
+                count = 0;
+                for ( int kk = 0; kk < order; kk++ ) {
+                    if ( table[ i ][ j ][ kk ] != 0 ) {
+                        k[ count ] = kk;
+                        m[ count ] = table[ i ][ j ][ kk ];
+                        ++count;
+                    }
+                }
+                pairs .add( new int[]{ i, j } );
+                ks .add( k );
+                multiplicities .add( m );
+            }
+        }
+        int size = pairs .size();
+        this .pairI = new int[ size ];
+        this .pairJ = new int[ size ];
+        this .pairK = ks .toArray( new int[ size ][] );
+        this .pairMultiplicity = multiplicities .toArray( new int[ size ][] );
+        for ( int p = 0; p < size; p++ ) {
+            this .pairI[ p ] = pairs .get( p )[ 0 ];
+            this .pairJ[ p ] = pairs .get( p )[ 1 ];
+        }
+    }
+
+    /**
+     * Derive the tensor from the field's scaleBy(), which must produce integer coefficients
+     * when scaling a basis element.
+     * @param field
+     */
+    static StructureConstants fromScaleBy( AlgebraicField field )
+    {
+        int order = field .getOrder();
+        int[][][] table = new int[ order ][ order ][ order ];
+        for ( int i = 0; i < order; i++ ) {
+            BigRational[] basis = new BigRational[ order ];
+            for ( int k = 0; k < order; k++ )
+                basis[ k ] = ( k == i )? BigRational.ONE : BigRational.ZERO;
+            for ( int j = 0; j < order; j++ ) {
+                // basis(0) is 1, which not every scaleBy() accepts
+                BigRational[] product = ( j == 0 )? basis : field .scaleBy( basis, j );
+                for ( int k = 0; k < order; k++ ) {
+                    BigRational coefficient = product[ k ];
+                    if ( ! coefficient .isLong() || coefficient .longDenominator() != 1l || Math .abs( coefficient .longNumerator() ) > Integer.MAX_VALUE )
+                        throw new IllegalStateException( "structure constant is not a small integer: " + coefficient );
+                    table[ i ][ j ][ k ] = (int) coefficient .longNumerator();
+                }
+            }
+        }
+        return new StructureConstants( table );
+    }
+
+    BigRational[] multiply( BigRational[] a, BigRational[] b )
+    {
+        try {
+            long[] na = new long[ order ];
+            long[] nb = new long[ order ];
+            long den = Math .multiplyExact( numerators( a, na ), numerators( b, nb ) );
+            long[] product = new long[ order ];
+            multiply( na, nb, product );
+            BigRational[] result = new BigRational[ order ];
+            for ( int k = 0; k < order; k++ )
+                result[ k ] = ( product[ k ] == 0l )? BigRational.ZERO : new BigRational( product[ k ], den );
+            return result;
+        } catch ( ArithmeticException e ) {
+            // overflow, so do it all again with BigIntegers
+            BigInteger[] na = new BigInteger[ order ];
+            BigInteger[] nb = new BigInteger[ order ];
+            BigInteger den = numerators( a, na ) .multiply( numerators( b, nb ) );
+            BigInteger[] product = new BigInteger[ order ];
+            multiply( na, nb, product );
+            BigRational[] result = new BigRational[ order ];
+            for ( int k = 0; k < order; k++ )
+                result[ k ] = new BigRational( product[ k ], den );
+            return result;
+        }
+    }
+
+    /**
+     * Multiply two field elements given by integer coefficients.
+     * @param product receives the result, and must not be either operand
+     * @throws ArithmeticException on overflow, in which case product is garbage
+     */
+    void multiply( long[] a, long[] b, long[] product )
+    {
+        for ( int k = 0; k < order; k++ )
+            product[ k ] = 0l;
+        for ( int p = 0; p < pairI.length; p++ ) {
+            int i = pairI[ p ], j = pairJ[ p ];
+            long term = Math .multiplyExact( a[ i ], b[ j ] );
+            if ( i != j )
+                term = Math .addExact( term, Math .multiplyExact( a[ j ], b[ i ] ) );
+            if ( term == 0l )
+                continue;
+            int[] k = pairK[ p ], m = pairMultiplicity[ p ];
+            for ( int t = 0; t < k.length; t++ ) {
+                long multiple = ( m[ t ] == 1 )? term : Math .multiplyExact( term, (long) m[ t ] );
+                product[ k[ t ] ] = Math .addExact( product[ k[ t ] ], multiple );
+            }
+        }
+    }
+
+    void multiply( BigInteger[] a, BigInteger[] b, BigInteger[] product )
+    {
+        for ( int k = 0; k < order; k++ )
+            product[ k ] = BigInteger.ZERO;
+        for ( int p = 0; p < pairI.length; p++ ) {
+            int i = pairI[ p ], j = pairJ[ p ];
+            BigInteger term = a[ i ] .multiply( b[ j ] );
+            if ( i != j )
+                term = term .add( a[ j ] .multiply( b[ i ] ) );
+            if ( term .signum() == 0 )
+                continue;
+            int[] k = pairK[ p ], m = pairMultiplicity[ p ];
+            for ( int t = 0; t < k.length; t++ ) {
+                BigInteger multiple = ( m[ t ] == 1 )? term : term .multiply( BigInteger .valueOf( m[ t ] ) );
+                product[ k[ t ] ] = product[ k[ t ] ] .add( multiple );
+            }
+        }
+    }
+
+    /**
+     * Fill numerators with the factors over their least common denominator.
+     * @return the common denominator
+     * @throws ArithmeticException if any factor or the result does not fit in longs
+     */
+    static long numerators( BigRational[] factors, long[] numerators )
+    {
+        long lcm = 1l;
+        for ( BigRational factor : factors ) {
+            if ( ! factor .isLong() )
+                throw new ArithmeticException( "not a long" );
+            long den = factor .longDenominator();
+            if ( den != 1l && lcm % den != 0l )
+                lcm = Math .multiplyExact( lcm / BigRational .gcd( lcm, den ), den );
+        }
+        for ( int i = 0; i < factors.length; i++ ) {
+            long num = factors[ i ] .longNumerator();
+            numerators[ i ] = ( num == 0l )? 0l : Math .multiplyExact( num, lcm / factors[ i ] .longDenominator() );
+        }
+        return lcm;
+    }
+
+    static BigInteger numerators( BigRational[] factors, BigInteger[] numerators )
+    {
+        BigInteger lcm = BigInteger.ONE;
+        for ( BigRational factor : factors ) {
+            BigInteger den = factor .getDenominator();
+            lcm = lcm .multiply( den ) .divide( lcm .gcd( den ) );
+        }
+        for ( int i = 0; i < factors.length; i++ )
+            numerators[ i ] = factors[ i ] .getNumerator() .multiply( lcm .divide( factors[ i ] .getDenominator() ) );
+        return lcm;
+    }
+}
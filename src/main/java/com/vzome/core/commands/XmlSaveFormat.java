@@ -98,6 +98,17 @@ public class XmlSaveFormat
         XmlSaveFormat format = FORMATS .get( namespace );
         return format;
     }
+
+    /**
+     * The formats from getFormat() are shared, so a document must initialize its own copy,
+     * or documents loading on other threads, or realizing deferred edits later, would change its settings.
+     * @return a copy of the format for namespace, or null if there is none
+     */
+    public static XmlSaveFormat newFormat( String namespace )
+    {
+        XmlSaveFormat format = FORMATS .get( namespace );
+        return ( format == null )? null : new XmlSaveFormat( format );
+    }
         
     /**
      * Initialize.
@@ -143,6 +154,19 @@ public class XmlSaveFormat
         FORMATS .put( version, this );
     }
     
+    // an unregistered copy, for newFormat()
+    private XmlSaveFormat( XmlSaveFormat prototype )
+    {
+        super();
+
+        this .version = prototype .version;
+        this .capabilities .addAll( prototype .capabilities );
+        mProject4d = prototype .mProject4d;
+        mSelectionNotSaved = prototype .mSelectionNotSaved;
+        mRationalVectors = prototype .mRationalVectors;
+        mGroupingInSelection = prototype .mGroupingInSelection;
+    }
+    
     protected String getVersion()
     {
         return this .version;  // never really called, just here to make the version warning go away
@@ -2,6 +2,8 @@
 
 package com.vzome.core.construction;
 
+import com.vzome.core.algebra.AlgebraicNumber;
+import com.vzome.core.algebra.AlgebraicNumberAccumulator;
 import com.vzome.core.algebra.AlgebraicVector;
 
 
@@ -28,13 +30,21 @@ public class CentroidPoint extends Point
 //        if ( mStart .isImpossible() || mEnd .isImpossible() )
 //            return setStateVariables( null, null, true );
 
-        AlgebraicVector centroid = mPoints[0] .getLocation();
-        int num = 1;
-        for ( int i = 1; i < mPoints .length; i++ ) {
-            centroid = centroid .plus( mPoints[i] .getLocation() );
-            num++;
+        // one accumulator per coordinate, so there is just one AlgebraicNumber per coordinate at the end
+        int dimension = mPoints[0] .getLocation() .dimension();
+        AlgebraicNumberAccumulator[] sums = new AlgebraicNumberAccumulator[ dimension ];
+        for ( int c = 0; c < dimension; c++ )
+            sums[ c ] = new AlgebraicNumberAccumulator( field );
+        for ( Point point : mPoints ) {
+            AlgebraicVector location = point .getLocation();
+            for ( int c = 0; c < dimension; c++ )
+                sums[ c ] .add( location .getComponent( c ) );
         }
-        centroid = centroid .scale( field .createRational( 1, num ) );
+        AlgebraicNumber scale = field .createRational( 1, mPoints .length );
+        AlgebraicNumber[] coords = new AlgebraicNumber[ dimension ];
+        for ( int c = 0; c < dimension; c++ )
+            coords[ c ] = sums[ c ] .scale( scale ) .toNumber();
+        AlgebraicVector centroid = new AlgebraicVector( coords );
         
         return setStateVariable( centroid, false );
     }
@@ -162,14 +162,14 @@ public class LineLineIntersectionPoint extends Point
         AlgebraicNumber d4343 = p43 .dot( p43 );
         AlgebraicNumber d2121 = p21 .dot( p21 );
         
-        AlgebraicNumber denom = d2121 .times( d4343 ) .minus( d4321 .times( d4321 ) );
+        AlgebraicNumber denom = field .productDifference( d2121, d4343, d4321, d4321 );
         if ( denom .isZero() )
             return setStateVariable( null, true );
 
-        AlgebraicNumber numer = d1343 .times( d4321 ) .minus( d1321 .times( d4343 ) );
+        AlgebraicNumber numer = field .productDifference( d1343, d4321, d1321, d4343 );
         
         AlgebraicNumber mua = numer .dividedBy( denom );
-        AlgebraicNumber mub = d1343 .plus( d4321 .times( mua ) ) .dividedBy( d4343 );
+        AlgebraicNumber mub = field .multiplyAdd( d1343, d4321, mua ) .dividedBy( d4343 );
 
         AlgebraicVector pa = p1 .plus( p21 .scale( mua ) );
         AlgebraicVector pb = p3 .plus( p43 .scale( mub ) );
@@ -69,4 +69,17 @@ public abstract class Polygon extends Construction
     {
         return mVertices .clone();
     }
+
+    public int getVertexCount()
+    {
+        return mVertices .length;
+    }
+
+    /**
+     * Like getVertices()[ i ], without copying the array.
+     */
+    public AlgebraicVector getVertex( int i )
+    {
+        return mVertices[ i ];
+    }
 }
@@ -15,12 +15,9 @@ import java.util.Set;
 import java.util.logging.Logger;
 
 import javax.vecmath.Vector3f;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLStreamException;
 
-import org.w3c.dom.Document;
 import org.w3c.dom.Element;
-import org.xml.sax.SAXException;
 
 import com.vzome.core.algebra.AlgebraicField;
 import com.vzome.core.algebra.AlgebraicNumber;
@@ -47,9 +44,12 @@ import com.vzome.core.commands.CommandTranslate;
 import com.vzome.core.commands.CommandUniformH4Polytope;
 import com.vzome.core.commands.CommandVanOss600Cell;
 import com.vzome.core.commands.XmlSaveFormat;
+import com.vzome.core.exporters.BinaryExporter3d;
+import com.vzome.core.exporters.BinaryStlExporter;
 import com.vzome.core.exporters.DaeExporter;
 import com.vzome.core.exporters.DxfExporter;
 import com.vzome.core.exporters.Exporter3d;
+import com.vzome.core.exporters.GltfExporter;
 import com.vzome.core.exporters.HistoryExporter;
 import com.vzome.core.exporters.JsonExporter;
 import com.vzome.core.exporters.LiveGraphicsExporter;
@@ -97,7 +97,11 @@ public class Application
 
     private Map<String, Exporter3d> exporters = new HashMap<>();
 
+    private Map<String, BinaryExporter3d> binaryExporters = new HashMap<>();
+
     private Lights mLights = new Lights();
+
+    private final int checkpointInterval, checkpointBudget;
     
     private static final Logger logger = Logger.getLogger( "com.vzome.core.editor" );
 
@@ -427,6 +431,23 @@ public class Application
             mCommands .put( "import.vef", new CommandImportVEFData() );
         }
 
+        // Interning makes equal locations share one instance, which saves memory and
+        //  speeds up equals() for very large models, at the cost of a synchronized lookup per parse.
+        if ( "true" .equals( props .getProperty( "intern.algebraic.values" ) ) )
+            for ( AlgebraicField internedField : fields .values() )
+                internedField .setInterning( true );
+
+        // Fields are shared by all documents, so computing the common powers up front
+        //  keeps concurrent loads from contending to extend the power tables.
+        int maxPower = Integer .parseInt( props .getProperty( "field.power.table.size", "0" ) .trim() );
+        for ( AlgebraicField tableField : fields .values() )
+            tableField .precomputePowers( maxPower );
+
+        // Each document's EditHistory records a checkpoint every N edits, so jumps through a long history
+        //  restore the nearest one instead of replaying every edit.
+        this .checkpointInterval = Integer .parseInt( props .getProperty( "edit.checkpoint.interval", "0" ) .trim() );
+        this .checkpointBudget = Integer .parseInt( props .getProperty( "edit.checkpoint.budget", "0" ) .trim() );
+
 //        field = new Heptagon6Field();
 //        fields .put( field .getName(), field );
 //        symmetry = new OctahedralSymmetry( field, "blue", "octahedra" );
@@ -450,6 +471,8 @@ public class Application
         this .exporters .put( "pdb", new PdbExporter( null, this .mColors, this .mLights, null ) );
         this .exporters .put( "seg", new SegExporter( null, this .mColors, this .mLights, null ) );
         this .exporters .put( "ply", new PlyExporter( this .mColors, this .mLights ) );
+        this .binaryExporters .put( "stl-binary", new BinaryStlExporter( null, this .mColors, this .mLights, null ) );
+        this .binaryExporters .put( "glb", new GltfExporter( null, this .mColors, this .mLights, null ) );
         
         this .exporters .put( "history", new HistoryExporter( null, this .mColors, this .mLights, null ) );
     }
@@ -461,25 +484,45 @@ public class Application
         styles .add( shapes );
     }
     
+    /**
+     * Load a document, keeping its edits in a compact form until finishLoading() is called.
+     */
     public DocumentModel loadDocument( InputStream bytes ) throws Exception
     {
-        Document xml = null;
+        DocumentReader reader = this .openDocument( bytes );
+        reader .readToHistory();
+        reader .readToEnd();
+        bytes .close();
+        DocumentModel document = new DocumentModel( this .getDocumentField( reader .getRoot() ), failures, reader .getRoot(), this );
+        document .setLoadedEdits( reader .getEdits(), reader .getDocument() );
+        return document;
+    }
 
-        // parse the bytes as XML
+    /**
+     * Load a document and finish loading it.  The whole file is read before any edit is realized,
+     * since the symmetry system, saved views and notes that follow the history change how its edits load.
+     * There is no need to call finishLoading() on the result.
+     */
+    public DocumentModel loadDocument( InputStream bytes, boolean openUndone, boolean asTemplate ) throws Exception
+    {
+        DocumentModel document = this .loadDocument( bytes );
+        document .finishLoading( openUndone, asTemplate );
+        return document;
+    }
+
+    private DocumentReader openDocument( InputStream bytes ) throws Exception
+    {
+        DocumentReader reader = null;
+
+        // parse the bytes as XML, up to the root element
         try {
-        	DocumentBuilderFactory factory = DocumentBuilderFactory .newInstance();
-        	factory .setNamespaceAware( true );
-        	DocumentBuilder builder = factory .newDocumentBuilder();
-        	xml = builder .parse( bytes );
-            bytes.close();
-        } catch ( SAXException e ) {
-//            String errorCode = "XML is bad:  " + e.getMessage() + " at line " + e.getLineNumber() + ", column "
-//                    + e.getColumnNumber();
+            reader = new DocumentReader( bytes );
+        } catch ( XMLStreamException e ) {
             logger .severe( e .getMessage() );
             throw e; 
         }
 
-        Element element = xml .getDocumentElement();
+        Element element = reader .getRoot();
         String tns = element .getNamespaceURI();
         XmlSaveFormat format = XmlSaveFormat .getFormat( tns );
 
@@ -498,17 +541,18 @@ public class Application
         }
         else
             logger .fine( "supported format: " + tns );
-        
-        
+        return reader;
+    }
+
+    private AlgebraicField getDocumentField( Element element )
+    {
         String fieldName = element .getAttribute( "field" );
         if ( fieldName .isEmpty() )
             // field is qualified in the Zome interchange format
             fieldName = element .getAttributeNS( XmlSaveFormat.CURRENT_FORMAT, "field" );
         if ( fieldName .isEmpty() )
             fieldName = "golden";
-        AlgebraicField field = fields .get( fieldName );
-        
-        return new DocumentModel( field, failures, element, this );
+        return fields .get( fieldName );
     }
 
 	public DocumentModel createDocument( String fieldName )
@@ -604,6 +648,16 @@ public class Application
         return defaults;
 	}
 
+	public int getCheckpointInterval()
+	{
+		return this .checkpointInterval;
+	}
+
+	public int getCheckpointBudget()
+	{
+		return this .checkpointBudget;
+	}
+
 	public Colors getColors()
 	{
 		return this .mColors;
@@ -614,11 +668,22 @@ public class Application
 		return this .mCommands;
 	}
 
+    /**
+     * @return the text exporter for the format, or null if there is none; see getBinaryExporter
+     */
     public Exporter3d getExporter( String format )
     {
         return this .exporters .get( format );
     }
 
+    /**
+     * @return the binary exporter for the format, like glb or stl-binary, or null if there is none
+     */
+    public BinaryExporter3d getBinaryExporter( String format )
+    {
+        return this .binaryExporters .get( format );
+    }
+
 	public Lights getLights()
 	{
 		return this .mLights;
@@ -3,9 +3,7 @@
 
 package com.vzome.core.editor;
 
-import java.util.HashMap;
 import java.util.Iterator;
-import java.util.Map;
 import java.util.function.Predicate;
 
 import org.w3c.dom.Document;
@@ -14,6 +12,7 @@ import org.w3c.dom.Element;
 import com.vzome.core.construction.Construction;
 import com.vzome.core.model.Connector;
 import com.vzome.core.model.Manifestation;
+import com.vzome.core.model.ManifestationSet;
 import com.vzome.core.model.Panel;
 import com.vzome.core.model.RealizedModel;
 import com.vzome.core.model.Strut;
@@ -32,8 +31,7 @@ public abstract class ChangeManifestations extends ChangeSelection
         super( selection, groupInSelection );
 
         mManifestations = realized;
-        // TODO: DJH: Can this be replaced by a HashSet since the key is always equal to the value.
-        mManifestedNow = new HashMap<>();
+        mManifestedNow = new ManifestationSet();
     }
 
     /**
@@ -43,15 +41,13 @@ public abstract class ChangeManifestations extends ChangeSelection
      * 
      * TODO: look at implications for unmanifestConstruction
      */
-    // TODO: DJH: Can this be replaced by a HashSet since the key is always equal to the value.
-    private transient Map<Manifestation, Manifestation> mManifestedNow;  // used only while calling manifest
+    private transient ManifestationSet mManifestedNow;  // used only while calling manifest
     
     @Override
     public void redo()
     {
         if ( mManifestedNow != null )
-            // TODO: DJH: Can this be replaced by a HashSet since the key is always equal to the value.
-            mManifestedNow = new HashMap<>();
+            mManifestedNow = new ManifestationSet();
         super .redo();
 //        System.out.print( " manifestations: " + mManifestations .size() );
     }
@@ -82,8 +78,7 @@ public abstract class ChangeManifestations extends ChangeSelection
         if ( made != null )
         	return made;
         if ( m .isUnnecessary() )  { // just manifested, not added yet
-            // TODO: DJH: Can this be replaced by a HashSet since the key is always equal to the value.
-        	mManifestedNow .put( m, m );
+        	mManifestedNow .add( m );
         	plan( new ManifestConstruction( c, m, true ) );
         }
         else {
@@ -155,7 +150,7 @@ public abstract class ChangeManifestations extends ChangeSelection
 		return false;
 	}    
 
-    private class ManifestConstruction implements SideEffect
+    private class ManifestConstruction implements ManifestationEffect
     {
         private final Manifestation mManifestation;
         
@@ -170,6 +165,12 @@ public abstract class ChangeManifestations extends ChangeSelection
             mShowing = showing;
         }
 
+        @Override
+        public Manifestation getManifestation()
+        {
+            return mManifestation;
+        }
+
         @Override
         public void redo()
         {
@@ -223,7 +224,7 @@ public abstract class ChangeManifestations extends ChangeSelection
         }
     }
     
-    private class RenderManifestation implements SideEffect
+    private class RenderManifestation implements ManifestationEffect
     {
         private final Manifestation mManifestation;
 
@@ -235,6 +236,12 @@ public abstract class ChangeManifestations extends ChangeSelection
             mShowing = showing;
         }
 
+        @Override
+        public Manifestation getManifestation()
+        {
+            return mManifestation;
+        }
+
         @Override
         public void redo()
         {
@@ -271,7 +278,7 @@ public abstract class ChangeManifestations extends ChangeSelection
 
     }
 
-    private class DeleteManifestation implements SideEffect
+    private class DeleteManifestation implements ManifestationEffect
     {
         private final Manifestation mManifestation;
         
@@ -280,6 +287,12 @@ public abstract class ChangeManifestations extends ChangeSelection
             mManifestation = manifestation;
         }
 
+        @Override
+        public Manifestation getManifestation()
+        {
+            return mManifestation;
+        }
+
         @Override
         public void redo()
         {
@@ -0,0 +1,234 @@
+package com.vzome.core.editor;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.vzome.core.model.Group;
+import com.vzome.core.model.Manifestation;
+import com.vzome.core.model.ManifestationState;
+import com.vzome.core.model.RealizedModel;
+
+/**
+ * Snapshots of the model and selection state at every interval-th edit, so that EditHistory
+ * can jump to a distant edit by restoring a checkpoint instead of replaying every edit in between.
+ *
+ * Each checkpoint records only the manifestations that changed since the previous one, with
+ * their earlier state, so the chain can be walked backward from the latest state.
+ * Manifestations are always identified by identity, never equality, since an edit may
+ * replace a manifestation with an equal one.
+ */
+class Checkpoints
+{
+    private final RealizedModel model;
+
+    private final Selection selection;
+
+    private final int interval, budget;
+
+    // in increasing order of edit number
+    private final List<Checkpoint> checkpoints = new ArrayList<>();
+
+    // the state at the last checkpoint of every manifestation any checkpoint has changed
+    private final Map<Manifestation, ManifestationState> head = new IdentityHashMap<>();
+
+    // manifestation and selection entries held by all the checkpoints, to compare with the budget
+    private int entries = 0;
+
+    private static final class Checkpoint
+    {
+        private final int editNumber;
+
+        // what changed since the previous checkpoint, and how it was before
+        private final Manifestation[] changed;
+
+        private final ManifestationState[] before;
+
+        // shared with the previous checkpoint when the selection did not change
+        private final Manifestation[] selected;
+
+        private final Group selectedGroup;
+
+        Checkpoint( int editNumber, Manifestation[] changed, ManifestationState[] before, Manifestation[] selected, Group selectedGroup )
+        {
+            this .editNumber = editNumber;
+            this .changed = changed;
+            this .before = before;
+            this .selected = selected;
+            this .selectedGroup = selectedGroup;
+        }
+    }
+
+    Checkpoints( RealizedModel model, Selection selection, int interval, int budget )
+    {
+        this .model = model;
+        this .selection = selection;
+        this .interval = interval;
+        this .budget = budget;
+    }
+
+    int getInterval()
+    {
+        return this .interval;
+    }
+
+    /**
+     * @return the edit number of the last checkpoint, or -1 if there is none
+     */
+    int last()
+    {
+        return this .checkpoints .isEmpty()? -1 : this .checkpoints .get( this .checkpoints .size() - 1 ) .editNumber;
+    }
+
+    /**
+     * @return the edit number of the last checkpoint at or before editNumber, or -1 if there is none
+     */
+    int atOrBefore( int editNumber )
+    {
+        int result = -1;
+        for ( Checkpoint checkpoint : this .checkpoints ) {
+            if ( checkpoint .editNumber > editNumber )
+                break;
+            result = checkpoint .editNumber;
+        }
+        return result;
+    }
+
+    /**
+     * Record the current state as the checkpoint for editNumber, which must follow the last checkpoint.
+     * @param touched every manifestation the edits since the last checkpoint may have changed, possibly repeated
+     */
+    void record( int editNumber, List<Manifestation> touched )
+    {
+        if ( editNumber <= this .last() )
+            throw new IllegalStateException( "checkpoints must be recorded in order" );
+        List<Manifestation> changed = new ArrayList<>();
+        List<ManifestationState> before = new ArrayList<>();
+        for ( Manifestation m : distinct( touched ) ) {
+            ManifestationState now = ManifestationState .of( this .model, m );
+            ManifestationState then = this .stateAtLast( m );
+            if ( ! now .equals( then ) ) {
+                changed .add( m );
+                before .add( then );
+                this .head .put( m, now );
+            }
+        }
+        Manifestation[] selected = this .selection .getState();
+        Checkpoint previous = this .checkpoints .isEmpty()? null : this .checkpoints .get( this .checkpoints .size() - 1 );
+        if ( previous != null && sameSequence( previous .selected, selected ) )
+            selected = previous .selected;
+        else
+            this .entries += selected.length;
+        this .entries += changed .size();
+        this .checkpoints .add( new Checkpoint( editNumber, changed .toArray( new Manifestation[ changed .size() ] ),
+                before .toArray( new ManifestationState[ before .size() ] ), selected, this .selection .getSelectedGroup() ) );
+
+        // over budget, forget the oldest; the ones that remain can still be restored
+        while ( this .entries > this .budget && this .checkpoints .size() > 1 ) {
+            Checkpoint oldest = this .checkpoints .remove( 0 );
+            this .entries -= oldest .changed.length;
+            if ( this .checkpoints .get( 0 ) .selected != oldest .selected )
+                this .entries -= oldest .selected.length;
+        }
+    }
+
+    /**
+     * Bring the model and selection to the state of the checkpoint at editNumber.
+     * @param touched every manifestation the edits between the current state and the checkpoint may have changed
+     */
+    void restore( int editNumber, List<Manifestation> touched )
+    {
+        int index = this .indexOf( editNumber );
+        // walking back from the last checkpoint, the earliest "before" wins
+        Map<Manifestation, ManifestationState> target = new IdentityHashMap<>();
+        for ( int i = this .checkpoints .size() - 1; i > index; i-- ) {
+            Checkpoint later = this .checkpoints .get( i );
+            for ( int j = 0; j < later .changed.length; j++ )
+                target .put( later .changed[ j ], later .before[ j ] );
+        }
+        List<Manifestation> present = new ArrayList<>();
+        List<ManifestationState> presentStates = new ArrayList<>();
+        for ( Manifestation m : distinct( touched ) ) {
+            ManifestationState state = target .get( m );
+            if ( state == null )
+                state = this .stateAtLast( m );
+            if ( state .equals( ManifestationState .of( this .model, m ) ) )
+                continue;
+            if ( state .isPresent() ) {
+                present .add( m );
+                presentStates .add( state );
+            }
+            else
+                // removals first, so an equal manifestation can replace this one
+                state .restore( this .model, m );
+        }
+        for ( int i = 0; i < present .size(); i++ )
+            presentStates .get( i ) .restore( this .model, present .get( i ) );
+
+        Checkpoint checkpoint = this .checkpoints .get( index );
+        this .selection .restore( checkpoint .selected, checkpoint .selectedGroup );
+    }
+
+    /**
+     * Forget the checkpoints after editNumber, because the edits that follow it have changed.
+     */
+    void truncate( int editNumber )
+    {
+        for ( int i = this .checkpoints .size() - 1; i >= 0; i-- ) {
+            Checkpoint checkpoint = this .checkpoints .get( i );
+            if ( checkpoint .editNumber <= editNumber )
+                break;
+            this .checkpoints .remove( i );
+            for ( int j = 0; j < checkpoint .changed.length; j++ ) {
+                if ( checkpoint .before[ j ] == ManifestationState .FRESH )
+                    this .head .remove( checkpoint .changed[ j ] );
+                else
+                    this .head .put( checkpoint .changed[ j ], checkpoint .before[ j ] );
+            }
+            this .entries -= checkpoint .changed.length;
+            if ( i == 0 || this .checkpoints .get( i - 1 ) .selected != checkpoint .selected )
+                this .entries -= checkpoint .selected.length;
+        }
+        if ( this .checkpoints .isEmpty() ) {
+            // the oldest may have been dropped for the budget, so there is no state to go back to
+            this .head .clear();
+            this .entries = 0;
+        }
+    }
+
+    private int indexOf( int editNumber )
+    {
+        for ( int i = 0; i < this .checkpoints .size(); i++ )
+            if ( this .checkpoints .get( i ) .editNumber == editNumber )
+                return i;
+        throw new IllegalArgumentException( "no checkpoint at edit " + editNumber );
+    }
+
+    private ManifestationState stateAtLast( Manifestation m )
+    {
+        ManifestationState state = this .head .get( m );
+        return ( state == null )? ManifestationState .FRESH : state;
+    }
+
+    // keeps the first occurrence of each, so the order of restoration follows the order of the edits
+    private static List<Manifestation> distinct( List<Manifestation> manifestations )
+    {
+        Map<Manifestation, Boolean> seen = new IdentityHashMap<>( manifestations .size() );
+        List<Manifestation> result = new ArrayList<>( manifestations .size() );
+        for ( Manifestation m : manifestations )
+            if ( seen .put( m, Boolean.TRUE ) == null )
+                result .add( m );
+        return result;
+    }
+
+    private static boolean sameSequence( Manifestation[] a, Manifestation[] b )
+    {
+        if ( a.length != b.length )
+            return false;
+        for ( int i = 0; i < a.length; i++ )
+            if ( a[ i ] != b[ i ] )
+                return false;
+        return true;
+    }
+}
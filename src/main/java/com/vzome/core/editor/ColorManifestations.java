@@ -66,7 +66,7 @@ public class ColorManifestations extends ChangeManifestations
     }
 
     
-    private class ColorManifestation implements SideEffect
+    private class ColorManifestation implements ManifestationEffect
     {
         private final Manifestation mManifestation;
 
@@ -84,6 +84,12 @@ public class ColorManifestations extends ChangeManifestations
             	oldColor = Color .GREY_TRANSPARENT; // TODO fix this case
         }
 
+        @Override
+        public Manifestation getManifestation()
+        {
+            return mManifestation;
+        }
+
         @Override
         public void redo()
         {
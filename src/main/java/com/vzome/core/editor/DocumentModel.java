@@ -99,6 +99,11 @@ public class DocumentModel implements Snapshot .Recorder, UndoableEdit .Context,
 	private boolean migrated = false;
 
 	private final Element mXML;
+
+	// from a streaming load, the edits of the history, which is in mXML without them
+	private List<XmlRecord> loadedEdits;
+
+	private Document loadedDoc;
 	
 	private RenderedModel renderedModel;
 	
@@ -222,6 +227,7 @@ public class DocumentModel implements Snapshot .Recorder, UndoableEdit .Context,
         }
 
         mHistory = new EditHistory();
+        mHistory .setCheckpoints( this .mRealizedModel, this .mSelection, app .getCheckpointInterval(), app .getCheckpointBudget() );
         mHistory .setListener( new EditHistory.Listener() {
 			
 			@Override
@@ -714,6 +720,15 @@ public class DocumentModel implements Snapshot .Recorder, UndoableEdit .Context,
         return last == null ? null : last .getRenderedObject() .getColor();
     }
     
+    /**
+     * Give the edits of the history, read separately from the rest of the document by a DocumentReader.
+     */
+    void setLoadedEdits( List<XmlRecord> edits, Document doc )
+    {
+        this .loadedEdits = edits;
+        this .loadedDoc = doc;
+    }
+
     public void finishLoading( boolean openUndone, boolean asTemplate ) throws Command.Failure
     {
         for ( Tool tool : getTools() )
@@ -731,7 +746,7 @@ public class DocumentModel implements Snapshot .Recorder, UndoableEdit .Context,
         //   (Adjust that if $Version.edition == $file.edition, to avoid confusion.)
 
         String tns = mXML .getNamespaceURI();
-        XmlSaveFormat format = XmlSaveFormat.getFormat( tns );
+        XmlSaveFormat format = XmlSaveFormat.newFormat( tns );
         if ( format == null )
             return; // already checked and reported version compatibility,
         // up in the constructor
@@ -827,15 +842,24 @@ public class DocumentModel implements Snapshot .Recorder, UndoableEdit .Context,
             int lastDoneEdit = openUndone? 0 : Integer.parseInt( hist .getAttribute( "editNumber" ) );
             String lseStr = hist .getAttribute( "lastStickyEdit" );
             int lastStickyEdit = ( ( lseStr == null ) || lseStr .isEmpty() )? -1 : Integer .parseInt( lseStr );
-            NodeList nodes = hist .getChildNodes();
-            for ( int i = 0; i < nodes .getLength(); i++ ) {
-                Node kid = nodes .item( i );
-                if ( kid instanceof Element ) {
-                    Element editElem = (Element) kid;
-                    mHistory .loadEdit( format, editElem, this );
+            if ( this .loadedEdits != null ) {
+                EditHistory.Loader loader = mHistory .startLoading( lastDoneEdit, lastStickyEdit, explicitSnapshots );
+                for ( XmlRecord edit : this .loadedEdits )
+                    loader .add( format, edit, this .loadedDoc, this );
+                this .loadedEdits = null;
+                loader .finish();
+            }
+            else {
+                NodeList nodes = hist .getChildNodes();
+                for ( int i = 0; i < nodes .getLength(); i++ ) {
+                    Node kid = nodes .item( i );
+                    if ( kid instanceof Element ) {
+                        Element editElem = (Element) kid;
+                        mHistory .loadEdit( format, editElem, this );
+                    }
                 }
+                mHistory .synchronize( lastDoneEdit, lastStickyEdit, explicitSnapshots );
             }
-            mHistory .synchronize( lastDoneEdit, lastStickyEdit, explicitSnapshots );
         } catch ( Throwable t )
         {
         	String message = format .getFormatError( mXML, Version.edition, Version.label, Version.SVN_REVISION );
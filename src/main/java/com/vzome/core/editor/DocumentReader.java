@@ -0,0 +1,159 @@
+package com.vzome.core.editor;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+/**
+ * Reads a vZome document with an XMLStreamReader, one child of the root at a time, so that the
+ * edit history is never held as a DOM tree.  Every other child of the root is built as DOM,
+ * under a root element like the one in the file.  The history element is added there without
+ * its edits, which are read one at a time as XmlRecords.
+ */
+final class DocumentReader
+{
+    private final XMLStreamReader reader;
+
+    private final Document doc;
+
+    private final Element root;
+
+    private final Map<String, String> pool = new HashMap<>();
+
+    // every edit read so far, realized only once the whole file has been read
+    private final List<XmlRecord> edits = new ArrayList<>();
+
+    private boolean inHistory = false;
+
+    /**
+     * Read up to the start of the root element.
+     */
+    DocumentReader( InputStream bytes ) throws XMLStreamException, ParserConfigurationException
+    {
+        XMLInputFactory factory = XMLInputFactory .newInstance();
+        factory .setProperty( XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE );
+        factory .setProperty( XMLInputFactory.IS_COALESCING, Boolean.TRUE );
+        // documents can come from anywhere, as uploads to ExportTool; never read a DTD or external entity
+        factory .setProperty( XMLInputFactory.SUPPORT_DTD, Boolean.FALSE );
+        factory .setProperty( XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE );
+        this .reader = factory .createXMLStreamReader( bytes );
+        // skip a DOCTYPE, comments and processing instructions
+        while ( this .reader .getEventType() != XMLStreamConstants.START_ELEMENT ) {
+            if ( ! this .reader .hasNext() )
+                throw new XMLStreamException( "no root element" );
+            this .reader .next();
+        }
+        DocumentBuilderFactory builderFactory = DocumentBuilderFactory .newInstance();
+        builderFactory .setNamespaceAware( true );
+        this .doc = builderFactory .newDocumentBuilder() .newDocument();
+        this .root = XmlRecord .readStart( this .reader, this .pool ) .toElement( this .doc );
+    }
+
+    Document getDocument()
+    {
+        return this .doc;
+    }
+
+    /**
+     * @return the root element, with the children read so far
+     */
+    Element getRoot()
+    {
+        return this .root;
+    }
+
+    /**
+     * Read the children of the root up to the edit history, or to the end if there is none,
+     * adding each to the root.
+     * @return the history element, without its edits, or null if there is none
+     */
+    Element readToHistory() throws XMLStreamException
+    {
+        while ( this .nextChild() ) {
+            String name = this .reader .getLocalName();
+            if ( "EditHistory" .equals( name ) || "editHistory" .equals( name ) ) {
+                Element history = XmlRecord .readStart( this .reader, this .pool ) .toElement( this .doc );
+                this .root .appendChild( history );
+                this .inHistory = true;
+                return history;
+            }
+            this .root .appendChild( XmlRecord .read( this .reader, this .pool ) .toElement( this .doc ) );
+        }
+        return null;
+    }
+
+    /**
+     * @return the next edit in the history, or null at the end of the history
+     */
+    XmlRecord nextEdit() throws XMLStreamException
+    {
+        if ( ! this .inHistory )
+            return null;
+        if ( ! this .nextChild() ) {
+            this .inHistory = false;
+            return null;
+        }
+        XmlRecord edit = XmlRecord .read( this .reader, this .pool );
+        this .edits .add( edit );
+        return edit;
+    }
+
+    /**
+     * @return every edit read so far
+     */
+    List<XmlRecord> getEdits()
+    {
+        return this .edits;
+    }
+
+    /**
+     * Read the rest of the document, adding the remaining children to the root, and close the reader.
+     * @return the children added, which follow the edit history in the file
+     */
+    List<Element> readToEnd() throws XMLStreamException
+    {
+        while ( this .nextEdit() != null )
+            ;
+        List<Element> rest = new ArrayList<>();
+        while ( this .nextChild() ) {
+            Element child = XmlRecord .read( this .reader, this .pool ) .toElement( this .doc );
+            this .root .appendChild( child );
+            rest .add( child );
+        }
+        this .reader .close();
+        this .pool .clear();
+        return rest;
+    }
+
+    // advance to the start of the next child element, or return false at the end of the parent
+    private boolean nextChild() throws XMLStreamException
+    {
+        while ( this .reader .hasNext() ) {
+            switch ( this .reader .next() ) {
+
+            case XMLStreamConstants.START_ELEMENT:
+                return true;
+
+            case XMLStreamConstants.END_ELEMENT:
+            case XMLStreamConstants.END_DOCUMENT:
+                return false;
+
+            default:
+                break;
+            }
+        }
+        return false;
+    }
+}
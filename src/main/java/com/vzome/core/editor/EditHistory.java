@@ -18,6 +18,7 @@ import com.vzome.core.commands.Command.Failure;
 import com.vzome.core.editor.UndoableEdit.Context;
 import com.vzome.core.math.DomUtils;
 import com.vzome.core.model.Manifestation;
+import com.vzome.core.model.RealizedModel;
 
 public class EditHistory implements Iterable<UndoableEdit>
 {	
@@ -29,6 +30,8 @@ public class EditHistory implements Iterable<UndoableEdit>
     
     private boolean breakpointHit = false;
     
+    private Checkpoints checkpoints = null;
+    
     private static final Logger logger = Logger .getLogger( "com.vzome.core.EditHistory" );
     private static final Logger breakpointLogger = Logger .getLogger( "com.vzome.core.editor.Breakpoint" );
 
@@ -44,8 +47,98 @@ public class EditHistory implements Iterable<UndoableEdit>
 		this .listener = listener;
 	}
 
+    /**
+     * Record the state of the model and selection every interval edits while redoing, so that goToEdit()
+     * can restore the nearest checkpoint and replay only the edits from there.
+     * The checkpoints together hold at most about budget manifestation entries; the oldest are dropped first.
+     * @param interval zero to turn checkpoints off
+     */
+    public void setCheckpoints( RealizedModel model, Selection selection, int interval, int budget )
+    {
+        if ( interval <= 0 ) {
+            this .checkpoints = null;
+            return;
+        }
+        this .checkpoints = new Checkpoints( model, selection, interval, budget );
+        List<Manifestation> touched = new ArrayList<>();
+        for ( Manifestation m : model )
+            touched .add( m );
+        this .collectManifestations( 0, mEditNumber, touched );
+        this .checkpoints .record( mEditNumber, touched );
+    }
+
+    private void checkpoint()
+    {
+        if ( this .checkpoints == null || mEditNumber % this .checkpoints .getInterval() != 0 )
+            return;
+        int last = this .checkpoints .last();
+        if ( mEditNumber <= last )
+            return;
+        List<Manifestation> touched = new ArrayList<>();
+        this .collectManifestations( Math .max( last, 0 ), mEditNumber, touched );
+        this .checkpoints .record( mEditNumber, touched );
+    }
+
+    /**
+     * Called before mEdits changes at index, since checkpoints after that no longer match the edits.
+     */
+    private void editsChanged( int index )
+    {
+        if ( this .checkpoints != null )
+            this .checkpoints .truncate( index );
+    }
+
+    private void collectManifestations( int from, int to, List<Manifestation> touched )
+    {
+        for ( int i = from; i < to; i++ ) {
+            UndoableEdit edit = mEdits .get( i );
+            if ( edit instanceof SideEffects )
+                ( (SideEffects) edit ) .collectManifestations( touched );
+        }
+    }
+
+    // edits whose redo() and undo() change only the model and selection, which a checkpoint restores
+    private static boolean isRestorable( UndoableEdit edit )
+    {
+        return edit instanceof SideEffects || edit instanceof BeginBlock || edit instanceof EndBlock
+                || edit instanceof Snapshot || edit instanceof Branch || edit instanceof Breakpoint;
+    }
+
+    /**
+     * Restore the last checkpoint at or before editNum, if that leaves fewer edits to replay than
+     * going directly, and every edit skipped over can be restored.
+     * Only earlier checkpoints are used, so the edits are replayed with redo(), the same as
+     * when they were first loaded; undo() does not always restore exactly the state before redo().
+     */
+    private void jumpToCheckpoint( int editNum )
+    {
+        if ( this .checkpoints == null )
+            return;
+        editNum = Math .max( 0, Math .min( editNum, mEdits .size() ) );
+        int nearest = this .checkpoints .atOrBefore( editNum );
+        if ( nearest < 0 || editNum - nearest >= Math .abs( editNum - mEditNumber ) )
+            return;
+        int from = Math .min( nearest, mEditNumber ), to = Math .max( nearest, mEditNumber );
+        for ( int i = from; i < to; i++ )
+            if ( ! isRestorable( mEdits .get( i ) ) )
+                return;
+        List<Manifestation> touched = new ArrayList<>();
+        this .collectManifestations( from, to, touched );
+        this .checkpoints .restore( nearest, touched );
+        // the skipped edits must still replay in full if redone or undone later
+        for ( int i = from; i < to; i++ ) {
+            UndoableEdit edit = mEdits .get( i );
+            if ( edit instanceof SideEffects )
+                ( (SideEffects) edit ) .setRedone( i < nearest );
+        }
+        if ( logger .isLoggable( Level .FINE ) )
+            logger .fine( "restored checkpoint " + nearest + " instead of replaying from " + mEditNumber );
+        mEditNumber = nearest;
+    }
+
     public void addEdit( UndoableEdit edit, Context context )
     {
+        this .editsChanged( mEditNumber );
         if ( ! edit .isDestructive() )
         {
             // just insert at the current point, don't invalidate the redoable edits
@@ -98,6 +191,22 @@ public class EditHistory implements Iterable<UndoableEdit>
     
     public UndoableEdit undoAll()
     {
+        if ( this .checkpoints != null ) {
+            // what the loop below would return: the first edit that undo() reports
+            UndoableEdit first = null;
+            for ( int i = 0; i < mEditNumber && first == null; i++ ) {
+                UndoableEdit edit = mEdits .get( i );
+                if ( edit .isVisible() || edit instanceof BeginBlock )
+                    first = edit;
+            }
+            try {
+                this .goToEdit( 0 );
+            } catch ( Command.Failure e ) {
+                // undo never fails
+                throw new IllegalStateException( e );
+            }
+            return first;
+        }
         UndoableEdit last = null;
         do {
             UndoableEdit edit = undo();
@@ -159,6 +268,7 @@ public class EditHistory implements Iterable<UndoableEdit>
     
     public void setBreakpoint()
     {
+        this .editsChanged( mEditNumber );
         mEdits .add( mEditNumber++, new Breakpoint() );
     }
 
@@ -166,6 +276,33 @@ public class EditHistory implements Iterable<UndoableEdit>
     {
         UndoableEdit last = null;
         breakpointHit = false;  // different mechanism than the int parameter
+        if ( this .checkpoints != null ) {
+            // jump as far as the first Breakpoint edit or the breakpoint number, but not into a block
+            int stop = ( breakpoint == -1 )? mEdits .size() : Math .min( breakpoint, mEdits .size() );
+            int target = mEditNumber, depth = 0;
+            UndoableEdit lastReported = null;
+            for ( int i = mEditNumber; i < stop; i++ ) {
+                UndoableEdit edit = mEdits .get( i );
+                if ( edit instanceof Breakpoint )
+                    break;
+                if ( edit instanceof BeginBlock )
+                    ++depth;
+                else if ( edit instanceof EndBlock )
+                    --depth;
+                if ( depth == 0 ) {
+                    target = i + 1;
+                    // redo() reports the EndBlock for a block, otherwise each visible edit
+                    if ( edit .isVisible() || edit instanceof EndBlock )
+                        lastReported = edit;
+                }
+            }
+            if ( target - mEditNumber > this .checkpoints .getInterval() ) {
+                this .goToEdit( target );
+                last = lastReported;
+                if ( breakpoint != -1 && mEditNumber >= breakpoint )
+                    return last;
+            }
+        }
         do {
             UndoableEdit edit = redo();
             if ( edit == null )
@@ -187,6 +324,7 @@ public class EditHistory implements Iterable<UndoableEdit>
             editNum = mEdits .size();
         if ( editNum == mEditNumber )
             return;
+        this .jumpToCheckpoint( editNum );
         // undo() and redo() inlined here to avoid isVisible() and block limitations
         while ( mEditNumber < editNum )
         {
@@ -194,6 +332,7 @@ public class EditHistory implements Iterable<UndoableEdit>
                 break;
             UndoableEdit undoable = mEdits .get( mEditNumber++ );
             undoable .redo();
+            this .checkpoint();
         }
         while ( mEditNumber > editNum )
         {
@@ -248,6 +387,7 @@ public class EditHistory implements Iterable<UndoableEdit>
                 logger .warning( "edit number that failed is " + (mEditNumber-1) );
             throw e;
         }
+        this .checkpoint();
         
     	if ( undoable instanceof EndBlock )
     		return undoable;
@@ -338,6 +478,7 @@ public class EditHistory implements Iterable<UndoableEdit>
         if ( below instanceof ChangeSelection )
         {
             // two in a row, wrap with begin/end pair
+            this .editsChanged( cursor );
         	UndoableEdit bracket = new BeginBlock();
             mEdits .add( cursor, bracket );
             bracket = new EndBlock();
@@ -359,6 +500,7 @@ public class EditHistory implements Iterable<UndoableEdit>
                 else if ( next instanceof BeginBlock )
                 {
                     // merge new selection change into block by swapping with EndBlock
+                    this .editsChanged( cursor );
                     mEdits .remove( above );
                     mEdits .add( cursor, above );
                     return;
@@ -371,7 +513,9 @@ public class EditHistory implements Iterable<UndoableEdit>
 
     public void replaceEdit( UndoableEdit oldEdit, UndoableEdit newEdit )
     {
-        mEdits .set( mEdits .indexOf( oldEdit ), newEdit );
+        int index = mEdits .indexOf( oldEdit );
+        this .editsChanged( index );
+        mEdits .set( index, newEdit );
     }
 
     /**
@@ -381,6 +525,7 @@ public class EditHistory implements Iterable<UndoableEdit>
      */
     public void insert( UndoableEdit edit )
     {
+        this .editsChanged( mEditNumber );
         mEdits .add( mEditNumber++, edit );
     }
     
@@ -446,6 +591,11 @@ public class EditHistory implements Iterable<UndoableEdit>
         private final XmlSaveFormat format;
 
         private final Element xml;
+
+        // from a streaming load, the edit is kept compact until it is needed
+        private final XmlRecord record;
+
+        private final Document doc;
         
         private Context context;
 
@@ -453,9 +603,25 @@ public class EditHistory implements Iterable<UndoableEdit>
         {
             this.format = format;
             this.xml = editElem;
+            this.record = null;
+            this.doc = null;
+            this.context = context;
+        }
+
+        DeferredEdit( XmlSaveFormat format, XmlRecord record, Document doc, Context context )
+        {
+            this.format = format;
+            this.xml = null;
+            this.record = record;
+            this.doc = doc;
             this.context = context;
         }
 
+        private Element getElement()
+        {
+            return ( this .record == null )? this .xml : this .record .toElement( this .doc );
+        }
+
         @Override
         public Element getXml( Document doc )
         {
@@ -472,6 +638,8 @@ public class EditHistory implements Iterable<UndoableEdit>
                 <StrutCreation anchor="0 0 0 0 0 0" index="9" len="2 4"/>
               </EditHistory>
             */
+            if ( this .record != null )
+                return this .record .toElement( doc );
             return ( doc.equals( xml.getOwnerDocument() ) )
                     ? xml
                     : (Element) doc.importNode(xml, true);
@@ -502,7 +670,9 @@ public class EditHistory implements Iterable<UndoableEdit>
              * 3. the UndoableEdit may migrate itself, generating
              */
         	int num = mEditNumber;
-            mEdits .remove( --mEditNumber );
+            editsChanged( --mEditNumber );
+            mEdits .remove( mEditNumber );
+            final Element xml = this .getElement();
 
         	if ( logger.isLoggable( Level.FINE ) ) // see the logger declaration to enable FINE
         		logger.fine( "%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%% " + num + ": " + DomUtils .getXmlString( xml ) );
@@ -606,53 +776,96 @@ public class EditHistory implements Iterable<UndoableEdit>
      */
 	public void synchronize( int lastDoneEdit, int lastStickyEdit, UndoableEdit[] explicitSnapshots ) throws Failure
 	{
-	    int redoThreshold = Math .max( lastDoneEdit, lastStickyEdit );
-	    
-	    if ( explicitSnapshots != null )
-	        redoThreshold = Math .max( redoThreshold, explicitSnapshots .length - 1 );
-	    
-	    mEditNumber = 0;
-	    int targetEdit = 0;
-	    List<UndoableEdit> toRedo = new ArrayList<>();
 	    // here the edits are all still DeferredEdits
-	    for ( int i = 0; i < redoThreshold; i++ )
-	        if ( i < mEdits .size() )
-                toRedo .add( mEdits .get( i ) );
-	        else
-	            break;
-	    for ( int oldIndex = 0; oldIndex < toRedo .size(); oldIndex++ )
-	    {	            
-	        DeferredEdit edit = (DeferredEdit) toRedo .get( oldIndex );
-	        try {
-                if ( explicitSnapshots != null
-                        && explicitSnapshots .length > oldIndex
-                        && explicitSnapshots[ oldIndex ] != null )
-                {
-                    // a snapshot editNum of 3 means a snapshot *before* edit #3 is redone,
-                    //  so we do this snapshot migration first
-                    UndoableEdit snapshot = explicitSnapshots[ oldIndex ];
-                    mEdits .add( mEditNumber, snapshot );
-                    // keep lastDoneEdit in alignment
-                    if ( mEditNumber <= lastDoneEdit )
-                        ++ lastDoneEdit;
-                    ++ mEditNumber;
-                    snapshot .perform();
-                }
+	    List<UndoableEdit> loaded = new ArrayList<>( mEdits );
+	    this .editsChanged( 0 );
+	    mEdits .clear();
+	    Loader loader = this .startLoading( lastDoneEdit, lastStickyEdit, explicitSnapshots );
+	    for ( UndoableEdit edit : loaded )
+	        loader .add( edit );
+	    loader .finish();
+	}
 
-                ++ mEditNumber;  //match the preconditions like this.redo()
+	/**
+	 * Start loading edits with a Loader, as synchronize() would for edits loaded by loadEdit().
+	 */
+	Loader startLoading( int lastDoneEdit, int lastStickyEdit, UndoableEdit[] explicitSnapshots )
+	{
+	    return new Loader( lastDoneEdit, lastStickyEdit, explicitSnapshots );
+	}
+
+	/**
+	 * Loads edits one at a time, realizing each one up to the redo threshold as soon as it is added,
+	 * so a streaming load need not hold them all first.  Adding every edit and then calling finish()
+	 * is the same as loadEdit() for every edit, then synchronize().
+	 */
+	class Loader
+	{
+	    private final int redoThreshold;
+
+	    private final UndoableEdit[] explicitSnapshots;
+
+	    private int lastDoneEdit, targetEdit = 0, oldIndex = 0;
+
+	    private Loader( int lastDoneEdit, int lastStickyEdit, UndoableEdit[] explicitSnapshots )
+	    {
+	        int redoThreshold = Math .max( lastDoneEdit, lastStickyEdit );
+	        if ( explicitSnapshots != null )
+	            redoThreshold = Math .max( redoThreshold, explicitSnapshots .length - 1 );
+	        this .redoThreshold = redoThreshold;
+	        this .lastDoneEdit = lastDoneEdit;
+	        this .explicitSnapshots = explicitSnapshots;
+	        mEditNumber = mEdits .size();
+	    }
+
+	    void add( XmlSaveFormat format, XmlRecord record, Document doc, Context context ) throws Failure
+	    {
+	        this .add( new DeferredEdit( format, record, doc, context ) );
+	    }
+
+	    private void add( UndoableEdit edit ) throws Failure
+	    {
+	        if ( this .oldIndex >= this .redoThreshold ) {
+	            // past the threshold, the edit stays deferred, after the current edit
+	            mEdits .add( edit );
+	            ++ this .oldIndex;
+	            return;
+	        }
+	        try {
+	            if ( this .explicitSnapshots != null
+	                    && this .explicitSnapshots .length > this .oldIndex
+	                    && this .explicitSnapshots[ this .oldIndex ] != null )
+	            {
+	                // a snapshot editNum of 3 means a snapshot *before* edit #3 is redone,
+	                //  so we do this snapshot migration first
+	                UndoableEdit snapshot = this .explicitSnapshots[ this .oldIndex ];
+	                editsChanged( mEditNumber );
+	                mEdits .add( mEditNumber, snapshot );
+	                // keep lastDoneEdit in alignment
+	                if ( mEditNumber <= this .lastDoneEdit )
+	                    ++ this .lastDoneEdit;
+	                ++ mEditNumber;
+	                snapshot .perform();
+	            }
+
+	            editsChanged( mEditNumber );
+	            mEdits .add( mEditNumber, edit );
+	            ++ mEditNumber;  //match the preconditions like this.redo()
 	            edit .redo();
+	            checkpoint();
 	            // now the edit is realized
-	            
+
 	            // lastDoneEdit is in terms of the edits in the file, and we need
 	            //  to translate it to match the actual edit numbers, after migration
 	            //  and snapshot creation.  We know this condition will succeed once,
-	            //  since toRedo.size() is at least as big as lastDoneEdit.
-	            if ( oldIndex+1 == lastDoneEdit )
-	            	targetEdit = mEditNumber;
+	            //  since the edits redone are at least as many as lastDoneEdit.
+	            ++ this .oldIndex;
+	            if ( this .oldIndex == this .lastDoneEdit )
+	                this .targetEdit = mEditNumber;
 
 	        } catch ( RuntimeException e ) {
 	            if ( logger.isLoggable( Level.WARNING ) )
-	                logger.warning( "edit number that failed is " + ( this .mEditNumber - 1 ) );
+	                logger.warning( "edit number that failed is " + ( mEditNumber - 1 ) );
 	            // unwrap
 	            Throwable t = e.getCause();
 	            if ( t instanceof Command.Failure )
@@ -661,18 +874,23 @@ public class EditHistory implements Iterable<UndoableEdit>
 	                throw e;
 	        }
 	    }
-        if ( explicitSnapshots != null
-                && explicitSnapshots .length > redoThreshold
-                && explicitSnapshots[ redoThreshold ] != null )
-        {
-            // a snapshot editNum of 3 means a snapshot *before* edit #3 is redone,
-            //  so we do this snapshot migration first
-            UndoableEdit snapshot = explicitSnapshots[ redoThreshold ];
-            mEdits .add( mEditNumber, snapshot );
-            ++ mEditNumber;
-            snapshot .perform();
-        }
-        goToEdit( targetEdit );
+
+	    void finish() throws Failure
+	    {
+	        if ( this .explicitSnapshots != null
+	                && this .explicitSnapshots .length > this .redoThreshold
+	                && this .explicitSnapshots[ this .redoThreshold ] != null )
+	        {
+	            // a snapshot editNum of 3 means a snapshot *before* edit #3 is redone,
+	            //  so we do this snapshot migration first
+	            UndoableEdit snapshot = this .explicitSnapshots[ this .redoThreshold ];
+	            editsChanged( mEditNumber );
+	            mEdits .add( mEditNumber, snapshot );
+	            ++ mEditNumber;
+	            snapshot .perform();
+	        }
+	        goToEdit( this .targetEdit );
+	    }
 	}
 
 	public void loadEdit( XmlSaveFormat format, Element editElem, Context context )
@@ -0,0 +1,102 @@
+package com.vzome.core.editor;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import com.vzome.core.algebra.AlgebraicNumber;
+import com.vzome.core.algebra.AlgebraicVector;
+import com.vzome.core.math.symmetry.Axis;
+import com.vzome.core.math.symmetry.Direction;
+import com.vzome.core.model.RealizedModel;
+import com.vzome.core.model.Strut;
+import com.vzome.core.model.StrutIndex;
+
+/**
+ * Files each strut under its zone and under its orbit and length, as classified by one SymmetrySystem.
+ * A model keeps at most one of these; asking for a different SymmetrySystem
+ * starts over, and the index is rebuilt on the next query.
+ * Classifying a strut off all the known orbits creates an anonymous orbit, so struts are
+ * only classified when a query comes, as the full scans did, never as they are added.
+ */
+public class OrbitIndex extends StrutIndex<Object>
+{
+    private SymmetrySystem symmetry;
+
+    /**
+     * @return the model's orbit index for the symmetry system, creating it if necessary
+     */
+    public static OrbitIndex of( RealizedModel model, SymmetrySystem symmetry )
+    {
+        OrbitIndex index = model .getIndex( OrbitIndex.class );
+        if ( index == null ) {
+            index = new OrbitIndex( model, symmetry );
+            model .addIndex( index );
+        }
+        else if ( index .symmetry != symmetry ) {
+            index .invalidate();
+            index .symmetry = symmetry;
+        }
+        return index;
+    }
+
+    private OrbitIndex( RealizedModel model, SymmetrySystem symmetry )
+    {
+        super( model );
+        this .symmetry = symmetry;
+    }
+
+    @Override
+    protected Collection<Object> keys( Strut strut )
+    {
+        AlgebraicVector offset = strut .getOffset();
+        Axis zone = this .symmetry .getAxis( offset );
+        AlgebraicNumber length = zone .getLength( offset );
+        return Arrays .<Object>asList( zone, new OrbitLength( zone .getOrbit(), length ) );
+    }
+
+    /**
+     * @return the struts in any of the zones, in model order
+     */
+    public List<Strut> inZones( Axis... zones )
+    {
+        return this .get( (Object[]) zones );
+    }
+
+    /**
+     * @return the struts of the orbit with the given length, in model order
+     */
+    public List<Strut> withLength( Direction orbit, AlgebraicNumber length )
+    {
+        return this .get( new OrbitLength( orbit, length ) );
+    }
+
+    private static final class OrbitLength
+    {
+        private final Direction orbit;
+
+        private final AlgebraicNumber length;
+
+        OrbitLength( Direction orbit, AlgebraicNumber length )
+        {
+            this .orbit = orbit;
+            this .length = length;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * System .identityHashCode( this .orbit ) + this .length .hashCode();
+        }
+
+        @Override
+        public boolean equals( Object obj )
+        {
+            if ( ! ( obj instanceof OrbitLength ) )
+                return false;
+            OrbitLength other = (OrbitLength) obj;
+            // orbits are compared by identity, as in SelectSimilarSizeStruts
+            return this .orbit == other .orbit && this .length .equals( other .length );
+        }
+    }
+}
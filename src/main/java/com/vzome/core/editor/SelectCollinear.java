@@ -7,6 +7,7 @@ import com.vzome.core.commands.XmlSaveFormat;
 import static com.vzome.core.editor.ChangeSelection.logger;
 import com.vzome.core.math.DomUtils;
 import com.vzome.core.model.Connector;
+import com.vzome.core.model.LineIndex;
 import com.vzome.core.model.RealizedModel;
 import com.vzome.core.model.Strut;
 import java.util.Set;
@@ -76,11 +77,19 @@ public class SelectCollinear extends ChangeManifestations {
         }
 
         Set<Strut> struts = new TreeSet<>(); // auto sorted
-        // Example of conventional "if" syntax within the loop.
-        // Compare to the equivalent FilteredIterator predicate syntax above.
-        for (Strut strut : getVisibleStruts()) {
-            if (isCollinearWith(strut)) {
-                struts.add(strut);
+        if (vector1.equals(vector2)) {
+            // not a line, so fall back to testing every strut
+            for (Strut strut : getVisibleStruts()) {
+                if (isCollinearWith(strut)) {
+                    struts.add(strut);
+                }
+            }
+        } else {
+            // the line index files each strut under its line, so only the answer is visited
+            for (Strut strut : LineIndex.of(mManifestations).collinearStruts(vector1, vector2)) {
+                if (Manifestations.Filters.isVisible(strut)) {
+                    struts.add(strut);
+                }
             }
         }
 
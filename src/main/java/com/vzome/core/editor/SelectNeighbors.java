@@ -35,55 +35,33 @@ public class SelectNeighbors extends ChangeSelection
             else if ( withPanels && ( man instanceof Panel ) )
                 panels .add( (Panel) man );
         }
+        // the model's location index finds the neighbors of each selected manifestation directly,
+        //  in the same order as a scan of the whole model would
         for (Connector ball : balls) {
             AlgebraicVector loc = ball .getLocation();
-            for (Manifestation man : model) {
+            for (Manifestation man : model .manifestationsAt( loc )) {
                 if ( man .getRenderedObject() == null )
                     continue;  // hidden!
-                if ( man instanceof Strut && ! struts .contains( man ) ) {
-                    Strut strut = (Strut) man;
-                    if ( loc .equals( strut .getLocation() ) 
-                            || loc .equals( strut .getEnd() ) )
-                        select( strut );
-                }
-                else if ( withPanels && ( man instanceof Panel ) && ! panels .contains( man ) ) {
-                    Panel panel = (Panel) man;
-                    for (AlgebraicVector vertex : panel) {
-                        if ( loc .equals( vertex ) ) {
-                            select( panel );
-                            // no need to continue the loop since we have already selected this panel.
-                            break;
-                        }
-                    }
-                }
+                if ( man instanceof Strut && ! struts .contains( man ) )
+                    select( man );
+                else if ( withPanels && ( man instanceof Panel ) && ! panels .contains( man ) )
+                    select( man );
             }
         }
         for (Strut strut : struts) {
-            AlgebraicVector loc = strut .getLocation();
-            AlgebraicVector end = strut .getEnd();
-            for (Manifestation man : model) {
-                if ( man .getRenderedObject() == null )
+            for (Connector ball : model .connectorsAt( strut .getLocation(), strut .getEnd() )) {
+                if ( ball .getRenderedObject() == null )
                     continue;  // hidden!
-                if ( man instanceof Connector && ! balls .contains( man ) ) {
-                    AlgebraicVector bloc = man .getLocation();
-                    if ( bloc .equals( loc ) || bloc .equals( end ) )
-                        select( man );
-                }
+                if ( ! balls .contains( ball ) )
+                    select( ball );
             }
         }
         if ( withPanels ) {
-                for (Panel panel : panels) {
+            for (Panel panel : panels) {
                 for (AlgebraicVector loc : panel) {
-                    for (Manifestation man : model) {
-                        if ( man .getRenderedObject() != null ) {// if not hidden!
-                            if ( man instanceof Connector && ! balls .contains( man ) ) {
-                                AlgebraicVector bloc = man .getLocation();
-                                if ( bloc .equals( loc ) ) {
-                                    select( man );
-                                }
-                            }
-                        }
-                    }
+                    Connector ball = model .connectorAt( loc );
+                    if ( ball != null && ball .getRenderedObject() != null && ! balls .contains( ball ) ) // if not hidden!
+                        select( ball );
                 }
             }
         }
@@ -73,12 +73,10 @@ public class SelectParallelStruts extends ChangeManifestations
         int opposite = ( axis .getSense() + 1 ) % 2;
         Axis oppositeAxis = orbit. getAxis( opposite, axis .getOrientation() );
 
-        for (Strut strut : getStruts()) {
-            Axis strutAxis = symmetry.getAxis(strut .getOffset());
-            if (strutAxis != null && strutAxis.getOrbit().equals(orbit)) {
-                if ( strutAxis.equals(axis) || strutAxis.equals(oppositeAxis) ) {
-                    select(strut);
-                }
+        // the zones' struts come from the orbit index, in model order, without classifying every strut
+        if (axis.getOrbit().equals(orbit)) {
+            for (Strut strut : OrbitIndex.of(mManifestations, symmetry).inZones(axis, oppositeAxis)) {
+                select(strut);
             }
         }
         super .perform();
@@ -7,13 +7,10 @@ package com.vzome.core.editor;
 import org.w3c.dom.Element;
 
 import com.vzome.core.algebra.AlgebraicNumber;
-import com.vzome.core.algebra.AlgebraicVector;
 import com.vzome.core.commands.Command.Failure;
 import com.vzome.core.commands.XmlSaveFormat;
 import com.vzome.core.math.DomUtils;
-import com.vzome.core.math.symmetry.Axis;
 import com.vzome.core.math.symmetry.Direction;
-import com.vzome.core.model.Manifestation;
 import com.vzome.core.model.RealizedModel;
 import com.vzome.core.model.Strut;
 
@@ -48,20 +45,10 @@ public class SelectSimilarSizeStruts extends ChangeSelection
     @Override
     public void perform() throws Failure
     {
-        for (Manifestation man : model) {
-            if ( man .getRenderedObject() == null )
+        for (Strut strut : OrbitIndex .of( model, symmetry ) .withLength( this .orbit, this .length )) {
+            if ( strut .getRenderedObject() == null )
                 continue;  // hidden!
-            if ( man instanceof Strut ) {
-                Strut strut = (Strut) man;
-                AlgebraicVector offset = strut .getOffset();
-                Axis zone = symmetry .getAxis( offset );
-                Direction zoneOrbit = zone .getOrbit();
-                if ( zoneOrbit != this .orbit )
-                    continue;
-                AlgebraicNumber zoneLength = zone .getLength( offset );
-                if ( this .length .equals( zoneLength ) )
-                    select( strut );
-            }
+            select( strut );
         }
         super .perform();
     }
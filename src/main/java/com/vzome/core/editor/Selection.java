@@ -4,10 +4,14 @@ package com.vzome.core.editor;
 
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -115,6 +119,45 @@ public class Selection implements Iterable<Manifestation>
         }
     }
     
+    /**
+     * @return the selected manifestations in selection order, for an EditHistory checkpoint
+     */
+    Manifestation[] getState()
+    {
+        return mManifestations .toArray( new Manifestation[ mManifestations .size() ] );
+    }
+    
+    Group getSelectedGroup()
+    {
+        return mSelectedGroup;
+    }
+    
+    /**
+     * Restore a state recorded by getState(), notifying listeners only of the manifestations that change.
+     */
+    void restore( Manifestation[] selected, Group selectedGroup )
+    {
+        mSelectedGroup = selectedGroup;
+        Set<Manifestation> keep = Collections .newSetFromMap( new IdentityHashMap<Manifestation, Boolean>() );
+        keep .addAll( Arrays .asList( selected ) );
+        for ( Manifestation m : getState() )
+            if ( ! keep .contains( m ) )
+                remove( m );
+        // what is left must be a prefix of the new selection, or the order would be wrong
+        int prefix = 0;
+        for ( Manifestation m : mManifestations ) {
+            if ( prefix == selected.length || selected[ prefix ] != m ) {
+                for ( Manifestation wrong : getState() )
+                    remove( wrong );
+                prefix = 0;
+                break;
+            }
+            ++prefix;
+        }
+        for ( int i = prefix; i < selected.length; i++ )
+            add( selected[ i ] );
+    }
+    
     private void add( Manifestation m )
     {
         mManifestations .add( m );
@@ -4,6 +4,7 @@
 package com.vzome.core.editor;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.logging.Level;
@@ -14,6 +15,7 @@ import org.w3c.dom.Element;
 
 import com.vzome.core.commands.Command;
 import com.vzome.core.math.DomUtils;
+import com.vzome.core.model.Manifestation;
 
 public abstract class SideEffects implements UndoableEdit
 {
@@ -76,6 +78,15 @@ public abstract class SideEffects implements UndoableEdit
         public void redo();
     }
     
+    /**
+     * A SideEffect that changes the state of a single manifestation, so that
+     * EditHistory checkpoints can find what a run of edits may have touched.
+     */
+    interface ManifestationEffect extends SideEffect
+    {
+        public Manifestation getManifestation();
+    }
+    
     @Override
     public boolean isVisible()
     {
@@ -132,6 +143,25 @@ public abstract class SideEffects implements UndoableEdit
         redone = 0;
     }
 
+    /**
+     * Add the manifestations whose state these side-effects change.
+     */
+    void collectManifestations( Collection<Manifestation> touched )
+    {
+        for ( SideEffect se : mItems )
+            if ( se instanceof ManifestationEffect )
+                touched .add( ( (ManifestationEffect) se ) .getManifestation() );
+    }
+
+    /**
+     * Used when EditHistory restores a checkpoint rather than calling redo() or undo(),
+     * so that a later redo() or undo() still replays everything.
+     */
+    void setRedone( boolean redone )
+    {
+        this .redone = redone? mItems .size() : 0;
+    }
+
 	protected Iterator<SideEffect> getEffects()
 	{
 		return this .mItems .iterator();
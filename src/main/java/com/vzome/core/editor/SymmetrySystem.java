@@ -7,6 +7,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 
 import org.w3c.dom.Document;
@@ -32,7 +33,8 @@ import com.vzome.core.render.Shapes;
 public class SymmetrySystem implements OrbitSource
 {
     private static Logger logger = Logger .getLogger( "com.vzome.core.editor" );
-    private static int NEXT_NEW_AXIS = 0;
+    // shared by every Application, which may be loading on other threads
+    private static final AtomicInteger NEXT_NEW_AXIS = new AtomicInteger();
     
 	private final Symmetry symmetry;
     private final OrbitSet orbits;
@@ -91,10 +93,10 @@ public class SymmetrySystem implements OrbitSource
 						dir .setAutomatic( true );
 						try {
 							int autoNum = Integer .parseInt( name );
-							if ( autoNum >= NEXT_NEW_AXIS )
-								NEXT_NEW_AXIS = ++autoNum;  // make sure new auto directions don't collide with this
-								else if ( autoNum < NEXT_NEW_AXIS )
-									name = "" + NEXT_NEW_AXIS++;
+							if ( autoNum >= NEXT_NEW_AXIS .get() )
+								NEXT_NEW_AXIS .accumulateAndGet( ++autoNum, Math::max );  // make sure new auto directions don't collide with this
+								else
+									name = "" + NEXT_NEW_AXIS .getAndIncrement();
 						} catch ( NumberFormatException e ) {
 							// never mind, these used to be named things like "unnamed_13"
 						    System.err.println( e .getMessage() );
@@ -206,7 +208,7 @@ public class SymmetrySystem implements OrbitSource
         else
             vector = shortVector;
         
-        String colorName = "" + NEXT_NEW_AXIS++;  // we want it easy to keep these unique when loading files (see above)
+        String colorName = "" + NEXT_NEW_AXIS .getAndIncrement();  // we want it easy to keep these unique when loading files (see above)
         Direction dir = symmetry .createNewZoneOrbit( colorName, 0, Symmetry.NO_ROTATION, vector );
         dir .setAutomatic( true );
         orbits .add( dir );
@@ -0,0 +1,214 @@
+package com.vzome.core.editor;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Map;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+/**
+ * An XML element and its content held in a few flat arrays rather than a DOM tree,
+ * so that a streaming load can keep the edits it has not realized yet for a fraction of the cost.
+ * Element and attribute names, and short values, are shared through a pool, since they repeat
+ * from one edit to the next.
+ */
+final class XmlRecord
+{
+    private static final byte START = 0, END = 1, TEXT = 2;
+
+    // longer strings are rarely repeated, and would only bloat the pool
+    private static final int POOLED_LENGTH = 64;
+
+    // one per element start, element end, or text node, in document order
+    private final byte[] events;
+
+    // for each START, the number of namespace declarations and attributes
+    private final int[] counts;
+
+    // for each START, the namespace URI and qualified name, then the namespace URI, qualified name
+    //  and value of each namespace declaration and attribute; for each TEXT, the text
+    private final String[] strings;
+
+    private XmlRecord( byte[] events, int[] counts, String[] strings )
+    {
+        this .events = events;
+        this .counts = counts;
+        this .strings = strings;
+    }
+
+    /**
+     * Record the element at the reader's START_ELEMENT, with all its content.
+     * On return, the reader is at the matching END_ELEMENT.
+     */
+    static XmlRecord read( XMLStreamReader reader, Map<String, String> pool ) throws XMLStreamException
+    {
+        Builder builder = new Builder( pool );
+        int depth = 0;
+        while ( true ) {
+            switch ( reader .getEventType() ) {
+
+            case XMLStreamConstants.START_ELEMENT:
+                builder .start( reader );
+                ++ depth;
+                break;
+
+            case XMLStreamConstants.END_ELEMENT:
+                builder .end();
+                -- depth;
+                break;
+
+            case XMLStreamConstants.CHARACTERS:
+            case XMLStreamConstants.CDATA:
+            case XMLStreamConstants.SPACE:
+                builder .text( reader .getText() );
+                break;
+
+            default:
+                // comments and processing instructions are dropped, as nothing reads them
+                break;
+            }
+            if ( depth == 0 )
+                return builder .build();
+            reader .next();
+        }
+    }
+
+    /**
+     * Record just the start tag at the reader's START_ELEMENT, leaving the reader there.
+     */
+    static XmlRecord readStart( XMLStreamReader reader, Map<String, String> pool )
+    {
+        Builder builder = new Builder( pool );
+        builder .start( reader );
+        builder .end();
+        return builder .build();
+    }
+
+    Element toElement( Document doc )
+    {
+        Deque<Element> open = new ArrayDeque<>();
+        Element result = null;
+        int s = 0, c = 0;
+        for ( byte event : this .events ) {
+            switch ( event ) {
+
+            case START:
+                Element element = doc .createElementNS( this .strings[ s ], this .strings[ s + 1 ] );
+                s += 2;
+                for ( int i = this .counts[ c++ ]; i > 0; i-- ) {
+                    element .setAttributeNS( this .strings[ s ], this .strings[ s + 1 ], this .strings[ s + 2 ] );
+                    s += 3;
+                }
+                if ( open .isEmpty() )
+                    result = element;
+                else
+                    open .peek() .appendChild( element );
+                open .push( element );
+                break;
+
+            case END:
+                open .pop();
+                break;
+
+            default:
+                open .peek() .appendChild( doc .createTextNode( this .strings[ s++ ] ) );
+                break;
+            }
+        }
+        return result;
+    }
+
+    private static final class Builder
+    {
+        private final Map<String, String> pool;
+
+        private byte[] events = new byte[ 8 ];
+
+        private int[] counts = new int[ 4 ];
+
+        private String[] strings = new String[ 16 ];
+
+        private int numEvents = 0, numCounts = 0, numStrings = 0;
+
+        Builder( Map<String, String> pool )
+        {
+            this .pool = pool;
+        }
+
+        void start( XMLStreamReader reader )
+        {
+            this .event( START );
+            this .string( namespace( reader .getNamespaceURI() ) );
+            this .string( qualifiedName( reader .getPrefix(), reader .getLocalName() ) );
+            int namespaces = reader .getNamespaceCount();
+            for ( int i = 0; i < namespaces; i++ ) {
+                String prefix = reader .getNamespacePrefix( i );
+                this .string( XMLConstants.XMLNS_ATTRIBUTE_NS_URI );
+                this .string( ( prefix == null || prefix .isEmpty() )? XMLConstants.XMLNS_ATTRIBUTE : XMLConstants.XMLNS_ATTRIBUTE + ":" + prefix );
+                this .string( reader .getNamespaceURI( i ) );
+            }
+            int attributes = reader .getAttributeCount();
+            for ( int i = 0; i < attributes; i++ ) {
+                this .string( namespace( reader .getAttributeNamespace( i ) ) );
+                this .string( qualifiedName( reader .getAttributePrefix( i ), reader .getAttributeLocalName( i ) ) );
+                this .string( reader .getAttributeValue( i ) );
+            }
+            if ( this .numCounts == this .counts.length )
+                this .counts = Arrays .copyOf( this .counts, 2 * this .numCounts );
+            this .counts[ this .numCounts++ ] = namespaces + attributes;
+        }
+
+        void end()
+        {
+            this .event( END );
+        }
+
+        void text( String text )
+        {
+            this .event( TEXT );
+            this .string( text );
+        }
+
+        XmlRecord build()
+        {
+            return new XmlRecord( Arrays .copyOf( this .events, this .numEvents ), Arrays .copyOf( this .counts, this .numCounts ),
+                    Arrays .copyOf( this .strings, this .numStrings ) );
+        }
+
+        private void event( byte event )
+        {
+            if ( this .numEvents == this .events.length )
+                this .events = Arrays .copyOf( this .events, 2 * this .numEvents );
+            this .events[ this .numEvents++ ] = event;
+        }
+
+        private void string( String string )
+        {
+            if ( string != null && string .length() <= POOLED_LENGTH ) {
+                String shared = this .pool .putIfAbsent( string, string );
+                if ( shared != null )
+                    string = shared;
+            }
+            if ( this .numStrings == this .strings.length )
+                this .strings = Arrays .copyOf( this .strings, 2 * this .numStrings );
+            this .strings[ this .numStrings++ ] = string;
+        }
+
+        private static String namespace( String uri )
+        {
+            return ( uri == null || uri .isEmpty() )? null : uri;
+        }
+
+        private static String qualifiedName( String prefix, String localName )
+        {
+            return ( prefix == null || prefix .isEmpty() )? localName : prefix + ":" + localName;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.vzome.core.exporters;
+
+import com.vzome.core.math.RealVector;
+import com.vzome.core.render.Colors;
+import com.vzome.core.render.RenderedManifestation;
+import com.vzome.core.render.RenderedModel;
+import com.vzome.core.viewing.Lights;
+import com.vzome.core.viewing.Camera;
+
+/**
+ * What every exporter has, whether it writes text, as an Exporter3d, or bytes, as a BinaryExporter3d.
+ * There are only those two kinds, so callers pick the doExport to call with instanceof.
+ */
+public abstract class AbstractExporter3d
+{
+	protected transient Camera mScene;
+	protected transient Colors mColors;
+	protected transient Lights mLights;
+	protected transient RenderedModel mModel;
+
+	// set only while exporting from a snapshot shared with other exporters
+	transient ExportSnapshot mSnapshot;
+	
+	AbstractExporter3d( Camera scene, Colors colors, Lights lights, RenderedModel model )
+	{
+	    mScene = scene;
+	    mColors = colors;
+	    mLights = lights;
+        mModel = model;
+	}
+
+    public abstract String getFileExtension();
+
+    /**
+     * @param coords packed vertex coordinates, as from Polyhedron.getRealVertices()
+     * @param index
+     * @return the vertex at index
+     */
+    protected static RealVector vertex( double[] coords, int index )
+    {
+        return new RealVector( coords[ 3 * index ], coords[ 3 * index + 1 ], coords[ 3 * index + 2 ] );
+    }
+    
+    /**
+     * Subclasses iterate this in place of mModel.
+     * @return the shared snapshot when exporting through ExportPipeline, otherwise mModel itself
+     */
+    protected Iterable<RenderedManifestation> manifestations()
+    {
+        return mSnapshot != null? mSnapshot : mModel;
+    }
+
+    /**
+     * Only for subclasses that read the shape and transform tables; it costs a walk of mModel
+     * when there is no shared snapshot.
+     * @return the shared snapshot when exporting through ExportPipeline, otherwise a new one of mModel
+     */
+    protected ExportSnapshot snapshot()
+    {
+        return mSnapshot != null? mSnapshot : new ExportSnapshot( mModel );
+    }
+
+    public String getContentType()
+    {
+        return "text/plain";
+    }
+}
@@ -0,0 +1,45 @@
+package com.vzome.core.exporters;
+
+import java.nio.channels.WritableByteChannel;
+
+import com.vzome.core.editor.DocumentModel;
+import com.vzome.core.render.Colors;
+import com.vzome.core.render.RenderedModel;
+import com.vzome.core.viewing.Camera;
+import com.vzome.core.viewing.Lights;
+
+/**
+ * An exporter that writes bytes rather than text, through a WritableByteChannel.
+ * It is not an Exporter3d, so code that exports text never meets one.
+ */
+public abstract class BinaryExporter3d extends AbstractExporter3d
+{
+    public BinaryExporter3d( Camera scene, Colors colors, Lights lights, RenderedModel model )
+    {
+        super( scene, colors, lights, model );
+    }
+
+    /**
+     * This is what subclasses implement, in place of the Writer form.
+     */
+    public abstract void doExport( WritableByteChannel channel ) throws Exception;
+
+    public void doExport( DocumentModel doc, WritableByteChannel channel ) throws Exception
+    {
+        mScene = doc .getViewModel();
+        mModel = doc .getRenderedModel();
+        this .doExport( channel );
+        mScene = null;
+        mModel = null;
+    }
+
+    public void doExport( ExportSnapshot snapshot, DocumentModel doc, WritableByteChannel channel ) throws Exception
+    {
+        mSnapshot = snapshot;
+        try {
+            this .doExport( doc, channel );
+        } finally {
+            mSnapshot = null;
+        }
+    }
+}
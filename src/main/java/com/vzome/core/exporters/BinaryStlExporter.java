@@ -0,0 +1,170 @@
+package com.vzome.core.exporters;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.WritableByteChannel;
+
+import com.vzome.core.algebra.AlgebraicVector;
+import com.vzome.core.math.Polyhedron;
+import com.vzome.core.math.RealVector;
+import com.vzome.core.model.Manifestation;
+import com.vzome.core.model.Panel;
+import com.vzome.core.model.Strut;
+import com.vzome.core.render.Colors;
+import com.vzome.core.render.RenderedModel;
+import com.vzome.core.viewing.Lights;
+import com.vzome.core.viewing.Camera;
+
+// The same facets as StlExporter, in 50-byte records, at a fraction of the size.
+
+public class BinaryStlExporter extends BinaryExporter3d
+{
+	// 12 floats and a 2-byte attribute count
+	private static final int FACET_BYTES = 50;
+
+	private static final int FACETS_PER_WRITE = 1024;
+
+	public BinaryStlExporter( Camera scene, Colors colors, Lights lights, RenderedModel model )
+	{
+	    super( scene, colors, lights, model );
+	}
+
+    @Override
+    public String getContentType()
+    {
+        return "model/stl";
+    }
+
+    /**
+     * Write binary STL: an 80-byte header, the facet count, then each facet,
+     *  buffered through a direct ByteBuffer.
+     */
+    @Override
+    public void doExport( WritableByteChannel channel ) throws IOException
+    {
+        // each distinct shape is triangulated once, for each face order
+        ExportSnapshot snapshot = snapshot();
+        float[][] triangulations = new float[ snapshot .getShapeCount() ][];
+        long facets = 0;
+        for ( int n = 0; n < snapshot .size(); n++ ) {
+            Manifestation man = snapshot .getInstance( n ) .getManifestation();
+            if ( man instanceof Strut ) {
+                int shapeNum = snapshot .getShapeIndex( n );
+                if ( triangulations[ shapeNum ] == null )
+                    triangulations[ shapeNum ] = triangulate( snapshot .getShape( shapeNum ), snapshot .isFlipped( shapeNum ) );
+                facets += triangulations[ shapeNum ].length / 12;
+            }
+            else if ( man instanceof Panel )
+                facets += Math .max( 0, ( (Panel) man ) .getVertexCount() - 2 );
+        }
+
+        ByteBuffer buffer = ByteBuffer .allocateDirect( FACET_BYTES * FACETS_PER_WRITE ) .order( ByteOrder.LITTLE_ENDIAN );
+        byte[] header = "binary STL from vZome" .getBytes( StandardCharsets.US_ASCII );
+        buffer .put( header );
+        buffer .put( new byte[ 80 - header.length ] );
+        buffer .putInt( (int) facets );
+
+        float[] facet = new float[ 12 ];
+        for ( int n = 0; n < snapshot .size(); n++ ) {
+            Manifestation man = snapshot .getInstance( n ) .getManifestation();
+            if ( man instanceof Strut ) {
+                float[] triangles = triangulations[ snapshot .getShapeIndex( n ) ];
+                // scaled from the double location, not the snapshot's float, to round only once
+                RealVector loc = snapshot .getInstance( n ) .getLocation() .scale( Exporter3d.RZOME_INCH_SCALING );
+                float x = (float) loc.x, y = (float) loc.y, z = (float) loc.z;
+                for ( int t = 0; t < triangles.length; t += 12 ) {
+                    facet[ 0 ] = triangles[ t ];
+                    facet[ 1 ] = triangles[ t + 1 ];
+                    facet[ 2 ] = triangles[ t + 2 ];
+                    for ( int v = 3; v < 12; v += 3 ) {
+                        facet[ v ] = triangles[ t + v ] + x;
+                        facet[ v + 1 ] = triangles[ t + v + 1 ] + y;
+                        facet[ v + 2 ] = triangles[ t + v + 2 ] + z;
+                    }
+                    putFacet( facet, buffer, channel );
+                }
+            }
+            else if ( man instanceof Panel ) {
+                Panel panel = (Panel) man;
+                RealVector norm = panel .getNormal() .toRealVector() .normalize();
+                facet[ 0 ] = (float) norm.x;
+                facet[ 1 ] = (float) norm.y;
+                facet[ 2 ] = (float) norm.z;
+                int j = 0;
+                for ( AlgebraicVector vert : panel ) {
+                    RealVector vertex = vert .toRealVector() .scale( Exporter3d.VZOME_STRUT_MODEL_INCH_SCALING );
+                    // a fan from the first vertex: keep it, and the last one, and add the new one
+                    int v = ( j == 0 )? 3 : ( j == 1 )? 6 : 9;
+                    if ( j > 2 ) {
+                        facet[ 6 ] = facet[ 9 ];
+                        facet[ 7 ] = facet[ 10 ];
+                        facet[ 8 ] = facet[ 11 ];
+                    }
+                    facet[ v ] = (float) vertex.x;
+                    facet[ v + 1 ] = (float) vertex.y;
+                    facet[ v + 2 ] = (float) vertex.z;
+                    if ( j >= 2 )
+                        putFacet( facet, buffer, channel );
+                    ++j;
+                }
+            }
+        }
+        buffer .flip();
+        while ( buffer .hasRemaining() )
+            channel .write( buffer );
+    }
+
+    // the normal and vertices of each triangle in a fan over each face, with the vertices scaled but not located
+    private static float[] triangulate( Polyhedron shape, boolean reverseFaces )
+    {
+        double[] coords = shape .getRealVertices();
+        int count = 0;
+        for ( Polyhedron.Face face : shape .getFaceSet() )
+            count += Math .max( 0, face .size() - 2 );
+        float[] triangles = new float[ 12 * count ];
+        int t = 0;
+        for ( Polyhedron.Face face : shape .getFaceSet() ) {
+            int arity = face .size();
+            if ( arity < 3 )
+                continue;
+            RealVector vert0 = vertex( coords, face .get( reverseFaces? arity-1 : 0 ) );
+            RealVector vert1 = vertex( coords, face .get( reverseFaces? arity-2 : 1 ) );
+            RealVector vert2 = vertex( coords, face .get( reverseFaces? arity-3 : 2 ) );
+            RealVector norm = vert1 .minus( vert0 ) .cross( vert2 .minus( vert1 ) ) .normalize();
+            RealVector v0 = vert0 .scale( Exporter3d.RZOME_INCH_SCALING );
+            RealVector v1 = vert1 .scale( Exporter3d.RZOME_INCH_SCALING );
+            for ( int j = 2; j < arity; j++ ) {
+                RealVector v2 = vertex( coords, face .get( reverseFaces? arity-j-1 : j ) ) .scale( Exporter3d.RZOME_INCH_SCALING );
+                for ( RealVector vector : new RealVector[]{ norm, v0, v1, v2 } ) {
+                    triangles[ t++ ] = (float) vector.x;
+                    triangles[ t++ ] = (float) vector.y;
+                    triangles[ t++ ] = (float) vector.z;
+                }
+                v1 = v2;
+            }
+        }
+        return triangles;
+    }
+
+    private static void putFacet( float[] facet, ByteBuffer buffer, WritableByteChannel channel ) throws IOException
+    {
+        if ( buffer .remaining() < FACET_BYTES ) {
+            buffer .flip();
+            while ( buffer .hasRemaining() )
+                channel .write( buffer );
+            buffer .clear();
+        }
+        for ( float f : facet )
+            buffer .putFloat( f );
+        buffer .putShort( (short) 0 );
+    }
+
+    @Override
+    public String getFileExtension()
+    {
+        return "stl";
+    }
+
+}
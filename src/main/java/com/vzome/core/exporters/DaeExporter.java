@@ -4,11 +4,8 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Writer;
-import java.text.DecimalFormat;
-import java.text.NumberFormat;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 
@@ -32,6 +29,7 @@ import org.xml.sax.SAXException;
 import com.vzome.core.algebra.AlgebraicMatrix;
 import com.vzome.core.algebra.AlgebraicNumber;
 import com.vzome.core.algebra.AlgebraicVector;
+import com.vzome.core.math.DecimalWriter;
 import com.vzome.core.math.Polyhedron;
 import com.vzome.core.math.RealVector;
 import com.vzome.core.model.Manifestation;
@@ -48,7 +46,6 @@ public class DaeExporter extends Exporter3d
 {
 	private static final String DAE_TEMPLATE = "com/vzome/core/exporters/template-dae.xml";
 
-	private static final NumberFormat FORMAT = NumberFormat .getNumberInstance( Locale .US );	
 	
 	public DaeExporter( Camera scene, Colors colors, Lights lights, RenderedModel model )
 	{
@@ -59,13 +56,9 @@ public class DaeExporter extends Exporter3d
     @Override
 	public void doExport( File directory, Writer writer, int height, int width ) throws IOException
 	{
-	    if (FORMAT instanceof DecimalFormat) {
-            ((DecimalFormat) FORMAT) .applyPattern( "0.0000" );
-        }
-
         ColladaDocument doc = new ColladaDocument( DAE_TEMPLATE );
         
-        for (RenderedManifestation rm : mModel) {
+        for (RenderedManifestation rm : manifestations()) {
             Manifestation man = rm .getManifestation();
             if ( man instanceof Strut )
             {
@@ -111,6 +104,7 @@ public class DaeExporter extends Exporter3d
     	private Set<String> orientedShapeIds = new HashSet<>();
     	private Map<Polyhedron,String> shapeIds = new HashMap<>();
     	private Map<Color,String> colorIds = new HashMap<>();
+    	private final DecimalWriter numbers = new DecimalWriter();
 
         ColladaDocument( String templatePath )
         {
@@ -212,16 +206,16 @@ public class DaeExporter extends Exporter3d
                 int vertexCount = 0;
                 int normalCount = 0;
                 int triangleCount = 0;
-                StringBuffer vertices = new StringBuffer();
-                StringBuffer normals = new StringBuffer();
+                StringBuilder vertices = new StringBuilder();
+                StringBuilder normals = new StringBuilder();
                 StringBuffer triangles = new StringBuffer();
                 
-                for ( AlgebraicVector av : shape .getVertexList() )
+                double[] coords = shape .getRealVertices();
+                for ( int i = 0; i < coords.length; i += 3 )
                 {
-                    RealVector vertex = av .toRealVector();
-                    vertices .append( FORMAT .format( vertex.x ) + " " );
-                    vertices .append( FORMAT .format( vertex.y ) + " " );
-                    vertices .append( FORMAT .format( vertex.z ) + " " );
+                    numbers .appendFixed( vertices, coords[ i ], 4 ) .append( ' ' );
+                    numbers .appendFixed( vertices, coords[ i + 1 ], 4 ) .append( ' ' );
+                    numbers .appendFixed( vertices, coords[ i + 2 ], 4 ) .append( ' ' );
                     ++ vertexCount;
                 }
                 boolean reverseFaces = rm .reverseOrder();
@@ -258,9 +252,9 @@ public class DaeExporter extends Exporter3d
 //                            normals .append( "\n" );
                 	}
                 	RealVector norm = face .getNormal() .toRealVector() .normalize();
-                    normals .append( FORMAT .format( norm.x ) + " " );
-                    normals .append( FORMAT .format( norm.y ) + " " );
-                    normals .append( FORMAT .format( norm.z ) + " " );
+                    numbers .appendFixed( normals, norm.x, 4 ) .append( ' ' );
+                    numbers .appendFixed( normals, norm.y, 4 ) .append( ' ' );
+                    numbers .appendFixed( normals, norm.z, 4 ) .append( ' ' );
                     ++ normalCount;
                 }
         		
@@ -337,7 +331,7 @@ public class DaeExporter extends Exporter3d
         	{
         		Element oriented_shape = (Element) oriented_shape_template .cloneNode( true );
                 try {
-                	StringBuffer sb = new StringBuffer();
+                	StringBuilder sb = new StringBuilder();
     				Element matrix = (Element) xpath .evaluate( "matrix", oriented_shape, XPathConstants.NODE );
     				AlgebraicMatrix transform = rm .getOrientation();
     				if ( rm .reverseOrder() )
@@ -345,7 +339,7 @@ public class DaeExporter extends Exporter3d
     				for (int i = 0; i < 3; i++) {
         				for (int j = 0; j < 3; j++) {
     						AlgebraicNumber num = transform .getElement( i, j );
-    						sb .append( FORMAT .format( num .evaluate() ) + " " );
+    						numbers .appendFixed( sb, num .evaluate(), 4 ) .append( ' ' );
     					}
         				sb .append( "0.0 " );
 					}
@@ -371,7 +365,14 @@ public class DaeExporter extends Exporter3d
             	if ( location == null )
             		visual_scene_node .removeChild( translate );
             	else
-    				translate .setTextContent( location .toRealVector() .spacedString() );
+            	{
+            		RealVector loc = location .toRealVector();
+            		StringBuilder sb = new StringBuilder();
+            		numbers .appendDecimal( sb, loc.x, 1, 5 ) .append( ' ' );
+            		numbers .appendDecimal( sb, loc.y, 1, 5 ) .append( ' ' );
+            		numbers .appendDecimal( sb, loc.z, 1, 5 );
+    				translate .setTextContent( sb .toString() );
+            	}
 				Element instance_node = (Element) xpath .evaluate( "instance_node", visual_scene_node, XPathConstants.NODE );
 				instance_node .setAttribute( "url", "#" + shapeId );
 				visual_scene_node .setAttribute( "id", "instance" + Integer .toString( instanceNum++ ) );
@@ -38,7 +38,7 @@ public class DxfExporter extends Exporter3d
         NumberFormat format = NumberFormat .getNumberInstance( Locale .US );
         format .setMaximumFractionDigits( 6 );
 
-        for (RenderedManifestation rm : mModel) {
+        for (RenderedManifestation rm : manifestations()) {
             Manifestation man = rm .getManifestation();
             if ( man instanceof Strut ) {
                 output .println( "0" );
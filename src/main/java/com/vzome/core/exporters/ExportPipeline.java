@@ -0,0 +1,122 @@
+package com.vzome.core.exporters;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import com.vzome.core.editor.DocumentModel;
+
+/**
+ * Exports one document to several files, walking its RenderedModel only once.
+ * The walk builds an ExportSnapshot, and every registered exporter reads that snapshot,
+ * one after another or in parallel on an ExecutorService.
+ *
+ * Exporters keep the export in progress in their fields, so each registered export
+ * must use a distinct exporter instance.
+ */
+public class ExportPipeline
+{
+    private final DocumentModel doc;
+
+    private final int height, width;
+
+    private final ExportSnapshot snapshot;
+
+    private final List<AbstractExporter3d> exporters = new ArrayList<>();
+
+    private final List<File> targets = new ArrayList<>();
+
+    private long[] exportNanos = new long[ 0 ];
+
+    public ExportPipeline( DocumentModel doc, int height, int width )
+    {
+        this .doc = doc;
+        this .height = height;
+        this .width = width;
+        this .snapshot = new ExportSnapshot( doc .getRenderedModel() );
+    }
+
+    public ExportSnapshot getSnapshot()
+    {
+        return this .snapshot;
+    }
+
+    /**
+     * @param exporter an Exporter3d or a BinaryExporter3d
+     */
+    public void add( AbstractExporter3d exporter, File target )
+    {
+        if ( this .exporters .contains( exporter ) )
+            throw new IllegalArgumentException( "exporter already added: " + exporter .getFileExtension() );
+        this .exporters .add( exporter );
+        this .targets .add( target );
+    }
+
+    /**
+     * Run every export added so far.
+     * @param executor runs the exports in parallel, or null to run them in order on this thread
+     * @return the failure of each export, in the order added, or null where it succeeded
+     */
+    public Exception[] run( ExecutorService executor ) throws InterruptedException
+    {
+        int count = this .exporters .size();
+        Exception[] failures = new Exception[ count ];
+        this .exportNanos = new long[ count ];
+        if ( executor == null ) {
+            for ( int i = 0; i < count; i++ )
+                failures[ i ] = export( i );
+            return failures;
+        }
+        List<Future<Exception>> futures = new ArrayList<>( count );
+        for ( int i = 0; i < count; i++ ) {
+            final int index = i;
+            futures .add( executor .submit( () -> export( index ) ) );
+        }
+        for ( int i = 0; i < count; i++ ) {
+            try {
+                failures[ i ] = futures .get( i ) .get();
+            } catch ( ExecutionException e ) {
+                failures[ i ] = e .getCause() instanceof Exception? (Exception) e .getCause() : e;
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * @return the time spent in each export of the last run, in the order added
+     */
+    public long[] getExportNanos()
+    {
+        return this .exportNanos;
+    }
+
+    private Exception export( int i )
+    {
+        AbstractExporter3d exporter = this .exporters .get( i );
+        File target = this .targets .get( i );
+        long start = System .nanoTime();
+        try ( FileOutputStream file = new FileOutputStream( target ) ) {
+            if ( exporter instanceof BinaryExporter3d )
+                ( (BinaryExporter3d) exporter ) .doExport( this .snapshot, this .doc, file .getChannel() );
+            else
+                // closing flushes it, and is harmless when the exporter has closed it already
+                try ( Writer out = new BufferedWriter( new OutputStreamWriter( file, StandardCharsets.UTF_8 ) ) ) {
+                    ( (Exporter3d) exporter ) .doExport( this .snapshot, this .doc, target, target .getParentFile(), out, this .height, this .width );
+                }
+        } catch ( Exception e ) {
+            target .delete();
+            return e;
+        } finally {
+            this .exportNanos[ i ] = System .nanoTime() - start;
+        }
+        return null;
+    }
+}
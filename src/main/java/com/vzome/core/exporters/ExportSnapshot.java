@@ -0,0 +1,197 @@
+package com.vzome.core.exporters;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import com.vzome.core.algebra.AlgebraicField;
+import com.vzome.core.algebra.AlgebraicMatrix;
+import com.vzome.core.math.Polyhedron;
+import com.vzome.core.math.RealVector;
+import com.vzome.core.render.Color;
+import com.vzome.core.render.RenderedManifestation;
+import com.vzome.core.render.RenderedModel;
+
+/**
+ * Everything the exporters read from a RenderedModel, resolved in a single walk:
+ * the instances in a fixed order, a table of distinct shapes (by face order, as in TwoMaps),
+ * a table of distinct orientations, and the location and color of each instance as floats.
+ *
+ * A snapshot does not change once built, so any number of exporters can read it,
+ * on any number of threads.
+ */
+public final class ExportSnapshot implements Iterable<RenderedManifestation>
+{
+    private final AlgebraicField field;
+
+    private final RenderedManifestation[] instances;
+
+    private final int[] shapeIndices, transformIndices;
+
+    // x, y, z of each instance in turn, the origin when the instance has no location
+    private final float[] locations;
+
+    // r, g, b of each instance in turn, white when the instance has no color
+    private final float[] colors;
+
+    private final Polyhedron[] shapes;
+
+    private final boolean[] flipped;
+
+    private final AlgebraicMatrix[] transforms;
+
+    public ExportSnapshot( RenderedModel model )
+    {
+        this .field = model .getField();
+        List<RenderedManifestation> rms = new ArrayList<>();
+        for ( RenderedManifestation rm : model )
+            rms .add( rm );
+        int count = rms .size();
+        this .instances = rms .toArray( new RenderedManifestation[ count ] );
+        this .shapeIndices = new int[ count ];
+        this .transformIndices = new int[ count ];
+        this .locations = new float[ 3 * count ];
+        this .colors = new float[ 3 * count ];
+
+        List<Polyhedron> shapeList = new ArrayList<>();
+        List<Boolean> flipList = new ArrayList<>();
+        HashMap<Polyhedron, Integer>[] shapeMaps = TwoMaps.inAnArray();
+        List<AlgebraicMatrix> transformList = new ArrayList<>();
+        Map<AlgebraicMatrix, Integer> transformMap = new HashMap<>();
+        AlgebraicMatrix identity = this .field .identityMatrix( 3 );
+        transformMap .put( identity, 0 );
+        transformList .add( identity );
+        float[] rgb = new float[ 3 ];
+
+        for ( int i = 0; i < count; i++ ) {
+            RenderedManifestation rm = this .instances[ i ];
+            Polyhedron shape = rm .getShape();
+            if ( shape == null )
+                this .shapeIndices[ i ] = -1;
+            else {
+                boolean flip = rm .reverseOrder();
+                Integer shapeNum = shapeMaps[ flip?1:0 ] .get( shape );
+                if ( shapeNum == null ) {
+                    shapeNum = shapeList .size();
+                    shapeMaps[ flip?1:0 ] .put( shape, shapeNum );
+                    shapeList .add( shape );
+                    flipList .add( flip );
+                }
+                this .shapeIndices[ i ] = shapeNum;
+            }
+            AlgebraicMatrix transform = rm .getOrientation();
+            Integer transformNum = transformMap .get( transform == null? identity : transform );
+            if ( transformNum == null ) {
+                transformNum = transformList .size();
+                transformMap .put( transform, transformNum );
+                transformList .add( transform );
+            }
+            this .transformIndices[ i ] = transformNum;
+
+            RealVector loc = rm .getLocation();
+            if ( loc == null )
+                loc = new RealVector( 0d, 0d, 0d );
+            this .locations[ 3 * i ] = (float) loc.x;
+            this .locations[ 3 * i + 1 ] = (float) loc.y;
+            this .locations[ 3 * i + 2 ] = (float) loc.z;
+            Color color = rm .getColor();
+            if ( color == null )
+                color = Color.WHITE;
+            color .getRGBColorComponents( rgb );
+            System .arraycopy( rgb, 0, this .colors, 3 * i, 3 );
+        }
+
+        this .shapes = shapeList .toArray( new Polyhedron[ shapeList .size() ] );
+        this .flipped = new boolean[ this .shapes.length ];
+        for ( int s = 0; s < this .flipped.length; s++ )
+            this .flipped[ s ] = flipList .get( s );
+        this .transforms = transformList .toArray( new AlgebraicMatrix[ transformList .size() ] );
+    }
+
+    public AlgebraicField getField()
+    {
+        return this .field;
+    }
+
+    public int size()
+    {
+        return this .instances.length;
+    }
+
+    public RenderedManifestation getInstance( int i )
+    {
+        return this .instances[ i ];
+    }
+
+    @Override
+    public Iterator<RenderedManifestation> iterator()
+    {
+        return Arrays .asList( this .instances ) .iterator();
+    }
+
+    /**
+     * @return the index of the instance's shape in the shape table, or -1 if it has none
+     */
+    public int getShapeIndex( int i )
+    {
+        return this .shapeIndices[ i ];
+    }
+
+    /**
+     * @return the index of the instance's orientation in the transform table;
+     * an instance with no orientation gets the identity, at index 0
+     */
+    public int getTransformIndex( int i )
+    {
+        return this .transformIndices[ i ];
+    }
+
+    /**
+     * @param xyz receives the location of instance i
+     */
+    public float[] getLocation( int i, float[] xyz )
+    {
+        System .arraycopy( this .locations, 3 * i, xyz, 0, 3 );
+        return xyz;
+    }
+
+    /**
+     * @param rgb receives the color components of instance i
+     */
+    public float[] getColor( int i, float[] rgb )
+    {
+        System .arraycopy( this .colors, 3 * i, rgb, 0, 3 );
+        return rgb;
+    }
+
+    public int getShapeCount()
+    {
+        return this .shapes.length;
+    }
+
+    public Polyhedron getShape( int s )
+    {
+        return this .shapes[ s ];
+    }
+
+    /**
+     * @return true if the faces of shape s are to be written in reverse order
+     */
+    public boolean isFlipped( int s )
+    {
+        return this .flipped[ s ];
+    }
+
+    public int getTransformCount()
+    {
+        return this .transforms.length;
+    }
+
+    public AlgebraicMatrix getTransform( int t )
+    {
+        return this .transforms[ t ];
+    }
+}
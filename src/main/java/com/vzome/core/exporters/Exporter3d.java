@@ -5,12 +5,13 @@ import java.io.PrintWriter;
 import java.io.Writer;
 
 import com.vzome.core.editor.DocumentModel;
+import com.vzome.core.math.DecimalWriter;
 import com.vzome.core.render.Colors;
 import com.vzome.core.render.RenderedModel;
 import com.vzome.core.viewing.Lights;
 import com.vzome.core.viewing.Camera;
 
-public abstract class Exporter3d
+public abstract class Exporter3d extends AbstractExporter3d
 {
     public static final double VZOME_BLUE_DIAMETER = 2.0d;
     
@@ -32,18 +33,13 @@ public abstract class Exporter3d
 	static final double VZOME_STRUT_MODEL_INCH_SCALING = RZOME_BLUE_DIAMETER_INCHES / VZOME_STRUT_MODEL_BALL_DIAMETER;
 
 	protected transient PrintWriter output;
-	
-	protected transient Camera mScene;
-	protected transient Colors mColors;
-	protected transient Lights mLights;
-	protected transient RenderedModel mModel;
+
+	// an exporter runs one export at a time, so it can own its number formatting
+	protected final transient DecimalWriter numbers = new DecimalWriter();
 	
 	public Exporter3d( Camera scene, Colors colors, Lights lights, RenderedModel model )
 	{
-	    mScene = scene;
-	    mColors = colors;
-	    mLights = lights;
-        mModel = model;
+	    super( scene, colors, lights, model );
 	}
 
 	/**
@@ -51,13 +47,6 @@ public abstract class Exporter3d
 	 */
 	public abstract void doExport( File directory, Writer writer, int height, int width ) throws Exception;
 
-    public abstract String getFileExtension();
-    
-    public String getContentType()
-    {
-        return "text/plain";
-    }
-
     /**
      * Subclasses can override this if they need to export history or the lesson model.
      */
@@ -70,6 +59,16 @@ public abstract class Exporter3d
         mModel = null;
     }
 
+    public void doExport( ExportSnapshot snapshot, DocumentModel doc, File file, File parentFile, Writer writer, int height, int width ) throws Exception
+    {
+        mSnapshot = snapshot;
+        try {
+            this .doExport( doc, file, parentFile, writer, height, width );
+        } finally {
+            mSnapshot = null;
+        }
+    }
+
     /**
      *  Subclasses can override this if they want to write multiple files into the same directory, using variations on the filename.
      */
@@ -0,0 +1,345 @@
+package com.vzome.core.exporters;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.vzome.core.algebra.AlgebraicMatrix;
+import com.vzome.core.math.Polyhedron;
+import com.vzome.core.math.RealVector;
+import com.vzome.core.render.Colors;
+import com.vzome.core.render.RenderedModel;
+import com.vzome.core.viewing.Camera;
+import com.vzome.core.viewing.Lights;
+
+/**
+ * Exports binary glTF 2.0 (GLB), with each distinct shape written once, and its instances
+ * as EXT_mesh_gpu_instancing arrays of translation, rotation and color.
+ *
+ * As in JsonExporter, an instance is its shape transformed by its orientation and then
+ * moved to its location.  glTF rotations must be proper, so a mirrored orientation is
+ * split into a rotation and a central inversion, with the inversion built into the shape.
+ *
+ * The model is walked once, collecting the shape and orientation tables and the instance arrays,
+ * then the JSON and the binary buffer are streamed out through a direct ByteBuffer.
+ */
+public class GltfExporter extends BinaryExporter3d
+{
+    private static final int GLB_MAGIC = 0x46546C67, GLB_VERSION = 2, JSON_CHUNK = 0x4E4F534A, BIN_CHUNK = 0x004E4942;
+
+    private static final int FLOAT = 5126, UNSIGNED_INT = 5125, ARRAY_BUFFER = 34962, ELEMENT_ARRAY_BUFFER = 34963;
+
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    public GltfExporter( Camera scene, Colors colors, Lights lights, RenderedModel model )
+    {
+        super( scene, colors, lights, model );
+    }
+
+    @Override
+    public String getContentType()
+    {
+        return "model/gltf-binary";
+    }
+
+    @Override
+    public String getFileExtension()
+    {
+        return "glb";
+    }
+
+    // a growable float array, to avoid boxing
+    private static class Floats
+    {
+        float[] values = new float[ 48 ];
+
+        int size = 0;
+
+        void add( float value )
+        {
+            if ( this .size == this .values.length )
+                this .values = Arrays .copyOf( this .values, 2 * this .size );
+            this .values[ this .size++ ] = value;
+        }
+    }
+
+    // one shape, with its face order and whether it is inverted, and all its instances
+    static class Mesh
+    {
+        final float[] positions, normals;
+
+        final int[] indices;
+
+        final float[] min = { Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE };
+
+        final float[] max = { -Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE };
+
+        final Floats translations = new Floats(), rotations = new Floats(), colors = new Floats();
+
+        int count = 0;
+
+        Mesh( Polyhedron shape, boolean reverseFaces, boolean inverted )
+        {
+            double[] coords = shape .getRealVertices();
+            int vertices = 0, triangles = 0;
+            for ( Polyhedron.Face face : shape .getFaceSet() )
+                if ( face .size() >= 3 ) {
+                    vertices += face .size();
+                    triangles += face .size() - 2;
+                }
+            this .positions = new float[ 3 * vertices ];
+            this .normals = new float[ 3 * vertices ];
+            this .indices = new int[ 3 * triangles ];
+            int v = 0, t = 0;
+            double sign = inverted? -1d : 1d;
+            for ( Polyhedron.Face face : shape .getFaceSet() ) {
+                int arity = face .size();
+                if ( arity < 3 )
+                    continue;
+                RealVector vert0 = vertex( coords, face .get( reverseFaces? arity-1 : 0 ) );
+                RealVector vert1 = vertex( coords, face .get( reverseFaces? arity-2 : 1 ) );
+                RealVector vert2 = vertex( coords, face .get( reverseFaces? arity-3 : 2 ) );
+                // negating every vertex leaves this cross product alone, so it still agrees with the winding
+                RealVector norm = vert1 .minus( vert0 ) .cross( vert2 .minus( vert1 ) ) .normalize();
+                int first = v;
+                for ( int j = 0; j < arity; j++ ) {
+                    int index = face .get( reverseFaces? arity-j-1 : j );
+                    for ( int k = 0; k < 3; k++ ) {
+                        float coord = (float) ( sign * coords[ 3 * index + k ] );
+                        this .positions[ 3 * v + k ] = coord;
+                        this .min[ k ] = Math .min( this .min[ k ], coord );
+                        this .max[ k ] = Math .max( this .max[ k ], coord );
+                    }
+                    this .normals[ 3 * v ] = (float) norm.x;
+                    this .normals[ 3 * v + 1 ] = (float) norm.y;
+                    this .normals[ 3 * v + 2 ] = (float) norm.z;
+                    if ( j >= 2 ) {
+                        this .indices[ t++ ] = first;
+                        this .indices[ t++ ] = v - 1;
+                        this .indices[ t++ ] = v;
+                    }
+                    ++v;
+                }
+            }
+        }
+    }
+
+    // an orientation as a rotation quaternion, and whether it also inverts
+    private static class Rotation
+    {
+        final float[] quaternion;
+
+        final boolean inverted;
+
+        Rotation( double[] m )
+        {
+            double det = m[0] * ( m[4] * m[8] - m[5] * m[7] ) - m[1] * ( m[3] * m[8] - m[5] * m[6] ) + m[2] * ( m[3] * m[7] - m[4] * m[6] );
+            this .inverted = det < 0;
+            if ( this .inverted ) {
+                m = m .clone();
+                for ( int i = 0; i < 9; i++ )
+                    m[ i ] = -m[ i ];
+            }
+            this .quaternion = quaternion( m );
+        }
+    }
+
+    /**
+     * @param m a rotation matrix, row by row
+     * @return the unit quaternion for m, as x, y, z, w, the order glTF uses
+     */
+    static float[] quaternion( double[] m )
+    {
+        double x, y, z, w;
+        double trace = m[0] + m[4] + m[8];
+        if ( trace > 0 ) {
+            double s = 0.5d / Math .sqrt( trace + 1d );
+            w = 0.25d / s;
+            x = ( m[7] - m[5] ) * s;
+            y = ( m[2] - m[6] ) * s;
+            z = ( m[3] - m[1] ) * s;
+        }
+        else if ( m[0] > m[4] && m[0] > m[8] ) {
+            double s = 2d * Math .sqrt( 1d + m[0] - m[4] - m[8] );
+            w = ( m[7] - m[5] ) / s;
+            x = 0.25d * s;
+            y = ( m[1] + m[3] ) / s;
+            z = ( m[2] + m[6] ) / s;
+        }
+        else if ( m[4] > m[8] ) {
+            double s = 2d * Math .sqrt( 1d + m[4] - m[0] - m[8] );
+            w = ( m[2] - m[6] ) / s;
+            x = ( m[1] + m[3] ) / s;
+            y = 0.25d * s;
+            z = ( m[5] + m[7] ) / s;
+        }
+        else {
+            double s = 2d * Math .sqrt( 1d + m[8] - m[0] - m[4] );
+            w = ( m[3] - m[1] ) / s;
+            x = ( m[2] + m[6] ) / s;
+            y = ( m[5] + m[7] ) / s;
+            z = 0.25d * s;
+        }
+        double norm = Math .sqrt( x*x + y*y + z*z + w*w );
+        return new float[]{ (float) ( x / norm ), (float) ( y / norm ), (float) ( z / norm ), (float) ( w / norm ) };
+    }
+
+    @Override
+    public void doExport( WritableByteChannel channel ) throws IOException
+    {
+        ExportSnapshot snapshot = snapshot();
+        // meshes by inversion and snapshot shape, since the snapshot already splits shapes by face order
+        Mesh[][] variants = new Mesh[ 2 ][ snapshot .getShapeCount() ];
+        List<Mesh> meshes = new ArrayList<>();
+        Rotation[] rotations = new Rotation[ snapshot .getTransformCount() ];
+        float[] xyz = new float[ 3 ], rgb = new float[ 3 ];
+
+        for ( int n = 0; n < snapshot .size(); n++ ) {
+            int shapeNum = snapshot .getShapeIndex( n );
+            if ( shapeNum < 0 )
+                continue;
+            int transformNum = snapshot .getTransformIndex( n );
+            Rotation rotation = rotations[ transformNum ];
+            if ( rotation == null ) {
+                AlgebraicMatrix orientation = snapshot .getTransform( transformNum );
+                double[] m = new double[ 9 ];
+                for ( int i = 0; i < 3; i++ )
+                    for ( int j = 0; j < 3; j++ )
+                        m[ 3 * i + j ] = orientation .getElement( i, j ) .evaluate();
+                rotation = new Rotation( m );
+                rotations[ transformNum ] = rotation;
+            }
+            Mesh mesh = variants[ rotation .inverted? 1:0 ][ shapeNum ];
+            if ( mesh == null ) {
+                mesh = new Mesh( snapshot .getShape( shapeNum ), snapshot .isFlipped( shapeNum ), rotation .inverted );
+                variants[ rotation .inverted? 1:0 ][ shapeNum ] = mesh;
+                meshes .add( mesh );
+            }
+            for ( float t : snapshot .getLocation( n, xyz ) )
+                mesh .translations .add( t );
+            for ( float q : rotation .quaternion )
+                mesh .rotations .add( q );
+            for ( float c : snapshot .getColor( n, rgb ) )
+                mesh .colors .add( c );
+            ++ mesh .count;
+        }
+
+        // every view is a whole number of floats or ints, so all stay 4-byte aligned
+        StringBuilder views = new StringBuilder(), accessors = new StringBuilder(), meshesJson = new StringBuilder(), nodes = new StringBuilder();
+        long offset = 0;
+        int view = 0;
+        for ( int i = 0; i < meshes .size(); i++ ) {
+            Mesh mesh = meshes .get( i );
+            int vertices = mesh .positions.length / 3;
+            offset = addView( views, offset, 4L * mesh .positions.length, ARRAY_BUFFER );
+            addAccessor( accessors, view++, FLOAT, vertices, "VEC3", mesh .min, mesh .max );
+            offset = addView( views, offset, 4L * mesh .normals.length, ARRAY_BUFFER );
+            addAccessor( accessors, view++, FLOAT, vertices, "VEC3", null, null );
+            offset = addView( views, offset, 4L * mesh .indices.length, ELEMENT_ARRAY_BUFFER );
+            addAccessor( accessors, view++, UNSIGNED_INT, mesh .indices.length, "SCALAR", null, null );
+            offset = addView( views, offset, 12L * mesh .count, 0 );
+            addAccessor( accessors, view++, FLOAT, mesh .count, "VEC3", null, null );
+            offset = addView( views, offset, 16L * mesh .count, 0 );
+            addAccessor( accessors, view++, FLOAT, mesh .count, "VEC4", null, null );
+            offset = addView( views, offset, 12L * mesh .count, 0 );
+            addAccessor( accessors, view++, FLOAT, mesh .count, "VEC3", null, null );
+
+            int first = 6 * i;
+            separate( meshesJson ) .append( "{\"primitives\":[{\"attributes\":{\"POSITION\":" ) .append( first ) .append( ",\"NORMAL\":" ) .append( first + 1 )
+                .append( "},\"indices\":" ) .append( first + 2 ) .append( ",\"material\":0}]}" );
+            separate( nodes ) .append( "{\"mesh\":" ) .append( i ) .append( ",\"extensions\":{\"EXT_mesh_gpu_instancing\":{\"attributes\":{\"TRANSLATION\":" ) .append( first + 3 )
+                .append( ",\"ROTATION\":" ) .append( first + 4 ) .append( ",\"_COLOR_0\":" ) .append( first + 5 ) .append( "}}}}" );
+        }
+        StringBuilder sceneNodes = new StringBuilder();
+        for ( int i = 0; i < meshes .size(); i++ )
+            separate( sceneNodes ) .append( i );
+
+        StringBuilder json = new StringBuilder();
+        json .append( "{\"asset\":{\"version\":\"2.0\",\"generator\":\"vZome\"}," );
+        json .append( "\"extensionsUsed\":[\"EXT_mesh_gpu_instancing\"],\"extensionsRequired\":[\"EXT_mesh_gpu_instancing\"]," );
+        json .append( "\"scene\":0,\"scenes\":[{\"nodes\":[" ) .append( sceneNodes ) .append( "]}]," );
+        json .append( "\"nodes\":[" ) .append( nodes ) .append( "]," );
+        json .append( "\"meshes\":[" ) .append( meshesJson ) .append( "]," );
+        json .append( "\"materials\":[{\"pbrMetallicRoughness\":{\"baseColorFactor\":[1,1,1,1],\"metallicFactor\":0,\"roughnessFactor\":0.5}}]," );
+        json .append( "\"accessors\":[" ) .append( accessors ) .append( "]," );
+        json .append( "\"bufferViews\":[" ) .append( views ) .append( "]," );
+        json .append( "\"buffers\":[{\"byteLength\":" ) .append( offset ) .append( "}]}" );
+        while ( json .length() % 4 != 0 )
+            json .append( ' ' );
+        byte[] jsonBytes = json .toString() .getBytes( StandardCharsets.UTF_8 );
+
+        ByteBuffer buffer = ByteBuffer .allocateDirect( BUFFER_BYTES ) .order( ByteOrder.LITTLE_ENDIAN );
+        buffer .putInt( GLB_MAGIC ) .putInt( GLB_VERSION ) .putInt( (int) ( 12 + 8 + jsonBytes.length + 8 + offset ) );
+        buffer .putInt( jsonBytes.length ) .putInt( JSON_CHUNK );
+        for ( int i = 0; i < jsonBytes.length; ) {
+            drain( buffer, channel, 1 );
+            int length = Math .min( buffer .remaining(), jsonBytes.length - i );
+            buffer .put( jsonBytes, i, length );
+            i += length;
+        }
+        drain( buffer, channel, 8 );
+        buffer .putInt( (int) offset ) .putInt( BIN_CHUNK );
+        for ( Mesh mesh : meshes ) {
+            putFloats( mesh .positions, mesh .positions.length, buffer, channel );
+            putFloats( mesh .normals, mesh .normals.length, buffer, channel );
+            for ( int index : mesh .indices ) {
+                drain( buffer, channel, 4 );
+                buffer .putInt( index );
+            }
+            putFloats( mesh .translations .values, mesh .translations .size, buffer, channel );
+            putFloats( mesh .rotations .values, mesh .rotations .size, buffer, channel );
+            putFloats( mesh .colors .values, mesh .colors .size, buffer, channel );
+        }
+        drain( buffer, channel, BUFFER_BYTES );
+    }
+
+    private static StringBuilder separate( StringBuilder buf )
+    {
+        if ( buf .length() > 0 )
+            buf .append( ',' );
+        return buf;
+    }
+
+    private static long addView( StringBuilder views, long offset, long length, int target )
+    {
+        separate( views ) .append( "{\"buffer\":0,\"byteOffset\":" ) .append( offset ) .append( ",\"byteLength\":" ) .append( length );
+        if ( target != 0 )
+            views .append( ",\"target\":" ) .append( target );
+        views .append( '}' );
+        return offset + length;
+    }
+
+    private static void addAccessor( StringBuilder accessors, int view, int componentType, int count, String type, float[] min, float[] max )
+    {
+        separate( accessors ) .append( "{\"bufferView\":" ) .append( view ) .append( ",\"componentType\":" ) .append( componentType )
+            .append( ",\"count\":" ) .append( count ) .append( ",\"type\":\"" ) .append( type ) .append( '"' );
+        if ( min != null )
+            accessors .append( ",\"min\":[" ) .append( min[0] ) .append( ',' ) .append( min[1] ) .append( ',' ) .append( min[2] )
+                .append( "],\"max\":[" ) .append( max[0] ) .append( ',' ) .append( max[1] ) .append( ',' ) .append( max[2] ) .append( ']' );
+        accessors .append( '}' );
+    }
+
+    private static void putFloats( float[] values, int size, ByteBuffer buffer, WritableByteChannel channel ) throws IOException
+    {
+        for ( int i = 0; i < size; i++ ) {
+            drain( buffer, channel, 4 );
+            buffer .putFloat( values[ i ] );
+        }
+    }
+
+    // write out the buffer, if it has less than the room needed
+    private static void drain( ByteBuffer buffer, WritableByteChannel channel, int needed ) throws IOException
+    {
+        if ( buffer .remaining() >= needed && needed < BUFFER_BYTES )
+            return;
+        buffer .flip();
+        while ( buffer .hasRemaining() )
+            channel .write( buffer );
+        buffer .clear();
+    }
+}
@@ -4,9 +4,7 @@ import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.Writer;
-import java.text.NumberFormat;
 import java.util.List;
-import java.util.Locale;
 
 import javax.vecmath.Vector3d;
 
@@ -27,8 +25,6 @@ import com.vzome.core.viewing.Camera;
  */
 public class LiveGraphicsExporter extends Exporter3d
 {
-	private static final NumberFormat FORMAT = NumberFormat .getNumberInstance( Locale .US );
-	
 	
 	public LiveGraphicsExporter( Camera scene, Colors colors, Lights lights, RenderedModel model )
 	{
@@ -43,14 +39,11 @@ public class LiveGraphicsExporter extends Exporter3d
 	    
 		Vector3d lookDir = new Vector3d(), upDir = new Vector3d();
 		mScene .getViewOrientation( lookDir, upDir );
-		FORMAT .setMaximumFractionDigits( 6 );
 
         output .println( "Graphics3D[{" );
 		
-		FORMAT .setMaximumFractionDigits( 3 );
-		
         String faceFormdelim = "";
-        for (RenderedManifestation rm : mModel) {
+        for (RenderedManifestation rm : manifestations()) {
             output .println(faceFormdelim);
             output .print( "{FaceForm[" );
             printColor( rm .getColor() );
@@ -80,9 +73,11 @@ public class LiveGraphicsExporter extends Exporter3d
                     loc = transform .timesColumn( loc ) .plus( rmLoc );
                     RealVector rv = loc .toRealVector();
                     output .print( "{" );
-                    output .print( FORMAT.format( rv .x ) + ", " );
-                    output .print( FORMAT.format( rv .y ) + ", " );
-                    output .print( FORMAT.format( rv .z ) );
+                    numbers .writeDecimal( output, rv .x, 3 );
+                    output .print( ", " );
+                    numbers .writeDecimal( output, rv .y, 3 );
+                    output .print( ", " );
+                    numbers .writeDecimal( output, rv .z, 3 );
                     output .print( "}" );
                 }
                 output .print( "}]" );
@@ -98,13 +93,15 @@ public class LiveGraphicsExporter extends Exporter3d
 	}
 
     
-    private void printColor( Color color )
+    private void printColor( Color color ) throws IOException
     {
 		output .print( "RGBColor[" );
 		float[] rgb = color .getRGBColorComponents( new float[3] );
-		output .print( FORMAT.format(rgb[0]) + ", " );
-		output .print( FORMAT.format(rgb[1]) + ", " );
-		output .print( FORMAT.format(rgb[2]) );
+		numbers .writeDecimal( output, rgb[0], 3 );
+		output .print( ", " );
+		numbers .writeDecimal( output, rgb[1], 3 );
+		output .print( ", " );
+		numbers .writeDecimal( output, rgb[2], 3 );
 		output .print( "]" );
     }
 
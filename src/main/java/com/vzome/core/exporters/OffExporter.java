@@ -4,11 +4,9 @@ import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.Writer;
-import java.text.NumberFormat;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 
 import com.vzome.core.algebra.AlgebraicVector;
@@ -26,9 +24,7 @@ import com.vzome.core.viewing.Camera;
 
 public class OffExporter extends Exporter3d
 {
-	private static final NumberFormat FORMAT = NumberFormat .getNumberInstance( Locale .US );
-	
-	
+
 	public OffExporter( Camera scene, Colors colors, Lights lights, RenderedModel model )
 	{
 	    super( scene, colors, lights, model );
@@ -40,11 +36,10 @@ public class OffExporter extends Exporter3d
 	{
         output = new PrintWriter( writer );
         output .println( "OFF" );
-		
-		FORMAT .setMaximumFractionDigits( 16 );
         
 		int numBalls = 0, numStruts = 0, numPanels = 0;
-        for (RenderedManifestation rm : mModel) {
+        Iterable<RenderedManifestation> manifestations = manifestations();
+        for (RenderedManifestation rm : manifestations) {
             Manifestation man = rm .getManifestation();
             if ( man instanceof Connector )
                 ++ numBalls;
@@ -57,19 +52,22 @@ public class OffExporter extends Exporter3d
         
         Map<AlgebraicVector, Integer> ballIndices = new HashMap<>( numBalls );
         numBalls = 0;
-        for (RenderedManifestation rm : mModel) {
+        for (RenderedManifestation rm : manifestations) {
             Manifestation man = rm .getManifestation();
             if ( man instanceof Connector ) {
                 AlgebraicVector loc = ((Connector) man) .getLocation();
                 RealVector rv = loc .toRealVector();
-                output .print( FORMAT.format( rv .x ) + " " );
-                output .print( FORMAT.format( rv .y ) + " " );
-                output .println( FORMAT.format( rv .z ) );
+                numbers .writeDecimal( output, rv .x, 16 );
+                output .print( ' ' );
+                numbers .writeDecimal( output, rv .y, 16 );
+                output .print( ' ' );
+                numbers .writeDecimal( output, rv .z, 16 );
+                output .println();
                 ballIndices .put(loc, numBalls++);
             }
         }
         
-        for (RenderedManifestation rm : mModel) {
+        for (RenderedManifestation rm : manifestations) {
             Manifestation man = rm .getManifestation();
             if (man instanceof Panel) {
                 Panel panel = (Panel) man;
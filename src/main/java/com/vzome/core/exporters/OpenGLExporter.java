@@ -4,10 +4,8 @@ import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.Writer;
-import java.text.NumberFormat;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 
@@ -28,8 +26,6 @@ import com.vzome.core.viewing.Camera;
  */
 public class OpenGLExporter extends Exporter3d
 {
-	private static final NumberFormat FORMAT = NumberFormat .getNumberInstance( Locale .US );
-	
 	
 	public OpenGLExporter( Camera scene, Colors colors, Lights lights, RenderedModel model )
 	{
@@ -43,23 +39,22 @@ public class OpenGLExporter extends Exporter3d
        
 //		Vector3d lookDir = new Vector3d(), upDir = new Vector3d();
 //		mScene .getViewOrientation( lookDir, upDir );
-		FORMAT .setMaximumFractionDigits( 8 );
 
-        StringBuffer shape_vertices = new StringBuffer( "GLfloat vZome_shape_vertices[] = {\n" );
-        StringBuffer shape_normals = new StringBuffer( "GLfloat vZome_shape_normals[] = {\n" );
+        StringBuilder shape_vertices = new StringBuilder( "GLfloat vZome_shape_vertices[] = {\n" );
+        StringBuilder shape_normals = new StringBuilder( "GLfloat vZome_shape_normals[] = {\n" );
         StringBuffer shape_indices = new StringBuffer( "GLshort vZome_shape_indices[] = {\n" );
         StringBuffer instance_transforms = new StringBuffer( "GLshort vZome_instance_transforms[] = {\n" );
         StringBuffer instance_shapes = new StringBuffer( "GLuint vZome_instance_shapes[] = {\n" );
-        StringBuffer instance_offsets = new StringBuffer( "GLfloat vZome_instance_offsets[] = {\n" );
-        StringBuffer instance_colors = new StringBuffer( "GLfloat vZome_instance_colors[] = {\n" );
-        StringBuffer transformations = new StringBuffer( "GLfloat vZome_transformations[] = {\n" );
+        StringBuilder instance_offsets = new StringBuilder( "GLfloat vZome_instance_offsets[] = {\n" );
+        StringBuilder instance_colors = new StringBuilder( "GLfloat vZome_instance_colors[] = {\n" );
+        StringBuilder transformations = new StringBuilder( "GLfloat vZome_transformations[] = {\n" );
         int num_instances = 0;
 		int numShapes = 0; // this is actually the number of ints written to shape_indices
 		int numTransforms = 0; // this is actually the number of arrays written to transformations
         int numVertices = 0;
 		HashMap<Polyhedron, Integer>[] shapes = TwoMaps.inAnArray();
 		Map<AlgebraicMatrix, Integer> transforms = new HashMap<>();
-        for (RenderedManifestation rm : mModel) {
+        for (RenderedManifestation rm : manifestations()) {
             Polyhedron shape = rm .getShape();
             boolean flip = rm .reverseOrder(); // need to reverse face vertex order
             Integer shapeIndex = shapes[ flip?1:0 ] .get( shape );
@@ -79,8 +74,8 @@ public class OpenGLExporter extends Exporter3d
                         int index = face .get( flip? arity-j-1 : j );
                         AlgebraicVector loc = vertices .get( index );
                         RealVector vertex = loc .toRealVector();
-                        shape_vertices .append( vertex + ",\n" );
-                        shape_normals .append( normal + ",\n" );
+                        appendVector( vertex, shape_vertices );
+                        appendVector( normal, shape_normals );
                         ++numShapes;
                         shape_indices .append( (numVertices++) + "," );
                     }
@@ -93,28 +88,28 @@ public class OpenGLExporter extends Exporter3d
                 transformIndex = numTransforms++;
                 transforms .put( transform, transformIndex );
                 
-                transformations .append( FORMAT .format( transform .getElement( 0, 0 ) .evaluate() ) );
+                numbers .appendDecimal( transformations, transform .getElement( 0, 0 ) .evaluate(), 8 );
                 transformations .append( ", " );
-                transformations .append( FORMAT .format( transform .getElement( 1, 0 ) .evaluate() ) );
+                numbers .appendDecimal( transformations, transform .getElement( 1, 0 ) .evaluate(), 8 );
                 transformations .append( ", " );
-                transformations .append( FORMAT .format( transform .getElement( 2, 0 ) .evaluate() ) );
+                numbers .appendDecimal( transformations, transform .getElement( 2, 0 ) .evaluate(), 8 );
                 transformations .append( ", 0, " );
-                transformations .append( FORMAT .format( transform .getElement( 0, 1 ) .evaluate() ) );
+                numbers .appendDecimal( transformations, transform .getElement( 0, 1 ) .evaluate(), 8 );
                 transformations .append( ", " );
-                transformations .append( FORMAT .format( transform .getElement( 1, 1 ) .evaluate() ) );
+                numbers .appendDecimal( transformations, transform .getElement( 1, 1 ) .evaluate(), 8 );
                 transformations .append( ", " );
-                transformations .append( FORMAT .format( transform .getElement( 2, 1 ) .evaluate() ) );
+                numbers .appendDecimal( transformations, transform .getElement( 2, 1 ) .evaluate(), 8 );
                 transformations .append( ", 0, " );
-                transformations .append( FORMAT .format( transform .getElement( 0, 2 ) .evaluate() ) );
+                numbers .appendDecimal( transformations, transform .getElement( 0, 2 ) .evaluate(), 8 );
                 transformations .append( ", " );
-                transformations .append( FORMAT .format( transform .getElement( 1, 2 ) .evaluate() ) );
+                numbers .appendDecimal( transformations, transform .getElement( 1, 2 ) .evaluate(), 8 );
                 transformations .append( ", " );
-                transformations .append( FORMAT .format( transform .getElement( 2, 2 ) .evaluate() ) );
+                numbers .appendDecimal( transformations, transform .getElement( 2, 2 ) .evaluate(), 8 );
                 transformations .append( ", 0, 0, 0, 0, 1,\n" );
             }
             instance_transforms .append( transformIndex + ",\n" );
             instance_shapes .append( shapeIndex + ",\n" );
-            instance_offsets .append( rm .getLocation() + ",\n" );
+            appendVector( rm .getLocation(), instance_offsets );
             appendColor( rm .getColor(), instance_colors );
             ++ num_instances;
         }
@@ -141,13 +136,21 @@ public class OpenGLExporter extends Exporter3d
 	}
         
     
-    protected void appendColor( Color color, StringBuffer buf )
+    // as RealVector.toString() writes it, but without sharing its NumberFormat
+    private void appendVector( RealVector v, StringBuilder buf )
+    {
+        numbers .appendDecimal( buf, v.x, 1, 5 ) .append( ',' );
+        numbers .appendDecimal( buf, v.y, 1, 5 ) .append( ',' );
+        numbers .appendDecimal( buf, v.z, 1, 5 ) .append( ",\n" );
+    }
+
+    protected void appendColor( Color color, StringBuilder buf )
     {
         float[] rgb = color .getRGBColorComponents( new float[4] );
-        buf .append( FORMAT.format(rgb[0]) + ", " );
-        buf .append( FORMAT.format(rgb[1]) + ", " );
-        buf .append( FORMAT.format(rgb[2]) + ", " );
-        buf .append( FORMAT.format(rgb[3]) + ",\n" );
+        numbers .appendDecimal( buf, rgb[0], 8 ) .append( ", " );
+        numbers .appendDecimal( buf, rgb[1], 8 ) .append( ", " );
+        numbers .appendDecimal( buf, rgb[2], 8 ) .append( ", " );
+        numbers .appendDecimal( buf, rgb[3], 8 ) .append( ",\n" );
     }
     
     
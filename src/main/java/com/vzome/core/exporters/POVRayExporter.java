@@ -7,10 +7,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintWriter;
 import java.io.Writer;
-import java.text.NumberFormat;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 
 import javax.vecmath.Matrix4d;
@@ -37,8 +35,6 @@ import com.vzome.core.viewing.Camera;
  */
 public class POVRayExporter extends Exporter3d
 {
-	private static final NumberFormat FORMAT = NumberFormat .getNumberInstance( Locale .US );
-	
 	private static final String PREAMBLE_FILE = "com/vzome/core/exporters/povray/preamble.pov";
 
 	
@@ -63,7 +59,6 @@ public class POVRayExporter extends Exporter3d
 		Vector3d lookDir = new Vector3d(), upDir = new Vector3d(), rightDir = new Vector3d();
 		mScene .getViewOrientation( lookDir, upDir );
 		rightDir .cross( lookDir, upDir );
-		FORMAT .setMaximumFractionDigits( 8 );
 
         output .println();
         output .println();
@@ -110,24 +105,22 @@ public class POVRayExporter extends Exporter3d
 			mapViewToWorld( mScene, dir );
 			output .print( "light_source { -light_distance * " + printTuple3d( new Vector3d( dir ) ) );
 			output .print( " " );
-			printColor( color );
+			printColor( color, 8 );
 			output .println( " * multiplier_light_" + (i+1) + " }" );
 	        output .println();
 		}
 
         output .print( "#declare ambient_color = " );
-        printColor( mLights .getAmbientColor() );
+        printColor( mLights .getAmbientColor(), 8 );
         output .println( ";" );
         output .println();
         output .println( "#default { texture { finish { phong 0.3 ambient multiplier_ambient * ambient_color diffuse 0.6 } } }" );
         output .println();
 
         output .print( "background { " );
-        printColor( mLights .getBackgroundColor() );
+        printColor( mLights .getBackgroundColor(), 8 );
         output .println( " }" );
         output .println();
-		
-		FORMAT .setMaximumFractionDigits( 3 );
 
 		StringBuffer instances = new StringBuffer();
 
@@ -142,24 +135,27 @@ public class POVRayExporter extends Exporter3d
         instances = new StringBuffer();
         
 		int numShapes = 0, numTransforms = 0;
-		HashMap<Polyhedron, String>[] shapes = TwoMaps.inAnArray();
-		Map<AlgebraicMatrix, String> transforms = new HashMap<>();
+		ExportSnapshot snapshot = snapshot();
+		// names by index in the snapshot tables, given in order of first use
+		String[] shapes = new String[ snapshot .getShapeCount() ];
+		String[] transforms = new String[ snapshot .getTransformCount() ];
 		Map<Color, String> colors = new HashMap<>();
-        for (RenderedManifestation rm : mModel) {
-            Polyhedron shape = rm .getShape();
-            boolean flip = rm .reverseOrder(); // need to reverse face vertex order
-            String shapeName = shapes[ flip?1:0 ] .get( shape );
+        for ( int n = 0; n < snapshot .size(); n++ ) {
+            RenderedManifestation rm = snapshot .getInstance( n );
+            int shapeNum = snapshot .getShapeIndex( n );
+            String shapeName = shapes[ shapeNum ];
             if ( shapeName == null ) {
                 shapeName = "shape" + numShapes++;
-                shapes[ flip?1:0 ] .put( shape, shapeName );
-                exportShape( shapeName, shape, flip );
+                shapes[ shapeNum ] = shapeName;
+                // need to reverse face vertex order when flipped
+                exportShape( shapeName, snapshot .getShape( shapeNum ), snapshot .isFlipped( shapeNum ) );
             }
-            AlgebraicMatrix transform = rm .getOrientation();
-            String transformName = transforms .get( transform );
+            int transformNum = snapshot .getTransformIndex( n );
+            String transformName = transforms[ transformNum ];
             if ( transformName == null ){
                 transformName = "trans" + numTransforms++;
-                transforms .put( transform, transformName );
-                exportTransform( transformName, transform );
+                transforms[ transformNum ] = transformName;
+                exportTransform( transformName, snapshot .getTransform( transformNum ) );
             }
             Color color = rm .getColor();
             if ( color == null )
@@ -220,23 +216,23 @@ public class POVRayExporter extends Exporter3d
     private String printTuple3d( Tuple3d t )
     {
     	StringBuilder buf = new StringBuilder( "<" );
-    	buf .append( FORMAT.format(t.x) );
+    	numbers .appendDecimal( buf, t.x, 8 );
     	buf .append( "," );
-    	buf .append( FORMAT.format(t.y) );
+    	numbers .appendDecimal( buf, t.y, 8 );
     	buf .append( "," );
-    	buf .append( FORMAT.format(t.z) );
+    	numbers .appendDecimal( buf, t.z, 8 );
     	buf .append( ">" );
     	return buf .toString();
     }
     
-    protected void exportColor( String name, Color color )
+    protected void exportColor( String name, Color color ) throws IOException
     {
 		output .print( "#declare " + name .replace( '.', '_' ) + " = texture { pigment { " );
-		printColor( color );
+		printColor( color, 3 );
 		output .println( " } };" );
     }
     
-    private void printColor( Color color )
+    private void printColor( Color color, int digits ) throws IOException
     {
     	boolean doAlpha = color .getAlpha() < 0xFF;
     	if ( doAlpha )
@@ -244,15 +240,15 @@ public class POVRayExporter extends Exporter3d
     	else
     		output .print( "color rgb <" );
 		float[] rgb = color .getRGBColorComponents( new float[4] );
-		output .print( FORMAT.format(rgb[0]) + "," );
-		output .print( FORMAT.format(rgb[1]) + "," );
+		numbers .writeDecimal( output, rgb[0], digits );
+		output .print( "," );
+		numbers .writeDecimal( output, rgb[1], digits );
+		output .print( "," );
+		numbers .writeDecimal( output, rgb[2], digits );
 		if ( doAlpha )
 		{
-			output .print( FORMAT.format(rgb[2]) + "," );
-			output .print( FORMAT.format(rgb[3]) );
-		}
-		else {
-			output .print( FORMAT.format(rgb[2]) );
+			output .print( "," );
+			numbers .writeDecimal( output, rgb[3], digits );
 		}
 		output .print( ">" );
     }
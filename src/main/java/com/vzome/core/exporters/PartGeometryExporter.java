@@ -39,7 +39,7 @@ public class PartGeometryExporter extends VefExporter
         AlgebraicNumber scale = field .createPower( -5 );
         VefModelExporter exporter = new VefModelExporter( writer, field, scale );
         
-        for (RenderedManifestation rm : mModel) {
+        for (RenderedManifestation rm : manifestations()) {
             exporter .exportManifestation( rm .getManifestation() );
         }
         
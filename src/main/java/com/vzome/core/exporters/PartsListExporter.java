@@ -37,7 +37,7 @@ public class PartsListExporter extends Exporter3d
 	    
         int numBalls = 0;
         HashMap<Direction, Map<AlgebraicNumber, Integer> >[] orbits = TwoMaps.inAnArray();
-        for (RenderedManifestation rm : mModel) {
+        for (RenderedManifestation rm : manifestations()) {
             Manifestation m = rm .getManifestation();
             if ( m instanceof Connector ) {
                 ++ numBalls;
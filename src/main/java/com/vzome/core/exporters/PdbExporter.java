@@ -39,7 +39,7 @@ public class PdbExporter extends Exporter3d
         List<Atom> atomsList = new ArrayList<>();
         int indices = 0;
 
-        for (RenderedManifestation rm : mModel) {
+        for (RenderedManifestation rm : manifestations()) {
             Manifestation man = rm .getManifestation();
             if ( man instanceof Strut ) {
                 AlgebraicVector startLoc = ((Strut) man) .getLocation();
@@ -4,15 +4,13 @@ import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.Writer;
-import java.text.DecimalFormat;
-import java.text.NumberFormat;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 
 import com.vzome.core.algebra.AlgebraicVector;
+import com.vzome.core.math.RealVector;
 import com.vzome.core.model.Manifestation;
 import com.vzome.core.model.Panel;
 import com.vzome.core.render.Colors;
@@ -22,19 +20,13 @@ import com.vzome.core.viewing.Lights;
 
 public class PlyExporter extends Exporter3d
 {
-	private static final NumberFormat FORMAT = NumberFormat .getNumberInstance( Locale .US );
-	
     private Map<AlgebraicVector, Integer> vertexData;
 
-    private StringBuffer vertices;
+    private StringBuilder vertices;
 
 	public PlyExporter( Colors colors, Lights lights )
 	{
 	    super( null, colors, lights, null );
-
-        if (FORMAT instanceof DecimalFormat) {
-            ((DecimalFormat) FORMAT) .applyPattern( "0.000000E00" );
-        }
 	}
 
     @Override
@@ -43,7 +35,7 @@ public class PlyExporter extends Exporter3d
     	int numPanels = 0;
         StringBuffer panels = new StringBuffer();
         vertexData = new LinkedHashMap<>();
-        vertices = new StringBuffer();
+        vertices = new StringBuilder();
 
         PrintWriter output = new PrintWriter( writer );
         output .println( "ply" );
@@ -51,7 +43,7 @@ public class PlyExporter extends Exporter3d
         output .println( "comment   Exported by vZome, http://vzome.com" );
         output .println( "comment     All vertex data is in inches" );
 
-        for (RenderedManifestation rm : mModel) {
+        for (RenderedManifestation rm : manifestations()) {
             Manifestation man = rm .getManifestation();
             if ( man instanceof Panel )
             {
@@ -95,7 +87,10 @@ public class PlyExporter extends Exporter3d
             int index = vertexData .size();
             obj = index;
             vertexData .put( key, obj );
-            vertices .append( vertexVector .toRealVector() .spacedString() + "\n" );
+            RealVector v = vertexVector .toRealVector();
+            numbers .appendDecimal( vertices, v.x, 1, 5 ) .append( ' ' );
+            numbers .appendDecimal( vertices, v.y, 1, 5 ) .append( ' ' );
+            numbers .appendDecimal( vertices, v.z, 1, 5 ) .append( '\n' );
         }
         return obj;
     }
@@ -29,7 +29,7 @@ public class RulerExporter extends Exporter3d
     {
         double maxX = 0, maxY = 0, maxZ = 0;
 
-        for (RenderedManifestation rm : this .mModel) {
+        for (RenderedManifestation rm : manifestations()) {
             Manifestation man = rm .getManifestation();
             if ( man instanceof Connector )
             {
@@ -55,7 +55,7 @@ public class STEPExporter extends Exporter3d{
     {
         int numShapes = 0;
         HashMap<Polyhedron, String>[] shapes = TwoMaps.inAnArray();
-        for (RenderedManifestation rm : mModel) {
+        for (RenderedManifestation rm : manifestations()) {
             Polyhedron shape = rm .getShape();
             boolean flip = rm .reverseOrder(); // need to reverse face vertex order
             String shapeName = shapes[ flip?1:0 ] .get( shape );
@@ -4,9 +4,7 @@ import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.Writer;
-import java.text.NumberFormat;
 import java.util.HashMap;
-import java.util.Locale;
 import java.util.Map;
 
 import com.vzome.core.algebra.AlgebraicField;
@@ -25,8 +23,6 @@ import com.vzome.core.viewing.Camera;
 
 public class SecondLifeExporter extends Exporter3d
 {
-	private static final NumberFormat FORMAT = NumberFormat .getNumberInstance( Locale .US );
-	
 	
 	public SecondLifeExporter( Camera scene, Colors colors, Lights lights, RenderedModel model )
 	{
@@ -47,17 +43,16 @@ public class SecondLifeExporter extends Exporter3d
 	public void doExport( File directory, Writer writer, int height, int width ) throws IOException
 	{
         output = new PrintWriter( writer );
-        
-        FORMAT .setMaximumFractionDigits( 6 );
 
         AlgebraicField field = mModel .getField();
         AlgebraicNumber scale = field .createPower( -5 );
         
         int numBalls = 0;
-        StringBuffer vertices = new StringBuffer();
+        StringBuilder vertices = new StringBuilder();
         Map<AlgebraicVector, Integer> ballIndices = new HashMap<>( numBalls );
         boolean first = true;
-        for (RenderedManifestation rm : mModel) {
+        Iterable<RenderedManifestation> manifestations = manifestations();
+        for (RenderedManifestation rm : manifestations) {
             Manifestation man = rm .getManifestation();
             if ( man instanceof Connector )
             {
@@ -72,11 +67,11 @@ public class SecondLifeExporter extends Exporter3d
                 else
                     vertices .append( ",\n" );
                 vertices .append( "<" );
-                vertices .append( FORMAT.format( rv .x ) );
+                numbers .appendDecimal( vertices, rv .x, 6 );
                 vertices .append( "," );
-                vertices .append( FORMAT.format( rv .y ) );
+                numbers .appendDecimal( vertices, rv .y, 6 );
                 vertices .append( "," );
-                vertices .append( FORMAT.format( rv .z ) );
+                numbers .appendDecimal( vertices, rv .z, 6 );
                 vertices .append( ">" );
             }
 //            else if ( man instanceof Strut )
@@ -89,7 +84,7 @@ public class SecondLifeExporter extends Exporter3d
         output .println( VERTEX_POSTLUDE );
 
         first = true;
-        for (RenderedManifestation rm : mModel) {
+        for (RenderedManifestation rm : manifestations) {
             Manifestation man = rm .getManifestation();
             if ( man instanceof Strut )
             {
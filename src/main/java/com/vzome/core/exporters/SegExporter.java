@@ -37,7 +37,7 @@ public class SegExporter extends Exporter3d
         if (format instanceof DecimalFormat) {
             ((DecimalFormat) format) .applyPattern( "0.0000" );
         }		
-        for (RenderedManifestation rm : mModel) {
+        for (RenderedManifestation rm : manifestations()) {
             Manifestation man = rm .getManifestation();
             if ( man instanceof Strut )
             {
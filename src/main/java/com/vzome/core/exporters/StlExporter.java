@@ -4,10 +4,6 @@ import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.Writer;
-import java.text.DecimalFormat;
-import java.text.NumberFormat;
-import java.util.List;
-import java.util.Locale;
 
 import com.vzome.core.algebra.AlgebraicVector;
 import com.vzome.core.math.Polyhedron;
@@ -23,54 +19,42 @@ import com.vzome.core.viewing.Camera;
 
 // This exporter has been tuned to produce a format identical to that produced by Meshlab,
 //   to guarantee a seamless upload to Shapeways.com
+//
+// BinaryStlExporter writes the same facets in binary form.
 
 public class StlExporter extends Exporter3d
 {
-	private static final NumberFormat FORMAT = NumberFormat .getNumberInstance( Locale .US );
-			
+
 	public StlExporter( Camera scene, Colors colors, Lights lights, RenderedModel model )
 	{
 	    super( scene, colors, lights, model );
 	}
 
-
     @Override
 	public void doExport( File directory, Writer writer, int height, int width ) throws IOException
 	{
-        if (FORMAT instanceof DecimalFormat) {
-            ((DecimalFormat) FORMAT) .applyPattern( "0.000000E00" );
-        }
-
         output = new PrintWriter( writer );
         output .println( "solid vcg" );
         
-        for (RenderedManifestation rm : mModel) {
+        for (RenderedManifestation rm : manifestations()) {
             Manifestation man = rm .getManifestation();
             if (man instanceof Strut) {
                 Polyhedron shape = rm .getShape();
                 RealVector loc = rm .getLocation();
                 boolean reverseFaces = rm .reverseOrder();
-                shape .getFaceSet();
-                List<AlgebraicVector> faceVertices = shape .getVertexList();
+                double[] coords = shape .getRealVertices();
                 for (Polyhedron.Face face : shape .getFaceSet()) {
                     int arity = face .size();
-                    int index = face .get( reverseFaces? arity-1 : 0 );
-                    AlgebraicVector gv = faceVertices .get( index );
-                    RealVector vert0 = gv .toRealVector();
-                    index = face .get( reverseFaces? arity-2 : 1 );
-                    gv = faceVertices .get(index);
-                    RealVector vert1 = gv .toRealVector();
-                    index = face .get( reverseFaces? arity-3 : 2 );
-                    gv = faceVertices .get(index);
-                    RealVector vert2 = gv .toRealVector();
+                    RealVector vert0 = vertex( coords, face .get( reverseFaces? arity-1 : 0 ) );
+                    RealVector vert1 = vertex( coords, face .get( reverseFaces? arity-2 : 1 ) );
+                    RealVector vert2 = vertex( coords, face .get( reverseFaces? arity-3 : 2 ) );
                     RealVector edge1 = vert1 .minus( vert0 );
                     RealVector edge2 = vert2 .minus( vert1 );
                     RealVector norm = edge1 .cross( edge2 ) .normalize();
                     RealVector v0 = null, v1 = null;
                     for ( int j = 0; j < arity; j++ ){
-                        index = face .get( reverseFaces? arity-j-1 : j );
-                        gv = faceVertices .get(index);
-                        RealVector vertex = loc .plus( gv .toRealVector() );
+                        int index = face .get( reverseFaces? arity-j-1 : j );
+                        RealVector vertex = loc .plus( vertex( coords, index ) );
                         vertex = vertex .scale( RZOME_INCH_SCALING );
 
                         if ( v0 == null )
@@ -80,11 +64,14 @@ public class StlExporter extends Exporter3d
                         else
                         {
                             output .print( "  facet normal " );
-                            output .println( FORMAT .format( norm.x ) + " " + FORMAT .format( norm.y ) + " " + FORMAT .format( norm.z ) );
+                            printVector( norm );
                             output .println( "    outer loop" );
-                            output .println( "      vertex " + FORMAT .format( v0.x ) + " " + FORMAT .format( v0.y ) + " " + FORMAT .format( v0.z ) );
-                            output .println( "      vertex " + FORMAT .format( v1.x ) + " " + FORMAT .format( v1.y ) + " " + FORMAT .format( v1.z ) );
-                            output .println( "      vertex " + FORMAT .format( vertex.x ) + " " + FORMAT .format( vertex.y ) + " " + FORMAT .format( vertex.z ) );
+                            output .print( "      vertex " );
+                            printVector( v0 );
+                            output .print( "      vertex " );
+                            printVector( v1 );
+                            output .print( "      vertex " );
+                            printVector( vertex );
                             output .println( "    endloop" );
                             output .println( "  endfacet" );
                             v1 = vertex;
@@ -106,11 +93,14 @@ public class StlExporter extends Exporter3d
                     else
                     {
                         output .print( "  facet normal " );
-                        output .println( FORMAT .format( norm.x ) + " " + FORMAT .format( norm.y ) + " " + FORMAT .format( norm.z ) );
+                        printVector( norm );
                         output .println( "    outer loop" );
-                        output .println( "      vertex " + FORMAT .format( v0.x ) + " " + FORMAT .format( v0.y ) + " " + FORMAT .format( v0.z ) );
-                        output .println( "      vertex " + FORMAT .format( v1.x ) + " " + FORMAT .format( v1.y ) + " " + FORMAT .format( v1.z ) );
-                        output .println( "      vertex " + FORMAT .format( vertex.x ) + " " + FORMAT .format( vertex.y ) + " " + FORMAT .format( vertex.z ) );
+                        output .print( "      vertex " );
+                        printVector( v0 );
+                        output .print( "      vertex " );
+                        printVector( v1 );
+                        output .print( "      vertex " );
+                        printVector( vertex );
                         output .println( "    endloop" );
                         output .println( "  endfacet" );
                         v1 = vertex;
@@ -124,6 +114,16 @@ public class StlExporter extends Exporter3d
 
 		output .flush();
 	}
+
+    private void printVector( RealVector v ) throws IOException
+    {
+        numbers .writeScientific( output, v.x, 6 );
+        output .print( ' ' );
+        numbers .writeScientific( output, v.y, 6 );
+        output .print( ' ' );
+        numbers .writeScientific( output, v.z, 6 );
+        output .println();
+    }
 		
     @Override
     public String getFileExtension()
@@ -80,11 +80,11 @@ public class VRMLExporter extends Exporter3d
         output .println();
 
         AlgebraicField field = null;
-        StringBuffer instances = new StringBuffer();
+        StringBuilder instances = new StringBuilder();
         int numShapes = 0;
         HashMap<Polyhedron, String>[] shapes = TwoMaps.inAnArray();
         Map<Color, String> colors = new HashMap<>();
-        for (RenderedManifestation rm : mModel) {
+        for (RenderedManifestation rm : manifestations()) {
             Polyhedron shape = rm .getShape();
             if ( field == null )
                 field = shape .getField();
@@ -145,7 +145,7 @@ public class VRMLExporter extends Exporter3d
                 exportColor( colorName, color );
             }
             instances .append( "Transform { translation " );
-            instances .append( rm .getLocation() .scale( SCALE ) .spacedString() );
+            appendSpaced( rm .getLocation() .scale( SCALE ), instances );
             instances .append( " rotation " + x + " " + y + " " + z + " " + angle );
             instances .append( " children[ Shape{ geometry " + shapeName + "{} appearance " + colorName + "{}}]}\n" );
         }
@@ -156,8 +156,17 @@ public class VRMLExporter extends Exporter3d
     }
 
 
+    // as RealVector.spacedString() writes it, but without sharing its NumberFormat
+    private StringBuilder appendSpaced( RealVector v, StringBuilder buf )
+    {
+        numbers .appendDecimal( buf, v.x, 1, 5 ) .append( ' ' );
+        numbers .appendDecimal( buf, v.y, 1, 5 ) .append( ' ' );
+        return numbers .appendDecimal( buf, v.z, 1, 5 );
+    }
+
     private void exportShape( String shapeName, Polyhedron poly, boolean reverseFaces )
     {
+        StringBuilder point = new StringBuilder();
         output .println( "PROTO " + shapeName + " [] { IndexedFaceSet{ solid FALSE convex FALSE colorPerVertex FALSE" );
         output .println( "   coord Coordinate{ point [" );
         
@@ -165,7 +174,8 @@ public class VRMLExporter extends Exporter3d
             if ( reverseFaces )
                 gv = gv  .negate();
             RealVector v = gv .toRealVector();
-            output .println( v .scale( SCALE ) .spacedString() + "," );
+            point .setLength( 0 );
+            output .println( appendSpaced( v .scale( SCALE ), point ) .append( ',' ) );
         }
         output .println( "] } coordIndex [" );
         for (Polyhedron.Face face : poly .getFaceSet()) {
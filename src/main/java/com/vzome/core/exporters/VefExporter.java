@@ -30,7 +30,7 @@ public class VefExporter extends Exporter3d
         AlgebraicNumber scale = field .createPower( -5 );
 	    Exporter exporter = new VefModelExporter( writer, field, scale );
 		
-        for (RenderedManifestation rm : mModel) {
+        for (RenderedManifestation rm : manifestations()) {
             Manifestation man = rm .getManifestation();
             exporter .exportManifestation( man );
         }
@@ -0,0 +1,256 @@
+package com.vzome.core.math;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * Formats doubles as decimal text, with the precision given on each call.
+ * The text reproduces NumberFormat.getNumberInstance( Locale.US ) with the same
+ * fraction digits, or a DecimalFormat pattern like "0.000000E00", except that
+ * thousands are never grouped (a "," breaks every format that reads them).
+ *
+ * Digits are built in a char[] owned by the instance and copied straight into
+ * the Writer or StringBuilder, so no String is allocated per value.
+ * An instance is not thread-safe; give each export (or thread) its own.
+ */
+public final class DecimalWriter
+{
+    // scratch for the shortest decimal representation, from StringBuilder.append( double )
+    private final StringBuilder shortest = new StringBuilder( 32 );
+
+    // significant digits (0-9) of the value, no leading or trailing zeros
+    private final byte[] digits = new byte[ 32 ];
+
+    private int numDigits;
+
+    // value = 0.d1d2d3... x 10^point
+    private int point;
+
+    private char[] chars = new char[ 64 ];
+
+    private int length;
+
+    /**
+     * Write the value with at most maxFraction digits after the decimal point.
+     */
+    public void writeDecimal( Writer out, double value, int maxFraction ) throws IOException
+    {
+        decimal( value, 0, maxFraction );
+        out .write( chars, 0, length );
+    }
+
+    /**
+     * Write the value with exactly fraction digits after the decimal point, as pattern "0.0000" would.
+     */
+    public void writeFixed( Writer out, double value, int fraction ) throws IOException
+    {
+        decimal( value, fraction, fraction );
+        out .write( chars, 0, length );
+    }
+
+    /**
+     * Write the value with one integer digit and exactly fraction digits, as pattern "0.000000E00" would.
+     */
+    public void writeScientific( Writer out, double value, int fraction ) throws IOException
+    {
+        scientific( value, fraction );
+        out .write( chars, 0, length );
+    }
+
+    public StringBuilder appendDecimal( StringBuilder buf, double value, int maxFraction )
+    {
+        return appendDecimal( buf, value, 0, maxFraction );
+    }
+
+    public StringBuilder appendDecimal( StringBuilder buf, double value, int minFraction, int maxFraction )
+    {
+        decimal( value, minFraction, maxFraction );
+        return buf .append( chars, 0, length );
+    }
+
+    public StringBuilder appendFixed( StringBuilder buf, double value, int fraction )
+    {
+        decimal( value, fraction, fraction );
+        return buf .append( chars, 0, length );
+    }
+
+    public StringBuilder appendScientific( StringBuilder buf, double value, int fraction )
+    {
+        scientific( value, fraction );
+        return buf .append( chars, 0, length );
+    }
+
+    private void decimal( double value, int minFraction, int maxFraction )
+    {
+        length = 0;
+        if ( special( value ) )
+            return;
+        if ( numDigits > 0 )
+            round( value, point + maxFraction );
+
+        if ( point <= 0 || numDigits == 0 )
+            put( '0' );
+        else
+            for ( int i = 0; i < point; i++ )
+                put( i < numDigits? (char) ( '0' + digits[ i ] ) : '0' );
+
+        int fraction = numDigits == 0? 0 : Math .max( 0, numDigits - point );
+        fraction = Math .max( fraction, minFraction );
+        if ( fraction > 0 )
+            put( '.' );
+        for ( int i = 0; i < fraction; i++ ) {
+            int d = point + i;
+            put( numDigits > 0 && d >= 0 && d < numDigits? (char) ( '0' + digits[ d ] ) : '0' );
+        }
+    }
+
+    private void scientific( double value, int fraction )
+    {
+        length = 0;
+        if ( special( value ) )
+            return;
+        int exponent = 0;
+        if ( numDigits > 0 ) {
+            round( value, fraction + 1 );
+            exponent = point - 1;
+        }
+        for ( int i = 0; i <= fraction; i++ ) {
+            put( i < numDigits? (char) ( '0' + digits[ i ] ) : '0' );
+            if ( i == 0 && fraction > 0 )
+                put( '.' );
+        }
+        put( 'E' );
+        if ( exponent < 0 ) {
+            put( '-' );
+            exponent = -exponent;
+        }
+        if ( exponent < 10 )
+            put( '0' );
+        int start = length;
+        do {
+            put( (char) ( '0' + exponent % 10 ) );
+            exponent /= 10;
+        } while ( exponent > 0 );
+        for ( int i = start, j = length - 1; i < j; i++, j-- ) {
+            char c = chars[ i ];
+            chars[ i ] = chars[ j ];
+            chars[ j ] = c;
+        }
+    }
+
+    /**
+     * Handle NaN and infinities, or else put the sign and split the
+     * magnitude into digits and point.
+     */
+    private boolean special( double value )
+    {
+        if ( Double .isNaN( value ) ) {
+            put( "NaN" );
+            return true;
+        }
+        if ( value < 0 || ( value == 0d && 1d / value < 0 ) )
+            put( '-' );
+        if ( Double .isInfinite( value ) ) {
+            put( "Infinity" );
+            return true;
+        }
+        shortest .setLength( 0 );
+        shortest .append( Math .abs( value ) );  // "123.45", "0.00123" or "1.2345E-5"
+        numDigits = 0;
+        point = 0;
+        boolean seenPoint = false;
+        int n = shortest .length();
+        int i = 0;
+        for ( ; i < n; i++ ) {
+            char c = shortest .charAt( i );
+            if ( c == '.' )
+                seenPoint = true;
+            else if ( c == 'E' )
+                break;
+            else {
+                if ( numDigits == 0 && c == '0' ) {
+                    if ( seenPoint )
+                        --point;
+                    continue;
+                }
+                digits[ numDigits++ ] = (byte) ( c - '0' );
+                if ( ! seenPoint )
+                    ++point;
+            }
+        }
+        if ( i < n ) {
+            boolean negative = shortest .charAt( i + 1 ) == '-';
+            int exponent = 0;
+            for ( int j = negative? i + 2 : i + 1; j < n; j++ )
+                exponent = 10 * exponent + ( shortest .charAt( j ) - '0' );
+            point += negative? -exponent : exponent;
+        }
+        while ( numDigits > 0 && digits[ numDigits - 1 ] == 0 )
+            --numDigits;
+        return false;
+    }
+
+    /**
+     * Keep count leading digits, rounding half-even on the exact binary value.
+     * DecimalFormat sometimes misjudges a tie in the shortest digits, so the last
+     * digit can differ from it, always in favor of the nearer decimal.
+     */
+    private void round( double value, int count )
+    {
+        if ( count >= numDigits )
+            return;
+        boolean up;
+        if ( count < 0 )
+            up = false;
+        else {
+            int next = digits[ count ];
+            if ( next != 5 || count + 1 < numDigits )
+                up = next >= 5;
+            else {
+                // the shortest digits end exactly halfway; the binary value decides
+                int cmp = new BigDecimal( Math .abs( value ) ) .compareTo( halfway() );
+                up = cmp > 0 || ( cmp == 0 && count > 0 && digits[ count - 1 ] % 2 == 1 );
+            }
+        }
+        numDigits = Math .max( count, 0 );
+        if ( up ) {
+            int i = numDigits - 1;
+            while ( i >= 0 && digits[ i ] == 9 )
+                --i;
+            if ( i < 0 ) {
+                // every kept digit carried, or no digits were kept
+                digits[ 0 ] = 1;
+                numDigits = 1;
+                ++point;
+                return;
+            }
+            ++digits[ i ];
+            numDigits = i + 1;
+        }
+        while ( numDigits > 0 && digits[ numDigits - 1 ] == 0 )
+            --numDigits;
+    }
+
+    private BigDecimal halfway()
+    {
+        StringBuilder buf = new StringBuilder( numDigits + 8 ) .append( "0." );
+        for ( int i = 0; i < numDigits; i++ )
+            buf .append( (char) ( '0' + digits[ i ] ) );
+        return new BigDecimal( buf .append( 'E' ) .append( point ) .toString() );
+    }
+
+    private void put( char c )
+    {
+        if ( length == chars.length )
+            chars = Arrays .copyOf( chars, 2 * length );
+        chars[ length++ ] = c;
+    }
+
+    private void put( String s )
+    {
+        for ( int i = 0; i < s .length(); i++ )
+            put( s .charAt( i ) );
+    }
+}
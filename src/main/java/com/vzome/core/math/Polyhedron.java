@@ -1,5 +1,6 @@
 package com.vzome.core.math;
 
+import java.nio.FloatBuffer;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -42,6 +43,10 @@ public class Polyhedron {
     private Direction orbit;
 
     private AlgebraicNumber length;
+
+    // x, y, z of each vertex in turn, evaluated on demand by getRealVertices();
+    //  volatile, since shapes are shared by exporters on other threads
+    private volatile double[] realVertices = null;
     
     public void setName( String name )
     {
@@ -94,6 +99,49 @@ public class Polyhedron {
 		return m_vertexList;
 	}
 
+	/**
+	 * All the vertices evaluated to doubles in one pass, packed as x0, y0, z0, x1, ...
+	 * The array is cached until a vertex is added, so callers must not modify it.
+	 */
+	public double[] getRealVertices()
+	{
+	    double[] result = this .realVertices;
+	    int count = m_vertexList .size();
+	    if ( result == null || result.length != 3 * count ) {
+	        // filled in before it is published, so no thread sees a partly evaluated array
+	        result = new double[ 3 * count ];
+	        for ( int i = 0; i < count; i++ )
+	            m_vertexList .get( i ) .evaluateInto( result, 3 * i );
+	        this .realVertices = result;
+	    }
+	    return result;
+	}
+
+	/**
+	 * Copy the packed vertex coordinates into a reusable float array.
+	 * @param buffer may be null
+	 * @return buffer, if it is large enough, otherwise a new array
+	 */
+	public float[] getRealVertices( float[] buffer )
+	{
+	    double[] coords = this .getRealVertices();
+	    if ( buffer == null || buffer.length < coords.length )
+	        buffer = new float[ coords.length ];
+	    for ( int i = 0; i < coords.length; i++ )
+	        buffer[ i ] = (float) coords[ i ];
+	    return buffer;
+	}
+
+	/**
+	 * Put the packed vertex coordinates at the buffer's current position, advancing it.
+	 * @param buffer
+	 */
+	public void putRealVertices( FloatBuffer buffer )
+	{
+	    for ( double coord : this .getRealVertices() )
+	        buffer .put( (float) coord );
+	}
+
 	public Set<Face> getFaceSet(){
 		return m_faces;
 	}
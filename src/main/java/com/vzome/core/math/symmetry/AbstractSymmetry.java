@@ -294,7 +294,7 @@ public abstract class AbstractSymmetry implements Symmetry
             int sense = zone .getSense();
             for (Direction orbit : orbits) {
                 Axis candidate = orbit .getCanonicalAxis( sense, orientation );
-                if ( candidate .normal() .cross( vector ) .isOrigin() )
+                if ( candidate .normal() .isParallel( vector ) )
                     return candidate;
             }
         }
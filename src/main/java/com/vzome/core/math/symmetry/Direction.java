@@ -8,6 +8,7 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.vzome.core.algebra.AlgebraicField;
 import com.vzome.core.algebra.AlgebraicMatrix;
@@ -51,7 +52,8 @@ public class Direction implements Comparable<Direction>, Iterable<Axis>
         return mStandard;
     }
     
-    private static int globalIndex = 0;
+    // shared by every Application, which may be loading on other threads
+    private static final AtomicInteger globalIndex = new AtomicInteger();
     
     private final int index;
 
@@ -59,7 +61,7 @@ public class Direction implements Comparable<Direction>, Iterable<Axis>
     
     public Direction( String name, Symmetry group, int prototype, int rotatedPrototype, AlgebraicVector vector, boolean isStd )
     {
-        this.index = globalIndex++; // we want to just retain the order used to create these
+        this.index = globalIndex .getAndIncrement(); // we want to just retain the order used to create these
         mStandard = isStd;
         mName = name;
         mSymmetryGroup = group;
@@ -136,7 +138,7 @@ public class Direction implements Comparable<Direction>, Iterable<Axis>
     {
         for (Axis axis : mVectors .values()) {
             AlgebraicVector normal = axis .normal();
-            if ( normal .cross( vector ) .isOrigin() ) {
+            if ( normal .isParallel( vector ) ) {
                 // parallel
                 AlgebraicNumber dotProd = normal .dot( vector );
                 if ( dotProd .evaluate() > 0 )
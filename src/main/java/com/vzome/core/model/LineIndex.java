@@ -0,0 +1,92 @@
+package com.vzome.core.model;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import com.vzome.core.algebra.AlgebraicNumber;
+import com.vzome.core.algebra.AlgebraicVector;
+
+/**
+ * Files each strut under the line it lies on, so collinear struts can be found without
+ * testing every strut in the model.
+ */
+public class LineIndex extends StrutIndex<LineIndex.Line>
+{
+    /**
+     * @return the model's line index, creating it if necessary
+     */
+    public static LineIndex of( RealizedModel model )
+    {
+        LineIndex index = model .getIndex( LineIndex.class );
+        if ( index == null ) {
+            index = new LineIndex( model );
+            model .addIndex( index );
+        }
+        return index;
+    }
+
+    private LineIndex( RealizedModel model )
+    {
+        super( model );
+    }
+
+    @Override
+    protected Collection<Line> keys( Strut strut )
+    {
+        return Collections .singleton( new Line( strut .getLocation(), strut .getEnd() ) );
+    }
+
+    /**
+     * @return the struts lying on the line through p1 and p2, in model order
+     */
+    public List<Strut> collinearStruts( AlgebraicVector p1, AlgebraicVector p2 )
+    {
+        return this .get( new Line( p1, p2 ) );
+    }
+
+    /**
+     * A line in canonical form: the direction scaled so its first nonzero coordinate is one,
+     * and the point on the line closest to the origin.  Any two distinct points on the line give the same Line.
+     */
+    public static final class Line
+    {
+        private final AlgebraicVector direction, point;
+
+        public Line( AlgebraicVector p1, AlgebraicVector p2 )
+        {
+            AlgebraicVector offset = p2 .minus( p1 );
+            if ( offset .isOrigin() )
+                throw new IllegalArgumentException( "a line needs two distinct points" );
+            int first = 0;
+            while ( offset .getComponent( first ) .isZero() )
+                ++first;
+            this .direction = offset .scale( offset .getComponent( first ) .reciprocal() );
+            AlgebraicNumber along = p1 .dot( this .direction ) .dividedBy( this .direction .dot( this .direction ) );
+            this .point = p1 .minus( this .direction .scale( along ) );
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * this .direction .hashCode() + this .point .hashCode();
+        }
+
+        @Override
+        public boolean equals( Object obj )
+        {
+            if ( this == obj )
+                return true;
+            if ( ! ( obj instanceof Line ) )
+                return false;
+            Line other = (Line) obj;
+            return this .direction .equals( other .direction ) && this .point .equals( other .point );
+        }
+
+        @Override
+        public String toString()
+        {
+            return "line through " + this .point + " along " + this .direction;
+        }
+    }
+}
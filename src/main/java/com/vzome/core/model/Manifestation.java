@@ -2,9 +2,9 @@
 
 package com.vzome.core.model;
 
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
-import java.util.Set;
 
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
@@ -18,7 +18,8 @@ import com.vzome.core.render.RenderedManifestation;
  */
 public abstract class Manifestation implements GroupElement
 {
-    protected final Set<Construction> mManifests = new HashSet<>(5);
+    // almost always just one Construction; otherwise a Construction[] without duplicates
+    private Object mManifests = null;
     
     protected RenderedManifestation mRendered = null;
     
@@ -29,6 +30,9 @@ public abstract class Manifestation implements GroupElement
     private static final int NO_ID = -1;
     
     private static int NEXT_ID = 0;
+
+    // when this was added to its RealizedModel, so the location index can report things in model order
+    long mAdditionOrder = -1l;
         
     void resetId()
     {
@@ -45,22 +49,77 @@ public abstract class Manifestation implements GroupElement
     
     public void addConstruction( Construction c )
     {
-        mManifests .add( c );
+        if ( mManifests == null )
+            mManifests = c;
+        else if ( mManifests instanceof Construction ) {
+            if ( ! mManifests .equals( c ) )
+                mManifests = new Construction[]{ (Construction) mManifests, c };
+        }
+        else {
+            Construction[] constructions = (Construction[]) mManifests;
+            for ( Construction existing : constructions )
+                if ( existing .equals( c ) )
+                    return;
+            constructions = Arrays .copyOf( constructions, constructions.length + 1 );
+            constructions[ constructions.length - 1 ] = c;
+            mManifests = constructions;
+        }
     }
     
     public void removeConstruction( Construction c )
     {
-        mManifests .remove( c );
+        if ( mManifests == null )
+            return;
+        else if ( mManifests instanceof Construction ) {
+            if ( mManifests .equals( c ) )
+                mManifests = null;
+        }
+        else {
+            Construction[] constructions = (Construction[]) mManifests;
+            for ( int i = 0; i < constructions.length; i++ ) {
+                if ( constructions[ i ] .equals( c ) ) {
+                    if ( constructions.length == 2 )
+                        mManifests = constructions[ 1 - i ];
+                    else {
+                        Construction[] remaining = new Construction[ constructions.length - 1 ];
+                        System .arraycopy( constructions, 0, remaining, 0, i );
+                        System .arraycopy( constructions, i + 1, remaining, i, remaining.length - i );
+                        mManifests = remaining;
+                    }
+                    return;
+                }
+            }
+        }
     }
     
+    /**
+     * @return the constructions in the order they were added
+     */
     public Iterator<Construction> getConstructions()
     {
-        return mManifests .iterator();
+        if ( mManifests == null )
+            return Collections .emptyIterator();
+        else if ( mManifests instanceof Construction )
+            return Collections .singleton( (Construction) mManifests ) .iterator();
+        else
+            // the array is never modified, only replaced, so this is safe from later changes
+            return Arrays .asList( (Construction[]) mManifests ) .iterator();
+    }
+    
+    // the raw single-or-array form, for ManifestationState; never modified in place, so safe to share
+    Object getConstructionState()
+    {
+        return mManifests;
+    }
+
+    void setConstructionState( Object constructions )
+    {
+        mManifests = constructions;
     }
     
     public boolean isUnnecessary()
     {
-        return mManifests .isEmpty();
+        return mManifests == null;
     }
     
     public void setRenderedObject( RenderedManifestation obj )
@@ -107,8 +166,8 @@ public abstract class Manifestation implements GroupElement
 
     public Element getXml( Document doc )
     {
-    	return mManifests .isEmpty()
+    	return this .isUnnecessary()
                 ? doc .createElement( "NoConstructions" )
-                : mManifests .iterator() .next() .getXml( doc );
+                : this .getConstructions() .next() .getXml( doc );
     }
 }
@@ -0,0 +1,250 @@
+package com.vzome.core.model;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An insertion-ordered set of manifestations, with get( probe ) to find the member equal to a probe.
+ *
+ * This replaces a LinkedHashMap from each manifestation to itself, which costs an entry object
+ * (with its key, value, hash and three links) per member.  Here the members sit in one array in
+ * insertion order, next to an array of their cached hashes, and an open-addressing table of
+ * int indices into those arrays does the hashing, with linear probing.
+ * Removal leaves a hole in the member array and a tombstone in the table; both are squeezed out
+ * the next time the arrays fill up.
+ */
+public class ManifestationSet extends AbstractSet<Manifestation>
+{
+    private static final int EMPTY = 0, DELETED = -1;
+
+    // member index + 1, or EMPTY, or DELETED; always twice the length of members, so at most half full
+    private int[] slots;
+
+    private Manifestation[] members;
+
+    private int[] hashes;
+
+    // members used so far, including the holes left by removal
+    private int end = 0;
+
+    private int size = 0;
+
+    private int modCount = 0;
+
+    public ManifestationSet()
+    {
+        this( 16 );
+    }
+
+    public ManifestationSet( int expectedSize )
+    {
+        this .allocate( capacityFor( expectedSize ) );
+    }
+
+    private static int capacityFor( int size )
+    {
+        int capacity = 4;
+        while ( capacity < size )
+            capacity <<= 1;
+        return capacity;
+    }
+
+    private void allocate( int capacity )
+    {
+        this .members = new Manifestation[ capacity ];
+        this .hashes = new int[ capacity ];
+        this .slots = new int[ capacity * 2 ];
+    }
+
+    private static int hash( Object o )
+    {
+        int h = o .hashCode();
+        return h ^ ( h >>> 16 );
+    }
+
+    /**
+     * @return the slot holding the member equal to the probe, or -1
+     */
+    private int find( Object probe, int hash )
+    {
+        int mask = this .slots .length - 1;
+        for ( int i = hash & mask; ; i = ( i + 1 ) & mask ) {
+            int slot = this .slots[ i ];
+            if ( slot == EMPTY )
+                return -1;
+            if ( slot != DELETED ) {
+                int member = slot - 1;
+                if ( this .hashes[ member ] == hash ) {
+                    Manifestation m = this .members[ member ];
+                    if ( m == probe || m .equals( probe ) )
+                        return i;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the member equal to the probe, or null
+     */
+    public Manifestation get( Object probe )
+    {
+        if ( probe == null )
+            return null;
+        int slot = this .find( probe, hash( probe ) );
+        return ( slot < 0 )? null : this .members[ this .slots[ slot ] - 1 ];
+    }
+
+    @Override
+    public boolean contains( Object o )
+    {
+        return this .get( o ) != null;
+    }
+
+    /**
+     * Add m unless an equal member is already present.
+     * @return the equal member that was already present, or null if m was added
+     */
+    public Manifestation putIfAbsent( Manifestation m )
+    {
+        int hash = hash( m );
+        int slot = this .find( m, hash );
+        if ( slot >= 0 )
+            return this .members[ this .slots[ slot ] - 1 ];
+        if ( this .end == this .members .length )
+            // squeeze out the holes if that frees at least half, otherwise grow
+            this .rebuild( ( this .size * 2 <= this .members .length )? this .members .length : this .members .length * 2 );
+        this .members[ this .end ] = m;
+        this .hashes[ this .end ] = hash;
+        int mask = this .slots .length - 1;
+        int i = hash & mask;
+        while ( this .slots[ i ] > 0 )
+            i = ( i + 1 ) & mask;
+        this .slots[ i ] = ++this .end;
+        ++this .size;
+        ++this .modCount;
+        return null;
+    }
+
+    @Override
+    public boolean add( Manifestation m )
+    {
+        return this .putIfAbsent( m ) == null;
+    }
+
+    /**
+     * @return the member equal to the probe, which is no longer in the set, or null
+     */
+    public Manifestation removeEqual( Object probe )
+    {
+        if ( probe == null )
+            return null;
+        int slot = this .find( probe, hash( probe ) );
+        if ( slot < 0 )
+            return null;
+        int member = this .slots[ slot ] - 1;
+        Manifestation removed = this .members[ member ];
+        this .members[ member ] = null;
+        this .slots[ slot ] = DELETED;
+        --this .size;
+        ++this .modCount;
+        return removed;
+    }
+
+    @Override
+    public boolean remove( Object o )
+    {
+        return this .removeEqual( o ) != null;
+    }
+
+    private void rebuild( int capacity )
+    {
+        Manifestation[] oldMembers = this .members;
+        int[] oldHashes = this .hashes;
+        int oldEnd = this .end;
+        this .allocate( capacity );
+        int mask = this .slots .length - 1;
+        this .end = 0;
+        for ( int j = 0; j < oldEnd; j++ ) {
+            if ( oldMembers[ j ] == null )
+                continue;
+            this .members[ this .end ] = oldMembers[ j ];
+            int hash = this .hashes[ this .end ] = oldHashes[ j ];
+            int i = hash & mask;
+            while ( this .slots[ i ] != EMPTY )
+                i = ( i + 1 ) & mask;
+            this .slots[ i ] = ++this .end;
+        }
+    }
+
+    @Override
+    public int size()
+    {
+        return this .size;
+    }
+
+    @Override
+    public void clear()
+    {
+        Arrays .fill( this .members, 0, this .end, null );
+        Arrays .fill( this .slots, EMPTY );
+        this .end = 0;
+        this .size = 0;
+        ++this .modCount;
+    }
+
+    /**
+     * Iterates in insertion order, and supports remove().
+     */
+    @Override
+    public Iterator<Manifestation> iterator()
+    {
+        return new Iterator<Manifestation>()
+        {
+            private int next = advance( 0 );
+
+            private int last = -1;
+
+            private int expectedModCount = modCount;
+
+            private int advance( int from )
+            {
+                while ( from < end && members[ from ] == null )
+                    ++from;
+                return from;
+            }
+
+            @Override
+            public boolean hasNext()
+            {
+                return this .next < end;
+            }
+
+            @Override
+            public Manifestation next()
+            {
+                if ( modCount != this .expectedModCount )
+                    throw new ConcurrentModificationException();
+                if ( this .next >= end )
+                    throw new NoSuchElementException();
+                this .last = this .next;
+                this .next = this .advance( this .next + 1 );
+                return members[ this .last ];
+            }
+
+            @Override
+            public void remove()
+            {
+                if ( this .last < 0 )
+                    throw new IllegalStateException();
+                if ( modCount != this .expectedModCount )
+                    throw new ConcurrentModificationException();
+                removeEqual( members[ this .last ] );
+                this .last = -1;
+                this .expectedModCount = modCount;
+            }
+        };
+    }
+}
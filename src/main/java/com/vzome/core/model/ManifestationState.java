@@ -0,0 +1,98 @@
+package com.vzome.core.model;
+
+import com.vzome.core.render.Color;
+import com.vzome.core.render.RenderedManifestation;
+
+/**
+ * Everything an edit's side-effects can change about one manifestation: whether it is in the model,
+ * its constructions, whether it is hidden, and whether and in what color it is rendered.
+ * EditHistory checkpoints record these, and restore them instead of replaying edits.
+ */
+public final class ManifestationState
+{
+    /**
+     * The state of a manifestation that no edit has touched yet.
+     */
+    public static final ManifestationState FRESH = new ManifestationState( false, null, false, false, null );
+
+    private final boolean present, hidden, rendered;
+
+    // shared with the manifestation, which replaces rather than modifies it
+    private final Object constructions;
+
+    private final Color color;
+
+    private ManifestationState( boolean present, Object constructions, boolean hidden, boolean rendered, Color color )
+    {
+        this .present = present;
+        this .constructions = constructions;
+        this .hidden = hidden;
+        this .rendered = rendered;
+        this .color = color;
+    }
+
+    public static ManifestationState of( RealizedModel model, Manifestation m )
+    {
+        RenderedManifestation rm = m .getRenderedObject();
+        return new ManifestationState( model .holds( m ), m .getConstructionState(), m .isHidden(), rm != null, ( rm == null )? null : rm .getColor() );
+    }
+
+    public boolean isPresent()
+    {
+        return this .present;
+    }
+
+    /**
+     * Bring m to this state, going through the model so that its listeners and indexes follow.
+     * When restoring several manifestations, restore the absent ones first, so that an equal
+     * manifestation is removed before its replacement is added.
+     */
+    public void restore( RealizedModel model, Manifestation m )
+    {
+        boolean wasPresent = model .holds( m );
+        if ( wasPresent && ! this .present ) {
+            model .hide( m );
+            model .remove( m );
+        }
+        m .setConstructionState( this .constructions );
+        m .setHidden( this .hidden );
+        if ( this .present && ! wasPresent )
+            model .add( m );
+        if ( this .rendered ) {
+            model .show( m );
+            RenderedManifestation rm = m .getRenderedObject();
+            if ( rm != null && ! sameColor( rm .getColor(), this .color ) )
+                model .setColor( m, this .color );
+        }
+        else
+            model .hide( m );
+    }
+
+    private static boolean sameColor( Color c1, Color c2 )
+    {
+        // Color.equals( null ) is true, so check for null here
+        return ( c1 == null || c2 == null )? c1 == c2 : c1 .equals( c2 );
+    }
+
+    @Override
+    public int hashCode()
+    {
+        int result = ( this .present? 1 : 0 ) + ( this .hidden? 2 : 0 ) + ( this .rendered? 4 : 0 );
+        if ( this .constructions != null )
+            result = 31 * result + this .constructions .hashCode();
+        return result;
+    }
+
+    @Override
+    public boolean equals( Object obj )
+    {
+        if ( this == obj )
+            return true;
+        if ( ! ( obj instanceof ManifestationState ) )
+            return false;
+        ManifestationState other = (ManifestationState) obj;
+        // constructions are shared, never copied, so identity is enough
+        return this .present == other .present && this .hidden == other .hidden && this .rendered == other .rendered
+                && this .constructions == other .constructions && sameColor( this .color, other .color );
+    }
+}
@@ -70,9 +70,16 @@ public class Panel extends Manifestation implements Iterable<AlgebraicVector>
             return true;
         if ( ! ( other instanceof Panel ) )
             return false;
-        Panel panel = (Panel) other;
+        return this .hasVertices( ((Panel) other) .mVertices );
+    }
+
+    /**
+     * @return true if a panel with these vertices would equal this one
+     */
+    boolean hasVertices( List<AlgebraicVector> vertices )
+    {
         int size = mVertices.size();
-        if ( size != panel.mVertices.size() )
+        if ( size != vertices.size() )
             return false;
 
         /*
@@ -106,7 +113,7 @@ public class Panel extends Manifestation implements Iterable<AlgebraicVector>
             for ( int j = 0; j < size; j++ ) {
                 if ( found[j] )
                     continue;
-                if ( mVertices.get( j ) .equals( panel.mVertices.get( i ) ) ) {
+                if ( mVertices.get( j ) .equals( vertices.get( i ) ) ) {
                     found[j] = true;
                     found_i = true;
                     break;
@@ -3,12 +3,18 @@
 package com.vzome.core.model;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.WeakHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -28,9 +34,18 @@ public class RealizedModel implements Iterable<Manifestation> //implements Const
 {
     private final List<ManifestationChanges> mListeners = new ArrayList<>( 1 );
 
-    // TODO: DJH: Can this be replaced by a HashSet since the key is always equal to the value.
-    private final HashMap<Manifestation, Manifestation> mManifestations = new LinkedHashMap<>( 1000 );
+    private final ManifestationSet mManifestations = new ManifestationSet( 1000 );
     
+    // every connector, strut end and panel vertex, by location, in the order they were added;
+    //  each value is a single Manifestation or, where several meet, a Manifestation[]
+    private final Map<AlgebraicVector, Object> mLocations = new HashMap<>( 1000 );
+
+    private long mAdditions = 0l;
+
+    private final List<StrutIndex<?>> mIndexes = new ArrayList<>( 2 );
+
+    private final Map<Construction, ProjectedImage> mProjections = new WeakHashMap<>();
+
     private Projection mProjection;
 
 	private final AlgebraicField field;
@@ -45,7 +60,7 @@ public class RealizedModel implements Iterable<Manifestation> //implements Const
     public Set<Manifestation> moreVisibleThan( RealizedModel other )
     {
         Set<Manifestation> result = new HashSet<>();
-        for (Manifestation man : mManifestations .values()) {
+        for (Manifestation man : mManifestations) {
             if ( man .isHidden() )
                 continue;
             Manifestation doppel = other .mManifestations .get( man );
@@ -68,7 +83,7 @@ public class RealizedModel implements Iterable<Manifestation> //implements Const
 	@Override
 	public Iterator<Manifestation> iterator()
 	{
-        return mManifestations .keySet() .iterator();
+        return mManifestations .iterator();
 	}
 
     /**
@@ -82,56 +97,321 @@ public class RealizedModel implements Iterable<Manifestation> //implements Const
     
     public Manifestation manifest( Construction c )
     {
-        Manifestation m = null;
+        List<AlgebraicVector> image = project( c );
+        return ( image == null )? null : manifest( c, image );
+    }
+
+    private static Manifestation manifest( Construction c, List<AlgebraicVector> image )
+    {
         if ( c instanceof Point )
-        {
-            Point p = (Point) c;
-            m = new Connector( mProjection .projectImage( p .getLocation(), true ) );
-        }
+            return new Connector( image .get( 0 ) );
         else if ( c instanceof Segment )
         {
-            Segment s = (Segment) c;
-            AlgebraicVector start = mProjection .projectImage( s .getStart(), true );
-            AlgebraicVector end = mProjection .projectImage( s .getEnd(), true );
+            AlgebraicVector start = image .get( 0 );
+            AlgebraicVector end = image .get( 1 );
             if ( ! start .equals( end ) )
-            {
-                m = new Strut( start, end );
+                return new Strut( start, end );
+            return null;
+        }
+        else
+            return new Panel( image );
+    }
+
+    /**
+     * The projected image of a construction, as manifest() would build it: the location of a point,
+     * the ends of a segment, or the vertices of a polygon.  Images are memoized, and recomputed only if
+     * the construction no longer holds the vectors they were projected from.
+     * @return null if the construction has no manifestation
+     */
+    private List<AlgebraicVector> project( Construction c )
+    {
+        if ( ! ( c instanceof Point || c instanceof Segment || c instanceof Polygon ) )
+            return null;
+        ProjectedImage memo = mProjections .get( c );
+        if ( memo == null || ! memo .isCurrent( c ) ) {
+            memo = new ProjectedImage( c, mProjection );
+            // when the projection just hands back the construction's own vectors, there is nothing to save
+            if ( memo .isProjected() )
+                mProjections .put( c, memo );
+            else
+                mProjections .remove( c );
+        }
+        return memo .image;
+    }
+
+    private static class ProjectedImage
+    {
+        // the construction's own vectors, compared by identity
+        private final AlgebraicVector[] sources;
+
+        private final List<AlgebraicVector> image;
+
+        private boolean projected = false;
+
+        ProjectedImage( Construction c, Projection projection )
+        {
+            if ( c instanceof Point )
+                this .sources = new AlgebraicVector[]{ ( (Point) c ) .getLocation() };
+            else if ( c instanceof Segment ) {
+                Segment s = (Segment) c;
+                this .sources = new AlgebraicVector[]{ s .getStart(), s .getEnd() };
             }
+            else
+                this .sources = ( (Polygon) c ) .getVertices();
+            AlgebraicVector[] projected = new AlgebraicVector[ this .sources .length ];
+            for ( int i = 0; i < projected .length; i++ ) {
+                projected[ i ] = projection .projectImage( this .sources[ i ], true );
+                this .projected |= projected[ i ] != this .sources[ i ];
+            }
+            this .image = Collections .unmodifiableList( Arrays .asList( projected ) );
         }
-        else if ( c instanceof Polygon )
+
+        boolean isProjected()
         {
+            return this .projected;
+        }
+
+        boolean isCurrent( Construction c )
+        {
+            if ( c instanceof Point )
+                return this .sources[ 0 ] == ( (Point) c ) .getLocation();
+            else if ( c instanceof Segment ) {
+                Segment s = (Segment) c;
+                return this .sources[ 0 ] == s .getStart() && this .sources[ 1 ] == s .getEnd();
+            }
             Polygon p = (Polygon) c;
-            List<AlgebraicVector> vertices = new ArrayList<>();
-            AlgebraicVector[] vertexArray = p .getVertices();
-            for (AlgebraicVector source : vertexArray) {
-                vertices .add( mProjection .projectImage( source, true ) );
+            if ( this .sources .length != p .getVertexCount() )
+                return false;
+            for ( int i = 0; i < this .sources .length; i++ )
+                if ( this .sources[ i ] != p .getVertex( i ) )
+                    return false;
+            return true;
+        }
+    }
+
+    /**
+     * Find the manifestation that manifest( c ) would equal, without creating one,
+     * using the location index.
+     */
+    private Manifestation probe( Construction c, List<AlgebraicVector> image )
+    {
+        if ( image .isEmpty() )
+            return null;
+        for ( Manifestation man : manifestationsAt( image .get( 0 ) ) ) {
+            if ( c instanceof Point ) {
+                if ( man instanceof Connector )
+                    return man;
             }
-        
-            m = new Panel( vertices );
+            else if ( c instanceof Segment ) {
+                if ( man instanceof Strut ) {
+                    // the strut has an end at image[0], so just check the other end
+                    Strut strut = (Strut) man;
+                    AlgebraicVector end = image .get( 1 );
+                    if ( strut .getLocation() .equals( image .get( 0 ) )? strut .getEnd() .equals( end ) : strut .getLocation() .equals( end ) )
+                        return man;
+                }
+            }
+            else if ( man instanceof Panel && ( (Panel) man ) .hasVertices( image ) )
+                return man;
         }
-        return m;
+        return null;
     }
     
     private static final Logger logger = Logger .getLogger( "com.vzome.core.model" );
     
     public void add( Manifestation m )
     {
-        // TODO: DJH: Can this be replaced by a HashSet since the key is always equal to the value.
-        mManifestations .put( m, m );
+        if ( mManifestations .putIfAbsent( m ) == null ) {
+            m .mAdditionOrder = mAdditions++;
+            for ( AlgebraicVector location : locations( m ) )
+                index( location, m );
+            if ( m instanceof Strut )
+                for ( StrutIndex<?> index : mIndexes )
+                    index .added( (Strut) m );
+        }
         if ( logger .isLoggable( Level .FINER ) )
             logger .finer( "add manifestation: " + m .toString() );
     }
     
     public void remove( Manifestation m )
     {
-        mManifestations .remove( m );
+        Manifestation removed = mManifestations .removeEqual( m );
+        if ( removed != null ) {
+            for ( AlgebraicVector location : locations( removed ) )
+                unindex( location, removed );
+            if ( removed instanceof Strut )
+                for ( StrutIndex<?> index : mIndexes )
+                    index .removed( (Strut) removed );
+        }
         if ( logger .isLoggable( Level .FINER ) )
             logger .finer( "remove manifestation: " + m .toString() );
     }
     
+    /**
+     * @return true if m itself, not just an equal manifestation, is in the model
+     */
+    boolean holds( Manifestation m )
+    {
+        return mManifestations .get( m ) == m;
+    }
+    
+    private static Collection<AlgebraicVector> locations( Manifestation m )
+    {
+        if ( m instanceof Strut )
+            return Arrays .asList( m .getLocation(), ( (Strut) m ) .getEnd() );
+        else if ( m instanceof Panel ) {
+            // a vertex may repeat, but the index wants each location once
+            Set<AlgebraicVector> vertices = new LinkedHashSet<>();
+            for ( AlgebraicVector vertex : (Panel) m )
+                vertices .add( vertex );
+            return vertices;
+        }
+        else
+            return Collections .singleton( m .getLocation() );
+    }
+
+    private void index( AlgebraicVector location, Manifestation m )
+    {
+        Object here = mLocations .get( location );
+        if ( here == null )
+            mLocations .put( location, m );
+        else if ( here instanceof Manifestation )
+            mLocations .put( location, new Manifestation[]{ (Manifestation) here, m } );
+        else {
+            Manifestation[] all = Arrays .copyOf( (Manifestation[]) here, ( (Manifestation[]) here ) .length + 1 );
+            all[ all.length - 1 ] = m;
+            mLocations .put( location, all );
+        }
+    }
+
+    private void unindex( AlgebraicVector location, Manifestation m )
+    {
+        Object here = mLocations .get( location );
+        if ( here == null )
+            return;
+        else if ( here instanceof Manifestation ) {
+            if ( here .equals( m ) )
+                mLocations .remove( location );
+        }
+        else {
+            Manifestation[] all = (Manifestation[]) here;
+            for ( int i = 0; i < all.length; i++ ) {
+                if ( all[ i ] .equals( m ) ) {
+                    if ( all.length == 2 )
+                        mLocations .put( location, all[ 1 - i ] );
+                    else {
+                        Manifestation[] remaining = new Manifestation[ all.length - 1 ];
+                        System .arraycopy( all, 0, remaining, 0, i );
+                        System .arraycopy( all, i + 1, remaining, i, remaining.length - i );
+                        mLocations .put( location, remaining );
+                    }
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return every connector, strut and panel touching the location, hidden or not, in model order
+     */
+    public Collection<Manifestation> manifestationsAt( AlgebraicVector location )
+    {
+        Object here = mLocations .get( location );
+        if ( here == null )
+            return Collections .emptyList();
+        else if ( here instanceof Manifestation )
+            return Collections .singletonList( (Manifestation) here );
+        else
+            // the array is replaced, never modified, so later changes do not disturb the caller
+            return Collections .unmodifiableList( Arrays .asList( (Manifestation[]) here ) );
+    }
+
+    /**
+     * @return the connector at the location, or null
+     */
+    public Connector connectorAt( AlgebraicVector location )
+    {
+        for ( Manifestation man : manifestationsAt( location ) )
+            if ( man instanceof Connector )
+                return (Connector) man;
+        return null;
+    }
+
+    /**
+     * @return the connectors at any of the locations, in model order
+     */
+    public List<Connector> connectorsAt( AlgebraicVector... locations )
+    {
+        List<Connector> result = new ArrayList<>( locations.length );
+        for ( AlgebraicVector location : locations ) {
+            Connector ball = connectorAt( location );
+            if ( ball != null && ! result .contains( ball ) )
+                result .add( ball );
+        }
+        Collections .sort( result, MODEL_ORDER );
+        return result;
+    }
+
+    /**
+     * @return the struts with an end at the location, in model order
+     */
+    public List<Strut> incidentStruts( AlgebraicVector location )
+    {
+        List<Strut> result = new ArrayList<>();
+        for ( Manifestation man : manifestationsAt( location ) )
+            if ( man instanceof Strut )
+                result .add( (Strut) man );
+        return result;
+    }
+
+    /**
+     * @return the panels with a vertex at the location, in model order
+     */
+    public List<Panel> incidentPanels( AlgebraicVector location )
+    {
+        List<Panel> result = new ArrayList<>();
+        for ( Manifestation man : manifestationsAt( location ) )
+            if ( man instanceof Panel )
+                result .add( (Panel) man );
+        return result;
+    }
+
+    /**
+     * Keep the index up to date from now on.
+     */
+    public void addIndex( StrutIndex<?> index )
+    {
+        mIndexes .add( index );
+    }
+
+    public void removeIndex( StrutIndex<?> index )
+    {
+        mIndexes .remove( index );
+    }
+
+    /**
+     * @return the index of the given type that was added earlier, or null
+     */
+    public <T extends StrutIndex<?>> T getIndex( Class<T> type )
+    {
+        for ( StrutIndex<?> index : mIndexes )
+            if ( type .isInstance( index ) )
+                return type .cast( index );
+        return null;
+    }
+
+    static final Comparator<Manifestation> MODEL_ORDER = new Comparator<Manifestation>()
+    {
+        @Override
+        public int compare( Manifestation m1, Manifestation m2 )
+        {
+            return Long .compare( m1 .mAdditionOrder, m2 .mAdditionOrder );
+        }
+    };
+
     public void refresh( boolean on, RealizedModel unused )
     {
-        for (Manifestation man : mManifestations .keySet()) {
+        for (Manifestation man : mManifestations) {
             if ( ! man .isHidden() )
             {
                 if ( on )
@@ -203,38 +483,39 @@ public class RealizedModel implements Iterable<Manifestation> //implements Const
     }
     
     
+    /**
+     * @return the manifestation of c in the model, or a new one that has not been added yet;
+     *  null if c has no manifestation
+     */
     public Manifestation findConstruction( Construction c )
     {
-        Manifestation testMan = manifest( c );
-        if ( testMan == null )
+        List<AlgebraicVector> image = project( c );
+        if ( image == null )
             return null;
-        
-        Manifestation actualMan = mManifestations .get( testMan );
+        Manifestation actualMan = probe( c, image );
         if ( actualMan == null )
-            actualMan = testMan;
-        
+            actualMan = manifest( c, image );
         return actualMan;
     }
     
+    /**
+     * @return the manifestation of c in the model, or null
+     */
     public Manifestation removeConstruction( Construction c )
     {
-        Manifestation testMan = manifest( c );
-        if ( testMan == null )
-            return null;
-        Manifestation actualMan = mManifestations .get( testMan );
-        if ( actualMan == null )
-            return null;
-        return testMan;
+        return getManifestation( c );
     }
 
     /**
      * @param c
-     * @return
+     * @return the manifestation of c in the model, or null
      */
     public Manifestation getManifestation( Construction c )
     {
-        Manifestation m = manifest( c );
-        return mManifestations .get( m );
+        List<AlgebraicVector> image = project( c );
+        if ( image == null )
+            return null;
+        return probe( c, image );
     }
 
 	public int size()
@@ -258,8 +539,8 @@ public class RealizedModel implements Iterable<Manifestation> //implements Const
 
         if ( this.size() != that.size() )
             return false;
-        for (Manifestation man : mManifestations .keySet()) {
-            if ( ! that .mManifestations .keySet() .contains( man ) ) {
+        for (Manifestation man : mManifestations) {
+            if ( ! that .mManifestations .contains( man ) ) {
                 return false;
             }
         }
@@ -0,0 +1,118 @@
+package com.vzome.core.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A secondary index over the struts of a RealizedModel, bucketing each strut under the keys
+ * that a subclass computes for it.  Nothing is computed until the first query; from then on
+ * the model keeps the index up to date as struts are added and removed.  Keys are only computed
+ * when a query needs them, so struts added since the last query are filed by the next one.
+ * Queries report struts in model order, hidden or not.
+ *
+ * @param <K> the bucket key
+ */
+public abstract class StrutIndex<K>
+{
+    private final RealizedModel model;
+
+    private final Map<K, Set<Strut>> buckets = new HashMap<>();
+
+    private boolean built = false;
+
+    // added since the last query
+    private final Set<Strut> pending = new LinkedHashSet<>();
+
+    protected StrutIndex( RealizedModel model )
+    {
+        this .model = model;
+    }
+
+    /**
+     * @return the keys to file the strut under; must always give the same answer for a given strut
+     */
+    protected abstract Collection<K> keys( Strut strut );
+
+    public RealizedModel getModel()
+    {
+        return this .model;
+    }
+
+    /**
+     * @return the struts filed under any of the keys, in model order
+     */
+    @SafeVarargs
+    public final List<Strut> get( K... keys )
+    {
+        if ( ! this .built ) {
+            for ( Manifestation man : this .model )
+                if ( man instanceof Strut )
+                    this .file( (Strut) man );
+            this .built = true;
+        }
+        for ( Strut strut : this .pending )
+            this .file( strut );
+        this .pending .clear();
+        List<Strut> result = new ArrayList<>();
+        for ( K key : keys ) {
+            Set<Strut> bucket = this .buckets .get( key );
+            if ( bucket != null )
+                result .addAll( bucket );
+        }
+        if ( keys.length > 1 ) {
+            // a strut can be filed under more than one of the keys
+            Set<Strut> unique = new LinkedHashSet<>( result );
+            result = new ArrayList<>( unique );
+            Collections .sort( result, RealizedModel.MODEL_ORDER );
+        }
+        return result;
+    }
+
+    /**
+     * Forget everything, so the next query rebuilds the index from the model.
+     */
+    public void invalidate()
+    {
+        this .buckets .clear();
+        this .pending .clear();
+        this .built = false;
+    }
+
+    void added( Strut strut )
+    {
+        if ( this .built )
+            this .pending .add( strut );
+    }
+
+    void removed( Strut strut )
+    {
+        if ( ! this .built || this .pending .remove( strut ) )
+            return;
+        for ( K key : this .keys( strut ) ) {
+            Set<Strut> bucket = this .buckets .get( key );
+            if ( bucket != null ) {
+                bucket .remove( strut );
+                if ( bucket .isEmpty() )
+                    this .buckets .remove( key );
+            }
+        }
+    }
+
+    private void file( Strut strut )
+    {
+        for ( K key : this .keys( strut ) ) {
+            Set<Strut> bucket = this .buckets .get( key );
+            if ( bucket == null ) {
+                bucket = new LinkedHashSet<>();
+                this .buckets .put( key, bucket );
+            }
+            bucket .add( strut );
+        }
+    }
+}
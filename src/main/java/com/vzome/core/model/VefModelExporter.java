@@ -5,12 +5,10 @@ package com.vzome.core.model;
 
 import java.io.PrintWriter;
 import java.io.Writer;
-import java.text.NumberFormat;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 
@@ -22,8 +20,6 @@ import com.vzome.core.math.Polyhedron;
 
 public class VefModelExporter implements Exporter
 {
-    private static final NumberFormat FORMAT = NumberFormat .getNumberInstance( Locale .US );
-
     private final Map<AlgebraicVector, Integer> vertexData = new LinkedHashMap<>();
 
     protected final AlgebraicField field;
@@ -59,8 +55,6 @@ public class VefModelExporter implements Exporter
         this .scale = scale;
         order = field .getOrder();
 
-        FORMAT .setMaximumFractionDigits( 16 );
-
         numBalls = 0;
         numStruts = 0;
         numPanels = 0;
@@ -1,6 +1,7 @@
 package com.vzome.core.render;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -462,40 +463,88 @@ public class RenderedModel implements ManifestationChanges, Iterable<RenderedMan
         return snapshot;
     }
     
-    public static void renderChange( RenderedModel from, RenderedModel to, RenderingChanges changes )
+    /**
+     * The differences between two rendered models, as found by diff().
+     * Each element of switchedFrom is equal to the element of switchedTo at the same index.
+     */
+    public static class Diff
     {
-        // TODO: Does clone() perform any better than new HashSet(), or is there any other reason to keep it?
-//        Set<RenderedManifestation> toRemove = (Set<RenderedManifestation>) from .mRendered .clone();
-        HashSet<RenderedManifestation> toRemove = new HashSet<>(from.mRendered);
-        toRemove .removeAll( to .mRendered );
-        for ( RenderedManifestation rm : toRemove ) {
-            changes .manifestationRemoved( rm );
-        }
-        // TODO: Does clone() perform any better than new HashSet(), or is there any other reason to keep it?
-//        Set<RenderedManifestation> toAdd = (Set<RenderedManifestation>) to .mRendered .clone();
-        HashSet<RenderedManifestation> toAdd = new HashSet<>(to.mRendered);
-        toAdd .removeAll( from .mRendered );
-        for ( RenderedManifestation rm : toAdd ) {
-            changes .manifestationAdded( rm );
+        public final List<RenderedManifestation> removed = new ArrayList<>();
+
+        public final List<RenderedManifestation> added = new ArrayList<>();
+
+        public final List<RenderedManifestation> switchedFrom = new ArrayList<>();
+
+        public final List<RenderedManifestation> switchedTo = new ArrayList<>();
+
+        public final List<RenderedManifestation> glowChanged = new ArrayList<>();
+
+        public final List<RenderedManifestation> colorChanged = new ArrayList<>();
+
+        /**
+         * Report every difference to changes, one call at a time.
+         */
+        public void replay( RenderingChanges changes )
+        {
+            for ( RenderedManifestation rm : this .removed )
+                changes .manifestationRemoved( rm );
+            for ( RenderedManifestation rm : this .added )
+                changes .manifestationAdded( rm );
+            for ( int i = 0; i < this .switchedFrom .size(); i++ )
+                changes .manifestationSwitched( this .switchedFrom .get( i ), this .switchedTo .get( i ) );
+            for ( RenderedManifestation rm : this .glowChanged )
+                changes .glowChanged( rm );
+            for ( RenderedManifestation rm : this .colorChanged )
+                changes .colorChanged( rm );
         }
+    }
+
+    /**
+     * Find the differences between two rendered models, in time linear in their sizes.
+     */
+    public static Diff diff( RenderedModel from, RenderedModel to )
+    {
+        Diff diff = new Diff();
+        // join the two sets by hash; the map finds the element of "to" equal to one of "from"
+        HashMap<RenderedManifestation, RenderedManifestation> toRendered = new HashMap<>( 2 * to .mRendered .size() );
+        for ( RenderedManifestation toRm : to .mRendered )
+            toRendered .put( toRm, toRm );
         for ( RenderedManifestation fromRm : from .mRendered ) {
-            for ( RenderedManifestation toRm : to .mRendered ) {
-                if ( fromRm .equals( toRm ) )
-                {
-                    changes .manifestationSwitched( fromRm, toRm );
-                    if ( Float.floatToIntBits( fromRm .getGlow() ) != Float .floatToIntBits( toRm .getGlow() ) )
-                        changes .glowChanged( toRm );
-                    Color fromColor = fromRm .getColor();
-                    Color toColor = toRm .getColor();
-                    if ( fromColor == null && toColor == null )
-                    	continue;
-                    if ( ( fromColor == null && toColor != null )
-                      || ( fromColor != null && toColor == null )
-                      || ! fromColor .equals( toColor ) )
-                        changes .colorChanged( toRm );
-                }
+            RenderedManifestation toRm = toRendered .get( fromRm );
+            if ( toRm == null ) {
+                diff .removed .add( fromRm );
+                continue;
             }
+            diff .switchedFrom .add( fromRm );
+            diff .switchedTo .add( toRm );
+            if ( Float.floatToIntBits( fromRm .getGlow() ) != Float .floatToIntBits( toRm .getGlow() ) )
+                diff .glowChanged .add( toRm );
+            if ( ! sameColor( fromRm .getColor(), toRm .getColor() ) )
+                diff .colorChanged .add( toRm );
         }
+        for ( RenderedManifestation toRm : to .mRendered )
+            if ( ! from .mRendered .contains( toRm ) )
+                diff .added .add( toRm );
+        return diff;
+    }
+
+    private static boolean sameColor( Color c1, Color c2 )
+    {
+        // Color.equals( null ) is true, so check for null here
+        return ( c1 == null || c2 == null )? c1 == c2 : c1 .equals( c2 );
+    }
+
+    /**
+     * Report the differences between two rendered models: all at once to a RenderingChanges.Batch,
+     * otherwise one call at a time, removals first, then additions, switches, glow and color changes.
+     */
+    public static void renderChange( RenderedModel from, RenderedModel to, RenderingChanges changes )
+    {
+        Diff diff = diff( from, to );
+        if ( changes instanceof RenderingChanges.Batch )
+            ( (RenderingChanges.Batch) changes ) .changesRendered( diff );
+        else
+            diff .replay( changes );
     }
 }
 
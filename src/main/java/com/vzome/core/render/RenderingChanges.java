@@ -27,4 +27,13 @@ public interface RenderingChanges {
     public void enableFrameLabels();
     
     public void disableFrameLabels();
+
+    /**
+     * Implemented by listeners that would rather receive all the differences
+     * from RenderedModel.renderChange in a single call.
+     */
+    public interface Batch extends RenderingChanges
+    {
+        void changesRendered( RenderedModel.Diff diff );
+    }
 }
@@ -0,0 +1,394 @@
+package com.vzome.servlet;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.vzome.core.commands.Command;
+import com.vzome.core.editor.Application;
+import com.vzome.core.editor.DocumentModel;
+import com.vzome.core.exporters.AbstractExporter3d;
+import com.vzome.core.exporters.BinaryExporter3d;
+import com.vzome.core.exporters.Exporter3d;
+
+/**
+ * An HTTP service that exports vZome documents, on the JDK's built-in server.
+ *
+ *   POST /export?format=stl           with a .vZome document as the body
+ *   GET  /export?hash=...&format=json for a document already posted
+ *   GET  /metrics                     request, cache, and latency counters, as "name value" lines
+ *
+ * Each export is streamed back as it is written, with the SHA-256 of the document in the
+ * X-vZome-Hash header, and whether it was already loaded in X-vZome-Cache.
+ * Loaded documents are kept in an LRU cache by that hash, so exporting the same document
+ * to another format skips the load.  Requests run on a fixed pool of threads.
+ * A posted document larger than maxBodySize is refused with 413.
+ *
+ * Usage: ExportTool [port [threads [cacheSize [maxBodySize]]]], with the port defaulting to $PORT, then 8532.
+ */
+public class ExportTool
+{
+    private static final Logger logger = Logger .getLogger( "com.vzome.servlet" );
+
+    public static final int DEFAULT_MAX_BODY_SIZE = 32 * 1024 * 1024;
+
+    private final HttpServer server;
+
+    private final ExecutorService pool;
+
+    private final int cacheSize;
+
+    // in bytes
+    private final int maxBodySize;
+
+    // by content hash, least recently used first; a load in progress is cached too,
+    //  so that concurrent requests for one document wait for a single load
+    private final LinkedHashMap<String, FutureTask<DocumentModel>> cache;
+
+    // Exporters keep the model they are exporting in fields, so each thread needs its own.
+    private final ThreadLocal<Application> apps = new ThreadLocal<Application>()
+    {
+        @Override
+        protected Application initialValue()
+        {
+            return newApplication();
+        }
+    };
+
+    private final LongAdder requests = new LongAdder(), errors = new LongAdder();
+
+    private final LongAdder hits = new LongAdder(), misses = new LongAdder(), evictions = new LongAdder();
+
+    private final Timer loads = new Timer();
+
+    private final Map<String, Timer> exports = new ConcurrentHashMap<>();
+
+    public ExportTool( int port, int threads, int cacheSize ) throws IOException
+    {
+        this( port, threads, cacheSize, DEFAULT_MAX_BODY_SIZE );
+    }
+
+    public ExportTool( int port, int threads, int cacheSize, int maxBodySize ) throws IOException
+    {
+        this .cacheSize = cacheSize;
+        this .maxBodySize = maxBodySize;
+        this .cache = new LinkedHashMap<String, FutureTask<DocumentModel>>( 16, 0.75f, true )
+        {
+            @Override
+            protected boolean removeEldestEntry( Map.Entry<String, FutureTask<DocumentModel>> eldest )
+            {
+                if ( this .size() <= ExportTool.this .cacheSize )
+                    return false;
+                evictions .increment();
+                return true;
+            }
+        };
+        this .pool = Executors .newFixedThreadPool( threads );
+        this .server = HttpServer .create( new InetSocketAddress( port ), 0 );
+        this .server .setExecutor( this .pool );
+        this .server .createContext( "/export", this::handleExport );
+        this .server .createContext( "/metrics", this::handleMetrics );
+    }
+
+    public void start()
+    {
+        this .server .start();
+    }
+
+    public void stop()
+    {
+        this .server .stop( 0 );
+        this .pool .shutdown();
+    }
+
+    /**
+     * @return the port the server is listening on, useful when it was created with port 0
+     */
+    public int getPort()
+    {
+        return this .server .getAddress() .getPort();
+    }
+
+    private static Application newApplication()
+    {
+        return new Application( true, new Command.FailureChannel()
+        {
+            @Override
+            public void reportFailure( Command.Failure f )
+            {
+                logger .log( Level.WARNING, "failure loading a document", f );
+            }
+        }, null );
+    }
+
+    private static class Timer
+    {
+        private final LongAdder count = new LongAdder(), nanos = new LongAdder();
+
+        private final AtomicLong max = new AtomicLong();
+
+        void record( long elapsed )
+        {
+            this .count .increment();
+            this .nanos .add( elapsed );
+            this .max .accumulateAndGet( elapsed, Math::max );
+        }
+
+        void report( String name, StringBuilder buf )
+        {
+            buf .append( name ) .append( ".count " ) .append( this .count .sum() ) .append( '\n' );
+            buf .append( name ) .append( ".seconds " ) .append( this .nanos .sum() / 1e9 ) .append( '\n' );
+            buf .append( name ) .append( ".max.seconds " ) .append( this .max .get() / 1e9 ) .append( '\n' );
+        }
+    }
+
+    private static class RequestException extends Exception
+    {
+        private static final long serialVersionUID = 1L;
+
+        final int status;
+
+        RequestException( int status, String message )
+        {
+            super( message );
+            this .status = status;
+        }
+    }
+
+    // closing only flushes, leaving the stream open for its owner to close
+    private static class Unclosed extends FilterOutputStream
+    {
+        Unclosed( OutputStream out )
+        {
+            super( out );
+        }
+
+        @Override
+        public void write( byte[] bytes, int offset, int length ) throws IOException
+        {
+            this .out .write( bytes, offset, length );
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            this .flush();
+        }
+    }
+
+    private void handleExport( HttpExchange exchange ) throws IOException
+    {
+        long start = System .nanoTime();
+        this .requests .increment();
+        try {
+            Map<String, String> params = parseQuery( exchange .getRequestURI() .getRawQuery() );
+            String format = params .get( "format" );
+            if ( format == null )
+                throw new RequestException( 400, "missing format parameter" );
+            Application app = this .apps .get();
+            AbstractExporter3d exporter = app .getExporter( format );
+            if ( exporter == null )
+                exporter = app .getBinaryExporter( format );
+            if ( exporter == null )
+                throw new RequestException( 400, "unknown format: " + format );
+
+            String method = exchange .getRequestMethod();
+            String hash;
+            FutureTask<DocumentModel> loading;
+            boolean hit;
+            if ( "POST" .equals( method ) ) {
+                byte[] bytes = this .readBody( exchange );
+                hash = sha256( bytes );
+                synchronized ( this .cache ) {
+                    loading = this .cache .get( hash );
+                    hit = loading != null;
+                    if ( ! hit ) {
+                        loading = new FutureTask<>( () -> app .loadDocument( new ByteArrayInputStream( bytes ), false, false ) );
+                        this .cache .put( hash, loading );
+                    }
+                }
+            }
+            else if ( "GET" .equals( method ) ) {
+                hash = params .get( "hash" );
+                if ( hash == null )
+                    throw new RequestException( 400, "missing hash parameter" );
+                synchronized ( this .cache ) {
+                    loading = this .cache .get( hash );
+                }
+                if ( loading == null )
+                    throw new RequestException( 404, "no document loaded with hash " + hash + "; POST the document instead" );
+                hit = true;
+            }
+            else
+                throw new RequestException( 405, "use GET or POST" );
+
+            ( hit? this .hits : this .misses ) .increment();
+            DocumentModel doc = this .getLoaded( hash, loading, hit );
+
+            exchange .getResponseHeaders() .set( "Content-Type", exporter .getContentType() );
+            exchange .getResponseHeaders() .set( "Content-Disposition", "attachment; filename=\"" + hash .substring( 0, 8 ) + "." + exporter .getFileExtension() + "\"" );
+            exchange .getResponseHeaders() .set( "X-vZome-Hash", hash );
+            exchange .getResponseHeaders() .set( "X-vZome-Cache", hit? "hit" : "miss" );
+            exchange .sendResponseHeaders( 200, 0 );
+            try ( OutputStream body = exchange .getResponseBody() ) {
+                if ( exporter instanceof BinaryExporter3d )
+                    ( (BinaryExporter3d) exporter ) .doExport( doc, Channels .newChannel( body ) );
+                else
+                    // some exporters close the writer themselves; that must not complete the response yet
+                    try ( Writer out = new BufferedWriter( new OutputStreamWriter( new Unclosed( body ), StandardCharsets.UTF_8 ) ) ) {
+                        ( (Exporter3d) exporter ) .doExport( doc, null, null, out, 1080, 1920 );
+                    }
+                // recorded before closing, which completes the response
+                this .exports .computeIfAbsent( format, f -> new Timer() ) .record( System .nanoTime() - start );
+            }
+        } catch ( RequestException e ) {
+            this .errors .increment();
+            sendText( exchange, e .status, e .getMessage() );
+        } catch ( Exception e ) {
+            // if the export was already streaming, this just cuts it short
+            this .errors .increment();
+            logger .log( Level.WARNING, "export failed", e );
+            sendText( exchange, 500, String .valueOf( e ) );
+        } finally {
+            exchange .close();
+        }
+    }
+
+    // run the load on this thread if it is new, otherwise wait for it
+    private DocumentModel getLoaded( String hash, FutureTask<DocumentModel> loading, boolean hit ) throws Exception
+    {
+        if ( ! hit ) {
+            long start = System .nanoTime();
+            loading .run();
+            this .loads .record( System .nanoTime() - start );
+        }
+        try {
+            return loading .get();
+        } catch ( ExecutionException e ) {
+            // don't keep the failure, so the document can be posted again
+            synchronized ( this .cache ) {
+                this .cache .remove( hash, loading );
+            }
+            throw new RequestException( 400, "unable to load the document: " + e .getCause() );
+        }
+    }
+
+    private void handleMetrics( HttpExchange exchange ) throws IOException
+    {
+        StringBuilder buf = new StringBuilder();
+        buf .append( "requests " ) .append( this .requests .sum() ) .append( '\n' );
+        buf .append( "errors " ) .append( this .errors .sum() ) .append( '\n' );
+        buf .append( "cache.hits " ) .append( this .hits .sum() ) .append( '\n' );
+        buf .append( "cache.misses " ) .append( this .misses .sum() ) .append( '\n' );
+        buf .append( "cache.evictions " ) .append( this .evictions .sum() ) .append( '\n' );
+        synchronized ( this .cache ) {
+            buf .append( "cache.size " ) .append( this .cache .size() ) .append( '\n' );
+        }
+        this .loads .report( "load", buf );
+        for ( Map.Entry<String, Timer> entry : new TreeMap<>( this .exports ) .entrySet() )
+            entry .getValue() .report( "export." + entry .getKey(), buf );
+        sendText( exchange, 200, buf .toString() );
+        exchange .close();
+    }
+
+    private static void sendText( HttpExchange exchange, int status, String text ) throws IOException
+    {
+        byte[] bytes = ( text + "\n" ) .getBytes( StandardCharsets.UTF_8 );
+        try {
+            exchange .getResponseHeaders() .set( "Content-Type", "text/plain; charset=utf-8" );
+            exchange .sendResponseHeaders( status, bytes.length );
+        } catch ( IOException | IllegalStateException e ) {
+            return; // headers already sent
+        }
+        try ( OutputStream out = exchange .getResponseBody() ) {
+            out .write( bytes );
+        }
+    }
+
+    private static Map<String, String> parseQuery( String query ) throws IOException
+    {
+        Map<String, String> params = new HashMap<>();
+        if ( query == null )
+            return params;
+        for ( String pair : query .split( "&" ) ) {
+            int eq = pair .indexOf( '=' );
+            if ( eq > 0 )
+                params .put( URLDecoder .decode( pair .substring( 0, eq ), "UTF-8" ), URLDecoder .decode( pair .substring( eq + 1 ), "UTF-8" ) );
+        }
+        return params;
+    }
+
+    // refused on the Content-Length when there is one, otherwise once the read passes the limit
+    private byte[] readBody( HttpExchange exchange ) throws IOException, RequestException
+    {
+        String length = exchange .getRequestHeaders() .getFirst( "Content-Length" );
+        if ( length != null && Long .parseLong( length .trim() ) > this .maxBodySize )
+            throw new RequestException( 413, "documents are limited to " + this .maxBodySize + " bytes" );
+        byte[] bytes = readAll( exchange .getRequestBody(), this .maxBodySize );
+        if ( bytes == null )
+            throw new RequestException( 413, "documents are limited to " + this .maxBodySize + " bytes" );
+        return bytes;
+    }
+
+    /**
+     * @return the bytes read, or null if there are more than limit
+     */
+    private static byte[] readAll( InputStream in, int limit ) throws IOException
+    {
+        ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        byte[] chunk = new byte[ 8192 ];
+        for ( int n = in .read( chunk ); n >= 0; n = in .read( chunk ) ) {
+            if ( n > limit - buf .size() )
+                return null;
+            buf .write( chunk, 0, n );
+        }
+        return buf .toByteArray();
+    }
+
+    private static String sha256( byte[] bytes ) throws NoSuchAlgorithmException
+    {
+        StringBuilder hex = new StringBuilder();
+        for ( byte b : MessageDigest .getInstance( "SHA-256" ) .digest( bytes ) )
+            hex .append( String .format( "%02x", b ) );
+        return hex .toString();
+    }
+
+    public static void main( String[] args ) throws IOException
+    {
+        String portStr = System .getenv( "PORT" );
+        int port = args.length > 0? Integer .parseInt( args[ 0 ] ) : portStr != null? Integer .parseInt( portStr ) : 8532;
+        int threads = args.length > 1? Integer .parseInt( args[ 1 ] ) : Runtime .getRuntime() .availableProcessors();
+        int cacheSize = args.length > 2? Integer .parseInt( args[ 2 ] ) : 32;
+        int maxBodySize = args.length > 3? Integer .parseInt( args[ 3 ] ) : DEFAULT_MAX_BODY_SIZE;
+        ExportTool tool = new ExportTool( port, threads, cacheSize, maxBodySize );
+        tool .start();
+        logger .info( "vZome export service listening on port " + tool .getPort() );
+    }
+}
@@ -0,0 +1,128 @@
+package com.vzome.core.regression;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+
+/**
+ * A Writer that compares the lines written to it with the lines of an expected file,
+ * as they are written, without holding either one in memory.
+ *
+ * Once a line differs, the actual file is written with the matching lines copied
+ * from the expected file, followed by everything written from that line on,
+ * so it can be inspected just like the output the old external diff compared.
+ * When everything matches, no actual file is written.
+ *
+ * Line separators are not compared, so "\r\n" matches "\n".
+ */
+public class StreamingDiffer extends Writer
+{
+    private final File expected, actual;
+
+    private final BufferedReader expectedLines;
+
+    private final StringBuilder line = new StringBuilder();
+
+    private PrintWriter actualLines = null;
+
+    private int lineNumber = 0;
+
+    private String mismatch = null;
+
+    public StreamingDiffer( File expected, File actual ) throws IOException
+    {
+        this .expected = expected;
+        this .actual = actual;
+        this .expectedLines = new BufferedReader( new FileReader( expected ) );
+    }
+
+    @Override
+    public void write( char[] cbuf, int off, int len ) throws IOException
+    {
+        for ( int i = off; i < off + len; i++ ) {
+            char c = cbuf[ i ];
+            if ( c == '\n' ) {
+                int end = this .line .length();
+                if ( end > 0 && this .line .charAt( end - 1 ) == '\r' )
+                    this .line .setLength( end - 1 );
+                this .compareLine( this .line .toString() );
+                this .line .setLength( 0 );
+            }
+            else
+                this .line .append( c );
+        }
+    }
+
+    private void compareLine( String actualLine ) throws IOException
+    {
+        ++ this .lineNumber;
+        if ( this .actualLines != null ) {
+            this .actualLines .println( actualLine );
+            return;
+        }
+        String expectedLine = this .expectedLines .readLine();
+        if ( actualLine .equals( expectedLine ) )
+            return;
+        this .mismatch = ( expectedLine == null )?
+                "line " + this .lineNumber + " is extra: " + actualLine
+                : "line " + this .lineNumber + " differs:\n< " + expectedLine + "\n> " + actualLine;
+        this .startActual();
+        this .actualLines .println( actualLine );
+    }
+
+    // copy the lines that matched, from the expected file
+    private void startActual() throws IOException
+    {
+        this .actualLines = new PrintWriter( this .actual );
+        try ( BufferedReader matched = new BufferedReader( new FileReader( this .expected ) ) ) {
+            for ( int i = 1; i < this .lineNumber; i++ )
+                this .actualLines .println( matched .readLine() );
+        }
+    }
+
+    @Override
+    public void flush() throws IOException
+    {
+        if ( this .actualLines != null )
+            this .actualLines .flush();
+    }
+
+    /**
+     * Finish the comparison, including any last line without a separator.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        if ( this .line .length() > 0 ) {
+            this .compareLine( this .line .toString() );
+            this .line .setLength( 0 );
+        }
+        if ( this .mismatch == null ) {
+            String expectedLine = this .expectedLines .readLine();
+            if ( expectedLine != null ) {
+                this .mismatch = "line " + ( this .lineNumber + 1 ) + " is missing: " + expectedLine;
+                ++ this .lineNumber;
+                this .startActual();
+            }
+        }
+        this .expectedLines .close();
+        if ( this .actualLines != null )
+            this .actualLines .close();
+    }
+
+    public boolean matches()
+    {
+        return this .mismatch == null;
+    }
+
+    /**
+     * @return the first difference, or null if there is none
+     */
+    public String getMismatch()
+    {
+        return this .mismatch;
+    }
+}
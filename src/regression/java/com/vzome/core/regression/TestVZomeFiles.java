@@ -2,27 +2,34 @@
 
 package com.vzome.core.regression;
 
-import java.io.BufferedReader;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.PrintStream;
 import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.nio.file.Files;
 import java.nio.file.LinkOption;
 import java.nio.file.Path;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Handler;
 import java.util.logging.Level;
+import java.util.logging.LogRecord;
 import java.util.logging.Logger;
 import java.util.logging.SimpleFormatter;
-import java.util.logging.StreamHandler;
 
 import nu.xom.Attribute;
 import nu.xom.Document;
@@ -43,10 +50,17 @@ import com.vzome.core.commands.Command.Failure;
 public class TestVZomeFiles extends FileSystemVisitor2 .Actor
 {
     private static final Logger logger = Logger.getLogger("");
+
+    private static final ThreadMXBean THREADS = ManagementFactory .getThreadMXBean();
     
+    /**
+     * Arguments: the base folder, the file or folder to test relative to it, the JUnit XML output file,
+     * and optionally the number of files to load at once, which defaults to the number of processors.
+     */
     public static void main( String[] args )
     {
-    	TestVZomeFiles tester = new TestVZomeFiles( args[0], args[1] );
+        int threads = ( args.length > 3 )? Integer .parseInt( args[3] ) : Runtime .getRuntime() .availableProcessors();
+    	TestVZomeFiles tester = new TestVZomeFiles( args[0], args[1], threads );
         Element results = tester .collectResults();
 
         FileOutputStream out;
@@ -66,66 +80,97 @@ public class TestVZomeFiles extends FileSystemVisitor2 .Actor
     }
 
     public TestVZomeFiles( String baseFolder, String testPath )
+    {
+        this( baseFolder, testPath, 1 );
+    }
+
+    public TestVZomeFiles( String baseFolder, String testPath, int threads )
     {
         super();
         this .baseFolder = new File( baseFolder ) .toPath();
         this .testPath = testPath;
+        this .threads = threads;
     }
-	
-	private Application app;
-	
-	private Exporter historyExporter;
+
+	// the test case running on each worker thread, for failures reported by its Application
+	private final ThreadLocal<Element> testCase = new ThreadLocal<>();
+
+	private final Command.FailureChannel failures = new Command.FailureChannel()
+    {
+        @Override
+        public void reportFailure( Failure f )
+        {
+            Element failure = new Element( "failure" );
+            failure .addAttribute( new Attribute( "type", "user.command.error" ) );
+            failure .addAttribute( new Attribute( "message", f .getMessage() ) );
+            testCase .get() .appendChild( failure );
+        }
+    };
+
+	// each worker thread loads files with its own Application, so that no editing state is shared
+	private final ThreadLocal<Application> app = new ThreadLocal<Application>()
+	{
+	    @Override
+	    protected Application initialValue()
+	    {
+	        return new Application( failures );
+	    }
+	};
+
+	private final ThreadLocal<Exporter> historyExporter = new ThreadLocal<Exporter>()
+	{
+	    @Override
+	    protected Exporter initialValue()
+	    {
+	        return app .get() .getExporter( "history" );
+	    }
+	};
+
+	private final ThreadLogHandler logs = new ThreadLogHandler();
 	
 	private Path baseFolder;
 
 	private String testPath;
+
+	private final int threads;
+
+	// in the order visited, which is the order of the results
+	private final List<TestFile> testFiles = new ArrayList<>();
 	
 	private Element testSuites;
 	
-	private Element testCase;
-	
 	private int exitCode = 0;
 	
     private final static String BROWSER = "https://github.com/vorth/vzome-core/blob/master/src/regression/files";
     
     private final static String EXPORTS = "https://raw.githubusercontent.com/vorth/vzome-core/master/src/regression/files";
+
+    private static class TestFile
+    {
+        private final File file;
+
+        private final String pkgName, className, testName, suiteName;
+
+        private Element testSuite;
+
+        private boolean failed = false;
+
+        // nanoseconds and bytes, negative when the JVM cannot measure them
+        private long wallTime, cpuTime = -1, allocatedBytes = -1;
+
+        TestFile( File file, String pkgName, String className, String testName )
+        {
+            this .file = file;
+            this .pkgName = pkgName;
+            this .className = className;
+            this .testName = testName;
+            this .suiteName = pkgName + "/" + className + "/" + testName;
+        }
+    }
     
 	private Element collectResults()
 	{
         testSuites = new Element( "testsuites" );
-		
-		app = new Application( new Command.FailureChannel()
-        {
-            @Override
-            public void reportFailure( Failure f )
-            {
-                Element failure = new Element( "failure" );
-                failure .addAttribute( new Attribute( "type", "user.command.error" ) );
-                failure .addAttribute( new Attribute( "message", f .getMessage() ) );
-//                if ( Controller.USER_ERROR_CODE .equals( errorCode ) )
-//                {
-//                    // don't want a stack trace for a user error
-//                    failure .addAttribute( new Attribute( "type", Controller.USER_ERROR_CODE ) );
-//                    failure .addAttribute( new Attribute( "message", ((Exception) arguments[0]) .getMessage() ) );
-//                }
-//                else if ( Controller.UNKNOWN_ERROR_CODE .equals( errorCode ) )
-//                {
-//                    Throwable t = (Throwable) arguments[0];
-//                    ByteArrayOutputStream out = new ByteArrayOutputStream();
-//                    t .printStackTrace( new PrintStream( out ) );
-//                    failure .appendChild( new Text( new String( out .toByteArray() ) ) );
-//                    failure .addAttribute( new Attribute( "type", Controller.USER_ERROR_CODE ) );
-//                    failure .addAttribute( new Attribute( "message", "internal error" ) );
-//                }
-//                else
-//                {
-//                    failure .addAttribute( new Attribute( "type", "other" ) );
-//                    failure .addAttribute( new Attribute( "message", errorCode ) );
-//                }
-                testCase .appendChild( failure );
-            }
-        });
-        historyExporter = app .getExporter( "history" );
 
 		Path root = baseFolder .resolve( testPath );
 		if ( ! Files.exists( root, new LinkOption[]{} ) )
@@ -137,7 +182,46 @@ public class TestVZomeFiles extends FileSystemVisitor2 .Actor
 			    System .err. println( "scan failed: " + ioe .getLocalizedMessage() );
 			}
 		}
-		app = null;
+
+		logger .addHandler( logs );
+		long start = System .nanoTime();
+		ExecutorService workers = Executors .newFixedThreadPool( threads );
+		List<Future<?>> results = new ArrayList<>();
+		for ( final TestFile test : testFiles )
+		    results .add( workers .submit( new Runnable()
+		    {
+		        @Override
+		        public void run()
+		        {
+		            runTest( test );
+		        }
+		    } ) );
+		long cpuTime = 0, allocatedBytes = 0;
+		for ( int i = 0; i < testFiles .size(); i++ ) {
+		    TestFile test = testFiles .get( i );
+		    try {
+		        results .get( i ) .get();
+		    } catch ( InterruptedException | ExecutionException e ) {
+		        e .printStackTrace();
+		        exitCode = 1;
+		        continue;
+		    }
+		    if ( test .failed )
+		        exitCode = 1;
+		    cpuTime += Math .max( 0, test .cpuTime );
+		    allocatedBytes += Math .max( 0, test .allocatedBytes );
+		    System .out .println( String .format( Locale.US, "%-90s %8.3fs wall %8.3fs cpu %10.1fMB",
+		            test .suiteName, seconds( test .wallTime ), seconds( test .cpuTime ), megabytes( test .allocatedBytes ) ) );
+		    testSuites .appendChild( test .testSuite );
+		}
+		workers .shutdown();
+		long wallTime = System .nanoTime() - start;
+		logger .removeHandler( logs );
+
+		testSuites .addAttribute( new Attribute( "tests", Integer .toString( testFiles .size() ) ) );
+		testSuites .addAttribute( new Attribute( "time", formatSeconds( wallTime ) ) );
+		System .out .println( String .format( Locale.US, "%d files on %d threads: %.3fs wall, %.3fs cpu, %.1fMB allocated",
+		        testFiles .size(), threads, seconds( wallTime ), seconds( cpuTime ), megabytes( allocatedBytes ) ) );
         return testSuites;
 	}
 	
@@ -189,97 +273,142 @@ public class TestVZomeFiles extends FileSystemVisitor2 .Actor
                     pkgName = packageFolder .getAbsolutePath() .substring( basePath .length() );
                 }
             }
-            testCase = new Element( "testcase" );
-            testCase .addAttribute( new Attribute( "classname", pkgName + "." + className ) );
             String testName = file .getName();
             testName = testName .substring( 0, testName .length() - 6 ); // strip ".vZome"
-            String suiteName = pkgName + "/" + className + "/" + testName;
-            System .out .println( suiteName );
-            testCase .addAttribute( new Attribute( "name", testName ) );
-            
-            final Element stderr = new Element( "system-err" );
-            ByteArrayOutputStream bos = new ByteArrayOutputStream();
-            Handler handler = new StreamHandler( bos, new SimpleFormatter() );
-            handler .setLevel( Level .INFO );
-            logger .addHandler( handler );
-            
-            try {
-                InputStream bytes = new FileInputStream( file );
-                com.vzome.api.Document doc = app .loadDocument( bytes );
-                
-                File goldenHistory = new File( classFolder, testName + ".history" );
-                if ( goldenHistory .getAbsoluteFile() .exists() ) {
-                    File testHistory = new File( classFolder, testName + ".history.test" );
-                    PrintWriter histOut = new PrintWriter( testHistory );
-                    try {
-                        historyExporter .doExport( doc, histOut, 1080, 1920 );
-                    } finally {
-                        histOut .close();
-                    }
-                    Process process = Runtime .getRuntime() .exec( "diff " + goldenHistory .getAbsolutePath() + " " + testHistory .getAbsolutePath() );
-                    // any error message?
-                    StreamGobbler errorGobbler = new 
-                        StreamGobbler( process.getErrorStream(), "ERROR" );            
-                    
-                    // any output?
-                    StreamGobbler outputGobbler = new 
-                        StreamGobbler( process.getInputStream(), "OUTPUT" );
-                        
-                    // kick them off
-                    errorGobbler.start();
-                    outputGobbler.start();
-                                            
-                    // any error???
-                    int exitVal = process.waitFor();
-                    if ( exitVal != 0 )
-                        throw new Exception( "ExitValue: " + exitVal );
-                    else
-                        testHistory .delete();
-                }
-            } catch ( Exception e ) {
-                Element error = new Element( "error" );
-                error .addAttribute( new Attribute( "type", "finish.load.exception" ) );
-                error .addAttribute( new Attribute( "message", e .getMessage() ) );
-                ByteArrayOutputStream out = new ByteArrayOutputStream();
-                e .printStackTrace( new PrintStream( out ) );
-                error .appendChild( new Text( new String( out .toByteArray() ) ) );
-                testCase .appendChild( error );
-                exitCode = 1;
-            } finally
-            {
-                handler .close();
-                String logText = new String( bos .toByteArray() );
-                stderr .appendChild( logText );
-                logger .removeHandler( handler );
-            }
-            
-            testCase .addAttribute( new Attribute( "time", "0.1" ) );
-            Element testSuite = new Element( "testsuite" );
-            testSuite .addAttribute( new Attribute( "tests", "1" ) );
-            testSuite .addAttribute( new Attribute( "errors", "0" ) );
-            testSuite .addAttribute( new Attribute( "failures", "0" ) );
-            testSuite .addAttribute( new Attribute( "name", suiteName ) );
-            String hostName = System.getenv("HOSTNAME");
-            if ( hostName == null )
-                hostName = "localhost";
-            testSuite .addAttribute( new Attribute( "hostname", hostName ) );
-            testSuite .addAttribute( new Attribute( "time", "4.363" ) );
-            DateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss");
-            Date date = new Date();
-            testSuite .addAttribute( new Attribute( "timestamp", dateFormat.format( date ) ) );
-            testSuite .appendChild( new Element( "properties" ) );
-            testSuite .appendChild( testCase );
-            Element stdOut = new Element( "system-out" );
-            stdOut .appendChild( new Text( BROWSER + suiteName + ".vZome\n" ) );
-            stdOut .appendChild( new Text( EXPORTS + suiteName + ".vZome\n" ) );
-            testSuite .appendChild( stdOut );
-            testSuite .appendChild( stderr );
-            testSuites .appendChild( testSuite );
+            // just collect the file here; collectResults() runs them all on the workers
+            testFiles .add( new TestFile( file, pkgName, className, testName ) );
         }
         else
             super .actOnFile( file, extension, visitor );
     }
 
+    // runs on a worker thread
+    private void runTest( TestFile test )
+    {
+        Element testCase = new Element( "testcase" );
+        testCase .addAttribute( new Attribute( "classname", test .pkgName + "." + test .className ) );
+        testCase .addAttribute( new Attribute( "name", test .testName ) );
+        this .testCase .set( testCase );
+
+        final Element stderr = new Element( "system-err" );
+        logs .start();
+
+        long wallStart = System .nanoTime();
+        long cpuStart = cpuTime();
+        long bytesStart = allocatedBytes();
+        try {
+            File classFolder = test .file .getParentFile();
+            InputStream bytes = new FileInputStream( test .file );
+            com.vzome.api.Document doc = app .get() .loadDocument( bytes );
+
+            File goldenHistory = new File( classFolder, test .testName + ".history" );
+            if ( goldenHistory .getAbsoluteFile() .exists() ) {
+                // compare as the history is exported, leaving the .history.test file only if it differs
+                File testHistory = new File( classFolder, test .testName + ".history.test" );
+                StreamingDiffer differ = new StreamingDiffer( goldenHistory, testHistory );
+                PrintWriter histOut = new PrintWriter( differ );
+                try {
+                    historyExporter .get() .doExport( doc, histOut, 1080, 1920 );
+                } finally {
+                    histOut .close();
+                }
+                if ( histOut .checkError() )
+                    throw new IOException( "failed comparing with " + goldenHistory .getName() );
+                if ( ! differ .matches() )
+                    throw new Exception( testHistory .getName() + " " + differ .getMismatch() );
+                testHistory .delete();
+            }
+        } catch ( Exception e ) {
+            Element error = new Element( "error" );
+            error .addAttribute( new Attribute( "type", "finish.load.exception" ) );
+            error .addAttribute( new Attribute( "message", e .getMessage() ) );
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            e .printStackTrace( new PrintStream( out ) );
+            error .appendChild( new Text( new String( out .toByteArray() ) ) );
+            testCase .appendChild( error );
+            test .failed = true;
+        } finally
+        {
+            test .wallTime = System .nanoTime() - wallStart;
+            if ( cpuStart >= 0 )
+                test .cpuTime = cpuTime() - cpuStart;
+            if ( bytesStart >= 0 )
+                test .allocatedBytes = allocatedBytes() - bytesStart;
+            stderr .appendChild( logs .finish() );
+            this .testCase .remove();
+        }
+        
+        testCase .addAttribute( new Attribute( "time", formatSeconds( test .wallTime ) ) );
+        Element testSuite = new Element( "testsuite" );
+        testSuite .addAttribute( new Attribute( "tests", "1" ) );
+        testSuite .addAttribute( new Attribute( "errors", "0" ) );
+        testSuite .addAttribute( new Attribute( "failures", "0" ) );
+        testSuite .addAttribute( new Attribute( "name", test .suiteName ) );
+        String hostName = System.getenv("HOSTNAME");
+        if ( hostName == null )
+            hostName = "localhost";
+        testSuite .addAttribute( new Attribute( "hostname", hostName ) );
+        testSuite .addAttribute( new Attribute( "time", formatSeconds( test .wallTime ) ) );
+        DateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss");
+        Date date = new Date();
+        testSuite .addAttribute( new Attribute( "timestamp", dateFormat.format( date ) ) );
+        // the measurements, for tracking performance from run to run
+        Element properties = new Element( "properties" );
+        properties .appendChild( property( "wall.time", formatSeconds( test .wallTime ) ) );
+        if ( test .cpuTime >= 0 )
+            properties .appendChild( property( "cpu.time", formatSeconds( test .cpuTime ) ) );
+        if ( test .allocatedBytes >= 0 )
+            properties .appendChild( property( "allocated.bytes", Long .toString( test .allocatedBytes ) ) );
+        testSuite .appendChild( properties );
+        testSuite .appendChild( testCase );
+        Element stdOut = new Element( "system-out" );
+        stdOut .appendChild( new Text( BROWSER + test .suiteName + ".vZome\n" ) );
+        stdOut .appendChild( new Text( EXPORTS + test .suiteName + ".vZome\n" ) );
+        testSuite .appendChild( stdOut );
+        testSuite .appendChild( stderr );
+        test .testSuite = testSuite;
+    }
+
+    private static Element property( String name, String value )
+    {
+        Element property = new Element( "property" );
+        property .addAttribute( new Attribute( "name", name ) );
+        property .addAttribute( new Attribute( "value", value ) );
+        return property;
+    }
+
+    // CPU time of the current thread in nanoseconds, or -1 if the JVM cannot measure it
+    private static long cpuTime()
+    {
+        return THREADS .isCurrentThreadCpuTimeSupported()? THREADS .getCurrentThreadCpuTime() : -1;
+    }
+
+    // bytes allocated by the current thread, or -1 if the JVM cannot measure it
+    private static long allocatedBytes()
+    {
+        if ( THREADS instanceof com.sun.management.ThreadMXBean ) {
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+            if ( threads .isThreadAllocatedMemorySupported() && threads .isThreadAllocatedMemoryEnabled() )
+                return threads .getThreadAllocatedBytes( Thread .currentThread() .getId() );
+        }
+        return -1;
+    }
+
+    private static double seconds( long nanos )
+    {
+        return nanos / 1e9;
+    }
+
+    private static double megabytes( long bytes )
+    {
+        return bytes / ( 1024d * 1024d );
+    }
+
+    private static String formatSeconds( long nanos )
+    {
+        return String .format( Locale.US, "%.3f", seconds( nanos ) );
+    }
+
     @Override
 	public boolean fileContainsLinks( String ext )
 	{
@@ -289,31 +418,44 @@ public class TestVZomeFiles extends FileSystemVisitor2 .Actor
 		return ext .equals( "testsuite" ) || ext .equals( "vZome-files" );
 	}
 
-	class StreamGobbler extends Thread
+	/**
+	 * Collects the log records of each worker thread, for the file it is running,
+	 * since every worker logs to the same loggers.
+	 */
+	private static class ThreadLogHandler extends Handler
 	{
-	    InputStream is;
-	    String type;
-	    
-	    StreamGobbler(InputStream is, String type)
+	    private final ThreadLocal<StringBuilder> log = new ThreadLocal<>();
+
+	    ThreadLogHandler()
 	    {
-	        this.is = is;
-	        this.type = type;
+	        setLevel( Level .INFO );
+	        setFormatter( new SimpleFormatter() );
 	    }
-	    
-        @Override
-	    public void run()
+
+	    void start()
+	    {
+	        log .set( new StringBuilder() );
+	    }
+
+	    String finish()
 	    {
-	        try
-	        {
-	            InputStreamReader isr = new InputStreamReader(is);
-	            BufferedReader br = new BufferedReader(isr);
-	            String line=null;
-	            while ( (line = br.readLine()) != null)
-	                System.out.println(type + ">" + line);    
-	        } catch (IOException ioe)
-	        {
-	            ioe.printStackTrace();  
-	        }
+	        String text = log .get() .toString();
+	        log .remove();
+	        return text;
 	    }
+
+	    @Override
+	    public void publish( LogRecord record )
+	    {
+	        StringBuilder text = log .get();
+	        if ( text != null && isLoggable( record ) )
+	            text .append( getFormatter() .format( record ) );
+	    }
+
+	    @Override
+	    public void flush() {}
+
+	    @Override
+	    public void close() {}
 	}
 }
@@ -0,0 +1,57 @@
+package com.vzome.api;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class BatchExportTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testSharedExtensionsAndFailures() throws Exception
+	{
+		File input = folder .newFile( "blue.vZome" );
+		try ( InputStream bytes = getClass() .getResourceAsStream( "/com/vzome/core/parts/tiny/blue.vZome" ) ) {
+			Files .copy( bytes, input .toPath(), StandardCopyOption.REPLACE_EXISTING );
+		}
+		File outDir = folder .newFolder( "out" );
+		// a directory in the way of the OFF file makes that one export fail
+		assertTrue( new File( outDir, "blue.off" ) .mkdir() );
+
+		BatchExport batch = new BatchExport( Arrays .asList( "off", "stl", "stl-binary", "partslist", "seg" ), 600, 800 );
+		BatchExport.Result result = batch .export( input, outDir, "blue" );
+
+		assertEquals( "off", result .failedFormat );
+		assertTrue( String .valueOf( result .failure ), result .failure instanceof FileNotFoundException );
+
+		// the formats after the failure still ran, and the two STL files do not collide
+		assertFalse( new File( outDir, "blue.stl" ) .exists() );
+		byte[] ascii = Files .readAllBytes( new File( outDir, "blue.stl.stl" ) .toPath() );
+		assertTrue( new String( ascii, StandardCharsets.UTF_8 ) .startsWith( "solid" ) );
+		byte[] binary = Files .readAllBytes( new File( outDir, "blue.stl-binary.stl" ) .toPath() );
+		ByteBuffer bytes = ByteBuffer .wrap( binary ) .order( ByteOrder.LITTLE_ENDIAN );
+		assertTrue( bytes .getInt( 80 ) > 0 );
+		assertEquals( 84 + 50 * bytes .getInt( 80 ), binary.length );
+		assertTrue( result .exportNanos[ 1 ] > 0 );
+		assertTrue( result .exportNanos[ 2 ] > 0 );
+
+		// these two close the writer themselves
+		String parts = new String( Files .readAllBytes( new File( outDir, "blue.txt" ) .toPath() ), StandardCharsets.UTF_8 );
+		assertTrue( parts, parts .startsWith( "balls" ) );
+		assertTrue( new File( outDir, "blue.seg" ) .exists() );
+	}
+}
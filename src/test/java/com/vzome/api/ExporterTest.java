@@ -0,0 +1,60 @@
+package com.vzome.api;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+public class ExporterTest {
+
+	@Test
+	public void testBinaryAndTextStreams() throws Exception
+	{
+		Application app = new Application();
+		Document doc;
+		try ( InputStream bytes = getClass() .getResourceAsStream( "/com/vzome/core/parts/tiny/blue.vZome" ) ) {
+			doc = app .loadDocument( bytes );
+		}
+
+		BinaryExporter glb = app .getBinaryExporter( "glb" );
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		glb .doExport( doc, out );
+		ByteBuffer bytes = ByteBuffer .wrap( out .toByteArray() ) .order( ByteOrder.LITTLE_ENDIAN );
+		assertEquals( 0x46546C67, bytes .getInt( 0 ) );
+		assertEquals( bytes .limit(), bytes .getInt( 8 ) );
+
+		// binary STL through the api is binary, not the ASCII form
+		BinaryExporter stl = app .getBinaryExporter( "stl-binary" );
+		out = new ByteArrayOutputStream();
+		stl .doExport( doc, out );
+		bytes = ByteBuffer .wrap( out .toByteArray() ) .order( ByteOrder.LITTLE_ENDIAN );
+		assertEquals( 84 + 50 * bytes .getInt( 80 ), bytes .limit() );
+
+		assertNull( app .getBinaryExporter( "off" ) );
+		Exporter off = app .getExporter( "off" );
+		out = new ByteArrayOutputStream();
+		off .doExport( doc, out, 1080, 1920 );
+		StringWriter text = new StringWriter();
+		off .doExport( doc, text, 1080, 1920 );
+		assertEquals( text .toString(), new String( out .toByteArray(), StandardCharsets.UTF_8 ) );
+
+		// the parts list exporter closes its writer, which leaves the stream open
+		Exporter parts = app .getExporter( "partslist" );
+		out = new ByteArrayOutputStream()
+		{
+			@Override
+			public void close()
+			{
+				fail( "the caller's stream was closed" );
+			}
+		};
+		parts .doExport( doc, out, 1080, 1920 );
+		assertTrue( new String( out .toByteArray(), StandardCharsets.UTF_8 ) .startsWith( "balls" ) );
+	}
+}
@@ -44,4 +44,107 @@ public class AlgebraicFieldTest {
         assertEquals(fields.size(), pass);
 	}    
 
+    @Test
+    public void testStructureConstants() {
+        AlgebraicField pentagonField = new PentagonField();
+        SnubDodecField snubDodec = new SnubDodecField( pentagonField );
+        HeptagonField heptagon = new HeptagonField();
+        RootThreeField rootThree = new RootThreeField();
+        java.util.Random random = new java.util.Random( 42 );
+        for(int trial = 0; trial < 200; trial++) {
+            // every third trial uses values too large for longs
+            boolean big = trial % 3 == 2;
+            BigRational[] a = randomFactors( random, 6, big ), b = randomFactors( random, 6, big );
+            assertTrue( java.util.Arrays.equals( snubDodec.multiplyByHand( a, b ), snubDodec.multiply( a, b ) ) );
+            BigRational[] a3 = java.util.Arrays.copyOf( a, 3 ), b3 = java.util.Arrays.copyOf( b, 3 );
+            assertTrue( java.util.Arrays.equals( heptagon.multiplyByHand( a3, b3 ), heptagon.multiply( a3, b3 ) ) );
+            BigRational[] a2 = java.util.Arrays.copyOf( a, 2 ), b2 = java.util.Arrays.copyOf( b, 2 );
+            assertTrue( java.util.Arrays.equals( rootThree.multiplyByHand( a2, b2 ), rootThree.multiply( a2, b2 ) ) );
+            // the quadratic fields keep their own closed forms, so check the engine against those too
+            assertTrue( java.util.Arrays.equals( pentagonField.multiply( a2, b2 ), pentagonField.getStructureConstants().multiply( a2, b2 ) ) );
+        }
+    }
+
+    private static BigRational[] randomFactors( java.util.Random random, int order, boolean big ) {
+        BigRational[] factors = new BigRational[ order ];
+        for(int i = 0; i < order; i++) {
+            if ( random.nextInt( 4 ) == 0 )
+                factors[ i ] = BigRational.ZERO;
+            else if ( big )
+                factors[ i ] = new BigRational( new java.math.BigInteger( 80, random ).subtract( java.math.BigInteger.ONE.shiftLeft( 79 ) ), java.math.BigInteger.valueOf( 1 + random.nextInt( 1000 ) ) );
+            else
+                factors[ i ] = new BigRational( random.nextInt( 2001 ) - 1000, 1 + random.nextInt( 30 ) );
+        }
+        return factors;
+    }
+
+    @Test
+    public void testAccumulator() {
+        java.util.Random random = new java.util.Random( 17 );
+        for(AlgebraicField field : fields) {
+            for(int trial = 0; trial < 20; trial++) {
+                AlgebraicNumberAccumulator accumulator = new AlgebraicNumberAccumulator( field );
+                AlgebraicNumber expected = field.zero();
+                for(int step = 0; step < 12; step++) {
+                    // late steps of odd trials overflow the longs, part way through the sum
+                    boolean big = trial % 2 == 1 && step > 6;
+                    AlgebraicNumber a = field.createAlgebraicNumber( randomFactors( random, field.getOrder(), big ) );
+                    AlgebraicNumber b = field.createAlgebraicNumber( randomFactors( random, field.getOrder(), false ) );
+                    switch ( step % 4 ) {
+                    case 0:
+                        accumulator.add( a );
+                        expected = expected.plus( a );
+                        break;
+                    case 1:
+                        accumulator.addProduct( a, b );
+                        expected = expected.plus( a.times( b ) );
+                        break;
+                    case 2:
+                        accumulator.subtractProduct( a, b );
+                        expected = expected.minus( a.times( b ) );
+                        break;
+                    default:
+                        accumulator.subtract( a );
+                        expected = expected.minus( a );
+                        break;
+                    }
+                    assertEquals( expected, accumulator.toNumber() );
+                }
+                AlgebraicNumber k = field.createAlgebraicNumber( 1, 2, 3, 0 );
+                assertEquals( expected.times( k ), accumulator.scale( k ).toNumber() );
+                assertEquals( field.zero(), accumulator.clear().toNumber() );
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrentPowers() throws InterruptedException {
+        for(final AlgebraicField field : fields) {
+            final AlgebraicNumber[] results = new AlgebraicNumber[ 8 ];
+            Thread[] threads = new Thread[ results.length ];
+            for(int t = 0; t < threads.length; t++) {
+                final int index = t;
+                threads[ t ] = new Thread( new Runnable() {
+                    @Override
+                    public void run() {
+                        // every thread extends the tables, in a different order
+                        for(int i = 1; i <= 30; i++) {
+                            int power = ( i * ( index + 1 ) ) % 31;
+                            field.createPower( - power );
+                            field.createPower( power );
+                        }
+                        results[ index ] = field.createPower( 30 ).times( field.createPower( -30 ) );
+                    }
+                });
+                threads[ t ].start();
+            }
+            for(Thread thread : threads)
+                thread.join();
+            for(AlgebraicNumber result : results)
+                assertEquals(field.one(), result);
+            AlgebraicNumber irrat = field.createPower( 1 );
+            assertEquals(field.createPower( 17 ).times( irrat ), field.createPower( 18 ));
+        }
+    }
+
 }
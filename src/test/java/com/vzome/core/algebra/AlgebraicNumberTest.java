@@ -26,7 +26,45 @@ public class AlgebraicNumberTest extends TestCase
         assertTrue( tau_9 .equals( field.createPower( 9 ) ) );
         assertTrue( tau_minus5 .equals( field.createPower( -5 ) ) );
     }
-    
+
+    public void testGoldenNumberMatchesFactors()
+    {
+        PentagonField field = new PentagonField();
+
+        AlgebraicNumber x = field .createAlgebraicNumber( 22, 15, 6, 0 );
+        AlgebraicNumber y = field .createAlgebraicNumber( -7, 3, 4, -2 );
+
+        // cross-check against the BigRational arithmetic of the field
+        assertEquals( field .createAlgebraicNumber( field .multiply( x .getFactors(), y .getFactors() ) ), x .times( y ) );
+        assertEquals( field .createAlgebraicNumber( field .add( x .getFactors(), y .getFactors() ) ), x .plus( y ) );
+        assertEquals( field .createAlgebraicNumber( field .reciprocal( y .getFactors() ) ), y .reciprocal() );
+        assertEquals( field .evaluateNumber( x .getFactors() ), x .evaluate(), 0d );
+        assertEquals( new java.math.BigInteger( "6" ), x .getDivisor() );
+        assertTrue( x .compareTo( y ) > 0 );
+        assertTrue( y .compareTo( x ) < 0 );
+        assertTrue( field .one() .isOne() );
+        assertTrue( x .minus( x ) .isZero() );
+        // hashed the same as any AlgebraicNumber, so hashed collections keep their iteration order
+        for ( AlgebraicNumber n : new AlgebraicNumber[]{ x, y, field .zero(), field .one(), x .negate() } )
+            assertEquals( 31 + java.util.Arrays .hashCode( n .getFactors() ), n .hashCode() );
+    }
+
+    public void testGoldenNumberOverflow()
+    {
+        AlgebraicField field = new PentagonField();
+
+        // tau^100 has coefficients well beyond the range of long
+        AlgebraicNumber big = field .createPower( 100 );
+        AlgebraicNumber small = field .createPower( -100 );
+        assertTrue( big .getFactors()[ 1 ] .getNumerator() .bitLength() > 64 );
+        assertEquals( field .one(), big .times( small ) );
+        assertEquals( small, big .reciprocal() );
+        assertEquals( field .createPower( 99 ), big .dividedBy( field .createPower( 1 ) ) );
+        assertEquals( field .zero(), big .minus( big ) );
+        assertEquals( big .getFactors()[ 0 ] .getReal() + PentagonField.PHI_VALUE * big .getFactors()[ 1 ] .getReal(), big .evaluate(), 0d );
+        assertEquals( 31 + java.util.Arrays .hashCode( big .getFactors() ), big .hashCode() );
+    }
+
     public void testToString()
     {
         AlgebraicField field = new PentagonField();
@@ -250,4 +288,44 @@ public class AlgebraicNumberTest extends TestCase
         assertEquals( m .timesColumn( in ), out );
         assertEquals( m .transpose() .timesRow( in ), out );
     }
+
+    public void testFractionFreeInverse()
+    {
+        AlgebraicField[] fields = { new PentagonField(), new HeptagonField(), new RootTwoField(), new SnubDodecField( new PentagonField() ) };
+        for ( AlgebraicField field : fields ) {
+            // a zero in the first pivot position forces a row exchange, and the halves force scaling
+            AlgebraicVector c0 = new AlgebraicVector( field.zero(), field.createAlgebraicNumber( 1, 1, 2, 0 ), field .createPower( 3 ) );
+            AlgebraicVector c1 = new AlgebraicVector( field.createAlgebraicNumber( 3, -1, 1, 0 ), field.createRational( 2 ), field .zero() );
+            AlgebraicVector c2 = new AlgebraicVector( field.createPower( -2 ), field.createRational( 3, 4 ), field .one() );
+            AlgebraicMatrix m = new AlgebraicMatrix( c0, c1, c2 );
+            AlgebraicMatrix copy = new AlgebraicMatrix( c0, c1, c2 );
+
+            AlgebraicMatrix legacy = new AlgebraicMatrix( field, 3 );
+            Fields .gaussJordanReduction( new AlgebraicMatrix( c0, c1, c2 ) .matrix, legacy .matrix );
+
+            AlgebraicMatrix inverse = m .inverse();
+            assertEquals( copy, m ); // not reduced in place
+            assertEquals( legacy, inverse );
+            assertEquals( field .identityMatrix( 3 ), m .times( inverse ) );
+
+            AlgebraicNumber expected = c0 .dot( c1 .cross( c2 ) );
+            assertEquals( expected, m .determinant() );
+            assertEquals( expected, m .transpose() .determinant() );
+            assertEquals( expected .reciprocal(), inverse .determinant() );
+        }
+    }
+
+    public void testSingularMatrix()
+    {
+        AlgebraicField field = new PentagonField();
+        AlgebraicVector c0 = new AlgebraicVector( field.one(), field.createPower( 1 ), field .zero() );
+        AlgebraicVector c2 = new AlgebraicVector( field.createRational( 2 ), field.one(), field .one() );
+        AlgebraicMatrix m = new AlgebraicMatrix( c0, c0 .scale( field .createPower( 2 ) ), c2 );
+        assertTrue( m .determinant() .isZero() );
+        try {
+            m .inverse();
+            fail( "a singular matrix has no inverse" );
+        } catch ( IllegalArgumentException e ) {
+        }
+    }
 }
@@ -2,8 +2,13 @@ package com.vzome.core.algebra;
 
 import static org.junit.Assert.*;
 
+import java.nio.FloatBuffer;
+
 import org.junit.Test;
 
+import com.vzome.core.math.Polyhedron;
+import com.vzome.core.math.RealVector;
+
 public class AlgebraicVectorTest {
 
 	@Test
@@ -19,4 +24,86 @@ public class AlgebraicVectorTest {
 		assertEquals( target, result );
 	}
 
+	@Test
+	public void testFusedKernels()
+	{
+		AlgebraicField[] fields = { new PentagonField(), new SnubDodecField( new PentagonField() ), new RootTwoField() };
+		for ( AlgebraicField field : fields ) {
+			AlgebraicNumber a = field .createAlgebraicNumber( 3, 2, 5, 1 );
+			AlgebraicNumber b = field .createAlgebraicNumber( -1, 4, 3, 2 );
+			AlgebraicNumber c = field .createPower( 40 );
+			AlgebraicVector x = new AlgebraicVector( a, b, c );
+			AlgebraicVector y = new AlgebraicVector( c, field .zero(), a .negate() );
+			AlgebraicNumber naive = a .times( c ) .plus( b .times( field .zero() ) ) .plus( c .times( a .negate() ) );
+			assertEquals( naive, x .dot( y ) );
+			assertEquals( a .times( b ) .plus( c ), field .multiplyAdd( c, a, b ) );
+			assertEquals( a .times( b ) .minus( c .times( a ) ), field .productDifference( a, b, c, a ) );
+			assertEquals( a .minus( b ), a .plus( b .negate() ) );
+			AlgebraicVector cross = x .cross( y );
+			assertEquals( field .zero(), cross .dot( x ) );
+			assertEquals( field .zero(), cross .dot( y ) );
+			assertFalse( x .isParallel( y ) );
+			assertTrue( x .isParallel( x .scale( c ) ) );
+		}
+	}
+
+	@Test
+	public void testRealVertices()
+	{
+		AlgebraicField field = new PentagonField();
+		AlgebraicVector x = new AlgebraicVector( field .createPower( 2 ), field .createRational( 1, 3 ), field .createPower( -1 ) );
+		AlgebraicVector y = field .basisVector( 3, AlgebraicVector.Y );
+		RealVector rx = x .toRealVector();
+		assertEquals( field .createPower( 2 ) .evaluate(), rx.x, 0d );
+		assertSame( rx, x .toRealVector() );
+
+		Polyhedron shape = new Polyhedron( field );
+		shape .addVertex( x );
+		shape .addVertex( y );
+		double[] coords = shape .getRealVertices();
+		assertArrayEquals( new double[]{ rx.x, rx.y, rx.z, 0d, 1d, 0d }, coords, 0d );
+		float[] floats = shape .getRealVertices( new float[ 10 ] );
+		assertEquals( 10, floats.length );
+		assertEquals( (float) rx.z, floats[ 2 ], 0f );
+		FloatBuffer buffer = FloatBuffer .allocate( 6 );
+		shape .putRealVertices( buffer );
+		assertEquals( 1f, buffer .get( 4 ), 0f );
+
+		y .setComponent( 2, field .one() );
+		assertEquals( 1d, y .toRealVector() .z, 0d );
+		shape .addVertex( field .origin( 3 ) );
+		assertEquals( 9, shape .getRealVertices() .length );
+	}
+
+	@Test
+	public void testHashCodeFollowsSetComponent()
+	{
+		AlgebraicField field = new PentagonField();
+		AlgebraicVector x = field .origin( 3 );
+		AlgebraicVector y = field .origin( 3 );
+		assertEquals( x .hashCode(), y .hashCode() );
+		x .setComponent( 1, field .createPower( 3 ) );
+		assertNotEquals( x, y );
+		y .setComponent( 1, field .createPower( 3 ) );
+		assertEquals( x, y );
+		assertEquals( x .hashCode(), y .hashCode() );
+	}
+
+	@Test
+	public void testInterning()
+	{
+		AlgebraicField field = new PentagonField();
+		AlgebraicVector x = field .parseVector( "1 2 3/2 -1 0 1" );
+		AlgebraicVector y = field .parseVector( "1 2 3/2 -1 0 1" );
+		assertNotSame( x, y );
+		assertEquals( x, y );
+
+		field .setInterning( true );
+		x = field .parseVector( "1 2 3/2 -1 0 1" );
+		y = field .parseVector( "1 2 3/2 -1 0 1" );
+		assertSame( x, y );
+		assertSame( field .intern( field .createAlgebraicNumber( 3, -2, 2, 0 ) ), x .getComponent( 1 ) );
+		field .setInterning( false );
+		assertNotSame( x, field .parseVector( "1 2 3/2 -1 0 1" ) );
+	}
 }
@@ -0,0 +1,92 @@
+package com.vzome.core.algebra;
+
+import static org.junit.Assert.*;
+
+import java.math.BigInteger;
+
+import org.junit.Test;
+
+public class BigRationalTest {
+
+	@Test
+	public void testOverflowPromotion()
+	{
+		BigRational big = new BigRational( Long.MAX_VALUE );
+		BigRational product = big .times( big );
+		BigInteger expected = BigInteger .valueOf( Long.MAX_VALUE ) .multiply( BigInteger .valueOf( Long.MAX_VALUE ) );
+		assertEquals( expected, product .getNumerator() );
+		assertEquals( BigInteger.ONE, product .getDenominator() );
+
+		BigRational sum = big .plus( big );
+		assertEquals( BigInteger .valueOf( Long.MAX_VALUE ) .shiftLeft( 1 ), sum .getNumerator() );
+		assertTrue( sum .compareTo( big ) > 0 );
+		assertTrue( big .compareTo( sum ) < 0 );
+	}
+
+	@Test
+	public void testDemotion()
+	{
+		BigRational big = new BigRational( Long.MAX_VALUE );
+		BigRational product = big .times( big );
+		// dividing back down must give a value equal to the long form
+		BigRational quotient = product .divides( big );
+		assertEquals( big, quotient );
+		assertEquals( big .hashCode(), quotient .hashCode() );
+		assertTrue( product .minus( product ) .isZero() );
+		assertTrue( product .divides( product ) .isOne() );
+
+		BigRational fromBig = new BigRational( BigInteger .valueOf( 6 ), BigInteger .valueOf( -4 ) );
+		assertEquals( new BigRational( -3, 2 ), fromBig );
+	}
+
+	@Test
+	public void testHashMatchesString()
+	{
+		// hashed collections iterate in the order the String hash gives them
+		long[] values = { 0, 1, -1, 7, -10, 99, 1000000007, Long.MAX_VALUE, -Long.MAX_VALUE };
+		for ( long num : values )
+			for ( long den : new long[]{ 1, 2, 3, 10, 12, Long.MAX_VALUE } ) {
+				BigRational r = new BigRational( num, den );
+				assertEquals( r .toString(), r .toString() .hashCode(), r .hashCode() );
+				assertEquals( r .toString(), r .hashCode(), BigRational .hashCode( num, den ) );
+			}
+		BigRational big = new BigRational( Long.MAX_VALUE ) .times( new BigRational( Long.MAX_VALUE, 3 ) );
+		assertEquals( big .toString() .hashCode(), big .hashCode() );
+	}
+
+	@Test
+	public void testCrossOverflowComparison()
+	{
+		BigRational a = new BigRational( Long.MAX_VALUE - 1, Long.MAX_VALUE );
+		BigRational b = new BigRational( Long.MAX_VALUE - 2, Long.MAX_VALUE - 1 );
+		assertTrue( a .compareTo( b ) > 0 );
+		assertTrue( b .compareTo( a ) < 0 );
+		assertFalse( a .equals( b ) );
+
+		BigRational sum = a .plus( b );
+		BigRational difference = sum .minus( b );
+		assertEquals( a, difference );
+	}
+
+	@Test
+	public void testMinValue()
+	{
+		BigRational min = new BigRational( Long.MIN_VALUE );
+		assertTrue( min .isNegative() );
+		assertEquals( BigInteger .valueOf( Long.MIN_VALUE ) .negate(), min .negate() .getNumerator() );
+		// reduces to a value that fits again
+		assertEquals( new BigRational( Long.MIN_VALUE / 2 ), new BigRational( Long.MIN_VALUE, 2 ) );
+		assertEquals( new BigRational( -1 ), min .divides( min .negate() ) );
+	}
+
+	@Test
+	public void testGcd()
+	{
+		assertEquals( "5/6", new BigRational( 1, 2 ) .plus( new BigRational( 1, 3 ) ) .toString() );
+		assertEquals( "1/120000000", new BigRational( 1, 200000000 ) .plus( new BigRational( 1, 300000000 ) ) .toString() );
+		assertEquals( "1073741789/12", new BigRational( 1073741789, 20 ) .plus( new BigRational( 1073741789, 30 ) ) .toString() );
+		assertEquals( "841/961", new BigRational( 3037141, 3247033 ) .times( new BigRational( 3037547, 3246599 ) ) .toString() );
+		assertEquals( "-1/3", new BigRational( 1, 6 ) .minus( new BigRational( -4, -8 ) ) .toString() );
+		assertEquals( "3/4", new BigRational( 3L << 40, 1L << 42 ) .toString() );
+	}
+}
@@ -0,0 +1,110 @@
+package com.vzome.core.editor;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLStreamException;
+
+import org.junit.Test;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+public class DocumentReaderTest {
+
+	private static final String DOCUMENT = "<?xml version='1.0' encoding='UTF-8'?>\n"
+			+ "<vzome:vZome xmlns:vzome='http://xml.vzome.com/vZome/4.0.0/' field='golden'>\n"
+			+ "  <Viewing><ViewModel name='default'/></Viewing>\n"
+			+ "  <EditHistory editNumber='2' lastStickyEdit='-1'>\n"
+			+ "    <BeginBlock/>\n"
+			+ "    <LoadVEF>\n  1 &lt; 2\n</LoadVEF>\n"
+			+ "    <!-- ignored -->\n"
+			+ "    <SelectManifestation point='0 0 0 0 0 0' vzome:note='x'><Boolean value='true'/></SelectManifestation>\n"
+			+ "  </EditHistory>\n"
+			+ "  <notes><page snapshot='0'/></notes>\n"
+			+ "</vzome:vZome>\n";
+
+	@Test
+	public void testStreaming() throws Exception
+	{
+		DocumentReader reader = new DocumentReader( stream() );
+		Element root = reader .getRoot();
+		assertEquals( "http://xml.vzome.com/vZome/4.0.0/", root .getNamespaceURI() );
+		assertEquals( "vZome", root .getLocalName() );
+		assertEquals( "golden", root .getAttribute( "field" ) );
+
+		Element history = reader .readToHistory();
+		assertEquals( "2", history .getAttribute( "editNumber" ) );
+		assertFalse( history .hasChildNodes() );
+		assertEquals( "Viewing", root .getFirstChild() .getLocalName() );
+		assertSame( history, root .getLastChild() );
+
+		// each edit comes back as the DOM parser would have built it
+		DocumentBuilderFactory factory = DocumentBuilderFactory .newInstance();
+		factory .setNamespaceAware( true );
+		Element parsed = factory .newDocumentBuilder() .parse( stream() ) .getDocumentElement();
+		Node expected = parsed .getElementsByTagName( "EditHistory" ) .item( 0 ) .getFirstChild();
+		int edits = 0;
+		for ( XmlRecord edit = reader .nextEdit(); edit != null; edit = reader .nextEdit() ) {
+			while ( ! ( expected instanceof Element ) )
+				expected = expected .getNextSibling();
+			assertTrue( expected .isEqualNode( edit .toElement( reader .getDocument() ) ) );
+			expected = expected .getNextSibling();
+			++ edits;
+		}
+		assertEquals( 3, edits );
+		assertEquals( 3, reader .getEdits() .size() );
+
+		List<Element> rest = reader .readToEnd();
+		assertEquals( 1, rest .size() );
+		assertEquals( "notes", rest .get( 0 ) .getLocalName() );
+		assertSame( rest .get( 0 ), root .getLastChild() );
+		assertEquals( "0", ( (Element) rest .get( 0 ) .getFirstChild() ) .getAttribute( "snapshot" ) );
+	}
+
+	@Test
+	public void testNoHistory() throws Exception
+	{
+		InputStream bytes = new ByteArrayInputStream( "<vZome><Viewing/></vZome>" .getBytes( StandardCharsets.UTF_8 ) );
+		DocumentReader reader = new DocumentReader( bytes );
+		assertNull( reader .readToHistory() );
+		assertNull( reader .nextEdit() );
+		assertTrue( reader .readToEnd() .isEmpty() );
+		assertEquals( "Viewing", reader .getRoot() .getFirstChild() .getNodeName() );
+	}
+
+	@Test
+	public void testDoctype() throws Exception
+	{
+		// the DTD is never fetched, so it need not exist
+		String xml = "<?xml version='1.0' encoding='UTF-8'?>\n"
+				+ "<!-- saved by vZome -->\n"
+				+ "<?vzome hint?>\n"
+				+ "<!DOCTYPE vZome SYSTEM 'file:///nonexistent/vZome.dtd' [ <!ELEMENT vZome ANY> ]>\n"
+				+ "<vZome field='golden'><Viewing/></vZome>\n";
+		DocumentReader reader = new DocumentReader( new ByteArrayInputStream( xml .getBytes( StandardCharsets.UTF_8 ) ) );
+		assertEquals( "golden", reader .getRoot() .getAttribute( "field" ) );
+		assertNull( reader .readToHistory() );
+		assertEquals( "Viewing", reader .getRoot() .getFirstChild() .getNodeName() );
+
+		// nor is an external entity
+		xml = "<!DOCTYPE vZome [ <!ENTITY secret SYSTEM 'file:///etc/passwd'> ]>\n"
+				+ "<vZome><Viewing>&secret;</Viewing></vZome>\n";
+		reader = new DocumentReader( new ByteArrayInputStream( xml .getBytes( StandardCharsets.UTF_8 ) ) );
+		try {
+			reader .readToHistory();
+			assertEquals( "", reader .getRoot() .getFirstChild() .getTextContent() );
+		} catch ( XMLStreamException e ) {
+			// an undeclared entity is an error, which is fine too
+		}
+	}
+
+	private static InputStream stream()
+	{
+		return new ByteArrayInputStream( DOCUMENT .getBytes( StandardCharsets.UTF_8 ) );
+	}
+}
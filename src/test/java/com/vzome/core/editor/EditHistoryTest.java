@@ -0,0 +1,103 @@
+package com.vzome.core.editor;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.vzome.core.algebra.AlgebraicField;
+import com.vzome.core.algebra.AlgebraicVector;
+import com.vzome.core.algebra.PentagonField;
+import com.vzome.core.commands.Command.Failure;
+import com.vzome.core.construction.FreePoint;
+import com.vzome.core.math.Projection;
+import com.vzome.core.model.Manifestation;
+import com.vzome.core.model.ManifestationState;
+import com.vzome.core.model.RealizedModel;
+
+public class EditHistoryTest {
+
+	private final List<Manifestation> seen = new ArrayList<>();
+
+	@Test
+	public void testCheckpoints() throws Failure
+	{
+		AlgebraicField field = new PentagonField();
+		Selection selection = new Selection();
+		RealizedModel realized = new RealizedModel( field, new Projection .Default( field ) );
+		EditHistory history = new EditHistory();
+		history .setCheckpoints( realized, selection, 3, 1000 );
+		AlgebraicVector x = field .basisVector( 3, AlgebraicVector.X );
+
+		List<List<Object>> expected = new ArrayList<>();
+		expected .add( state( realized, selection ) );
+		for ( int k = 1; k <= 12; k++ ) {
+			// the same location again, after a Delete, gives a new manifestation equal to the old one
+			AlgebraicVector location = x .scale( field .createRational( k % 5 ) );
+			perform( history, new ShowPoint( new FreePoint( location ), selection, realized, false ), realized, selection, expected );
+			if ( k % 3 == 0 ) {
+				perform( history, new SelectAll( selection, realized, false ), realized, selection, expected );
+				perform( history, new JoinPoints( selection, realized, false ), realized, selection, expected );
+				perform( history, new DeselectAll( selection, false ), realized, selection, expected );
+			}
+			if ( k % 4 == 0 ) {
+				Manifestation ball = realized .connectorAt( location );
+				perform( history, new SelectManifestation( ball, true, selection, realized, false ), realized, selection, expected );
+				perform( history, new Delete( selection, realized ), realized, selection, expected );
+			}
+		}
+
+		int end = history .getEditNumber();
+		for ( int target : new int[]{ 0, end, 5, 20, 1, end - 1, 13, 0, 14, end } ) {
+			history .goToEdit( target );
+			assertEquals( target, history .getEditNumber() );
+			assertState( "edit " + target, expected .get( target ), state( realized, selection ) );
+		}
+		// edits skipped over by restoring a checkpoint still redo in full
+		history .goToEdit( 2 );
+		for ( int target = 3; target <= end; target++ ) {
+			history .goToEdit( target );
+			assertState( "edit " + target, expected .get( target ), state( realized, selection ) );
+		}
+
+		history .undoAll();
+		assertState( "undoAll", expected .get( 0 ), state( realized, selection ) );
+		history .redoAll( -1 );
+		assertState( "redoAll", expected .get( end ), state( realized, selection ) );
+	}
+
+	private void perform( EditHistory history, UndoableEdit edit, RealizedModel realized, Selection selection, List<List<Object>> expected ) throws Failure
+	{
+		edit .perform();
+		history .addEdit( edit, null );
+		expected .add( state( realized, selection ) );
+	}
+
+	// the selection in order, then the state of every manifestation seen so far, by identity
+	private List<Object> state( RealizedModel realized, Selection selection )
+	{
+		for ( Manifestation m : realized ) {
+			boolean known = false;
+			for ( Manifestation other : this .seen )
+				known |= other == m;
+			if ( ! known )
+				this .seen .add( m );
+		}
+		List<Object> state = new ArrayList<>();
+		state .add( Arrays .asList( selection .getState() ) );
+		for ( Manifestation m : this .seen )
+			state .add( ManifestationState .of( realized, m ) );
+		return state;
+	}
+
+	// manifestations seen only after the expected state was taken must not have been touched yet
+	private static void assertState( String message, List<Object> expected, List<Object> actual )
+	{
+		assertEquals( message, expected, actual .subList( 0, expected .size() ) );
+		for ( Object later : actual .subList( expected .size(), actual .size() ) )
+			assertEquals( message, ManifestationState .FRESH, later );
+	}
+}
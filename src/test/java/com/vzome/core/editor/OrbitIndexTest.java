@@ -0,0 +1,88 @@
+package com.vzome.core.editor;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Properties;
+
+import org.junit.Test;
+
+import com.vzome.core.algebra.AlgebraicField;
+import com.vzome.core.algebra.AlgebraicNumber;
+import com.vzome.core.algebra.AlgebraicVector;
+import com.vzome.core.algebra.PentagonField;
+import com.vzome.core.commands.Command.Failure;
+import com.vzome.core.math.Projection;
+import com.vzome.core.math.symmetry.Axis;
+import com.vzome.core.math.symmetry.Direction;
+import com.vzome.core.math.symmetry.IcosahedralSymmetry;
+import com.vzome.core.math.symmetry.OctahedralSymmetry;
+import com.vzome.core.math.symmetry.Symmetry;
+import com.vzome.core.model.RealizedModel;
+import com.vzome.core.model.Strut;
+import com.vzome.core.render.Colors;
+import com.vzome.core.render.Shapes;
+
+public class OrbitIndexTest {
+
+	@Test
+	public void testOrbitIndex() throws Failure
+	{
+		AlgebraicField field = new PentagonField();
+		RealizedModel realized = new RealizedModel( field, new Projection .Default( field ) );
+		SymmetrySystem icosa = new SymmetrySystem( null, new IcosahedralSymmetry( field, "solid connectors" ),
+				new Colors( new Properties() ), new ArrayList<Shapes>(), true );
+		Direction blue = icosa .getOrbits() .getDirection( "blue" );
+		Axis axis = blue .getAxis( Symmetry.PLUS, 0 );
+		Axis other = blue .getAxis( Symmetry.PLUS, 1 );
+		AlgebraicVector origin = field .origin( 3 );
+		AlgebraicVector unit = axis .normal();
+
+		Strut s1 = new Strut( origin, unit );
+		Strut s2 = new Strut( unit, unit .scale( field .createRational( 3 ) ) );
+		Strut s3 = new Strut( unit .scale( field .createRational( 2 ) ), unit );
+		Strut s4 = new Strut( origin, other .normal() );
+		realized .add( s1 );
+		realized .add( s2 );
+		realized .add( s3 );
+		realized .add( s4 );
+
+		OrbitIndex index = OrbitIndex .of( realized, icosa );
+		Axis opposite = blue .getAxis( Symmetry.MINUS, 0 );
+		assertEquals( Arrays .asList( s1, s2, s3 ), index .inZones( axis, opposite ) );
+		assertEquals( Arrays .asList( s3 ), index .inZones( opposite ) );
+		AlgebraicNumber length = axis .getLength( unit );
+		assertEquals( Arrays .asList( s1, s3, s4 ), index .withLength( blue, length ) );
+
+		// kept up to date once built
+		Strut s5 = new Strut( other .normal(), other .normal() .scale( field .createRational( 2 ) ) );
+		realized .add( s5 );
+		realized .remove( s1 );
+		assertEquals( Arrays .asList( s3, s4, s5 ), index .withLength( blue, length ) );
+		assertEquals( Arrays .asList( s2, s3 ), index .inZones( axis, opposite ) );
+
+		// an off-symmetry strut gets its anonymous orbit when a query comes, not when it is added
+		int orbits = icosa .getOrbits() .size();
+		Strut s6 = new Strut( origin, new AlgebraicVector( field .one(), field .createRational( 2 ), field .createRational( 7 ) ) );
+		realized .add( s6 );
+		assertEquals( orbits, icosa .getOrbits() .size() );
+		assertEquals( Arrays .asList( s3, s4, s5 ), index .withLength( blue, length ) );
+		assertEquals( orbits + 1, icosa .getOrbits() .size() );
+		realized .remove( s6 );
+
+		Selection selection = new Selection();
+		new SelectParallelStruts( icosa, selection, realized, s2 ) .perform();
+		assertEquals( 2, selection .size() );
+		assertTrue( selection .manifestationSelected( s2 ) );
+		assertTrue( selection .manifestationSelected( s3 ) );
+
+		// a different symmetry system gets the same index, rebuilt
+		SymmetrySystem octa = new SymmetrySystem( null, new OctahedralSymmetry( field, "blue", "trapezoids" ),
+				new Colors( new Properties() ), new ArrayList<Shapes>(), true );
+		assertSame( index, OrbitIndex .of( realized, octa ) );
+		assertTrue( index .withLength( blue, length ) .isEmpty() );
+		assertSame( index, OrbitIndex .of( realized, icosa ) );
+		assertEquals( Arrays .asList( s3, s4, s5 ), index .withLength( blue, length ) );
+	}
+}
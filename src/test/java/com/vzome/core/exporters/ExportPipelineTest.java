@@ -0,0 +1,98 @@
+package com.vzome.core.exporters;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.vzome.core.commands.Command;
+import com.vzome.core.editor.Application;
+import com.vzome.core.editor.DocumentModel;
+import com.vzome.core.render.RenderedManifestation;
+
+public class ExportPipelineTest {
+
+	// partslist and seg close the writer themselves
+	private static final String[] FORMATS = { "json", "stl", "stl-binary", "off", "glb", "partslist", "seg" };
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testParallelMatchesSingle() throws Exception
+	{
+		Application app = new Application( true, new Command.FailureChannel()
+		{
+			@Override
+			public void reportFailure( Command.Failure f )
+			{
+				fail( f .getMessage() );
+			}
+		}, null );
+		DocumentModel doc;
+		try ( InputStream bytes = getClass() .getResourceAsStream( "/com/vzome/core/parts/tiny/blue.vZome" ) ) {
+			doc = app .loadDocument( bytes, false, false );
+		}
+
+		ExportPipeline sequential = new ExportPipeline( doc, 600, 800 );
+		ExportPipeline parallel = new ExportPipeline( doc, 600, 800 );
+		File[] seqFiles = new File[ FORMATS.length ], parFiles = new File[ FORMATS.length ];
+		for ( int i = 0; i < FORMATS.length; i++ ) {
+			seqFiles[ i ] = folder .newFile( "seq." + FORMATS[ i ] );
+			parFiles[ i ] = folder .newFile( "par." + FORMATS[ i ] );
+			sequential .add( exporter( app, FORMATS[ i ] ), seqFiles[ i ] );
+			parallel .add( exporter( app, FORMATS[ i ] ), parFiles[ i ] );
+		}
+
+		int instances = 0;
+		for ( RenderedManifestation rm : sequential .getSnapshot() ) {
+			assertSame( rm, sequential .getSnapshot() .getInstance( instances ) );
+			++ instances;
+		}
+		assertTrue( instances > 1 );
+
+		assertArrayEquals( new Exception[ FORMATS.length ], sequential .run( null ) );
+		ExecutorService executor = Executors .newFixedThreadPool( FORMATS.length );
+		try {
+			assertArrayEquals( new Exception[ FORMATS.length ], parallel .run( executor ) );
+		} finally {
+			executor .shutdown();
+		}
+
+		for ( int i = 0; i < FORMATS.length; i++ ) {
+			byte[] expected = Files .readAllBytes( seqFiles[ i ] .toPath() );
+			// the struts of this model are hidden, so seg has nothing to write
+			assertTrue( FORMATS[ i ], expected.length > 0 || "seg" .equals( FORMATS[ i ] ) );
+			assertArrayEquals( FORMATS[ i ], expected, Files .readAllBytes( parFiles[ i ] .toPath() ) );
+
+			// an export without a shared snapshot walks the model itself, to the same result
+			AbstractExporter3d exporter = exporter( app, FORMATS[ i ] );
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			if ( exporter instanceof BinaryExporter3d )
+				( (BinaryExporter3d) exporter ) .doExport( doc, Channels .newChannel( out ) );
+			else
+				try ( Writer writer = new OutputStreamWriter( out, StandardCharsets.UTF_8 ) ) {
+					( (Exporter3d) exporter ) .doExport( doc, seqFiles[ i ], folder .getRoot(), writer, 600, 800 );
+				}
+			assertArrayEquals( FORMATS[ i ], expected, out .toByteArray() );
+		}
+	}
+
+	private static AbstractExporter3d exporter( Application app, String format )
+	{
+		AbstractExporter3d exporter = app .getExporter( format );
+		return exporter != null? exporter : app .getBinaryExporter( format );
+	}
+}
@@ -0,0 +1,144 @@
+package com.vzome.core.exporters;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+import com.vzome.core.algebra.AlgebraicField;
+import com.vzome.core.algebra.AlgebraicMatrix;
+import com.vzome.core.algebra.PentagonField;
+import com.vzome.core.commands.Command;
+import com.vzome.core.editor.Application;
+import com.vzome.core.editor.DocumentModel;
+import com.vzome.core.math.RealVector;
+import com.vzome.core.math.Polyhedron;
+import com.vzome.core.math.symmetry.IcosahedralSymmetry;
+import com.vzome.core.math.symmetry.Symmetry;
+import com.vzome.core.render.Shapes;
+import com.vzome.core.render.RenderedManifestation;
+
+public class GltfExporterTest {
+
+	@Test
+	public void testQuaternions()
+	{
+		IcosahedralSymmetry symm = new IcosahedralSymmetry( new PentagonField(), null );
+		for ( int i = 0; i < symm .getChiralOrder(); i++ ) {
+			AlgebraicMatrix matrix = symm .getMatrix( i );
+			double[] m = new double[ 9 ];
+			for ( int r = 0; r < 3; r++ )
+				for ( int c = 0; c < 3; c++ )
+					m[ 3 * r + c ] = matrix .getElement( r, c ) .evaluate();
+			float[] q = GltfExporter .quaternion( m );
+			double x = q[0], y = q[1], z = q[2], w = q[3];
+			double[] rotation = {
+				1 - 2*(y*y + z*z), 2*(x*y - z*w), 2*(x*z + y*w),
+				2*(x*y + z*w), 1 - 2*(x*x + z*z), 2*(y*z - x*w),
+				2*(x*z - y*w), 2*(y*z + x*w), 1 - 2*(x*x + y*y) };
+			assertArrayEquals( "orientation " + i, m, rotation, 1e-6 );
+		}
+	}
+
+	@Test
+	public void testNormalsFollowWinding()
+	{
+		Application app = new Application( true, null, null );
+		AlgebraicField field = app .getField( "golden" );
+		Symmetry symm = field .getSymmetry( "icosahedral" );
+		Shapes shapes = app .getGeometry( symm, "solid connectors" );
+		for ( String orbit : new String[]{ "blue", "yellow", "red", "green" } ) {
+			Polyhedron strut = shapes .getStrutShape( symm .getDirection( orbit ), field .one() );
+			// a mirrored strut is built inverted, and must still face the way its triangles wind
+			for ( boolean inverted : new boolean[]{ false, true } ) {
+				GltfExporter.Mesh mesh = new GltfExporter.Mesh( strut, false, inverted );
+				float[] p = mesh .positions, n = mesh .normals;
+				assertTrue( mesh .indices.length > 0 );
+				for ( int t = 0; t < mesh .indices.length; t += 3 ) {
+					int a = 3 * mesh .indices[ t ], b = 3 * mesh .indices[ t + 1 ], c = 3 * mesh .indices[ t + 2 ];
+					RealVector edge1 = new RealVector( p[b] - p[a], p[b+1] - p[a+1], p[b+2] - p[a+2] );
+					RealVector edge2 = new RealVector( p[c] - p[b], p[c+1] - p[b+1], p[c+2] - p[b+2] );
+					RealVector winding = edge1 .cross( edge2 );
+					for ( int v : new int[]{ a, b, c } )
+						assertTrue( orbit + ( inverted? " inverted" : "" ) + ", triangle " + t / 3, winding .dot( new RealVector( n[v], n[v+1], n[v+2] ) ) > 0 );
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testGlb() throws Exception
+	{
+		Application app = new Application( true, new Command.FailureChannel()
+		{
+			@Override
+			public void reportFailure( Command.Failure f )
+			{
+				fail( f .getMessage() );
+			}
+		}, null );
+		DocumentModel doc = load( app );
+		BinaryExporter3d exporter = app .getBinaryExporter( "glb" );
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		exporter .doExport( doc, Channels .newChannel( out ) );
+		ByteBuffer glb = ByteBuffer .wrap( out .toByteArray() ) .order( ByteOrder.LITTLE_ENDIAN );
+
+		assertEquals( 0x46546C67, glb .getInt( 0 ) );
+		assertEquals( 2, glb .getInt( 4 ) );
+		assertEquals( glb .limit(), glb .getInt( 8 ) );
+		int jsonLength = glb .getInt( 12 );
+		assertEquals( 0, jsonLength % 4 );
+		assertEquals( 0x4E4F534A, glb .getInt( 16 ) );
+		String json = new String( out .toByteArray(), 20, jsonLength, StandardCharsets.UTF_8 );
+		int bin = 28 + jsonLength;
+		assertEquals( glb .limit() - bin, glb .getInt( bin - 8 ) );
+		assertEquals( 0x004E4942, glb .getInt( bin - 4 ) );
+		assertTrue( json .contains( "\"buffers\":[{\"byteLength\":" + ( glb .limit() - bin ) + "}]" ) );
+
+		// every instance translation is the location of a rendered manifestation
+		Set<String> expected = new HashSet<>();
+		int rendered = 0;
+		for ( RenderedManifestation rm : doc .getRenderedModel() ) {
+			RealVector loc = rm .getLocation();
+			expected .add( String .format( "%.4f %.4f %.4f", (float) loc.x, (float) loc.y, (float) loc.z ) );
+			++ rendered;
+		}
+		assertTrue( rendered > 1 );
+		Matcher views = Pattern .compile( "\\{\"buffer\":0,\"byteOffset\":(\\d+),\"byteLength\":(\\d+)" ) .matcher( json );
+		Matcher translations = Pattern .compile( "\"TRANSLATION\":(\\d+)" ) .matcher( json );
+		int[] offsets = new int[ 6 * rendered ];
+		int numViews = 0;
+		while ( views .find() )
+			offsets[ numViews++ ] = Integer .parseInt( views .group( 1 ) );
+		int instances = 0;
+		while ( translations .find() ) {
+			// each accessor has the bufferView of the same index
+			int view = Integer .parseInt( translations .group( 1 ) );
+			int start = bin + offsets[ view ];
+			int end = view + 1 < numViews? bin + offsets[ view + 1 ] : glb .limit();
+			for ( int i = start; i < end; i += 12 ) {
+				String location = String .format( "%.4f %.4f %.4f", glb .getFloat( i ), glb .getFloat( i + 4 ), glb .getFloat( i + 8 ) );
+				assertTrue( location, expected .contains( location ) );
+				++ instances;
+			}
+		}
+		assertEquals( rendered, instances );
+	}
+
+	private DocumentModel load( Application app ) throws Exception
+	{
+		try ( InputStream bytes = getClass() .getResourceAsStream( "/com/vzome/core/parts/tiny/blue.vZome" ) ) {
+			return app .loadDocument( bytes, false, false );
+		}
+	}
+}
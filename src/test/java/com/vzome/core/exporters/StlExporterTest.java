@@ -0,0 +1,66 @@
+package com.vzome.core.exporters;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+import com.vzome.core.commands.Command;
+import com.vzome.core.editor.Application;
+import com.vzome.core.editor.DocumentModel;
+
+public class StlExporterTest {
+
+	@Test
+	public void testBinaryMatchesAscii() throws Exception
+	{
+		Application app = new Application( true, new Command.FailureChannel()
+		{
+			@Override
+			public void reportFailure( Command.Failure f )
+			{
+				fail( f .getMessage() );
+			}
+		}, null );
+		DocumentModel doc;
+		try ( InputStream bytes = getClass() .getResourceAsStream( "/com/vzome/core/parts/tiny/blue.vZome" ) ) {
+			doc = app .loadDocument( bytes, false, false );
+		}
+
+		Exporter3d ascii = app .getExporter( "stl" );
+		assertNull( app .getBinaryExporter( "stl" ) );
+		StringWriter text = new StringWriter();
+		ascii .doExport( doc, null, null, text, 1080, 1920 );
+		List<Float> expected = new ArrayList<>();
+		Matcher numbers = Pattern .compile( "-?[0-9.]+E-?[0-9]+" ) .matcher( text .toString() );
+		while ( numbers .find() )
+			expected .add( Float .parseFloat( numbers .group() ) );
+
+		assertNull( app .getExporter( "stl-binary" ) );
+		BinaryExporter3d binary = app .getBinaryExporter( "stl-binary" );
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		binary .doExport( doc, Channels .newChannel( out ) );
+		ByteBuffer stl = ByteBuffer .wrap( out .toByteArray() ) .order( ByteOrder.LITTLE_ENDIAN );
+
+		int facets = stl .getInt( 80 );
+		assertTrue( facets > 0 );
+		assertEquals( 12 * facets, expected .size() );
+		assertEquals( 84 + 50 * facets, stl .limit() );
+		stl .position( 84 );
+		for ( int i = 0; i < facets; i++ ) {
+			for ( int j = 0; j < 12; j++ )
+				assertEquals( expected .get( 12 * i + j ), stl .getFloat(), 1e-5 );
+			assertEquals( 0, stl .getShort() );
+		}
+	}
+}
@@ -0,0 +1,116 @@
+package com.vzome.core.math;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class DecimalWriterTest {
+
+	private static final double[] EDGES = {
+		0d, -0d, 1d, -1d, 0.5, 1.5, 2.5, -2.5, 0.125, 0.375, 0.15, 0.25, 0.35, 1.005, 2.675,
+		9.9999999, 99.99995, 0.00001, -0.00001, 1e-9, 123456789.123, 1e20, 1.0E-5, 5e-5, 4.9999e-5,
+		0.1 + 0.2, Math.PI, -Math.E, Double.MIN_VALUE, 1.7976931348623157E308, 6.02214076E23
+	};
+
+	@Test
+	public void testDecimal()
+	{
+		DecimalWriter writer = new DecimalWriter();
+		Random random = new Random( 42 );
+		for ( int max : new int[]{ 0, 1, 3, 4, 5, 6, 8, 16 } ) {
+			NumberFormat format = NumberFormat .getNumberInstance( Locale .US );
+			format .setGroupingUsed( false );
+			format .setMaximumFractionDigits( max );
+			for ( double value : EDGES )
+				assertEquals( expected( format, value ), writer .appendDecimal( new StringBuilder(), value, max ) .toString() );
+			for ( int i = 0; i < 20000; i++ ) {
+				double value = randomValue( random );
+				assertEquals( expected( format, value ), writer .appendDecimal( new StringBuilder(), value, max ) .toString() );
+			}
+		}
+		NumberFormat format = NumberFormat .getNumberInstance( Locale .US );
+		format .setGroupingUsed( false );
+		format .setMaximumFractionDigits( 5 );
+		format .setMinimumFractionDigits( 1 );
+		for ( double value : EDGES )
+			assertEquals( expected( format, value ), writer .appendDecimal( new StringBuilder(), value, 1, 5 ) .toString() );
+	}
+
+	@Test
+	public void testFixed() throws Exception
+	{
+		DecimalWriter writer = new DecimalWriter();
+		DecimalFormat format = new DecimalFormat( "0.0000", DecimalFormatSymbols .getInstance( Locale .US ) );
+		Random random = new Random( 7 );
+		for ( double value : EDGES )
+			assertEquals( expected( format, value ), writer .appendFixed( new StringBuilder(), value, 4 ) .toString() );
+		for ( int i = 0; i < 20000; i++ ) {
+			double value = randomValue( random );
+			StringWriter out = new StringWriter();
+			writer .writeFixed( out, value, 4 );
+			assertEquals( expected( format, value ), out .toString() );
+		}
+	}
+
+	@Test
+	public void testScientific() throws Exception
+	{
+		DecimalWriter writer = new DecimalWriter();
+		DecimalFormat format = new DecimalFormat( "0.000000E00", DecimalFormatSymbols .getInstance( Locale .US ) );
+		Random random = new Random( 11 );
+		for ( double value : EDGES )
+			assertEquals( expected( format, value ), writer .appendScientific( new StringBuilder(), value, 6 ) .toString() );
+		for ( int i = 0; i < 20000; i++ ) {
+			double value = randomValue( random );
+			StringWriter out = new StringWriter();
+			writer .writeScientific( out, value, 6 );
+			assertEquals( expected( format, value ), out .toString() );
+		}
+	}
+
+	/**
+	 * DecimalFormat rounds the shortest decimal digits of a double, and sometimes
+	 * misjudges a tie in them; DecimalWriter rounds the exact binary value.
+	 */
+	private static String expected( NumberFormat format, double value )
+	{
+		if ( value == 0d || Double .isInfinite( value ) )
+			return format .format( value );
+		BigDecimal shortest = new BigDecimal( Double .toString( value ) );
+		boolean tie;
+		if ( ( (DecimalFormat) format ) .toPattern() .contains( "E" ) ) {
+			int precision = format .getMaximumFractionDigits() + 1;
+			tie = ! shortest .round( new MathContext( precision, RoundingMode.HALF_UP ) )
+					.equals( shortest .round( new MathContext( precision, RoundingMode.HALF_DOWN ) ) );
+		}
+		else {
+			int scale = format .getMaximumFractionDigits();
+			tie = shortest .setScale( scale, RoundingMode.HALF_UP ) .compareTo( shortest .setScale( scale, RoundingMode.HALF_DOWN ) ) != 0;
+		}
+		return format .format( tie? new BigDecimal( value ) : value );
+	}
+
+	private static double randomValue( Random random )
+	{
+		switch ( random .nextInt( 3 ) ) {
+		case 0:
+			// short decimals, where ties are common
+			return ( random .nextInt( 2000001 ) - 1000000 ) / 1000.0;
+		case 1:
+			return ( random .nextDouble() - 0.5 ) * Math .pow( 10, random .nextInt( 24 ) - 12 );
+		default:
+			double value = Double .longBitsToDouble( random .nextLong() );
+			return Double .isNaN( value )? 0d : value;
+		}
+	}
+}
@@ -0,0 +1,115 @@
+package com.vzome.core.model;
+
+import com.vzome.core.algebra.AlgebraicField;
+import com.vzome.core.algebra.AlgebraicVector;
+import com.vzome.core.algebra.PentagonField;
+import com.vzome.core.construction.Construction;
+import com.vzome.core.construction.FreePoint;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertNull;
+import static junit.framework.TestCase.assertSame;
+import static junit.framework.TestCase.assertTrue;
+import static junit.framework.TestCase.fail;
+import org.junit.Test;
+
+public class ManifestationSetTest {
+
+    @Test
+    public void testManifestationSet() {
+        AlgebraicField field = new PentagonField();
+        AlgebraicVector origin = field.origin( 3 );
+        AlgebraicVector x = field.basisVector( 3, AlgebraicVector.X );
+        ManifestationSet set = new ManifestationSet();
+
+        Strut strut = new Strut( origin, x );
+        Connector ball = new Connector( x );
+        assertNull( set.putIfAbsent( strut ) );
+        assertTrue( set.add( ball ) );
+        // an equal probe finds the member, not itself
+        Strut reversed = new Strut( x, origin );
+        assertSame( strut, set.get( reversed ) );
+        assertSame( strut, set.putIfAbsent( reversed ) );
+        assertFalse( set.add( new Connector( x ) ) );
+        assertEquals( 2, set.size() );
+
+        assertSame( strut, set.removeEqual( reversed ) );
+        assertFalse( set.contains( strut ) );
+        assertTrue( set.add( strut ) );
+        assertEquals( Arrays.asList( ball, strut ), new ArrayList<>( set ) );
+    }
+
+    @Test
+    public void testGrowthAndHoles() {
+        AlgebraicField field = new PentagonField();
+        AlgebraicVector x = field.basisVector( 3, AlgebraicVector.X );
+        ManifestationSet set = new ManifestationSet( 4 );
+        List<Connector> expected = new ArrayList<>();
+        for ( int i = 0; i < 1000; i++ ) {
+            Connector ball = new Connector( x.scale( field.createRational( i ) ) );
+            set.add( ball );
+            expected.add( ball );
+            // churn, so holes and tombstones must be squeezed out as the set grows
+            if ( i % 3 == 0 ) {
+                assertTrue( set.remove( new Connector( x.scale( field.createRational( i ) ) ) ) );
+                expected.remove( ball );
+            }
+        }
+        assertEquals( expected.size(), set.size() );
+        assertEquals( expected, new ArrayList<>( set ) );
+        for ( Connector ball : expected )
+            assertSame( ball, set.get( new Connector( ball.getLocation() ) ) );
+
+        Iterator<Manifestation> it = set.iterator();
+        while ( it.hasNext() )
+            if ( ( (Connector) it.next() ).getLocation().getComponent( AlgebraicVector.X ).evaluate() < 500 )
+                it.remove();
+        assertEquals( 333, set.size() );
+
+        it = set.iterator();
+        it.next();
+        set.add( new Connector( field.origin( 3 ) ) );
+        try {
+            it.next();
+            fail( "expected ConcurrentModificationException" );
+        } catch ( ConcurrentModificationException e ) {
+        }
+
+        set.clear();
+        assertTrue( set.isEmpty() );
+        assertFalse( set.iterator().hasNext() );
+    }
+
+    @Test
+    public void testConstructions() {
+        AlgebraicField field = new PentagonField();
+        Connector ball = new Connector( field.origin( 3 ) );
+        assertTrue( ball.isUnnecessary() );
+        assertFalse( ball.getConstructions().hasNext() );
+
+        Construction c1 = new FreePoint( field.origin( 3 ) );
+        Construction c2 = new FreePoint( field.origin( 3 ) );
+        ball.addConstruction( c1 );
+        ball.addConstruction( c1 );
+        assertEquals( Arrays.asList( c1 ), toList( ball.getConstructions() ) );
+        ball.addConstruction( c2 );
+        assertEquals( Arrays.asList( c1, c2 ), toList( ball.getConstructions() ) );
+        assertFalse( ball.isUnnecessary() );
+
+        ball.removeConstruction( c1 );
+        assertEquals( Arrays.asList( c2 ), toList( ball.getConstructions() ) );
+        ball.removeConstruction( c2 );
+        assertTrue( ball.isUnnecessary() );
+    }
+
+    private static List<Construction> toList( Iterator<Construction> constructions ) {
+        List<Construction> list = new ArrayList<>();
+        constructions.forEachRemaining( list::add );
+        return list;
+    }
+}
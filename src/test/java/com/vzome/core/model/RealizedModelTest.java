@@ -0,0 +1,112 @@
+package com.vzome.core.model;
+
+import com.vzome.core.algebra.AlgebraicField;
+import com.vzome.core.algebra.AlgebraicVector;
+import com.vzome.core.algebra.PentagonField;
+import com.vzome.core.construction.FreePoint;
+import com.vzome.core.construction.Point;
+import com.vzome.core.construction.PolygonFromVertices;
+import com.vzome.core.construction.SegmentJoiningPoints;
+import com.vzome.core.math.Projection;
+import java.util.Arrays;
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertNull;
+import static junit.framework.TestCase.assertSame;
+import static junit.framework.TestCase.assertTrue;
+import org.junit.Test;
+
+public class RealizedModelTest {
+
+    @Test
+    public void testLocationIndex() {
+        AlgebraicField field = new PentagonField();
+        RealizedModel model = new RealizedModel( field, new Projection.Default( field ) );
+        AlgebraicVector origin = field.origin( 3 );
+        AlgebraicVector x = field.basisVector( 3, AlgebraicVector.X );
+        AlgebraicVector y = field.basisVector( 3, AlgebraicVector.Y );
+
+        Connector b1 = new Connector( x );
+        Strut s1 = new Strut( origin, x );
+        Connector b0 = new Connector( origin );
+        Strut s2 = new Strut( y, origin );
+        Panel panel = new Panel( Arrays.asList( origin, x, y ) );
+        model.add( b1 );
+        model.add( s1 );
+        model.add( b0 );
+        model.add( s2 );
+        model.add( panel );
+
+        assertSame( b0, model.connectorAt( origin ) );
+        assertNull( model.connectorAt( y ) );
+        assertEquals( Arrays.asList( s1, s2 ), model.incidentStruts( origin ) );
+        assertEquals( Arrays.asList( s2 ), model.incidentStruts( y ) );
+        assertEquals( Arrays.asList( panel ), model.incidentPanels( y ) );
+        assertEquals( Arrays.asList( s1, b0, s2, panel ), Arrays.asList( model.manifestationsAt( origin ).toArray() ) );
+        // model order, not argument order
+        assertEquals( Arrays.asList( b1, b0 ), model.connectorsAt( origin, x ) );
+
+        // an equal strut, reversed, removes the original
+        model.remove( new Strut( x, origin ) );
+        assertEquals( Arrays.asList( s2 ), model.incidentStruts( origin ) );
+        assertTrue( model.incidentStruts( x ).isEmpty() );
+        model.remove( panel );
+        assertTrue( model.manifestationsAt( y ).contains( s2 ) );
+        assertTrue( model.incidentPanels( origin ).isEmpty() );
+
+        // adding again puts it last
+        model.add( s1 );
+        assertEquals( Arrays.asList( s2, s1 ), model.incidentStruts( origin ) );
+    }
+
+    @Test
+    public void testLineIndex() {
+        AlgebraicField field = new PentagonField();
+        RealizedModel model = new RealizedModel( field, new Projection.Default( field ) );
+        AlgebraicVector origin = field.origin( 3 );
+        AlgebraicVector p = field.basisVector( 3, AlgebraicVector.X ).plus( field.basisVector( 3, AlgebraicVector.Y ) );
+        AlgebraicVector d = new AlgebraicVector( field.createPower( 1 ), field.createRational( -1 ), field.createRational( 1, 2 ) );
+
+        Strut s1 = new Strut( p, p.plus( d ) );
+        Strut s2 = new Strut( p.plus( d.scale( field.createPower( 3 ) ) ), p.minus( d ) );
+        Strut parallel = new Strut( origin, d );
+        model.add( s1 );
+        model.add( s2 );
+        model.add( parallel );
+
+        LineIndex index = LineIndex.of( model );
+        assertSame( index, LineIndex.of( model ) );
+        AlgebraicVector q = p.plus( d.scale( field.createRational( -7, 3 ) ) );
+        assertEquals( Arrays.asList( s1, s2 ), index.collinearStruts( q, p ) );
+        assertEquals( Arrays.asList( parallel ), index.collinearStruts( d.scale( field.createRational( 5 ) ), origin ) );
+        assertTrue( index.collinearStruts( origin, p ).isEmpty() );
+
+        model.remove( s1 );
+        assertEquals( Arrays.asList( s2 ), index.collinearStruts( p, q ) );
+    }
+
+    @Test
+    public void testConstructionProbe() {
+        AlgebraicField field = new PentagonField();
+        RealizedModel model = new RealizedModel( field, new Projection.Default( field ) );
+        Point origin = new FreePoint( field.origin( 3 ) );
+        Point x = new FreePoint( field.basisVector( 3, AlgebraicVector.X ) );
+        Point y = new FreePoint( field.basisVector( 3, AlgebraicVector.Y ) );
+
+        Manifestation ball = model.findConstruction( origin );
+        assertNull( model.getManifestation( origin ) );
+        model.add( ball );
+        assertSame( ball, model.findConstruction( new FreePoint( field.origin( 3 ) ) ) );
+        assertSame( ball, model.getManifestation( origin ) );
+
+        Manifestation strut = model.findConstruction( new SegmentJoiningPoints( origin, x ) );
+        model.add( strut );
+        assertSame( strut, model.getManifestation( new SegmentJoiningPoints( x, origin ) ) );
+        assertNull( model.getManifestation( new SegmentJoiningPoints( y, origin ) ) );
+        assertNull( model.findConstruction( new SegmentJoiningPoints( x, new FreePoint( x.getLocation() ) ) ) );
+
+        Manifestation panel = model.findConstruction( new PolygonFromVertices( new Point[]{ origin, x, y } ) );
+        model.add( panel );
+        assertSame( panel, model.removeConstruction( new PolygonFromVertices( new Point[]{ y, origin, x } ) ) );
+        assertNull( model.getManifestation( new PolygonFromVertices( new Point[]{ y, origin, new FreePoint( field.origin( 3 ).plus( y.getLocation() ) ) } ) ) );
+    }
+}
@@ -0,0 +1,164 @@
+package com.vzome.core.render;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.vzome.core.algebra.AlgebraicField;
+import com.vzome.core.algebra.AlgebraicVector;
+import com.vzome.core.algebra.PentagonField;
+import com.vzome.core.model.Connector;
+
+public class RenderedModelTest {
+
+	private final AlgebraicField field = new PentagonField();
+
+	@Test
+	public void testRenderChange()
+	{
+		RenderedModel from = new RenderedModel( field, (RenderedModel.OrbitSource) null );
+		RenderedModel to = new RenderedModel( field, (RenderedModel.OrbitSource) null );
+		for ( int i = 0; i < 40; i++ ) {
+			if ( i % 5 != 4 )
+				from .mRendered .add( ball( i, Color.WHITE, 0f ) );
+			if ( i % 5 != 0 ) {
+				Color color = ( i % 3 == 0 )? Color.BLACK : ( i % 7 == 0 )? null : Color.WHITE;
+				to .mRendered .add( ball( i, color, ( i % 4 == 0 )? 0.8f : 0f ) );
+			}
+		}
+
+		BatchRecorder batch = new BatchRecorder();
+		RenderedModel .renderChange( from, to, batch );
+		assertEquals( 1, batch .batches );
+		Recorder single = new Recorder();
+		RenderedModel .renderChange( from, to, single );
+
+		// what the quadratic comparison found
+		Set<String> expected = new HashSet<>();
+		for ( RenderedManifestation rm : from ) {
+			if ( ! to .mRendered .contains( rm ) )
+				expected .add( "removed " + rm .getLocation() );
+			for ( RenderedManifestation other : to )
+				if ( rm .equals( other ) ) {
+					expected .add( "switched " + other .getLocation() );
+					if ( rm .getGlow() != other .getGlow() )
+						expected .add( "glow " + other .getLocation() );
+					// Color.equals( null ) is true, so the nulls are checked first
+					Color fromColor = rm .getColor(), toColor = other .getColor();
+					if ( ( fromColor == null || toColor == null )? fromColor != toColor : ! fromColor .equals( toColor ) )
+						expected .add( "color " + other .getLocation() );
+				}
+		}
+		for ( RenderedManifestation rm : to )
+			if ( ! from .mRendered .contains( rm ) )
+				expected .add( "added " + rm .getLocation() );
+
+		assertEquals( expected, new HashSet<>( single .events ) );
+		assertEquals( expected .size(), single .events .size() );
+		assertEquals( single .events, batch .events );
+		assertEquals( 8, single .count( "removed" ) );
+		assertEquals( 8, single .count( "added" ) );
+		assertEquals( 24, single .count( "switched" ) );
+		// from white to no color
+		assertTrue( single .events .contains( "color " + ball( 7, null, 0f ) .getLocation() ) );
+		assertTrue( single .events .contains( "color " + ball( 28, null, 0f ) .getLocation() ) );
+	}
+
+	private RenderedManifestation ball( int i, Color color, float glow )
+	{
+		AlgebraicVector location = field .basisVector( 3, AlgebraicVector.X ) .scale( field .createRational( i ) );
+		RenderedManifestation rm = new RenderedManifestation( new Connector( location ) );
+		rm .setOrientation( field .identityMatrix( 3 ), false );
+		rm .setColor( color );
+		rm .setGlow( glow );
+		return rm;
+	}
+
+	private static class Recorder implements RenderingChanges
+	{
+		final List<String> events = new ArrayList<>();
+
+		int count( String kind )
+		{
+			int count = 0;
+			for ( String event : this .events )
+				if ( event .startsWith( kind + " " ) )
+					++ count;
+			return count;
+		}
+
+		private void record( String kind, RenderedManifestation rm )
+		{
+			this .events .add( kind + " " + rm .getLocation() );
+		}
+
+		@Override
+		public void manifestationAdded( RenderedManifestation manifestation ) { record( "added", manifestation ); }
+
+		@Override
+		public void manifestationRemoved( RenderedManifestation manifestation ) { record( "removed", manifestation ); }
+
+		@Override
+		public void manifestationSwitched( RenderedManifestation from, RenderedManifestation to )
+		{
+			assertEquals( from, to );
+			record( "switched", to );
+		}
+
+		@Override
+		public void glowChanged( RenderedManifestation manifestation ) { record( "glow", manifestation ); }
+
+		@Override
+		public void colorChanged( RenderedManifestation manifestation ) { record( "color", manifestation ); }
+
+		@Override
+		public void reset() {}
+
+		@Override
+		public void locationChanged( RenderedManifestation manifestation ) {}
+
+		@Override
+		public void orientationChanged( RenderedManifestation manifestation ) {}
+
+		@Override
+		public void shapeChanged( RenderedManifestation manifestation ) {}
+
+		@Override
+		public void enableFrameLabels() {}
+
+		@Override
+		public void disableFrameLabels() {}
+	}
+
+	private static class BatchRecorder extends Recorder implements RenderingChanges.Batch
+	{
+		int batches = 0;
+
+		@Override
+		public void changesRendered( RenderedModel.Diff diff )
+		{
+			++ this .batches;
+			diff .replay( this );
+		}
+	}
+
+	@Test
+	public void testBatch()
+	{
+		RenderedModel from = new RenderedModel( field, (RenderedModel.OrbitSource) null );
+		RenderedModel to = new RenderedModel( field, (RenderedModel.OrbitSource) null );
+		from .mRendered .addAll( Arrays .asList( ball( 1, Color.WHITE, 0f ), ball( 2, Color.WHITE, 0f ) ) );
+		to .mRendered .addAll( Arrays .asList( ball( 2, Color.BLACK, 0f ), ball( 3, Color.WHITE, 0f ) ) );
+		BatchRecorder batch = new BatchRecorder();
+		RenderedModel .renderChange( from, to, batch );
+		assertEquals( 1, batch .batches );
+		assertEquals( 4, batch .events .size() );
+		assertEquals( 1, batch .count( "color" ) );
+	}
+}
@@ -0,0 +1,146 @@
+package com.vzome.servlet;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ExportToolTest {
+
+	private ExportTool tool;
+
+	@Before
+	public void start() throws IOException
+	{
+		this .tool = new ExportTool( 0, 2, 1 );
+		this .tool .start();
+	}
+
+	@After
+	public void stop()
+	{
+		this .tool .stop();
+	}
+
+	@Test
+	public void testCache() throws IOException
+	{
+		byte[] model = read( getClass() .getResourceAsStream( "/com/vzome/core/parts/tiny/blue.vZome" ) );
+
+		HttpURLConnection first = post( "/export?format=off", model );
+		assertEquals( 200, first .getResponseCode() );
+		assertEquals( "miss", first .getHeaderField( "X-vZome-Cache" ) );
+		String hash = first .getHeaderField( "X-vZome-Hash" );
+		assertEquals( 64, hash .length() );
+		String off = text( first .getInputStream() );
+		assertTrue( off .startsWith( "OFF" ) );
+
+		HttpURLConnection again = post( "/export?format=off", model );
+		assertEquals( "hit", again .getHeaderField( "X-vZome-Cache" ) );
+		assertEquals( off, text( again .getInputStream() ) );
+
+		HttpURLConnection other = get( "/export?format=json&hash=" + hash );
+		assertEquals( 200, other .getResponseCode() );
+		assertEquals( "hit", other .getHeaderField( "X-vZome-Cache" ) );
+		assertTrue( text( other .getInputStream() ) .contains( "\"instances\"" ) );
+
+		assertEquals( 400, get( "/export?format=nonesuch&hash=" + hash ) .getResponseCode() );
+		assertEquals( 404, get( "/export?format=off&hash=0123" ) .getResponseCode() );
+		assertEquals( 400, post( "/export?format=off", "<vZome>" .getBytes( StandardCharsets.UTF_8 ) ) .getResponseCode() );
+
+		// a different document evicts the first, from a cache of one
+		byte[] red = read( getClass() .getResourceAsStream( "/com/vzome/core/parts/tiny/red.vZome" ) );
+		HttpURLConnection evicting = post( "/export?format=off", red );
+		assertEquals( "miss", evicting .getHeaderField( "X-vZome-Cache" ) );
+		assertTrue( text( evicting .getInputStream() ) .startsWith( "OFF" ) );
+		assertEquals( 404, get( "/export?format=off&hash=" + hash ) .getResponseCode() );
+
+		String metrics = text( get( "/metrics" ) .getInputStream() );
+		assertTrue( metrics, metrics .contains( "cache.hits 2\n" ) );
+		assertTrue( metrics, metrics .contains( "cache.evictions 1\n" ) );
+		assertTrue( metrics, metrics .contains( "export.off.count 3\n" ) );
+		assertTrue( metrics, metrics .contains( "export.json.count 1\n" ) );
+	}
+
+	@Test
+	public void testExporterClosesWriter() throws IOException
+	{
+		byte[] model = read( getClass() .getResourceAsStream( "/com/vzome/core/parts/tiny/blue.vZome" ) );
+
+		// the parts list exporter closes its writer when it is done
+		HttpURLConnection parts = post( "/export?format=partslist", model );
+		assertEquals( 200, parts .getResponseCode() );
+		assertTrue( text( parts .getInputStream() ) .startsWith( "balls" ) );
+
+		String metrics = text( get( "/metrics" ) .getInputStream() );
+		assertTrue( metrics, metrics .contains( "errors 0\n" ) );
+		assertTrue( metrics, metrics .contains( "export.partslist.count 1\n" ) );
+	}
+
+	@Test
+	public void testBodyLimit() throws IOException
+	{
+		byte[] model = read( getClass() .getResourceAsStream( "/com/vzome/core/parts/tiny/blue.vZome" ) );
+		this .tool .stop();
+		this .tool = new ExportTool( 0, 2, 1, model.length - 1 );
+		this .tool .start();
+
+		// refused on the Content-Length
+		assertEquals( 413, post( "/export?format=off", model ) .getResponseCode() );
+
+		// refused while reading, with no Content-Length
+		HttpURLConnection chunked = get( "/export?format=off" );
+		chunked .setRequestMethod( "POST" );
+		chunked .setDoOutput( true );
+		chunked .setChunkedStreamingMode( 1024 );
+		try ( OutputStream out = chunked .getOutputStream() ) {
+			out .write( model );
+		}
+		assertEquals( 413, chunked .getResponseCode() );
+
+		// a smaller document is still read
+		assertEquals( 400, post( "/export?format=off", "<vZome>" .getBytes( StandardCharsets.UTF_8 ) ) .getResponseCode() );
+		String metrics = text( get( "/metrics" ) .getInputStream() );
+		assertTrue( metrics, metrics .contains( "errors 3\n" ) );
+	}
+
+	private HttpURLConnection get( String path ) throws IOException
+	{
+		return (HttpURLConnection) new URL( "http://localhost:" + this .tool .getPort() + path ) .openConnection();
+	}
+
+	private HttpURLConnection post( String path, byte[] body ) throws IOException
+	{
+		HttpURLConnection connection = get( path );
+		connection .setRequestMethod( "POST" );
+		connection .setDoOutput( true );
+		try ( OutputStream out = connection .getOutputStream() ) {
+			out .write( body );
+		}
+		return connection;
+	}
+
+	private static String text( InputStream in ) throws IOException
+	{
+		return new String( read( in ), StandardCharsets.UTF_8 );
+	}
+
+	private static byte[] read( InputStream in ) throws IOException
+	{
+		ByteArrayOutputStream buf = new ByteArrayOutputStream();
+		byte[] chunk = new byte[ 4096 ];
+		for ( int n = in .read( chunk ); n >= 0; n = in .read( chunk ) )
+			buf .write( chunk, 0, n );
+		in .close();
+		return buf .toByteArray();
+	}
+}